@@ -1,5 +1,7 @@
 package com.whaleal.icefrog.bloomfilter;
 
+import java.io.File;
+
 /**
  * 布隆过滤器工具
  *
@@ -30,4 +32,92 @@ public class BloomFilterUtil {
     public static BitMapBloomFilter createBitMap( int m ) {
         return new BitMapBloomFilter(m);
     }
+
+    /**
+     * 创建分块布隆过滤器，位数和Hash函数个数根据预计元素数和期望误判率计算
+     *
+     * @param expectedInsertions 预计加入的元素数
+     * @param fpp                期望的误判率，范围(0, 1)
+     * @return BlockedBloomFilter
+     * @since 1.1.8
+     */
+    public static BlockedBloomFilter createBlocked( long expectedInsertions, double fpp ) {
+        return new BlockedBloomFilter(expectedInsertions, fpp);
+    }
+
+    /**
+     * 创建线程安全的布隆过滤器，位数和Hash函数个数根据预计元素数和期望误判率计算
+     *
+     * @param expectedInsertions 预计加入的元素数
+     * @param fpp                期望的误判率，范围(0, 1)
+     * @return ConcurrentBloomFilter
+     * @since 1.1.8
+     */
+    public static ConcurrentBloomFilter createConcurrent( long expectedInsertions, double fpp ) {
+        return new ConcurrentBloomFilter(expectedInsertions, fpp);
+    }
+
+    /**
+     * 创建支持移除元素的计数布隆过滤器
+     *
+     * @param expectedInsertions 预计同时存在的元素数
+     * @param fpp                期望的误判率，范围(0, 1)
+     * @return CountingBloomFilter
+     * @since 1.1.8
+     */
+    public static CountingBloomFilter createCounting( long expectedInsertions, double fpp ) {
+        return new CountingBloomFilter(expectedInsertions, fpp);
+    }
+
+    /**
+     * 创建可伸缩布隆过滤器，元素增多时自动扩容并保持误判率不超过期望值
+     *
+     * @param initialCapacity 初始容量
+     * @param fpp             期望的误判率，范围(0, 1)
+     * @return ScalableBloomFilter
+     * @since 1.1.8
+     */
+    public static ScalableBloomFilter createScalable( long initialCapacity, double fpp ) {
+        return new ScalableBloomFilter(initialCapacity, fpp);
+    }
+
+    /**
+     * 创建基于内存映射文件的布隆过滤器，已存在的文件会被覆盖，重新打开已有文件使用{@link MappedBloomFilter#open(File)}
+     *
+     * @param file               文件
+     * @param expectedInsertions 预计加入的元素数
+     * @param fpp                期望的误判率，范围(0, 1)
+     * @return MappedBloomFilter
+     * @since 1.1.8
+     */
+    public static MappedBloomFilter createMapped( File file, long expectedInsertions, double fpp ) {
+        return MappedBloomFilter.create(file, expectedInsertions, fpp);
+    }
+
+    /**
+     * 计算达到期望误判率所需的位数：{@code m = -n * ln(p) / (ln2)^2}
+     *
+     * @param expectedInsertions 预计加入的元素数
+     * @param fpp                期望的误判率
+     * @return 位数
+     * @since 1.1.8
+     */
+    public static long optimalNumOfBits( long expectedInsertions, double fpp ) {
+        if (fpp == 0) {
+            fpp = Double.MIN_VALUE;
+        }
+        return (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+    }
+
+    /**
+     * 计算误判率最低时的Hash函数个数：{@code k = m / n * ln2}，最少为1
+     *
+     * @param expectedInsertions 预计加入的元素数
+     * @param bitSize            位数
+     * @return Hash函数个数
+     * @since 1.1.8
+     */
+    public static int optimalNumOfHashFunctions( long expectedInsertions, long bitSize ) {
+        return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
 }
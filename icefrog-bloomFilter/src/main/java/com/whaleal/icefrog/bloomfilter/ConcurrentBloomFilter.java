@@ -0,0 +1,289 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import com.whaleal.icefrog.bloomfilter.bitMap.AtomicLongMap;
+import com.whaleal.icefrog.core.io.IORuntimeException;
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.lang.hash.MurmurHash;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 线程安全的布隆过滤器，位数组为{@link AtomicLongMap}，多个线程可同时加入和查询而无需加锁<br>
+ * 每个元素计算一次128位的{@link MurmurHash}，通过双重Hash生成k个位置。<br>
+ * 位数和Hash函数个数相同的过滤器可以合并：
+ * <ul>
+ * <li>{@link #union(ConcurrentBloomFilter)}：并集，结果包含两个过滤器中的所有元素，与将所有元素加入同一个过滤器完全等价</li>
+ * <li>{@link #intersect(ConcurrentBloomFilter)}：交集，结果包含同时存在于两个过滤器中的元素，误判率高于直接构建</li>
+ * </ul>
+ * 通过{@link #writeTo(OutputStream)}和{@link #readFrom(InputStream)}以紧凑的二进制格式传输，
+ * 适合在多个节点上并行构建后汇总合并。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class ConcurrentBloomFilter implements BloomFilter {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 二进制格式的标识
+     */
+    private static final int MAGIC = 0x49434246;
+    /**
+     * 二进制格式的版本
+     */
+    private static final byte VERSION = 1;
+
+    private final AtomicLongMap bits;
+    private final long bitSize;
+    private final int hashFunctionNumber;
+
+    /**
+     * 构造，位数和Hash函数个数根据预计元素数和期望误判率计算
+     *
+     * @param expectedInsertions 预计加入的元素数
+     * @param fpp                期望的误判率，范围(0, 1)
+     */
+    public ConcurrentBloomFilter( long expectedInsertions, double fpp ) {
+        this(checkBitSize(expectedInsertions, fpp),
+                BloomFilterUtil.optimalNumOfHashFunctions(expectedInsertions, BloomFilterUtil.optimalNumOfBits(expectedInsertions, fpp)));
+    }
+
+    /**
+     * 构造
+     *
+     * @param bitSize            位数，向上取整到64的倍数
+     * @param hashFunctionNumber Hash函数个数
+     */
+    public ConcurrentBloomFilter( long bitSize, int hashFunctionNumber ) {
+        Precondition.isTrue(bitSize > 0, "Bit size must be greater than 0, but was {}", bitSize);
+        Precondition.isTrue(hashFunctionNumber > 0, "Hash function number must be greater than 0, but was {}", hashFunctionNumber);
+        final long longCount = (bitSize + Long.SIZE - 1) / Long.SIZE;
+        Precondition.isTrue(longCount <= Integer.MAX_VALUE, "Too many bits: {}", bitSize);
+        this.bits = new AtomicLongMap((int) longCount);
+        this.bitSize = longCount * Long.SIZE;
+        this.hashFunctionNumber = hashFunctionNumber;
+    }
+
+    private static long checkBitSize( long expectedInsertions, double fpp ) {
+        Precondition.isTrue(expectedInsertions > 0, "Expected insertions must be greater than 0, but was {}", expectedInsertions);
+        Precondition.isTrue(fpp > 0 && fpp < 1, "False positive probability must be in (0, 1), but was {}", fpp);
+        return BloomFilterUtil.optimalNumOfBits(expectedInsertions, fpp);
+    }
+
+    @Override
+    public boolean contains( String str ) {
+        return contains(StrUtil.bytes(str, CharsetUtil.CHARSET_UTF_8));
+    }
+
+    /**
+     * 判定是否包含指定数据
+     *
+     * @param data 数据
+     * @return 是否包含，存在误差
+     */
+    public boolean contains( byte[] data ) {
+        final long[] hash = MurmurHash.hash128(data);
+        long combined = hash[0];
+        for (int i = 0; i < hashFunctionNumber; i++) {
+            if (false == bits.contains((combined & Long.MAX_VALUE) % bitSize)) {
+                return false;
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    @Override
+    public boolean add( String str ) {
+        return add(StrUtil.bytes(str, CharsetUtil.CHARSET_UTF_8));
+    }
+
+    /**
+     * 加入数据，可被多个线程同时调用
+     *
+     * @param data 数据
+     * @return 是否有位发生变化，{@code false}表示数据可能已存在
+     */
+    public boolean add( byte[] data ) {
+        final long[] hash = MurmurHash.hash128(data);
+        long combined = hash[0];
+        boolean changed = false;
+        for (int i = 0; i < hashFunctionNumber; i++) {
+            changed |= bits.set((combined & Long.MAX_VALUE) % bitSize);
+            combined += hash[1];
+        }
+        return changed;
+    }
+
+    /**
+     * 合并另一个过滤器中的所有元素，合并后此过滤器包含两者的并集
+     *
+     * @param other 另一个过滤器，位数和Hash函数个数必须相同
+     * @return this
+     * @throws IllegalArgumentException 两个过滤器不兼容
+     */
+    public ConcurrentBloomFilter union( ConcurrentBloomFilter other ) throws IllegalArgumentException {
+        checkCompatible(other);
+        bits.or(other.bits);
+        return this;
+    }
+
+    /**
+     * 与另一个过滤器求交集，结果写入此过滤器
+     *
+     * @param other 另一个过滤器，位数和Hash函数个数必须相同
+     * @return this
+     * @throws IllegalArgumentException 两个过滤器不兼容
+     */
+    public ConcurrentBloomFilter intersect( ConcurrentBloomFilter other ) throws IllegalArgumentException {
+        checkCompatible(other);
+        bits.and(other.bits);
+        return this;
+    }
+
+    /**
+     * 两个过滤器是否可以合并，即位数和Hash函数个数是否都相同
+     *
+     * @param other 另一个过滤器
+     * @return 是否可以合并
+     */
+    public boolean isCompatible( ConcurrentBloomFilter other ) {
+        return bitSize == other.bitSize && hashFunctionNumber == other.hashFunctionNumber;
+    }
+
+    /**
+     * 清空过滤器
+     */
+    public void clear() {
+        bits.clear();
+    }
+
+    /**
+     * @return 位数
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * @return Hash函数个数
+     */
+    public int getHashFunctionNumber() {
+        return hashFunctionNumber;
+    }
+
+    /**
+     * 根据已置位的比例估算已加入的元素数：{@code n = -m / k * ln(1 - X / m)}
+     *
+     * @return 估算的元素数
+     */
+    public long approximateElementCount() {
+        final double bitCount = bits.bitCount();
+        return Math.round(-bitSize / (double) hashFunctionNumber * Math.log1p(-bitCount / bitSize));
+    }
+
+    /**
+     * 根据已置位的比例估算当前的误判率
+     *
+     * @return 当前误判率
+     */
+    public double getFalsePositiveProbability() {
+        return Math.pow((double) bits.bitCount() / bitSize, hashFunctionNumber);
+    }
+
+    // ---------------------------------------------------------------- serialize
+
+    /**
+     * 以二进制格式写出过滤器，格式为：标识(4) + 版本(1) + Hash函数个数(4) + long个数(4) + 位数组<br>
+     * 写出过程中并发加入的元素可能不被包含
+     *
+     * @param out 输出流，不会被关闭
+     * @throws IORuntimeException IO异常
+     */
+    public void writeTo( OutputStream out ) throws IORuntimeException {
+        final DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out));
+        try {
+            dout.writeInt(MAGIC);
+            dout.writeByte(VERSION);
+            dout.writeInt(hashFunctionNumber);
+            dout.writeInt(bits.size());
+            for (int i = 0; i < bits.size(); i++) {
+                dout.writeLong(bits.getLong(i));
+            }
+            dout.flush();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * 从{@link #writeTo(OutputStream)}写出的二进制数据中读取过滤器
+     *
+     * @param in 输入流，不会被关闭
+     * @return 过滤器
+     * @throws IORuntimeException IO异常或数据格式错误
+     */
+    public static ConcurrentBloomFilter readFrom( InputStream in ) throws IORuntimeException {
+        final DataInputStream din = new DataInputStream(in);
+        try {
+            final int magic = din.readInt();
+            final byte version = din.readByte();
+            if (MAGIC != magic || VERSION != version) {
+                throw new IORuntimeException(StrUtil.format("Invalid bloom filter data, magic: {}, version: {}",
+                        Integer.toHexString(magic), version));
+            }
+            final int hashFunctionNumber = din.readInt();
+            final int longCount = din.readInt();
+            if (hashFunctionNumber <= 0 || longCount <= 0) {
+                throw new IORuntimeException(StrUtil.format("Invalid bloom filter data, hash function number: {}, size: {}",
+                        hashFunctionNumber, longCount));
+            }
+            final ConcurrentBloomFilter filter = new ConcurrentBloomFilter((long) longCount * Long.SIZE, hashFunctionNumber);
+            for (int i = 0; i < longCount; i++) {
+                filter.bits.setLong(i, din.readLong());
+            }
+            return filter;
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * 转为二进制数据
+     *
+     * @return 二进制数据
+     * @see #writeTo(OutputStream)
+     */
+    public byte[] toBytes() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(13 + bits.size() * 8);
+        writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 从二进制数据中读取过滤器
+     *
+     * @param data 二进制数据
+     * @return 过滤器
+     * @throws IORuntimeException 数据格式错误
+     * @see #readFrom(InputStream)
+     */
+    public static ConcurrentBloomFilter fromBytes( byte[] data ) throws IORuntimeException {
+        return readFrom(new ByteArrayInputStream(data));
+    }
+
+    private void checkCompatible( ConcurrentBloomFilter other ) {
+        Precondition.isTrue(isCompatible(other),
+                "Bloom filters are not compatible, bit size: {} vs {}, hash function number: {} vs {}",
+                bitSize, other.bitSize, hashFunctionNumber, other.hashFunctionNumber);
+    }
+}
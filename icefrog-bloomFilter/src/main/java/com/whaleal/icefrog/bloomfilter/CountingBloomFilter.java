@@ -0,0 +1,199 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.lang.hash.MurmurHash;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+
+import java.util.Arrays;
+
+/**
+ * 计数布隆过滤器，支持移除元素<br>
+ * 每个位置使用4位计数器代替1个bit，16个计数器紧凑存放在一个long中，内存为同等位数的布隆过滤器的4倍。
+ * <ul>
+ * <li>加入时k个计数器各加1，移除时各减1，计数器全部大于0即视为存在</li>
+ * <li>计数器达到上限15后不再增减，避免溢出导致的漏判，代价是此位置永远不会归零</li>
+ * <li>只能移除确实加入过的元素，移除未加入的元素（包括误判的元素）会导致其它元素被漏判</li>
+ * </ul>
+ * 此类非线程安全。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class CountingBloomFilter implements BloomFilter {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 每个计数器的位数
+     */
+    private static final int COUNTER_BITS = 4;
+    /**
+     * 计数器的最大值，达到后不再变化
+     */
+    private static final long MAX_COUNT = (1L << COUNTER_BITS) - 1;
+    /**
+     * 每个long中的计数器个数
+     */
+    private static final int COUNTERS_PER_LONG = Long.SIZE / COUNTER_BITS;
+
+    private final long[] counters;
+    private final long counterSize;
+    private final int hashFunctionNumber;
+
+    /**
+     * 构造，计数器个数和Hash函数个数根据预计元素数和期望误判率计算
+     *
+     * @param expectedInsertions 预计同时存在的元素数
+     * @param fpp                期望的误判率，范围(0, 1)
+     */
+    public CountingBloomFilter( long expectedInsertions, double fpp ) {
+        Precondition.isTrue(expectedInsertions > 0, "Expected insertions must be greater than 0, but was {}", expectedInsertions);
+        Precondition.isTrue(fpp > 0 && fpp < 1, "False positive probability must be in (0, 1), but was {}", fpp);
+        final long counterSize = BloomFilterUtil.optimalNumOfBits(expectedInsertions, fpp);
+        final long longCount = (counterSize + COUNTERS_PER_LONG - 1) / COUNTERS_PER_LONG;
+        Precondition.isTrue(longCount <= Integer.MAX_VALUE, "Too many counters: {}", counterSize);
+
+        this.counters = new long[(int) longCount];
+        this.counterSize = longCount * COUNTERS_PER_LONG;
+        this.hashFunctionNumber = BloomFilterUtil.optimalNumOfHashFunctions(expectedInsertions, counterSize);
+    }
+
+    @Override
+    public boolean contains( String str ) {
+        return contains(hash(str));
+    }
+
+    /**
+     * 使用已计算好的Hash值判定是否包含
+     *
+     * @param hash 128位Hash值
+     * @return 是否包含，存在误差
+     */
+    private boolean contains( long[] hash ) {
+        long combined = hash[0];
+        for (int i = 0; i < hashFunctionNumber; i++) {
+            if (0 == get(index(combined))) {
+                return false;
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    /**
+     * 加入字符串，同一字符串可以加入多次，移除相同次数后才不再存在
+     *
+     * @param str 字符串
+     * @return 是否有计数器从0变为1，{@code false}表示字符串可能已存在
+     */
+    @Override
+    public boolean add( String str ) {
+        final long[] hash = hash(str);
+        long combined = hash[0];
+        boolean changed = false;
+        for (int i = 0; i < hashFunctionNumber; i++) {
+            final long index = index(combined);
+            final long count = get(index);
+            if (count < MAX_COUNT) {
+                set(index, count + 1);
+                changed |= (0 == count);
+            }
+            combined += hash[1];
+        }
+        return changed;
+    }
+
+    /**
+     * 移除字符串，字符串必须是之前加入过的
+     *
+     * @param str 字符串
+     * @return 是否移除，字符串不存在时返回{@code false}
+     */
+    public boolean remove( String str ) {
+        final long[] hash = hash(str);
+        if (false == contains(hash)) {
+            return false;
+        }
+        long combined = hash[0];
+        for (int i = 0; i < hashFunctionNumber; i++) {
+            final long index = index(combined);
+            final long count = get(index);
+            // 已饱和的计数器无法得知真实值，不再减少
+            if (count < MAX_COUNT) {
+                set(index, count - 1);
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    /**
+     * 估算字符串被加入的次数，即k个计数器中的最小值，结果不小于真实次数，最大为15
+     *
+     * @param str 字符串
+     * @return 估算的次数
+     */
+    public int count( String str ) {
+        final long[] hash = hash(str);
+        long combined = hash[0];
+        long min = MAX_COUNT;
+        for (int i = 0; i < hashFunctionNumber; i++) {
+            min = Math.min(min, get(index(combined)));
+            combined += hash[1];
+        }
+        return (int) min;
+    }
+
+    /**
+     * 清空过滤器
+     */
+    public void clear() {
+        Arrays.fill(counters, 0L);
+    }
+
+    /**
+     * @return 计数器个数
+     */
+    public long getCounterSize() {
+        return counterSize;
+    }
+
+    /**
+     * @return Hash函数个数
+     */
+    public int getHashFunctionNumber() {
+        return hashFunctionNumber;
+    }
+
+    /**
+     * @return 已饱和（达到15）的计数器个数，饱和的计数器越多，移除后残留的误判越多
+     */
+    public long saturatedCount() {
+        long count = 0;
+        for (long index = 0; index < counterSize; index++) {
+            if (MAX_COUNT == get(index)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long[] hash( String str ) {
+        return MurmurHash.hash128(StrUtil.bytes(str, CharsetUtil.CHARSET_UTF_8));
+    }
+
+    private long index( long combined ) {
+        return (combined & Long.MAX_VALUE) % counterSize;
+    }
+
+    private long get( long index ) {
+        final int shift = (int) (index % COUNTERS_PER_LONG) * COUNTER_BITS;
+        return (counters[(int) (index / COUNTERS_PER_LONG)] >>> shift) & MAX_COUNT;
+    }
+
+    private void set( long index, long count ) {
+        final int i = (int) (index / COUNTERS_PER_LONG);
+        final int shift = (int) (index % COUNTERS_PER_LONG) * COUNTER_BITS;
+        counters[i] = (counters[i] & ~(MAX_COUNT << shift)) | (count << shift);
+    }
+}
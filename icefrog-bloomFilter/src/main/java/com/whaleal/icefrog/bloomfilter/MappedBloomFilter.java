@@ -0,0 +1,396 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import com.whaleal.icefrog.core.io.FileUtil;
+import com.whaleal.icefrog.core.io.IORuntimeException;
+import com.whaleal.icefrog.core.io.IoUtil;
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.lang.hash.MurmurHash;
+import com.whaleal.icefrog.core.thread.ExecutorBuilder;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于内存映射文件的持久化布隆过滤器<br>
+ * 与{@link BitSetBloomFilter}将位数组放在堆上不同，此过滤器的位数组存放在文件中并通过{@link MappedByteBuffer}访问：
+ * <ul>
+ * <li>位数组不占用堆内存，由操作系统的页缓存管理，可容纳数十亿元素</li>
+ * <li>单个{@link MappedByteBuffer}最大2GB，位数组按1GB分段映射，文件大小不受此限制</li>
+ * <li>重启后通过{@link #open(File)}直接映射已有文件，无需重新计算Hash</li>
+ * <li>通过{@link #load(String, Charset, int)}从文本文件批量加入，一个线程读取，多个线程并行计算Hash和置位</li>
+ * </ul>
+ * 文件格式为64字节的文件头（标识、版本、Hash函数个数、位数等）加位数组。
+ * 修改在{@link #flush()}或{@link #close()}时写回磁盘，未写回的修改在进程正常退出时仍会由操作系统写回，但系统崩溃时可能丢失。<br>
+ * 加入操作通过分段锁保证线程安全，查询不加锁。<br>
+ * 持久化由映射文件本身完成，此类不支持Java序列化。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class MappedBloomFilter implements BloomFilter, Closeable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 文件标识
+     */
+    private static final int MAGIC = 0x49434d42;
+    /**
+     * 文件格式版本
+     */
+    private static final int VERSION = 1;
+    /**
+     * 文件头大小
+     */
+    private static final int HEADER_SIZE = 64;
+    /**
+     * 默认每段映射1GB
+     */
+    private static final int DEFAULT_SEGMENT_SHIFT = 30;
+    /**
+     * 置位使用的锁个数
+     */
+    private static final int LOCK_STRIPES = 256;
+    /**
+     * 批量加载时每个任务处理的行数
+     */
+    private static final int LOAD_BATCH_SIZE = 4096;
+
+    private final transient RandomAccessFile file;
+    private final transient MappedByteBuffer[] segments;
+    private final transient Object[] locks;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final long bitSize;
+    private final int hashFunctionNumber;
+
+    /**
+     * 构造
+     *
+     * @param file               已打开的文件
+     * @param bitSize            位数
+     * @param hashFunctionNumber Hash函数个数
+     * @param segmentShift       每段大小的位移数，段大小为{@code 1 << segmentShift}字节
+     * @throws IOException IO异常
+     */
+    private MappedBloomFilter( RandomAccessFile file, long bitSize, int hashFunctionNumber, int segmentShift ) throws IOException {
+        this.file = file;
+        this.bitSize = bitSize;
+        this.hashFunctionNumber = hashFunctionNumber;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+
+        final long byteSize = bitSize / Byte.SIZE;
+        final int segmentCount = (int) ((byteSize + segmentMask) >>> segmentShift);
+        this.segments = new MappedByteBuffer[segmentCount];
+        final FileChannel channel = file.getChannel();
+        for (int i = 0; i < segmentCount; i++) {
+            final long position = (long) i << segmentShift;
+            final long size = Math.min(1L << segmentShift, byteSize - position);
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + position, size);
+        }
+        this.locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 创建新的过滤器文件，已存在的文件会被覆盖
+     *
+     * @param file               文件
+     * @param expectedInsertions 预计加入的元素数
+     * @param fpp                期望的误判率，范围(0, 1)
+     * @return 过滤器
+     * @throws IORuntimeException IO异常
+     */
+    public static MappedBloomFilter create( File file, long expectedInsertions, double fpp ) throws IORuntimeException {
+        return create(file, expectedInsertions, fpp, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * 创建新的过滤器文件，已存在的文件会被覆盖
+     *
+     * @param file               文件
+     * @param expectedInsertions 预计加入的元素数
+     * @param fpp                期望的误判率，范围(0, 1)
+     * @param segmentShift       每段大小的位移数
+     * @return 过滤器
+     * @throws IORuntimeException IO异常
+     */
+    static MappedBloomFilter create( File file, long expectedInsertions, double fpp, int segmentShift ) throws IORuntimeException {
+        Precondition.isTrue(expectedInsertions > 0, "Expected insertions must be greater than 0, but was {}", expectedInsertions);
+        Precondition.isTrue(fpp > 0 && fpp < 1, "False positive probability must be in (0, 1), but was {}", fpp);
+        // 位数取整到long，保证按long读写时不会跨段
+        final long bitSize = (BloomFilterUtil.optimalNumOfBits(expectedInsertions, fpp) + Long.SIZE - 1) / Long.SIZE * Long.SIZE;
+        final int hashFunctionNumber = BloomFilterUtil.optimalNumOfHashFunctions(expectedInsertions, bitSize);
+
+        FileUtil.touch(file);
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            // 先截断再扩展，保证位数组全部为0，扩展部分在多数文件系统上为稀疏文件
+            raf.setLength(0);
+            raf.setLength(HEADER_SIZE + bitSize / Byte.SIZE);
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(hashFunctionNumber).putInt(0)
+                    .putLong(bitSize).putLong(expectedInsertions).putDouble(fpp);
+            header.clear();
+            raf.getChannel().write(header, 0);
+            return new MappedBloomFilter(raf, bitSize, hashFunctionNumber, segmentShift);
+        } catch (IOException e) {
+            IoUtil.close(raf);
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * 打开已有的过滤器文件
+     *
+     * @param file 文件
+     * @return 过滤器
+     * @throws IORuntimeException IO异常或文件格式错误
+     */
+    public static MappedBloomFilter open( File file ) throws IORuntimeException {
+        return open(file, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * 打开已有的过滤器文件
+     *
+     * @param file         文件
+     * @param segmentShift 每段大小的位移数
+     * @return 过滤器
+     * @throws IORuntimeException IO异常或文件格式错误
+     */
+    static MappedBloomFilter open( File file, int segmentShift ) throws IORuntimeException {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            raf.getChannel().read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || MAGIC != header.getInt() || VERSION != header.getInt()) {
+                throw new IORuntimeException(StrUtil.format("File [{}] is not a bloom filter file", file));
+            }
+            final int hashFunctionNumber = header.getInt();
+            header.getInt();
+            final long bitSize = header.getLong();
+            if (hashFunctionNumber <= 0 || bitSize <= 0 || raf.length() < HEADER_SIZE + bitSize / Byte.SIZE) {
+                throw new IORuntimeException(StrUtil.format("Bloom filter file [{}] is corrupted", file));
+            }
+            return new MappedBloomFilter(raf, bitSize, hashFunctionNumber, segmentShift);
+        } catch (IOException e) {
+            IoUtil.close(raf);
+            throw new IORuntimeException(e);
+        } catch (IORuntimeException e) {
+            IoUtil.close(raf);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean contains( String str ) {
+        final long[] hash = MurmurHash.hash128(StrUtil.bytes(str, CharsetUtil.CHARSET_UTF_8));
+        long combined = hash[0];
+        for (int i = 0; i < hashFunctionNumber; i++) {
+            final long index = (combined & Long.MAX_VALUE) % bitSize;
+            if (0 == (getLong(index >>> 6) & (1L << index))) {
+                return false;
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    @Override
+    public boolean add( String str ) {
+        final long[] hash = MurmurHash.hash128(StrUtil.bytes(str, CharsetUtil.CHARSET_UTF_8));
+        long combined = hash[0];
+        boolean changed = false;
+        for (int i = 0; i < hashFunctionNumber; i++) {
+            changed |= set((combined & Long.MAX_VALUE) % bitSize);
+            combined += hash[1];
+        }
+        return changed;
+    }
+
+    /**
+     * 从文本文件批量加入，每行为一个元素<br>
+     * 调用线程负责读取，每{@value #LOAD_BATCH_SIZE}行作为一个任务交给线程池计算Hash和置位，任务积压时由调用线程执行，避免读取过快占用大量内存
+     *
+     * @param path        文件路径
+     * @param charset     字符集
+     * @param parallelism 并行线程数
+     * @return 读取的行数
+     * @throws IORuntimeException IO异常
+     */
+    public long load( String path, Charset charset, int parallelism ) throws IORuntimeException {
+        Precondition.isTrue(parallelism > 0, "Parallelism must be greater than 0, but was {}", parallelism);
+        final ThreadPoolExecutor executor = ExecutorBuilder.create()
+                .setCorePoolSize(parallelism)
+                .setMaxPoolSize(parallelism)
+                .useArrayBlockingQueue(parallelism * 2)
+                .setHandler(new ThreadPoolExecutor.CallerRunsPolicy())
+                .build();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final AtomicLong count = new AtomicLong();
+        BufferedReader reader = null;
+        try {
+            reader = FileUtil.getReader(path, charset);
+            List<String> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            String line;
+            while (null != (line = reader.readLine()) && null == error.get()) {
+                batch.add(line);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    submit(executor, batch, count, error);
+                    batch = new ArrayList<>(LOAD_BATCH_SIZE);
+                }
+            }
+            if (false == batch.isEmpty()) {
+                submit(executor, batch, count, error);
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        } finally {
+            IoUtil.close(reader);
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+
+        final Throwable e = error.get();
+        if (null != e) {
+            throw (e instanceof RuntimeException) ? (RuntimeException) e : new IORuntimeException(e);
+        }
+        return count.get();
+    }
+
+    /**
+     * 将修改写回磁盘
+     */
+    public void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * 写回修改并关闭文件，映射的内存在缓冲区被回收时释放
+     */
+    @Override
+    public void close() {
+        flush();
+        IoUtil.close(file);
+    }
+
+    /**
+     * @return 位数
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * @return Hash函数个数
+     */
+    public int getHashFunctionNumber() {
+        return hashFunctionNumber;
+    }
+
+    /**
+     * @return 映射的段数
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * @return 已被置为1的位数
+     */
+    public long bitCount() {
+        long count = 0;
+        for (long i = 0, n = bitSize >>> 6; i < n; i++) {
+            count += Long.bitCount(getLong(i));
+        }
+        return count;
+    }
+
+    /**
+     * 根据已置位的比例估算当前的误判率
+     *
+     * @return 当前误判率
+     */
+    public double getFalsePositiveProbability() {
+        return Math.pow((double) bitCount() / bitSize, hashFunctionNumber);
+    }
+
+    private void submit( ThreadPoolExecutor executor, List<String> batch, AtomicLong count, AtomicReference<Throwable> error ) {
+        executor.execute(() -> {
+            try {
+                for (String line : batch) {
+                    add(line);
+                }
+                count.addAndGet(batch.size());
+            } catch (Throwable e) {
+                error.compareAndSet(null, e);
+            }
+        });
+    }
+
+    private static void awaitTermination( ThreadPoolExecutor executor ) {
+        try {
+            while (false == executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // 等待所有任务完成
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 置位
+     *
+     * @param index 位的下标
+     * @return 是否发生变化
+     */
+    private boolean set( long index ) {
+        final long word = index >>> 6;
+        final long mask = 1L << index;
+        if (0 != (getLong(word) & mask)) {
+            return false;
+        }
+        synchronized (locks[(int) (word & (LOCK_STRIPES - 1))]) {
+            final long value = getLong(word);
+            if (0 != (value & mask)) {
+                return false;
+            }
+            putLong(word, value | mask);
+            return true;
+        }
+    }
+
+    private long getLong( long word ) {
+        final long offset = word << 3;
+        return segments[(int) (offset >>> segmentShift)].getLong((int) (offset & segmentMask));
+    }
+
+    private void putLong( long word, long value ) {
+        final long offset = word << 3;
+        segments[(int) (offset >>> segmentShift)].putLong((int) (offset & segmentMask), value);
+    }
+}
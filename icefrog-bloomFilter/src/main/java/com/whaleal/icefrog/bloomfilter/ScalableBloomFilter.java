@@ -0,0 +1,170 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import com.whaleal.icefrog.core.lang.Precondition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可伸缩布隆过滤器（Scalable Bloom Filter），无需预先确定元素总数<br>
+ * 由一组容量逐级增大的子过滤器组成：
+ * <ul>
+ * <li>元素只加入最新的子过滤器，其元素数达到容量后创建一个新的子过滤器，容量为上一个的{@code growthFactor}倍</li>
+ * <li>第i个子过滤器的误判率为{@code fpp * (1 - r) * r^i}（r为收紧比例），各级误判率之和收敛，整体误判率始终不超过{@code fpp}</li>
+ * <li>查询时从最新（最大）的子过滤器开始检查，任一子过滤器包含即视为存在</li>
+ * </ul>
+ * 子过滤器为{@link ConcurrentBloomFilter}，但扩容过程非线程安全，多线程加入时需要外部同步。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class ScalableBloomFilter implements BloomFilter {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 默认增长倍数
+     */
+    public static final int DEFAULT_GROWTH_FACTOR = 2;
+    /**
+     * 默认误判率收紧比例
+     */
+    public static final double DEFAULT_TIGHTENING_RATIO = 0.85;
+
+    private final List<ConcurrentBloomFilter> filters = new ArrayList<>();
+    private final double fpp;
+    private final int growthFactor;
+    private final double tighteningRatio;
+
+    /**
+     * 当前子过滤器的容量
+     */
+    private long currentCapacity;
+    /**
+     * 当前子过滤器的误判率
+     */
+    private double currentFpp;
+    /**
+     * 当前子过滤器中已加入的元素数
+     */
+    private long currentCount;
+    /**
+     * 所有子过滤器中已加入的元素数
+     */
+    private long count;
+
+    /**
+     * 构造，使用默认的增长倍数和收紧比例
+     *
+     * @param initialCapacity 第一个子过滤器的容量
+     * @param fpp             期望的整体误判率，范围(0, 1)
+     */
+    public ScalableBloomFilter( long initialCapacity, double fpp ) {
+        this(initialCapacity, fpp, DEFAULT_GROWTH_FACTOR, DEFAULT_TIGHTENING_RATIO);
+    }
+
+    /**
+     * 构造
+     *
+     * @param initialCapacity 第一个子过滤器的容量
+     * @param fpp             期望的整体误判率，范围(0, 1)
+     * @param growthFactor    每级子过滤器容量的增长倍数，通常为2或4
+     * @param tighteningRatio 每级子过滤器误判率的收紧比例，范围(0, 1)，通常为0.8~0.9
+     */
+    public ScalableBloomFilter( long initialCapacity, double fpp, int growthFactor, double tighteningRatio ) {
+        Precondition.isTrue(initialCapacity > 0, "Initial capacity must be greater than 0, but was {}", initialCapacity);
+        Precondition.isTrue(fpp > 0 && fpp < 1, "False positive probability must be in (0, 1), but was {}", fpp);
+        Precondition.isTrue(growthFactor >= 1, "Growth factor must be at least 1, but was {}", growthFactor);
+        Precondition.isTrue(tighteningRatio > 0 && tighteningRatio < 1, "Tightening ratio must be in (0, 1), but was {}", tighteningRatio);
+        this.fpp = fpp;
+        this.growthFactor = growthFactor;
+        this.tighteningRatio = tighteningRatio;
+        this.currentCapacity = initialCapacity;
+        this.currentFpp = fpp * (1 - tighteningRatio);
+        this.filters.add(new ConcurrentBloomFilter(currentCapacity, currentFpp));
+    }
+
+    @Override
+    public boolean contains( String str ) {
+        for (int i = filters.size() - 1; i >= 0; i--) {
+            if (filters.get(i).contains(str)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 加入字符串，已存在（包括误判为存在）的字符串不会被重复加入
+     *
+     * @param str 字符串
+     * @return 是否加入，如果已存在返回{@code false}
+     */
+    @Override
+    public boolean add( String str ) {
+        if (contains(str)) {
+            return false;
+        }
+        if (currentCount >= currentCapacity) {
+            grow();
+        }
+        filters.get(filters.size() - 1).add(str);
+        currentCount++;
+        count++;
+        return true;
+    }
+
+    /**
+     * @return 已加入的元素数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return 子过滤器个数
+     */
+    public int getFilterCount() {
+        return filters.size();
+    }
+
+    /**
+     * @return 所有子过滤器的总位数
+     */
+    public long getBitSize() {
+        long bitSize = 0;
+        for (ConcurrentBloomFilter filter : filters) {
+            bitSize += filter.getBitSize();
+        }
+        return bitSize;
+    }
+
+    /**
+     * @return 构造时指定的期望整体误判率
+     */
+    public double getFpp() {
+        return fpp;
+    }
+
+    /**
+     * 估算当前的整体误判率，即各子过滤器误判率的并
+     *
+     * @return 当前误判率
+     */
+    public double getFalsePositiveProbability() {
+        double notFalsePositive = 1.0;
+        for (ConcurrentBloomFilter filter : filters) {
+            notFalsePositive *= 1 - filter.getFalsePositiveProbability();
+        }
+        return 1 - notFalsePositive;
+    }
+
+    /**
+     * 创建下一级子过滤器
+     */
+    private void grow() {
+        currentCapacity = currentCapacity * growthFactor;
+        currentFpp = currentFpp * tighteningRatio;
+        filters.add(new ConcurrentBloomFilter(currentCapacity, currentFpp));
+        currentCount = 0;
+    }
+}
@@ -0,0 +1,153 @@
+package com.whaleal.icefrog.bloomfilter.bitMap;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的BitMap，基于{@link AtomicLongArray}的CAS操作实现，多线程并发加入和移除时不会丢失位<br>
+ * 与{@link LongMap}的读-改-写不同，每次修改都通过比较并交换完成，位已处于目标状态时不执行写操作。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class AtomicLongMap implements BitMap, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicLongArray longs;
+
+    /**
+     * 构造
+     *
+     * @param size 容量，即long的个数，可存放{@code size * 64}个值
+     */
+    public AtomicLongMap( int size ) {
+        longs = new AtomicLongArray(size);
+    }
+
+    @Override
+    public void add( long i ) {
+        set(i);
+    }
+
+    /**
+     * 加入值
+     *
+     * @param i 值
+     * @return 是否发生变化，{@code false}表示值已存在
+     */
+    public boolean set( long i ) {
+        final int r = (int) (i / BitMap.MACHINE64);
+        final long mask = 1L << (i % BitMap.MACHINE64);
+        long current;
+        do {
+            current = longs.get(r);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (false == longs.compareAndSet(r, current, current | mask));
+        return true;
+    }
+
+    @Override
+    public boolean contains( long i ) {
+        final int r = (int) (i / BitMap.MACHINE64);
+        final long c = i % BitMap.MACHINE64;
+        return ((longs.get(r) >>> c) & 1) == 1;
+    }
+
+    @Override
+    public void remove( long i ) {
+        final int r = (int) (i / BitMap.MACHINE64);
+        final long mask = 1L << (i % BitMap.MACHINE64);
+        long current;
+        do {
+            current = longs.get(r);
+            if ((current & mask) == 0) {
+                return;
+            }
+        } while (false == longs.compareAndSet(r, current, current & ~mask));
+    }
+
+    /**
+     * 与另一个BitMap按位或，结果写入此BitMap
+     *
+     * @param other 另一个BitMap，大小必须相同
+     */
+    public void or( AtomicLongMap other ) {
+        checkSize(other);
+        for (int r = 0; r < longs.length(); r++) {
+            final long value = other.longs.get(r);
+            if (0 != value) {
+                longs.getAndAccumulate(r, value, ( a, b ) -> a | b);
+            }
+        }
+    }
+
+    /**
+     * 与另一个BitMap按位与，结果写入此BitMap
+     *
+     * @param other 另一个BitMap，大小必须相同
+     */
+    public void and( AtomicLongMap other ) {
+        checkSize(other);
+        for (int r = 0; r < longs.length(); r++) {
+            final long value = other.longs.get(r);
+            if (-1L != value) {
+                longs.getAndAccumulate(r, value, ( a, b ) -> a & b);
+            }
+        }
+    }
+
+    /**
+     * 清空所有位，清空过程中的并发加入可能被保留
+     */
+    public void clear() {
+        for (int r = 0; r < longs.length(); r++) {
+            longs.set(r, 0L);
+        }
+    }
+
+    /**
+     * @return 已被置为1的位数
+     */
+    public long bitCount() {
+        long count = 0;
+        for (int r = 0; r < longs.length(); r++) {
+            count += Long.bitCount(longs.get(r));
+        }
+        return count;
+    }
+
+    /**
+     * @return long的个数
+     */
+    public int size() {
+        return longs.length();
+    }
+
+    /**
+     * 获取第r个long的值
+     *
+     * @param r 下标
+     * @return 值
+     */
+    public long getLong( int r ) {
+        return longs.get(r);
+    }
+
+    /**
+     * 设置第r个long的值，用于从序列化数据中恢复
+     *
+     * @param r     下标
+     * @param value 值
+     */
+    public void setLong( int r, long value ) {
+        longs.set(r, value);
+    }
+
+    private void checkSize( AtomicLongMap other ) {
+        if (other.longs.length() != longs.length()) {
+            throw new IllegalArgumentException("BitMap size mismatch: " + longs.length() + " != " + other.longs.length());
+        }
+    }
+}
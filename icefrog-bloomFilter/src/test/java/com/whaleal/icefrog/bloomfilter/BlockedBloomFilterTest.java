@@ -0,0 +1,43 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockedBloomFilterTest {
+
+    @Test
+    public void filterTest() {
+        BlockedBloomFilter filter = BloomFilterUtil.createBlocked(1000, 0.01);
+        Assert.assertTrue(filter.add("123"));
+        Assert.assertTrue(filter.add("abc"));
+        Assert.assertTrue(filter.add("ddd"));
+        Assert.assertFalse(filter.add("abc"));
+
+        Assert.assertTrue(filter.contains("abc"));
+        Assert.assertTrue(filter.contains("ddd"));
+        Assert.assertTrue(filter.contains("123"));
+        Assert.assertFalse(filter.contains("not exist"));
+    }
+
+    @Test
+    public void falsePositiveTest() {
+        final int n = 100_000;
+        final double fpp = 0.01;
+        BlockedBloomFilter filter = BloomFilterUtil.createBlocked(n, fpp);
+        for (int i = 0; i < n; i++) {
+            filter.add("key" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.contains("key" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.contains("other" + i)) {
+                falsePositives++;
+            }
+        }
+        // 分块带来的误判率上升应在2倍以内
+        Assert.assertTrue("False positives: " + falsePositives, falsePositives < n * fpp * 2);
+    }
+}
@@ -0,0 +1,88 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import com.whaleal.icefrog.bloomfilter.bitMap.AtomicLongMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+public class ConcurrentBloomFilterTest {
+
+    @Test
+    public void concurrentAddTest() throws InterruptedException {
+        final int threadCount = 8;
+        final int perThread = 20_000;
+        final ConcurrentBloomFilter filter = BloomFilterUtil.createConcurrent(threadCount * perThread, 0.01);
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final int base = t * perThread;
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    filter.add("key" + (base + i));
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+
+        // 并发加入不能丢失任何位
+        for (int i = 0; i < threadCount * perThread; i++) {
+            Assert.assertTrue(filter.contains("key" + i));
+        }
+        final long count = filter.approximateElementCount();
+        Assert.assertTrue("Approximate count: " + count, Math.abs(count - threadCount * perThread) < threadCount * perThread / 20);
+    }
+
+    @Test
+    public void unionAndIntersectTest() {
+        final ConcurrentBloomFilter a = new ConcurrentBloomFilter(10_000, 0.01);
+        final ConcurrentBloomFilter b = new ConcurrentBloomFilter(10_000, 0.01);
+        a.add("a");
+        a.add("common");
+        b.add("b");
+        b.add("common");
+
+        final ConcurrentBloomFilter union = ConcurrentBloomFilter.fromBytes(a.toBytes()).union(b);
+        Assert.assertTrue(union.contains("a"));
+        Assert.assertTrue(union.contains("b"));
+        Assert.assertTrue(union.contains("common"));
+
+        final ConcurrentBloomFilter intersect = ConcurrentBloomFilter.fromBytes(a.toBytes()).intersect(b);
+        Assert.assertTrue(intersect.contains("common"));
+        Assert.assertFalse(intersect.contains("a"));
+        Assert.assertFalse(intersect.contains("b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void incompatibleTest() {
+        new ConcurrentBloomFilter(10_000, 0.01).union(new ConcurrentBloomFilter(20_000, 0.01));
+    }
+
+    @Test
+    public void serializeTest() {
+        final ConcurrentBloomFilter filter = new ConcurrentBloomFilter(1000, 0.01);
+        filter.add("123");
+        filter.add("abc");
+
+        final ConcurrentBloomFilter copy = ConcurrentBloomFilter.fromBytes(filter.toBytes());
+        Assert.assertEquals(filter.getBitSize(), copy.getBitSize());
+        Assert.assertEquals(filter.getHashFunctionNumber(), copy.getHashFunctionNumber());
+        Assert.assertTrue(copy.contains("123"));
+        Assert.assertTrue(copy.contains("abc"));
+        Assert.assertFalse(copy.contains("ddd"));
+    }
+
+    @Test
+    public void atomicLongMapTest() {
+        final AtomicLongMap map = new AtomicLongMap(2);
+        for (int i = 0; i < 128; i++) {
+            map.add(i);
+        }
+        map.remove(30);
+        Assert.assertFalse(map.contains(30));
+        Assert.assertTrue(map.contains(127));
+        Assert.assertTrue(map.set(30));
+        Assert.assertFalse(map.set(30));
+        Assert.assertEquals(128, map.bitCount());
+    }
+}
@@ -0,0 +1,55 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CountingBloomFilterTest {
+
+    @Test
+    public void removeTest() {
+        CountingBloomFilter filter = BloomFilterUtil.createCounting(1000, 0.01);
+        Assert.assertTrue(filter.add("123"));
+        Assert.assertTrue(filter.add("abc"));
+        Assert.assertTrue(filter.contains("123"));
+        Assert.assertTrue(filter.contains("abc"));
+
+        Assert.assertTrue(filter.remove("123"));
+        Assert.assertFalse(filter.contains("123"));
+        Assert.assertTrue(filter.contains("abc"));
+        Assert.assertFalse(filter.remove("123"));
+    }
+
+    @Test
+    public void countTest() {
+        CountingBloomFilter filter = BloomFilterUtil.createCounting(1000, 0.01);
+        filter.add("abc");
+        filter.add("abc");
+        filter.add("abc");
+        Assert.assertEquals(3, filter.count("abc"));
+        filter.remove("abc");
+        Assert.assertEquals(2, filter.count("abc"));
+        Assert.assertTrue(filter.contains("abc"));
+
+        // 计数器饱和后不再变化
+        for (int i = 0; i < 20; i++) {
+            filter.add("ddd");
+        }
+        Assert.assertEquals(15, filter.count("ddd"));
+        Assert.assertTrue(filter.saturatedCount() >= filter.getHashFunctionNumber());
+    }
+
+    @Test
+    public void addRemoveManyTest() {
+        final int n = 10_000;
+        CountingBloomFilter filter = BloomFilterUtil.createCounting(n, 0.01);
+        for (int i = 0; i < n; i++) {
+            filter.add("key" + i);
+        }
+        for (int i = 0; i < n; i += 2) {
+            Assert.assertTrue(filter.remove("key" + i));
+        }
+        for (int i = 1; i < n; i += 2) {
+            Assert.assertTrue(filter.contains("key" + i));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import com.whaleal.icefrog.core.io.FileUtil;
+import com.whaleal.icefrog.core.io.IORuntimeException;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedBloomFilterTest {
+
+    @Test
+    public void reopenTest() throws Exception {
+        final File file = File.createTempFile("bloom", ".bf");
+        try {
+            // 使用4KB的段以覆盖跨段访问
+            try (MappedBloomFilter filter = MappedBloomFilter.create(file, 100_000, 0.01, 12)) {
+                Assert.assertTrue(filter.getSegmentCount() > 1);
+                for (int i = 0; i < 100_000; i++) {
+                    filter.add("key" + i);
+                }
+            }
+
+            try (MappedBloomFilter filter = MappedBloomFilter.open(file, 12)) {
+                for (int i = 0; i < 100_000; i++) {
+                    Assert.assertTrue(filter.contains("key" + i));
+                }
+                int falsePositives = 0;
+                for (int i = 0; i < 100_000; i++) {
+                    if (filter.contains("other" + i)) {
+                        falsePositives++;
+                    }
+                }
+                Assert.assertTrue("False positives: " + falsePositives, falsePositives < 1500);
+            }
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    @Test
+    public void loadTest() throws Exception {
+        final File source = File.createTempFile("bloom", ".txt");
+        final File file = File.createTempFile("bloom", ".bf");
+        try {
+            final List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 50_000; i++) {
+                lines.add("http://www.example.com/page/" + i);
+            }
+            FileUtil.writeLines(lines, source, CharsetUtil.CHARSET_UTF_8);
+
+            try (MappedBloomFilter filter = BloomFilterUtil.createMapped(file, 50_000, 0.01)) {
+                Assert.assertEquals(50_000, filter.load(source.getAbsolutePath(), CharsetUtil.CHARSET_UTF_8, 4));
+                for (String line : lines) {
+                    Assert.assertTrue(filter.contains(line));
+                }
+            }
+        } finally {
+            FileUtil.del(source);
+            FileUtil.del(file);
+        }
+    }
+
+    @Test(expected = IORuntimeException.class)
+    public void openInvalidTest() throws Exception {
+        final File file = File.createTempFile("bloom", ".bf");
+        try {
+            FileUtil.writeUtf8String("not a bloom filter", file);
+            MappedBloomFilter.open(file);
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+}
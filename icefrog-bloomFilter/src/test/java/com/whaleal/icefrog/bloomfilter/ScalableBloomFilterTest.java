@@ -0,0 +1,34 @@
+package com.whaleal.icefrog.bloomfilter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalableBloomFilterTest {
+
+    @Test
+    public void growTest() {
+        final int n = 100_000;
+        final double fpp = 0.01;
+        ScalableBloomFilter filter = BloomFilterUtil.createScalable(1000, fpp);
+        int added = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.add("key" + i)) {
+                added++;
+            }
+        }
+        Assert.assertEquals(added, filter.getCount());
+        Assert.assertTrue(filter.getFilterCount() > 1);
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.contains("key" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.contains("other" + i)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("False positives: " + falsePositives, falsePositives < n * fpp);
+        Assert.assertTrue(filter.getFalsePositiveProbability() < fpp);
+    }
+}
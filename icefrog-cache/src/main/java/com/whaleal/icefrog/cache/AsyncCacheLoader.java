@@ -0,0 +1,79 @@
+package com.whaleal.icefrog.cache;
+
+import com.whaleal.icefrog.core.lang.func.Func1;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 异步缓存加载器，用于{@link AsyncLoadingCache}在未命中或需要刷新时加载值
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author wh
+ * @since 1.1.8
+ */
+@FunctionalInterface
+public interface AsyncCacheLoader<K, V> {
+
+    /**
+     * 使用同步加载函数创建异步加载器，加载函数在指定的线程池中执行
+     *
+     * @param <K>    键类型
+     * @param <V>    值类型
+     * @param loader 同步加载函数
+     * @return 异步加载器
+     */
+    static <K, V> AsyncCacheLoader<K, V> of( Func1<K, V> loader ) {
+        return ( key, executor ) -> CompletableFuture.supplyAsync(() -> loader.applyWithRuntimeException(key), executor);
+    }
+
+    /**
+     * 异步加载单个值
+     *
+     * @param key      键
+     * @param executor 加载使用的线程池
+     * @return 加载结果，值为{@code null}时不缓存
+     */
+    CompletableFuture<V> asyncLoad( K key, Executor executor );
+
+    /**
+     * 批量异步加载，默认逐个调用{@link #asyncLoad(Object, Executor)}<br>
+     * 支持批量查询的数据源（如SQL的IN查询）应重写此方法
+     *
+     * @param keys     需要加载的键
+     * @param executor 加载使用的线程池
+     * @return 键值对，未包含的键视为不存在
+     */
+    default CompletableFuture<Map<K, V>> asyncLoadAll( Collection<? extends K> keys, Executor executor ) {
+        final Map<K, CompletableFuture<V>> futures = new HashMap<>(keys.size(), 1.0f);
+        for (K key : keys) {
+            futures.put(key, asyncLoad(key, executor));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignore -> {
+            final Map<K, V> result = new HashMap<>(futures.size(), 1.0f);
+            futures.forEach(( key, future ) -> {
+                final V value = future.join();
+                if (null != value) {
+                    result.put(key, value);
+                }
+            });
+            return result;
+        });
+    }
+
+    /**
+     * 异步刷新已存在的值，默认与{@link #asyncLoad(Object, Executor)}相同
+     *
+     * @param key      键
+     * @param oldValue 旧值
+     * @param executor 加载使用的线程池
+     * @return 新值，值为{@code null}时移除
+     */
+    default CompletableFuture<V> asyncReload( K key, V oldValue, Executor executor ) {
+        return asyncLoad(key, executor);
+    }
+}
@@ -0,0 +1,446 @@
+package com.whaleal.icefrog.cache;
+
+import com.whaleal.icefrog.cache.impl.ConcurrentLRUCache;
+import com.whaleal.icefrog.cache.stats.CacheStats;
+import com.whaleal.icefrog.cache.stats.DisabledStatsCounter;
+import com.whaleal.icefrog.cache.stats.StatsCounter;
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.thread.GlobalThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 异步加载缓存<br>
+ * 与{@link Cache#get(Object, com.whaleal.icefrog.core.lang.func.Func0)}在调用线程中同步执行加载不同，此缓存：
+ * <ul>
+ * <li>所有读取返回{@link CompletableFuture}，加载在线程池中执行，不阻塞调用方</li>
+ * <li>同一个key并发未命中时只加载一次，所有调用方共享同一个Future，无需为每个key创建锁</li>
+ * <li>支持批量加载，{@link #getAll(Collection)}中所有未命中的key通过一次{@link AsyncCacheLoader#asyncLoadAll(Collection, Executor)}加载</li>
+ * <li>设置刷新时长后，读取到写入超过刷新时长的值时立即返回旧值，同时在后台刷新，热点key不会遇到同步的未命中</li>
+ * </ul>
+ * 已加载的值存放在{@link ConcurrentLRUCache}中，过期时长从写入（或刷新）时开始计算，读取不会延长存活时间。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author wh
+ * @since 1.1.8
+ */
+public class AsyncLoadingCache<K, V> {
+
+    /**
+     * 已加载的值
+     */
+    private final ConcurrentLRUCache<K, Loaded<V>> cache;
+    /**
+     * 正在加载或刷新的值，用于合并并发请求
+     */
+    private final Map<K, CompletableFuture<V>> loadingMap = new ConcurrentHashMap<>();
+    private final AsyncCacheLoader<K, V> loader;
+    private Executor executor;
+    /**
+     * 写入后多久刷新，{@code 0}表示不刷新，单位毫秒
+     */
+    private long refreshAfterWrite;
+    private StatsCounter statsCounter = DisabledStatsCounter.INSTANCE;
+
+    /**
+     * 构造
+     *
+     * @param capacity 容量，{@code 0}表示无大小限制
+     * @param timeout  写入后的过期时长，{@code 0}表示不过期，单位毫秒
+     * @param loader   加载器
+     */
+    public AsyncLoadingCache( int capacity, long timeout, AsyncCacheLoader<K, V> loader ) {
+        this.cache = new ConcurrentLRUCache<>(capacity, timeout);
+        this.loader = Precondition.notNull(loader, "Loader must be not null");
+    }
+
+    /**
+     * 设置加载使用的线程池，默认使用{@link GlobalThreadPool}
+     *
+     * @param executor 线程池
+     * @return this
+     */
+    public AsyncLoadingCache<K, V> setExecutor( Executor executor ) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 设置写入后多久刷新，应小于过期时长，使值在过期前即被后台刷新
+     *
+     * @param refreshAfterWrite 刷新时长，{@code 0}表示不刷新，单位毫秒
+     * @return this
+     */
+    public AsyncLoadingCache<K, V> setRefreshAfterWrite( long refreshAfterWrite ) {
+        this.refreshAfterWrite = refreshAfterWrite;
+        return this;
+    }
+
+    /**
+     * 设置监听，值被淘汰、过期或移除时回调
+     *
+     * @param listener 监听
+     * @return this
+     */
+    public AsyncLoadingCache<K, V> setListener( CacheListener<K, V> listener ) {
+        this.cache.setListener(( key, loaded ) -> listener.onRemove(key, loaded.value));
+        return this;
+    }
+
+    /**
+     * 设置统计记录器，命中、未命中、淘汰以及异步加载的耗时均会被记录<br>
+     * 批量加载按一次加载计数
+     *
+     * @param statsCounter 统计记录器，{@code null}表示不记录
+     * @return this
+     */
+    public AsyncLoadingCache<K, V> setStatsCounter( StatsCounter statsCounter ) {
+        this.statsCounter = (null == statsCounter) ? DisabledStatsCounter.INSTANCE : statsCounter;
+        this.cache.setStatsCounter(this.statsCounter);
+        return this;
+    }
+
+    /**
+     * 获取统计数据快照
+     *
+     * @return 统计数据快照
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // ---------------------------------------------------------------- get
+
+    /**
+     * 获取值，未命中时异步加载，同一key的并发加载会被合并
+     *
+     * @param key 键
+     * @return 值的Future，值不存在时结果为{@code null}
+     */
+    public CompletableFuture<V> get( K key ) {
+        final Loaded<V> loaded = cache.get(key, false);
+        if (null != loaded) {
+            refreshIfNeeded(key, loaded);
+            return CompletableFuture.completedFuture(loaded.value);
+        }
+        return load(key);
+    }
+
+    /**
+     * 获取已缓存的值，不触发加载
+     *
+     * @param key 键
+     * @return 值，未缓存返回{@code null}
+     */
+    public V getIfPresent( K key ) {
+        final Loaded<V> loaded = cache.get(key, false);
+        if (null != loaded) {
+            refreshIfNeeded(key, loaded);
+            return loaded.value;
+        }
+        return null;
+    }
+
+    /**
+     * 批量获取值，所有未命中且未在加载中的key通过一次批量加载获得
+     *
+     * @param keys 键
+     * @return 键值对的Future，不存在的键不包含在结果中，顺序与传入的键一致
+     */
+    public CompletableFuture<Map<K, V>> getAll( Collection<? extends K> keys ) {
+        final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>(keys.size(), 1.0f);
+        final Map<K, CompletableFuture<V>> toLoad = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (futures.containsKey(key)) {
+                continue;
+            }
+            final Loaded<V> loaded = cache.get(key, false);
+            if (null != loaded) {
+                refreshIfNeeded(key, loaded);
+                futures.put(key, CompletableFuture.completedFuture(loaded.value));
+                continue;
+            }
+            final CompletableFuture<V> created = new CompletableFuture<>();
+            final CompletableFuture<V> existing = loadingMap.putIfAbsent(key, created);
+            if (null != existing) {
+                // 已有其它请求在加载此key
+                futures.put(key, existing);
+            } else {
+                futures.put(key, created);
+                toLoad.put(key, created);
+            }
+        }
+
+        if (false == toLoad.isEmpty()) {
+            loadAll(toLoad);
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignore -> {
+            final Map<K, V> result = new LinkedHashMap<>(futures.size(), 1.0f);
+            futures.forEach(( key, future ) -> {
+                final V value = future.join();
+                if (null != value) {
+                    result.put(key, value);
+                }
+            });
+            return result;
+        });
+    }
+
+    // ---------------------------------------------------------------- modify
+
+    /**
+     * 放入值，如有正在进行的加载，加载结果仍会覆盖此值
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public void put( K key, V value ) {
+        cache.put(key, new Loaded<>(value));
+    }
+
+    /**
+     * 异步刷新值，刷新完成前读取仍返回旧值；刷新失败时保留旧值
+     *
+     * @param key 键
+     * @return 刷新结果的Future，已在加载或刷新中时返回正在进行的Future
+     */
+    public CompletableFuture<V> refresh( K key ) {
+        final CompletableFuture<V> created = new CompletableFuture<>();
+        final CompletableFuture<V> existing = loadingMap.putIfAbsent(key, created);
+        if (null != existing) {
+            return existing;
+        }
+        // 内部检查不计入命中统计
+        final Loaded<V> loaded = cache.getQuietly(key);
+        if (null == loaded) {
+            startLoad(key, created, () -> loader.asyncLoad(key, executor()));
+        } else {
+            startLoad(key, created, () -> loader.asyncReload(key, loaded.value, executor()));
+        }
+        return created;
+    }
+
+    /**
+     * 移除值，正在进行的加载或刷新结果不再写入缓存，但仍会返回给等待它的调用方
+     *
+     * @param key 键
+     */
+    public void invalidate( K key ) {
+        loadingMap.remove(key);
+        cache.remove(key);
+    }
+
+    /**
+     * 清空缓存，正在进行的加载或刷新结果不再写入缓存
+     */
+    public void invalidateAll() {
+        loadingMap.clear();
+        cache.clear();
+    }
+
+    /**
+     * 已缓存的值数量，不包括加载中的值
+     *
+     * @return 数量
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 正在加载或刷新的key数量
+     *
+     * @return 数量
+     */
+    public int loadingCount() {
+        return loadingMap.size();
+    }
+
+    // ---------------------------------------------------------------- private
+
+    /**
+     * 加载单个值，并发加载同一key时返回同一个Future
+     *
+     * @param key 键
+     * @return Future
+     */
+    private CompletableFuture<V> load( K key ) {
+        CompletableFuture<V> future = loadingMap.get(key);
+        if (null != future) {
+            return future;
+        }
+        final CompletableFuture<V> created = new CompletableFuture<>();
+        future = loadingMap.putIfAbsent(key, created);
+        if (null != future) {
+            return future;
+        }
+
+        // 双重检查，防止在注册的过程中其它加载刚好完成，此次检查不计入命中统计
+        final Loaded<V> loaded = cache.getQuietly(key);
+        if (null != loaded) {
+            loadingMap.remove(key, created);
+            created.complete(loaded.value);
+            return created;
+        }
+        startLoad(key, created, () -> loader.asyncLoad(key, executor()));
+        return created;
+    }
+
+    /**
+     * 写入时长超过刷新时长时在后台刷新
+     *
+     * @param key    键
+     * @param loaded 已加载的值
+     */
+    private void refreshIfNeeded( K key, Loaded<V> loaded ) {
+        if (refreshAfterWrite > 0 && System.currentTimeMillis() - loaded.loadTime >= refreshAfterWrite
+                && false == loadingMap.containsKey(key)) {
+            refresh(key);
+        }
+    }
+
+    /**
+     * 执行加载，完成后写入缓存并移除加载中的标记
+     *
+     * @param key      键
+     * @param target   调用方持有的Future
+     * @param supplier 加载方法
+     */
+    private void startLoad( K key, CompletableFuture<V> target, LoadSupplier<V> supplier ) {
+        final long startTime = System.nanoTime();
+        CompletableFuture<V> source;
+        try {
+            source = supplier.get();
+        } catch (Throwable e) {
+            source = new CompletableFuture<>();
+            source.completeExceptionally(e);
+        }
+        source.whenComplete(( value, e ) -> {
+            recordLoad(null == e && null != value, startTime);
+            if (null == e) {
+                complete(key, target, value, true);
+                target.complete(value);
+            } else {
+                loadingMap.remove(key, target);
+                target.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * 批量加载，结果分发给每个key的Future
+     *
+     * @param toLoad 需要加载的key及其Future
+     */
+    private void loadAll( Map<K, CompletableFuture<V>> toLoad ) {
+        final List<K> keys = new ArrayList<>(toLoad.keySet());
+        final long startTime = System.nanoTime();
+        final CompletableFuture<Map<K, V>> source;
+        try {
+            source = loader.asyncLoadAll(keys, executor());
+        } catch (Throwable e) {
+            recordLoad(false, startTime);
+            toLoad.forEach(( key, future ) -> {
+                loadingMap.remove(key, future);
+                future.completeExceptionally(e);
+            });
+            return;
+        }
+        source.whenComplete(( result, e ) -> {
+            recordLoad(null == e, startTime);
+            toLoad.forEach(( key, future ) -> {
+                if (null == e) {
+                    final V value = (null == result) ? null : result.get(key);
+                    complete(key, future, value, false);
+                    future.complete(value);
+                } else {
+                    loadingMap.remove(key, future);
+                    future.completeExceptionally(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * 加载成功后写入缓存并移除加载中的标记<br>
+     * 只有加载标记仍为此次加载时才写入，加载期间key被{@link #invalidate(Object)}或开始了新的加载时丢弃结果。
+     * 写入缓存与移除标记在同一原子操作中完成，并发读取总能看到其中之一
+     *
+     * @param key          键
+     * @param target       此次加载的Future
+     * @param value        加载的值
+     * @param removeIfNull 值为{@code null}时是否移除已缓存的值
+     */
+    private void complete( K key, CompletableFuture<V> target, V value, boolean removeIfNull ) {
+        loadingMap.computeIfPresent(key, ( k, current ) -> {
+            if (current != target) {
+                return current;
+            }
+            if (null != value) {
+                cache.put(key, new Loaded<>(value));
+            } else if (removeIfNull) {
+                cache.remove(key);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 记录加载结果和耗时
+     *
+     * @param success   是否加载成功
+     * @param startTime 开始加载的时间，单位纳秒
+     */
+    private void recordLoad( boolean success, long startTime ) {
+        final long loadTime = System.nanoTime() - startTime;
+        if (success) {
+            statsCounter.recordLoadSuccess(loadTime);
+        } else {
+            statsCounter.recordLoadFailure(loadTime);
+        }
+    }
+
+    private Executor executor() {
+        final Executor executor = this.executor;
+        return (null != executor) ? executor : GlobalThreadPool.getExecutor();
+    }
+
+    /**
+     * 加载方法
+     *
+     * @param <V> 值类型
+     */
+    @FunctionalInterface
+    private interface LoadSupplier<V> {
+        CompletableFuture<V> get();
+    }
+
+    /**
+     * 已加载的值及加载时间
+     *
+     * @param <V> 值类型
+     */
+    private static class Loaded<V> {
+        private final V value;
+        private final long loadTime;
+
+        Loaded( V value ) {
+            this.value = value;
+            this.loadTime = System.currentTimeMillis();
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.whaleal.icefrog.cache;
 
 import com.whaleal.icefrog.cache.impl.CacheObj;
+import com.whaleal.icefrog.cache.stats.CacheStats;
+import com.whaleal.icefrog.cache.stats.StatsCounter;
 import com.whaleal.icefrog.core.lang.func.Func0;
 
 import java.io.Serializable;
@@ -172,4 +174,38 @@ public interface Cache<K, V> extends Iterable<V>, Serializable {
     default Cache<K, V> setListener( CacheListener<K, V> listener ) {
         return this;
     }
+
+    /**
+     * 设置统计记录器，默认不记录统计数据<br>
+     * 不支持统计的实现忽略此设置
+     *
+     * @param statsCounter 统计记录器，如{@link com.whaleal.icefrog.cache.stats.ConcurrentStatsCounter}
+     * @return this
+     * @since 1.1.8
+     */
+    default Cache<K, V> setStatsCounter( StatsCounter statsCounter ) {
+        return this;
+    }
+
+    /**
+     * 设置权重计算器，用于计量移除权重和当前缓存的总权重，默认每个对象权重为1<br>
+     * 不支持统计的实现忽略此设置
+     *
+     * @param weigher 权重计算器
+     * @return this
+     * @since 1.1.8
+     */
+    default Cache<K, V> setWeigher( Weigher<? super K, ? super V> weigher ) {
+        return this;
+    }
+
+    /**
+     * 获取统计数据快照，未设置统计记录器时返回{@link CacheStats#EMPTY}
+     *
+     * @return 统计数据快照
+     * @since 1.1.8
+     */
+    default CacheStats stats() {
+        return CacheStats.EMPTY;
+    }
 }
@@ -87,6 +87,93 @@ public class CacheUtil {
         return new LRUCache<>(capacity);
     }
 
+    /**
+     * 创建分段并发的LRU (least recently used)最近最久未使用缓存.<br>
+     * 读操作无锁，写操作按key分段加锁，适用于多核高并发场景
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量
+     * @param timeout  过期时长，单位：毫秒
+     * @return {@link ConcurrentLRUCache}
+     * @since 1.1.8
+     */
+    public static <K, V> ConcurrentLRUCache<K, V> newConcurrentLRUCache( int capacity, long timeout ) {
+        return new ConcurrentLRUCache<>(capacity, timeout);
+    }
+
+    /**
+     * 创建分段并发的LRU (least recently used)最近最久未使用缓存.<br>
+     * 读操作无锁，写操作按key分段加锁，适用于多核高并发场景
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量
+     * @return {@link ConcurrentLRUCache}
+     * @since 1.1.8
+     */
+    public static <K, V> ConcurrentLRUCache<K, V> newConcurrentLRUCache( int capacity ) {
+        return new ConcurrentLRUCache<>(capacity);
+    }
+
+    /**
+     * 创建分段并发的LFU(least frequently used) 最少使用率缓存.<br>
+     * 读操作无锁，写操作按key分段加锁，适用于多核高并发场景
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量
+     * @param timeout  过期时长，单位：毫秒
+     * @return {@link ConcurrentLFUCache}
+     * @since 1.1.8
+     */
+    public static <K, V> ConcurrentLFUCache<K, V> newConcurrentLFUCache( int capacity, long timeout ) {
+        return new ConcurrentLFUCache<>(capacity, timeout);
+    }
+
+    /**
+     * 创建分段并发的LFU(least frequently used) 最少使用率缓存.<br>
+     * 读操作无锁，写操作按key分段加锁，适用于多核高并发场景
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量
+     * @return {@link ConcurrentLFUCache}
+     * @since 1.1.8
+     */
+    public static <K, V> ConcurrentLFUCache<K, V> newConcurrentLFUCache( int capacity ) {
+        return new ConcurrentLFUCache<>(capacity);
+    }
+
+    /**
+     * 创建W-TinyLFU缓存.<br>
+     * 使用访问频率估算决定新对象能否进入主空间，可防止一次性扫描的冷数据污染缓存，淘汰复杂度为O(1)
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量
+     * @param timeout  过期时长，单位：毫秒
+     * @return {@link WTinyLFUCache}
+     * @since 1.1.8
+     */
+    public static <K, V> WTinyLFUCache<K, V> newWTinyLFUCache( int capacity, long timeout ) {
+        return new WTinyLFUCache<>(capacity, timeout);
+    }
+
+    /**
+     * 创建W-TinyLFU缓存.<br>
+     * 使用访问频率估算决定新对象能否进入主空间，可防止一次性扫描的冷数据污染缓存，淘汰复杂度为O(1)
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量
+     * @return {@link WTinyLFUCache}
+     * @since 1.1.8
+     */
+    public static <K, V> WTinyLFUCache<K, V> newWTinyLFUCache( int capacity ) {
+        return new WTinyLFUCache<>(capacity);
+    }
+
     /**
      * 创建定时缓存.
      *
@@ -99,6 +186,22 @@ public class CacheUtil {
         return new TimedCache<>(timeout);
     }
 
+    /**
+     * 创建异步加载缓存.<br>
+     * 未命中时在线程池中加载，同一key的并发加载会被合并
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量，{@code 0}表示无大小限制
+     * @param timeout  写入后的过期时长，单位：毫秒
+     * @param loader   加载器
+     * @return {@link AsyncLoadingCache}
+     * @since 1.1.8
+     */
+    public static <K, V> AsyncLoadingCache<K, V> newAsyncLoadingCache( int capacity, long timeout, AsyncCacheLoader<K, V> loader ) {
+        return new AsyncLoadingCache<>(capacity, timeout, loader);
+    }
+
     /**
      * 创建弱引用缓存.
      *
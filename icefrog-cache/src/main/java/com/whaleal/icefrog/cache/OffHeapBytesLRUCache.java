@@ -0,0 +1,455 @@
+package com.whaleal.icefrog.cache;
+
+import com.whaleal.icefrog.core.io.IORuntimeException;
+import com.whaleal.icefrog.core.lang.Precondition;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 堆外内存的最近最少使用BYTES缓存<br>
+ * 与{@link BytesLRUCache}不同，缓存内容存放在直接内存（{@link ByteBuffer#allocateDirect(int)}）中，堆上只保留key和块索引，
+ * 缓存几百MB的页面片段或静态文件时不会增加老年代占用和GC停顿。
+ * <ul>
+ * <li>直接内存按需分配为多个固定大小的slab，每个slab划分为等长的块（block）</li>
+ * <li>每个缓存内容占用若干个块，块不要求连续，因此不存在外部碎片，单条内容的浪费不超过一个块</li>
+ * <li>空闲块通过栈管理，分配和释放均为O(1)</li>
+ * <li>空间不足时按LRU顺序淘汰，直至空闲块足够</li>
+ * </ul>
+ * 读取时内容会被复制到堆上的byte[]，也可通过{@link #writeTo(String, OutputStream)}直接写出，避免产生完整的堆上副本，写出期间不阻塞其它读写。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class OffHeapBytesLRUCache {
+
+    /**
+     * 默认块大小：4KB
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 4 * 1024;
+    /**
+     * 默认slab大小：1MB
+     */
+    public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private final long bytesCapacity;
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private final ByteBuffer[] slabs;
+    /**
+     * 空闲块栈
+     */
+    private final int[] freeBlocks;
+    private int freeBlockCount;
+    /**
+     * 已分配slab中的块总数
+     */
+    private int allocatedBlockCount;
+    /**
+     * LRU索引，链表按访问顺序排列，头部为最久未使用的内容
+     */
+    private final LinkedHashMap<String, Entry> index;
+
+    private long bytesInCache;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * 构造，使用默认块大小和slab大小
+     *
+     * @param bytesCapacity 缓存容量（byte数）
+     */
+    public OffHeapBytesLRUCache( long bytesCapacity ) {
+        this(bytesCapacity, DEFAULT_BLOCK_SIZE, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * 构造
+     *
+     * @param bytesCapacity 缓存容量（byte数），向上取整到slab大小
+     * @param blockSize     块大小（byte数），内容越小块应越小
+     * @param slabSize      每次申请直接内存的大小（byte数），必须为块大小的整数倍
+     */
+    public OffHeapBytesLRUCache( long bytesCapacity, int blockSize, int slabSize ) {
+        Precondition.isTrue(bytesCapacity > 0, "Capacity must be greater than 0");
+        Precondition.isTrue(blockSize > 0 && slabSize >= blockSize && slabSize % blockSize == 0,
+                "Slab size [{}] must be a multiple of block size [{}]", slabSize, blockSize);
+        final long slabCount = (bytesCapacity + slabSize - 1) / slabSize;
+        final long totalBlocks = slabCount * (slabSize / blockSize);
+        Precondition.isTrue(totalBlocks <= Integer.MAX_VALUE, "Too many blocks: {}, use a bigger block size", totalBlocks);
+
+        this.bytesCapacity = slabCount * slabSize;
+        this.blockSize = blockSize;
+        this.blocksPerSlab = slabSize / blockSize;
+        this.slabs = new ByteBuffer[(int) slabCount];
+        this.freeBlocks = new int[(int) totalBlocks];
+        this.index = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 根据key获取数据，数据会被复制到堆上
+     *
+     * @param key key
+     * @return 数据，不存在返回{@code null}
+     */
+    public byte[] get( String key ) {
+        synchronized (this) {
+            final Entry entry = index.get(key);
+            if (null == entry) {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            final byte[] result = new byte[entry.length];
+            int offset = 0;
+            for (int block : entry.blocks) {
+                final int len = Math.min(blockSize, entry.length - offset);
+                final ByteBuffer buffer = position(block);
+                buffer.get(result, offset, len);
+                offset += len;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 将key对应的数据直接写出到流中，不在堆上创建完整副本<br>
+     * 写出期间不持有缓存锁，数据所占的块被固定，此时被移除或淘汰的数据在写出结束后才释放其占用的块
+     *
+     * @param key key
+     * @param out 输出流
+     * @return 是否命中缓存
+     * @throws IORuntimeException IO异常
+     */
+    public boolean writeTo( String key, OutputStream out ) throws IORuntimeException {
+        final Entry entry;
+        final ByteBuffer[] views;
+        synchronized (this) {
+            entry = index.get(key);
+            if (null == entry) {
+                missCount++;
+                return false;
+            }
+            hitCount++;
+            entry.pins++;
+            views = new ByteBuffer[entry.blocks.length];
+            int offset = 0;
+            for (int i = 0; i < views.length; i++) {
+                final int len = Math.min(blockSize, entry.length - offset);
+                final ByteBuffer view = position(entry.blocks[i]).duplicate();
+                view.limit(view.position() + len);
+                views[i] = view;
+                offset += len;
+            }
+        }
+
+        try {
+            final byte[] chunk = new byte[Math.min(blockSize, entry.length)];
+            for (ByteBuffer view : views) {
+                final int len = view.remaining();
+                view.get(chunk, 0, len);
+                out.write(chunk, 0, len);
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        } finally {
+            synchronized (this) {
+                if (0 == --entry.pins && entry.removed) {
+                    releaseBlocks(entry);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 放入数据，数据大于缓存容量时不缓存，key已有的数据保持不变
+     *
+     * @param key   key
+     * @param value 数据
+     * @return 是否放入成功
+     */
+    public boolean put( String key, byte[] value ) {
+        final int blockCount = (value.length + blockSize - 1) / blockSize;
+        if (blockCount > freeBlocks.length) {
+            return false;
+        }
+        synchronized (this) {
+            // 旧值先释放，其占用的块可以被新值复用
+            removeEntry(index.remove(key));
+            while (freeBlockCount < blockCount && false == allocateSlab()) {
+                if (index.isEmpty()) {
+                    // 剩余的块均被正在写出的数据固定
+                    return false;
+                }
+                evictEldest();
+            }
+
+            final int[] blocks = new int[blockCount];
+            int offset = 0;
+            for (int i = 0; i < blockCount; i++) {
+                blocks[i] = freeBlocks[--freeBlockCount];
+                final int len = Math.min(blockSize, value.length - offset);
+                position(blocks[i]).put(value, offset, len);
+                offset += len;
+            }
+            index.put(key, new Entry(value.length, blocks));
+            bytesInCache += value.length;
+            return true;
+        }
+    }
+
+    /**
+     * 是否包含key，不影响访问顺序
+     *
+     * @param key key
+     * @return 是否包含
+     */
+    public boolean containsKey( String key ) {
+        synchronized (this) {
+            return index.containsKey(key);
+        }
+    }
+
+    /**
+     * 移除数据
+     *
+     * @param key key
+     * @return 是否存在并被移除
+     */
+    public boolean remove( String key ) {
+        synchronized (this) {
+            final Entry entry = index.remove(key);
+            removeEntry(entry);
+            return null != entry;
+        }
+    }
+
+    /**
+     * 缓存的数据条数
+     *
+     * @return 数据条数
+     */
+    public int size() {
+        synchronized (this) {
+            return index.size();
+        }
+    }
+
+    /**
+     * 清空缓存，已申请的直接内存保留复用
+     */
+    public void clear() {
+        synchronized (this) {
+            for (Entry entry : index.values()) {
+                removeEntry(entry);
+            }
+            index.clear();
+        }
+    }
+
+    /**
+     * 获取统计信息
+     *
+     * @return 统计信息
+     */
+    public Statistics getStatistics() {
+        synchronized (this) {
+            return new Statistics(index.size(), bytesInCache, (long) (allocatedBlockCount - freeBlockCount) * blockSize,
+                    (long) allocatedBlockCount * blockSize, bytesCapacity, hitCount, missCount, evictionCount);
+        }
+    }
+
+    /**
+     * 定位到块的起始位置，调用方需持有锁
+     *
+     * @param block 块编号
+     * @return 已定位的slab
+     */
+    private ByteBuffer position( int block ) {
+        final ByteBuffer slab = slabs[block / blocksPerSlab];
+        slab.limit(slab.capacity());
+        slab.position((block % blocksPerSlab) * blockSize);
+        return slab;
+    }
+
+    /**
+     * 申请新的slab，并将其中的块加入空闲栈
+     *
+     * @return 是否申请成功，容量已满返回{@code false}
+     */
+    private boolean allocateSlab() {
+        final int slabIndex = allocatedBlockCount / blocksPerSlab;
+        if (slabIndex >= slabs.length) {
+            return false;
+        }
+        slabs[slabIndex] = ByteBuffer.allocateDirect(blocksPerSlab * blockSize);
+        // 逆序入栈，使块按地址顺序被分配
+        for (int i = blocksPerSlab - 1; i >= 0; i--) {
+            freeBlocks[freeBlockCount++] = slabIndex * blocksPerSlab + i;
+        }
+        allocatedBlockCount += blocksPerSlab;
+        return true;
+    }
+
+    /**
+     * 淘汰最久未使用的数据
+     */
+    private void evictEldest() {
+        final Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+        final Entry eldest = iterator.next().getValue();
+        iterator.remove();
+        removeEntry(eldest);
+        evictionCount++;
+    }
+
+    private void removeEntry( Entry entry ) {
+        if (null != entry) {
+            bytesInCache -= entry.length;
+            if (entry.pins > 0) {
+                // 正在写出，写出结束后释放
+                entry.removed = true;
+            } else {
+                releaseBlocks(entry);
+            }
+        }
+    }
+
+    private void releaseBlocks( Entry entry ) {
+        for (int block : entry.blocks) {
+            freeBlocks[freeBlockCount++] = block;
+        }
+    }
+
+    /**
+     * 索引项，记录内容长度和占用的块
+     */
+    private static class Entry {
+        private final int length;
+        private final int[] blocks;
+        /**
+         * 正在写出此数据的次数，大于0时块不能被释放
+         */
+        private int pins;
+        /**
+         * 是否已从索引中移除，等待写出结束后释放块
+         */
+        private boolean removed;
+
+        Entry( int length, int[] blocks ) {
+            this.length = length;
+            this.blocks = blocks;
+        }
+    }
+
+    /**
+     * 内部静态统计类
+     */
+    public static class Statistics {
+
+        private final int entryCount;
+        private final long bytesInCache;
+        private final long bytesUsed;
+        private final long bytesAllocated;
+        private final long bytesCapacity;
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        Statistics( int entryCount, long bytesInCache, long bytesUsed, long bytesAllocated, long bytesCapacity,
+                    long hitCount, long missCount, long evictionCount ) {
+            this.entryCount = entryCount;
+            this.bytesInCache = bytesInCache;
+            this.bytesUsed = bytesUsed;
+            this.bytesAllocated = bytesAllocated;
+            this.bytesCapacity = bytesCapacity;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        /**
+         * @return 缓存的数据条数
+         */
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        /**
+         * @return 缓存内容的实际byte数
+         */
+        public long getBytesInCache() {
+            return bytesInCache;
+        }
+
+        /**
+         * @return 已被占用的块的byte数，包含块内未用满的部分
+         */
+        public long getBytesUsed() {
+            return bytesUsed;
+        }
+
+        /**
+         * @return 已申请的直接内存byte数
+         */
+        public long getBytesAllocated() {
+            return bytesAllocated;
+        }
+
+        /**
+         * @return 缓存容量（byte数）
+         */
+        public long getBytesCapacity() {
+            return bytesCapacity;
+        }
+
+        /**
+         * @return 命中数
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * @return 丢失数
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return 因空间不足被淘汰的数据条数
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * @return 容量使用率
+         */
+        public double getUtilizationPercent() {
+            return bytesCapacity == 0L ? 0.0D : bytesUsed * 100.0D / bytesCapacity;
+        }
+
+        /**
+         * @return 命中率
+         */
+        public double getHitRate() {
+            final long requestCount = hitCount + missCount;
+            return requestCount == 0L ? 0.0D : hitCount * 100.0D / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "OffHeap Cache Statistics: entries=" + entryCount + ", bytesInCache=" + bytesInCache + ", bytesUsed=" + bytesUsed +
+                    ", bytesAllocated=" + bytesAllocated + ", bytesCapacity=" + bytesCapacity + ", cacheUtilization=" +
+                    String.format("%.1f", getUtilizationPercent()) + ", hitRate=" + String.format("%.1f", getHitRate()) +
+                    ", evictions=" + evictionCount;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.whaleal.icefrog.cache;
+
+/**
+ * 缓存对象的权重计算器，用于按对象大小等计量移除权重和当前缓存的总权重
+ *
+ * @param <K> 缓存键
+ * @param <V> 缓存值
+ * @author wh
+ * @since 1.1.8
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * 每个对象权重均为1的计算器，即按个数计量
+     *
+     * @param <K> 缓存键
+     * @param <V> 缓存值
+     * @return 计算器
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> Weigher<K, V> singleton() {
+        return (Weigher<K, V>) SingletonWeigher.INSTANCE;
+    }
+
+    /**
+     * 计算对象的权重
+     *
+     * @param key          键
+     * @param cachedObject 被缓存的对象
+     * @return 权重，不能为负数
+     */
+    long weigh( K key, V cachedObject );
+
+    /**
+     * 每个对象权重均为1的计算器
+     */
+    enum SingletonWeigher implements Weigher<Object, Object> {
+        INSTANCE;
+
+        @Override
+        public long weigh( Object key, Object cachedObject ) {
+            return 1;
+        }
+    }
+}
@@ -2,6 +2,11 @@ package com.whaleal.icefrog.cache.impl;
 
 import com.whaleal.icefrog.cache.Cache;
 import com.whaleal.icefrog.cache.CacheListener;
+import com.whaleal.icefrog.cache.Weigher;
+import com.whaleal.icefrog.cache.stats.CacheStats;
+import com.whaleal.icefrog.cache.stats.DisabledStatsCounter;
+import com.whaleal.icefrog.cache.stats.RemovalCause;
+import com.whaleal.icefrog.cache.stats.StatsCounter;
 import com.whaleal.icefrog.core.collection.CopiedIter;
 import com.whaleal.icefrog.core.lang.func.Func0;
 
@@ -66,6 +71,15 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     protected CacheListener<K, V> listener;
 
+    /**
+     * 统计记录器，默认不记录
+     */
+    protected volatile StatsCounter statsCounter = DisabledStatsCounter.INSTANCE;
+    /**
+     * 权重计算器，默认每个对象权重为1
+     */
+    protected volatile Weigher<? super K, ? super V> weigher = Weigher.singleton();
+
     // ---------------------------------------------------------------- put start
     @Override
     public void put( K key, V object ) {
@@ -91,14 +105,39 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      * @since 1.0.0
      */
     private void putWithoutLock( K key, V object, long timeout ) {
-        CacheObj<K, V> co = new CacheObj<>(key, object, timeout);
+        CacheObj<K, V> co = newCacheObj(key, object, timeout);
         if (timeout != 0) {
             existCustomTimeout = true;
         }
         if (isFull()) {
             pruneCache();
         }
-        cacheMap.put(key, co);
+        final CacheObj<K, V> replaced = cacheMap.put(key, co);
+        afterPutWithoutLock(co, replaced);
+    }
+
+    /**
+     * 创建缓存对象<br>
+     * 子类可重写此方法用于创建携带额外信息的缓存对象
+     *
+     * @param key     键
+     * @param object  值
+     * @param timeout 超时时长
+     * @return 缓存对象
+     * @since 1.1.8
+     */
+    protected CacheObj<K, V> newCacheObj( K key, V object, long timeout ) {
+        return new CacheObj<>(key, object, timeout);
+    }
+
+    /**
+     * 对象加入缓存后的回调，调用时已持有写锁。默认无动作
+     *
+     * @param co       新加入的缓存对象
+     * @param replaced 被替换的缓存对象，无则为{@code null}
+     * @since 1.1.8
+     */
+    protected void afterPutWithoutLock( CacheObj<K, V> co, CacheObj<K, V> replaced ) {
     }
     // ---------------------------------------------------------------- put end
 
@@ -151,11 +190,7 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
                 // 双重检查锁，防止在竞争锁的过程中已经有其它线程写入
                 final CacheObj<K, V> co = cacheMap.get(key);
                 if (null == co || co.isExpired()) {
-                    try {
-                        v = supplier.apply();
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
+                    v = CacheSupport.load(this.statsCounter, supplier);
                     put(key, v, this.timeout);
                 } else {
                     v = co.get(isUpdateLastAccess);
@@ -186,9 +221,11 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         // 未命中
         if (null == co) {
             missCount.increment();
+            statsCounter.recordMisses(1);
             return null;
         } else if (false == co.isExpired()) {
             hitCount.increment();
+            statsCounter.recordHits(1);
             return co.get(isUpdateLastAccess);
         }
 
@@ -311,6 +348,37 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         return this;
     }
 
+    /**
+     * 设置统计记录器
+     *
+     * @param statsCounter 统计记录器，{@code null}表示不记录
+     * @return this
+     * @since 1.1.8
+     */
+    @Override
+    public AbstractCache<K, V> setStatsCounter( StatsCounter statsCounter ) {
+        this.statsCounter = (null == statsCounter) ? DisabledStatsCounter.INSTANCE : statsCounter;
+        return this;
+    }
+
+    /**
+     * 设置权重计算器，用于计量移除权重和当前缓存的总权重
+     *
+     * @param weigher 权重计算器，{@code null}表示每个对象权重为1
+     * @return this
+     * @since 1.1.8
+     */
+    @Override
+    public AbstractCache<K, V> setWeigher( Weigher<? super K, ? super V> weigher ) {
+        this.weigher = (null == weigher) ? Weigher.singleton() : weigher;
+        return this;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return CacheSupport.snapshot(this, this.statsCounter, this.weigher);
+    }
+
     /**
      * 返回所有键
      *
@@ -335,6 +403,29 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         }
     }
 
+    /**
+     * 对象移除回调，记录移除统计后调用{@link #onRemove(Object, Object)}<br>
+     * 子类在淘汰或清理对象时应调用此方法
+     *
+     * @param key          键
+     * @param cachedObject 被缓存的对象
+     * @param cause        移除原因
+     * @since 1.1.8
+     */
+    protected void onRemove( K key, V cachedObject, RemovalCause cause ) {
+        CacheSupport.recordRemoval(this.statsCounter, this.weigher, key, cachedObject, cause);
+        onRemove(key, cachedObject);
+    }
+
+    /**
+     * 通过{@link #remove(Object)}或get时过期移除对象后的回调，调用时已持有写锁。默认无动作
+     *
+     * @param co 被移除的缓存对象
+     * @since 1.1.8
+     */
+    protected void afterRemoveWithoutLock( CacheObj<K, V> co ) {
+    }
+
     /**
      * 移除key对应的对象
      *
@@ -350,7 +441,7 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
             lock.unlockWrite(stamp);
         }
         if (null != co) {
-            onRemove(co.key, co.obj);
+            onRemove(co.key, co.obj, withMissCount ? RemovalCause.EXPIRED : RemovalCause.EXPLICIT);
         }
     }
 
@@ -363,9 +454,13 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     private CacheObj<K, V> removeWithoutLock( K key, boolean withMissCount ) {
         final CacheObj<K, V> co = cacheMap.remove(key);
+        if (null != co) {
+            afterRemoveWithoutLock(co);
+        }
         if (withMissCount) {
             // 在丢失计数有效的情况下，移除一般为get时的超时操作，此处应该丢失数+1
             this.missCount.increment();
+            this.statsCounter.recordMisses(1);
         }
         return co;
     }
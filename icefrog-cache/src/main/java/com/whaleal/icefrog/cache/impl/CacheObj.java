@@ -63,6 +63,30 @@ public class CacheObj<K, V> implements Serializable {
         return this.obj;
     }
 
+    /**
+     * 获取对象存活时长，0表示永久存活
+     *
+     * @return 存活时长，单位毫秒
+     * @since 1.1.8
+     */
+    public long getTtl() {
+        return this.ttl;
+    }
+
+    /**
+     * 获取对象的过期时间点，即最后访问时间+存活时长，{@code 0}表示永不过期
+     *
+     * @return 过期时间点，单位毫秒，时间溢出时返回{@link Long#MAX_VALUE}
+     * @since 1.1.8
+     */
+    public long getExpiredTime() {
+        if (this.ttl > 0) {
+            final long expiredTime = this.lastAccess + this.ttl;
+            return expiredTime > 0 ? expiredTime : Long.MAX_VALUE;
+        }
+        return 0;
+    }
+
     @Override
     public String toString() {
         return "CacheObj [key=" + key + ", obj=" + obj + ", lastAccess=" + lastAccess + ", accessCount=" + accessCount + ", ttl=" + ttl + "]";
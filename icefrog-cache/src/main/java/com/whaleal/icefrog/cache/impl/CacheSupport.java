@@ -0,0 +1,94 @@
+package com.whaleal.icefrog.cache.impl;
+
+import com.whaleal.icefrog.cache.Cache;
+import com.whaleal.icefrog.cache.Weigher;
+import com.whaleal.icefrog.cache.stats.CacheStats;
+import com.whaleal.icefrog.cache.stats.DisabledStatsCounter;
+import com.whaleal.icefrog.cache.stats.RemovalCause;
+import com.whaleal.icefrog.cache.stats.StatsCounter;
+import com.whaleal.icefrog.core.lang.func.Func0;
+
+import java.util.Iterator;
+
+/**
+ * {@link AbstractCache}和{@link SegmentedCache}共用的加载与统计方法
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+final class CacheSupport {
+
+    private CacheSupport() {
+    }
+
+    /**
+     * 调用加载函数并记录加载耗时，加载结果为{@code null}视为加载失败
+     *
+     * @param <V>          值类型
+     * @param statsCounter 统计记录器
+     * @param supplier     加载函数
+     * @return 加载的值
+     */
+    static <V> V load( StatsCounter statsCounter, Func0<V> supplier ) {
+        final long startTime = System.nanoTime();
+        final V v;
+        try {
+            v = supplier.apply();
+        } catch (Exception e) {
+            statsCounter.recordLoadFailure(System.nanoTime() - startTime);
+            throw new RuntimeException(e);
+        }
+        if (null == v) {
+            statsCounter.recordLoadFailure(System.nanoTime() - startTime);
+        } else {
+            statsCounter.recordLoadSuccess(System.nanoTime() - startTime);
+        }
+        return v;
+    }
+
+    /**
+     * 记录一次移除及被移除对象的权重，未开启统计时不计算权重
+     *
+     * @param <K>          键类型
+     * @param <V>          值类型
+     * @param statsCounter 统计记录器
+     * @param weigher      权重计算器
+     * @param key          键
+     * @param cachedObject 被移除的对象
+     * @param cause        移除原因
+     */
+    static <K, V> void recordRemoval( StatsCounter statsCounter, Weigher<? super K, ? super V> weigher,
+                                      K key, V cachedObject, RemovalCause cause ) {
+        if (DisabledStatsCounter.INSTANCE != statsCounter) {
+            statsCounter.recordRemoval(cause, weigher.weigh(key, cachedObject));
+        }
+    }
+
+    /**
+     * 生成统计数据快照，并计算当前缓存的总权重<br>
+     * 未开启统计时直接返回记录器的快照；使用默认权重计算器时总权重即缓存对象数，否则遍历所有对象计算
+     *
+     * @param <K>          键类型
+     * @param <V>          值类型
+     * @param cache        缓存
+     * @param statsCounter 统计记录器
+     * @param weigher      权重计算器
+     * @return 统计数据快照
+     */
+    static <K, V> CacheStats snapshot( Cache<K, V> cache, StatsCounter statsCounter, Weigher<? super K, ? super V> weigher ) {
+        if (DisabledStatsCounter.INSTANCE == statsCounter) {
+            return statsCounter.snapshot();
+        }
+        long weightedSize = 0;
+        if (Weigher.singleton() == weigher) {
+            weightedSize = cache.size();
+        } else {
+            final Iterator<CacheObj<K, V>> iterator = cache.cacheObjIterator();
+            while (iterator.hasNext()) {
+                final CacheObj<K, V> co = iterator.next();
+                weightedSize += weigher.weigh(co.key, co.obj);
+            }
+        }
+        return statsCounter.snapshot().withWeightedSize(weightedSize);
+    }
+}
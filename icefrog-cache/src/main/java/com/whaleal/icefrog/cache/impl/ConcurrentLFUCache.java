@@ -0,0 +1,70 @@
+package com.whaleal.icefrog.cache.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分段并发的LFU(least frequently used) 最少使用率缓存<br>
+ * 访问计数保存在{@link CacheObj}中并原子递增，因此读操作完全无锁；
+ * 写操作只锁定key所在的段，段满时在段内淘汰过期或访问计数最小的对象。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author wh
+ * @since 1.1.8
+ */
+public class ConcurrentLFUCache<K, V> extends SegmentedCache<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 构造
+     *
+     * @param capacity 容量
+     */
+    public ConcurrentLFUCache( int capacity ) {
+        this(capacity, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param capacity 容量
+     * @param timeout  过期时长
+     */
+    public ConcurrentLFUCache( int capacity, long timeout ) {
+        this(capacity, timeout, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param capacity         容量
+     * @param timeout          过期时长
+     * @param concurrencyLevel 预计的并发写线程数，{@code 0}表示使用CPU核数
+     */
+    public ConcurrentLFUCache( int capacity, long timeout, int concurrencyLevel ) {
+        super(capacity, timeout, concurrencyLevel);
+    }
+
+    @Override
+    protected Map<K, CacheObj<K, V>> createSegmentMap( int segmentCapacity ) {
+        return new HashMap<>(segmentCapacity + 1, 1.0f);
+    }
+
+    /**
+     * 优先淘汰过期对象，否则淘汰段内访问计数最小的对象
+     */
+    @Override
+    protected CacheObj<K, V> selectVictim( Map<K, CacheObj<K, V>> segmentMap ) {
+        CacheObj<K, V> comin = null;
+        for (CacheObj<K, V> co : segmentMap.values()) {
+            if (co.isExpired()) {
+                return co;
+            }
+            if (comin == null || co.accessCount.get() < comin.accessCount.get()) {
+                comin = co;
+            }
+        }
+        return comin;
+    }
+}
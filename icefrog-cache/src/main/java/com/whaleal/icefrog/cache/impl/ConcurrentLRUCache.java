@@ -0,0 +1,82 @@
+package com.whaleal.icefrog.cache.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分段并发的LRU (least recently used)最近最久未使用缓存<br>
+ * 淘汰规则与{@link LRUCache}相同，区别在于：
+ * <ul>
+ * <li>读操作不加锁，访问顺序通过{@link java.util.concurrent.locks.Lock#tryLock()}尽力记录，段锁被占用时放弃本次排序</li>
+ * <li>写操作只锁定key所在的段，多核下读写均可并行</li>
+ * <li>每个段独立淘汰，因此淘汰的是段内最久未使用的对象，属于近似LRU</li>
+ * </ul>
+ * 容量较小时只使用一个段，此时与{@link LRUCache}的淘汰结果一致。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author wh
+ * @since 1.1.8
+ */
+public class ConcurrentLRUCache<K, V> extends SegmentedCache<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 构造<br>
+     * 默认无超时
+     *
+     * @param capacity 容量
+     */
+    public ConcurrentLRUCache( int capacity ) {
+        this(capacity, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param capacity 容量
+     * @param timeout  默认超时时间，单位：毫秒
+     */
+    public ConcurrentLRUCache( int capacity, long timeout ) {
+        this(capacity, timeout, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param capacity         容量
+     * @param timeout          默认超时时间，单位：毫秒
+     * @param concurrencyLevel 预计的并发写线程数，{@code 0}表示使用CPU核数
+     */
+    public ConcurrentLRUCache( int capacity, long timeout, int concurrencyLevel ) {
+        super(capacity, timeout, concurrencyLevel);
+    }
+
+    @Override
+    protected Map<K, CacheObj<K, V>> createSegmentMap( int segmentCapacity ) {
+        //链表key按照访问顺序排序，调用get方法后，会将这次访问的元素移至尾部
+        return new LinkedHashMap<>(segmentCapacity + 1, 1.0f, true);
+    }
+
+    /**
+     * 淘汰链表头部（最久未使用）的对象，过期对象交由get或{@link #prune()}清理
+     */
+    @Override
+    protected CacheObj<K, V> selectVictim( Map<K, CacheObj<K, V>> segmentMap ) {
+        final Iterator<CacheObj<K, V>> values = segmentMap.values().iterator();
+        return values.hasNext() ? values.next() : null;
+    }
+
+    @Override
+    protected void afterAccess( Segment<K, V> segment, CacheObj<K, V> co ) {
+        // 读操作不等待锁，热点对象总能在后续访问中被移至尾部
+        if (segment.tryLock()) {
+            try {
+                segment.map.get(co.key);
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.whaleal.icefrog.cache.impl;
+
+import java.io.Serializable;
+import java.util.function.Predicate;
+
+/**
+ * 缓存对象过期用的多层时间轮<br>
+ * 参考{@code com.whaleal.icefrog.cron.timingwheel.TimingWheel}的分层思路，区别在于：
+ * <ul>
+ * <li>不使用DelayQueue和独立线程，由调用方在持有缓存写锁时推进时间</li>
+ * <li>推进时只处理指针经过的时间槽，代价与到期对象数成正比，而不是与缓存总数成正比</li>
+ * <li>各层的槽宽均为2的幂，通过位移定位槽位</li>
+ * </ul>
+ * 各层的槽宽和覆盖范围：
+ * <pre>
+ * 第1层：16ms  * 64 ≈ 1秒
+ * 第2层：1秒   * 64 ≈ 65秒
+ * 第3层：65秒  * 64 ≈ 70分钟
+ * 第4层：70分钟 * 64 ≈ 74小时
+ * 第5层：超出以上范围的对象，每约74小时重新分配一次
+ * </pre>
+ * 槽到期时对象若因访问而延长了存活时间，会被重新放入对应的槽，即懒惰重排。<br>
+ * 此类非线程安全。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author wh
+ * @since 1.1.8
+ */
+public class ExpireTimingWheel<K, V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 每层的槽数
+     */
+    private static final int[] BUCKETS = {64, 64, 64, 64, 1};
+    /**
+     * 每层槽宽的位移数，槽宽为 {@code 1 << SHIFT[i]} 毫秒
+     */
+    private static final int[] SHIFT = {4, 10, 16, 22, 28};
+
+    private final Node<K, V>[][] wheel;
+    /**
+     * 时间轮当前时间，单位毫秒
+     */
+    private volatile long time;
+
+    /**
+     * 构造
+     *
+     * @param currentTime 当前时间，单位毫秒
+     */
+    @SuppressWarnings("unchecked")
+    public ExpireTimingWheel( long currentTime ) {
+        this.time = currentTime;
+        this.wheel = new Node[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new Node[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = Node.sentinel();
+            }
+        }
+    }
+
+    /**
+     * 将对象放入过期时间对应的槽，永不过期的对象不放入
+     *
+     * @param node 缓存对象
+     */
+    public void schedule( Node<K, V> node ) {
+        final long expiredTime = node.getExpiredTime();
+        if (0 == expiredTime || Long.MAX_VALUE == expiredTime) {
+            return;
+        }
+        link(findBucket(expiredTime), node);
+    }
+
+    /**
+     * 将对象从时间轮中移除
+     *
+     * @param node 缓存对象
+     */
+    public void unschedule( Node<K, V> node ) {
+        if (null != node.next) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    /**
+     * 距离上次推进是否已经跨过最小的槽，未跨过时{@link #advance(long, Predicate)}不会有任何动作<br>
+     * 此方法可在不持有锁时调用
+     *
+     * @param currentTime 当前时间，单位毫秒
+     * @return 是否需要推进
+     */
+    public boolean isAdvanceable( long currentTime ) {
+        return (currentTime >>> SHIFT[0]) > (time >>> SHIFT[0]);
+    }
+
+    /**
+     * 推进时间轮，处理指针经过的所有槽
+     *
+     * @param currentTime 当前时间，单位毫秒
+     * @param expirer     到期对象处理器，返回{@code true}表示对象已过期并丢弃，{@code false}表示对象未过期，需要重新放入时间轮
+     */
+    public void advance( long currentTime, Predicate<Node<K, V>> expirer ) {
+        final long previousTime = this.time;
+        if (currentTime <= previousTime) {
+            // 时间回拨时不处理
+            return;
+        }
+        this.time = currentTime;
+
+        for (int i = 0; i < SHIFT.length; i++) {
+            final long previousTicks = (previousTime >>> SHIFT[i]);
+            final long currentTicks = (currentTime >>> SHIFT[i]);
+            if (currentTicks <= previousTicks) {
+                // 低层未跨槽，高层必然也未跨槽
+                break;
+            }
+            expire(i, previousTicks, currentTicks, expirer);
+        }
+    }
+
+    /**
+     * 清空时间轮
+     */
+    public void clear() {
+        for (Node<K, V>[] buckets : wheel) {
+            for (Node<K, V> sentinel : buckets) {
+                Node<K, V> node = sentinel.next;
+                while (node != sentinel) {
+                    final Node<K, V> next = node.next;
+                    node.prev = null;
+                    node.next = null;
+                    node = next;
+                }
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+    }
+
+    /**
+     * 处理某一层中指针经过的槽
+     *
+     * @param index         层
+     * @param previousTicks 上次推进时的刻度
+     * @param currentTicks  本次推进时的刻度
+     * @param expirer       到期对象处理器
+     */
+    private void expire( int index, long previousTicks, long currentTicks, Predicate<Node<K, V>> expirer ) {
+        final Node<K, V>[] buckets = wheel[index];
+        final int mask = buckets.length - 1;
+        // 上次推进时所在的槽也要处理，其中可能有推进后才加入的已到期对象
+        final int steps = (int) Math.min(1 + currentTicks - previousTicks, buckets.length);
+        final int start = (int) (previousTicks & mask);
+        final int end = start + steps;
+
+        for (int i = start; i < end; i++) {
+            final Node<K, V> sentinel = buckets[i & mask];
+            Node<K, V> node = sentinel.next;
+            // 先将整个槽摘下，重新放入的对象可能落回同一个槽
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (node != sentinel) {
+                final Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                if (false == expirer.test(node)) {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * 查找过期时间对应的槽
+     *
+     * @param expiredTime 过期时间
+     * @return 槽的哨兵节点
+     */
+    private Node<K, V> findBucket( long expiredTime ) {
+        final long now = this.time;
+        if (expiredTime < now) {
+            // 已到期的对象放入当前槽，下一次推进即被处理
+            expiredTime = now;
+        }
+        final long duration = expiredTime - now;
+        final int last = wheel.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (duration < (1L << SHIFT[i + 1])) {
+                final long ticks = (expiredTime >>> SHIFT[i]);
+                return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+
+    /**
+     * 将节点加入槽的链表尾部
+     *
+     * @param sentinel 槽的哨兵节点
+     * @param node     节点
+     */
+    private static <K, V> void link( Node<K, V> sentinel, Node<K, V> node ) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    /**
+     * 时间轮中的缓存对象，自身即为槽中双向链表的节点，无需额外分配
+     *
+     * @param <K> 键类型
+     * @param <V> 值类型
+     */
+    public static class Node<K, V> extends CacheObj<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        /**
+         * 构造
+         *
+         * @param key 键
+         * @param obj 值
+         * @param ttl 超时时长
+         */
+        protected Node( K key, V obj, long ttl ) {
+            super(key, obj, ttl);
+        }
+
+        /**
+         * 创建槽的哨兵节点，哨兵节点的前后节点均为自身
+         *
+         * @return 哨兵节点
+         */
+        static <K, V> Node<K, V> sentinel() {
+            final Node<K, V> sentinel = new Node<>(null, null, 0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+    }
+}
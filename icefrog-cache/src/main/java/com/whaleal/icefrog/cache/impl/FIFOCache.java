@@ -1,5 +1,7 @@
 package com.whaleal.icefrog.cache.impl;
 
+import com.whaleal.icefrog.cache.stats.RemovalCause;
+
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 
@@ -56,6 +58,7 @@ public class FIFOCache<K, V> extends AbstractCache<K, V> {
             CacheObj<K, V> co = values.next();
             if (co.isExpired()) {
                 values.remove();
+                onRemove(co.key, co.obj, RemovalCause.EXPIRED);
                 count++;
             }
             if (first == null) {
@@ -64,9 +67,8 @@ public class FIFOCache<K, V> extends AbstractCache<K, V> {
         }
 
         // 清理结束后依旧是满的，则删除第一个被缓存的对象
-        if (isFull() && null != first) {
-            cacheMap.remove(first.key);
-            onRemove(first.key, first.obj);
+        if (isFull() && null != first && null != cacheMap.remove(first.key)) {
+            onRemove(first.key, first.obj, RemovalCause.SIZE);
             count++;
         }
         return count;
@@ -0,0 +1,141 @@
+package com.whaleal.icefrog.cache.impl;
+
+import java.io.Serializable;
+
+/**
+ * 基于Count-Min Sketch的访问频率估算器，用于TinyLFU准入策略<br>
+ * <ul>
+ * <li>每个计数器占4位，一个long容纳16个计数器，最大计数为15</li>
+ * <li>每个元素映射到同一组（4个）中的4个计数器，取其最小值作为频率估算</li>
+ * <li>累计计数达到采样数后所有计数器减半（老化），使频率能反映近期访问情况</li>
+ * </ul>
+ * 此类非线程安全，需由调用方加锁。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class FrequencySketch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    /**
+     * 每个4位计数器右移一位后清除溢出到相邻计数器的最高位
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+    /**
+     * 每个4位计数器的最低位
+     */
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * 构造
+     *
+     * @param maximumSize 预计需要统计的元素个数，一般为缓存容量
+     */
+    public FrequencySketch( int maximumSize ) {
+        final int maximum = Math.max(maximumSize, 1);
+        int tableSize = 1;
+        while (tableSize < maximum && tableSize < (1 << 30)) {
+            tableSize <<= 1;
+        }
+        this.table = new long[tableSize];
+        this.tableMask = tableSize - 1;
+        this.sampleSize = (maximum > Integer.MAX_VALUE / 10) ? Integer.MAX_VALUE : 10 * maximum;
+    }
+
+    /**
+     * 估算元素的访问频率
+     *
+     * @param e 元素
+     * @return 频率，范围0~15
+     */
+    public int frequency( Object e ) {
+        final int hash = spread(e.hashCode());
+        final int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * 元素访问频率+1，计数器已达上限时不再增加
+     *
+     * @param e 元素
+     */
+    public void increment( Object e ) {
+        final int hash = spread(e.hashCode());
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && (++size == sampleSize)) {
+            reset();
+        }
+    }
+
+    /**
+     * 指定位置的计数器+1
+     *
+     * @param i 数组下标
+     * @param j 计数器在long中的序号（0~15）
+     * @return 是否增加成功
+     */
+    private boolean incrementAt( int i, int j ) {
+        final int offset = j << 2;
+        final long mask = (0xfL << offset);
+        if ((table[i] & mask) != mask) {
+            table[i] += (1L << offset);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 所有计数器减半
+     */
+    private void reset() {
+        int count = 0;
+        for (int i = 0; i < table.length; i++) {
+            // 奇数计数器减半时会丢失1，用于修正总数
+            count += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (count >>> 2);
+    }
+
+    /**
+     * 计算第i个hash函数对应的数组下标
+     *
+     * @param item hash
+     * @param i    第几个hash函数
+     * @return 下标
+     */
+    private int indexOf( int item, int i ) {
+        long hash = (item + SEEDS[i]) * SEEDS[i];
+        hash += (hash >>> 32);
+        return ((int) hash) & tableMask;
+    }
+
+    /**
+     * 二次扰动hashCode，避免质量较差的hashCode集中在少数计数器上
+     *
+     * @param x hashCode
+     * @return 扰动后的hash
+     */
+    private static int spread( int x ) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
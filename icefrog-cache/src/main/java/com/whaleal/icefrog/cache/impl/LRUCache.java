@@ -1,8 +1,10 @@
 package com.whaleal.icefrog.cache.impl;
 
+import com.whaleal.icefrog.cache.stats.RemovalCause;
 import com.whaleal.icefrog.core.map.FixedLinkedHashMap;
 
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * LRU (least recently used)最近最久未使用缓存<br>
@@ -45,7 +47,20 @@ public class LRUCache<K, V> extends AbstractCache<K, V> {
         this.timeout = timeout;
 
         //链表key按照访问顺序排序，调用get方法后，会将这次访问的元素移至头部
-        cacheMap = new FixedLinkedHashMap<>(capacity);
+        cacheMap = new FixedLinkedHashMap<K, CacheObj<K, V>>(capacity) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<K, CacheObj<K, V>> eldest ) {
+                if (super.removeEldestEntry(eldest)) {
+                    // 容量已满被淘汰的对象同样需要回调和计数
+                    final CacheObj<K, V> co = eldest.getValue();
+                    onRemove(co.key, co.obj, RemovalCause.SIZE);
+                    return true;
+                }
+                return false;
+            }
+        };
     }
 
     // ---------------------------------------------------------------- prune
@@ -65,7 +80,7 @@ public class LRUCache<K, V> extends AbstractCache<K, V> {
             co = values.next();
             if (co.isExpired()) {
                 values.remove();
-                onRemove(co.key, co.obj);
+                onRemove(co.key, co.obj, RemovalCause.EXPIRED);
                 count++;
             }
         }
@@ -0,0 +1,600 @@
+package com.whaleal.icefrog.cache.impl;
+
+import com.whaleal.icefrog.cache.Cache;
+import com.whaleal.icefrog.cache.CacheListener;
+import com.whaleal.icefrog.cache.Weigher;
+import com.whaleal.icefrog.cache.stats.CacheStats;
+import com.whaleal.icefrog.cache.stats.DisabledStatsCounter;
+import com.whaleal.icefrog.cache.stats.RemovalCause;
+import com.whaleal.icefrog.cache.stats.StatsCounter;
+import com.whaleal.icefrog.core.collection.CopiedIter;
+import com.whaleal.icefrog.core.lang.func.Func0;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分段并发缓存的默认实现<br>
+ * 与{@link AbstractCache}使用一把全局锁不同，此缓存按照key的hash将数据分散到多个段（Segment）中：
+ * <ul>
+ * <li>读操作直接访问{@link ConcurrentHashMap}，不加锁</li>
+ * <li>写操作和淘汰只锁定key所在的段，不同段之间互不阻塞</li>
+ * <li>每个段独立维护自己的容量和淘汰顺序，所有段的容量之和即为缓存容量</li>
+ * </ul>
+ * 继承此抽象缓存需要：<br>
+ * <ul>
+ * <li>为每个段创建一个新的Map，用于维护淘汰顺序</li>
+ * <li>实现 {@code selectVictim} 淘汰策略</li>
+ * </ul>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author wh
+ * @since 1.1.8
+ */
+public abstract class SegmentedCache<K, V> implements Cache<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 最大段数
+     */
+    private static final int MAX_SEGMENTS = 64;
+    /**
+     * 每段的最小容量，容量过小时减少段数，避免淘汰顺序过于局部化
+     */
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    /**
+     * 写的时候每个key一把锁，降低锁的粒度
+     */
+    protected final Map<K, Lock> keyLockMap = new ConcurrentHashMap<>();
+    /**
+     * 全部缓存对象，用于无锁读取
+     */
+    protected final ConcurrentHashMap<K, CacheObj<K, V>> cacheMap;
+    /**
+     * 段
+     */
+    protected final Segment<K, V>[] segments;
+    /**
+     * 返回缓存容量，{@code 0}表示无大小限制
+     */
+    protected final int capacity;
+    /**
+     * 缓存失效时长， {@code 0} 表示无限制，单位毫秒
+     */
+    protected final long timeout;
+    /**
+     * 命中数，即命中缓存计数
+     */
+    protected final LongAdder hitCount = new LongAdder();
+    /**
+     * 丢失数，即未命中缓存计数
+     */
+    protected final LongAdder missCount = new LongAdder();
+    /**
+     * 每个对象是否有单独的失效时长，用于决定清理过期对象是否有必要。
+     */
+    protected volatile boolean existCustomTimeout;
+    /**
+     * 缓存监听
+     */
+    protected volatile CacheListener<K, V> listener;
+    /**
+     * 统计记录器，默认不记录
+     */
+    protected volatile StatsCounter statsCounter = DisabledStatsCounter.INSTANCE;
+    /**
+     * 权重计算器，默认每个对象权重为1
+     */
+    protected volatile Weigher<? super K, ? super V> weigher = Weigher.singleton();
+
+    private final int segmentMask;
+
+    /**
+     * 构造
+     *
+     * @param capacity         容量，{@code 0}表示无大小限制
+     * @param timeout          默认超时时间，单位：毫秒
+     * @param concurrencyLevel 预计的并发写线程数，用于决定段数，{@code 0}表示使用CPU核数
+     */
+    @SuppressWarnings("unchecked")
+    protected SegmentedCache( int capacity, long timeout, int concurrencyLevel ) {
+        if (capacity < 0) {
+            capacity = 0;
+        }
+        if (concurrencyLevel <= 0) {
+            concurrencyLevel = Runtime.getRuntime().availableProcessors();
+        }
+        this.capacity = capacity;
+        this.timeout = timeout;
+
+        final int segmentCount = segmentCount(capacity, concurrencyLevel);
+        this.segmentMask = segmentCount - 1;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentCapacity = 0;
+            if (capacity > 0) {
+                // 余数分摊到前几个段，保证总容量精确等于capacity
+                segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+            }
+            this.segments[i] = new Segment<>(createSegmentMap(segmentCapacity), segmentCapacity);
+        }
+        this.cacheMap = new ConcurrentHashMap<>(capacity > 0 ? capacity : 16, 0.75f, segmentCount);
+    }
+
+    /**
+     * 计算段数，段数为2的幂
+     *
+     * @param capacity         容量
+     * @param concurrencyLevel 并发数
+     * @return 段数
+     */
+    private static int segmentCount( int capacity, int concurrencyLevel ) {
+        int count = 1;
+        while (count < concurrencyLevel && count < MAX_SEGMENTS) {
+            count <<= 1;
+        }
+        if (capacity > 0) {
+            while (count > 1 && capacity / count < MIN_SEGMENT_CAPACITY) {
+                count >>= 1;
+            }
+        }
+        return count;
+    }
+
+    // ---------------------------------------------------------------- abstract
+
+    /**
+     * 创建段内用于维护淘汰顺序的Map，此Map只会在持有段锁时访问
+     *
+     * @param segmentCapacity 段容量，{@code 0}表示无大小限制
+     * @return Map
+     */
+    protected abstract Map<K, CacheObj<K, V>> createSegmentMap( int segmentCapacity );
+
+    /**
+     * 段已满时选出需要淘汰的对象<br>
+     * 子类实现此方法时无需加锁
+     *
+     * @param segmentMap 段内Map
+     * @return 被淘汰的对象，{@code null}表示无可淘汰对象
+     */
+    protected abstract CacheObj<K, V> selectVictim( Map<K, CacheObj<K, V>> segmentMap );
+
+    /**
+     * 读命中后的回调，默认无动作<br>
+     * 子类可重写此方法用于记录访问顺序，调用时未持有段锁
+     *
+     * @param segment 对象所在段
+     * @param co      命中的缓存对象
+     */
+    protected void afterAccess( Segment<K, V> segment, CacheObj<K, V> co ) {
+    }
+
+    // ---------------------------------------------------------------- put start
+    @Override
+    public void put( K key, V object ) {
+        put(key, object, timeout);
+    }
+
+    @Override
+    public void put( K key, V object, long timeout ) {
+        final CacheObj<K, V> co = new CacheObj<>(key, object, timeout);
+        if (timeout != 0) {
+            existCustomTimeout = true;
+        }
+
+        final Segment<K, V> segment = segmentFor(key);
+        List<CacheObj<K, V>> evicted = null;
+        segment.lock();
+        try {
+            if (segment.capacity > 0 && false == segment.map.containsKey(key)) {
+                while (segment.map.size() >= segment.capacity) {
+                    final CacheObj<K, V> victim = selectVictim(segment.map);
+                    if (null == victim) {
+                        break;
+                    }
+                    segment.map.remove(victim.key);
+                    cacheMap.remove(victim.key, victim);
+                    if (null == evicted) {
+                        evicted = new ArrayList<>(1);
+                    }
+                    evicted.add(victim);
+                }
+            }
+            segment.map.put(key, co);
+            cacheMap.put(key, co);
+        } finally {
+            segment.unlock();
+        }
+
+        // 回调放在锁外执行，避免监听中的耗时操作阻塞同段的写入
+        if (null != evicted) {
+            for (CacheObj<K, V> victim : evicted) {
+                onRemove(victim.key, victim.obj, RemovalCause.SIZE);
+            }
+        }
+    }
+    // ---------------------------------------------------------------- put end
+
+    // ---------------------------------------------------------------- get start
+    @Override
+    public boolean containsKey( K key ) {
+        final CacheObj<K, V> co = cacheMap.get(key);
+        if (co == null) {
+            return false;
+        }
+        if (false == co.isExpired()) {
+            return true;
+        }
+
+        // 过期
+        remove(key, co, true);
+        return false;
+    }
+
+    /**
+     * 获取未过期的值，不记录命中统计，不影响访问顺序和最后访问时间，也不移除已过期的对象
+     *
+     * @param key 键
+     * @return 值，不存在或已过期返回{@code null}
+     * @since 1.1.8
+     */
+    public V getQuietly( K key ) {
+        final CacheObj<K, V> co = cacheMap.get(key);
+        return (null == co || co.isExpired()) ? null : co.getValue();
+    }
+
+    /**
+     * @return 命中数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return 丢失数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @Override
+    public V get( K key, boolean isUpdateLastAccess, Func0<V> supplier ) {
+        V v = get(key, isUpdateLastAccess);
+        if (null == v && null != supplier) {
+            final Lock keyLock = keyLockMap.computeIfAbsent(key, k -> new ReentrantLock());
+            keyLock.lock();
+            try {
+                // 双重检查锁，防止在竞争锁的过程中已经有其它线程写入
+                final CacheObj<K, V> co = cacheMap.get(key);
+                if (null == co || co.isExpired()) {
+                    v = CacheSupport.load(this.statsCounter, supplier);
+                    put(key, v, this.timeout);
+                } else {
+                    v = co.get(isUpdateLastAccess);
+                }
+            } finally {
+                keyLock.unlock();
+                keyLockMap.remove(key);
+            }
+        }
+        return v;
+    }
+
+    @Override
+    public V get( K key, boolean isUpdateLastAccess ) {
+        final CacheObj<K, V> co = cacheMap.get(key);
+
+        // 未命中
+        if (null == co) {
+            missCount.increment();
+            statsCounter.recordMisses(1);
+            return null;
+        } else if (false == co.isExpired()) {
+            hitCount.increment();
+            statsCounter.recordHits(1);
+            afterAccess(segmentFor(key), co);
+            return co.get(isUpdateLastAccess);
+        }
+
+        // 过期，既不算命中也不算非命中
+        remove(key, co, true);
+        return null;
+    }
+
+    // ---------------------------------------------------------------- get end
+
+    @Override
+    public Iterator<V> iterator() {
+        CacheObjIterator<K, V> copiedIterator = (CacheObjIterator<K, V>) this.cacheObjIterator();
+        return new CacheValuesIterator<>(copiedIterator);
+    }
+
+    @Override
+    public Iterator<CacheObj<K, V>> cacheObjIterator() {
+        // ConcurrentHashMap的迭代器为弱一致性，无需加锁
+        return new CacheObjIterator<>(CopiedIter.copyOf(this.cacheMap.values().iterator()));
+    }
+
+    // ---------------------------------------------------------------- prune start
+
+    /**
+     * 清理过期对象，每次只锁定一个段
+     *
+     * @return 清理数
+     */
+    @Override
+    public int prune() {
+        if (false == isPruneExpiredActive()) {
+            return 0;
+        }
+        int count = 0;
+        for (Segment<K, V> segment : segments) {
+            List<CacheObj<K, V>> expired = null;
+            segment.lock();
+            try {
+                final Iterator<CacheObj<K, V>> values = segment.map.values().iterator();
+                CacheObj<K, V> co;
+                while (values.hasNext()) {
+                    co = values.next();
+                    if (co.isExpired()) {
+                        values.remove();
+                        cacheMap.remove(co.key, co);
+                        if (null == expired) {
+                            expired = new ArrayList<>();
+                        }
+                        expired.add(co);
+                    }
+                }
+            } finally {
+                segment.unlock();
+            }
+            if (null != expired) {
+                count += expired.size();
+                for (CacheObj<K, V> co : expired) {
+                    onRemove(co.key, co.obj, RemovalCause.EXPIRED);
+                }
+            }
+        }
+        return count;
+    }
+    // ---------------------------------------------------------------- prune end
+
+    // ---------------------------------------------------------------- icefrog start
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return 默认缓存失效时长。<br>
+     * 每个对象可以单独设置失效时长
+     */
+    @Override
+    public long timeout() {
+        return timeout;
+    }
+
+    /**
+     * 只有设置公共缓存失效时长或每个对象单独的失效时长时清理可用
+     *
+     * @return 过期对象清理是否可用，内部使用
+     */
+    protected boolean isPruneExpiredActive() {
+        return (timeout != 0) || existCustomTimeout;
+    }
+
+    @Override
+    public boolean isFull() {
+        return (capacity > 0) && (cacheMap.size() >= capacity);
+    }
+
+    @Override
+    public void remove( K key ) {
+        final Segment<K, V> segment = segmentFor(key);
+        CacheObj<K, V> co;
+        segment.lock();
+        try {
+            co = segment.map.remove(key);
+            if (null != co) {
+                cacheMap.remove(key, co);
+            }
+        } finally {
+            segment.unlock();
+        }
+        if (null != co) {
+            onRemove(co.key, co.obj, RemovalCause.EXPLICIT);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock();
+            try {
+                for (K key : segment.map.keySet()) {
+                    cacheMap.remove(key);
+                }
+                segment.map.clear();
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return cacheMap.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return cacheMap.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return this.cacheMap.toString();
+    }
+    // ---------------------------------------------------------------- icefrog end
+
+    /**
+     * 设置监听
+     *
+     * @param listener 监听
+     * @return this
+     */
+    @Override
+    public SegmentedCache<K, V> setListener( CacheListener<K, V> listener ) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * 设置统计记录器
+     *
+     * @param statsCounter 统计记录器，{@code null}表示不记录
+     * @return this
+     */
+    @Override
+    public SegmentedCache<K, V> setStatsCounter( StatsCounter statsCounter ) {
+        this.statsCounter = (null == statsCounter) ? DisabledStatsCounter.INSTANCE : statsCounter;
+        return this;
+    }
+
+    /**
+     * 设置权重计算器，用于计量移除权重和当前缓存的总权重
+     *
+     * @param weigher 权重计算器，{@code null}表示每个对象权重为1
+     * @return this
+     */
+    @Override
+    public SegmentedCache<K, V> setWeigher( Weigher<? super K, ? super V> weigher ) {
+        this.weigher = (null == weigher) ? Weigher.singleton() : weigher;
+        return this;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return CacheSupport.snapshot(this, this.statsCounter, this.weigher);
+    }
+
+    /**
+     * 返回所有键
+     *
+     * @return 所有键
+     */
+    public Set<K> keySet() {
+        return this.cacheMap.keySet();
+    }
+
+    /**
+     * 段数
+     *
+     * @return 段数
+     */
+    public int segmentCount() {
+        return this.segments.length;
+    }
+
+    /**
+     * 对象移除回调。默认无动作<br>
+     * 子类可重写此方法用于监听移除事件，如果重写，listener将无效
+     *
+     * @param key          键
+     * @param cachedObject 被缓存的对象
+     */
+    protected void onRemove( K key, V cachedObject ) {
+        final CacheListener<K, V> listener = this.listener;
+        if (null != listener) {
+            listener.onRemove(key, cachedObject);
+        }
+    }
+
+    /**
+     * 对象移除回调，记录移除统计后调用{@link #onRemove(Object, Object)}
+     *
+     * @param key          键
+     * @param cachedObject 被缓存的对象
+     * @param cause        移除原因
+     */
+    protected void onRemove( K key, V cachedObject, RemovalCause cause ) {
+        CacheSupport.recordRemoval(this.statsCounter, this.weigher, key, cachedObject, cause);
+        onRemove(key, cachedObject);
+    }
+
+    /**
+     * 获取key所在的段
+     *
+     * @param key 键
+     * @return 段
+     */
+    protected Segment<K, V> segmentFor( K key ) {
+        int h = (null == key) ? 0 : key.hashCode();
+        // 扰动高位，避免低位相同的hash集中在同一段
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    /**
+     * 移除指定的缓存对象，只有当前key仍映射到此对象时才移除
+     *
+     * @param key           键
+     * @param co            期望移除的对象
+     * @param withMissCount 是否计数丢失数
+     */
+    private void remove( K key, CacheObj<K, V> co, boolean withMissCount ) {
+        final Segment<K, V> segment = segmentFor(key);
+        boolean removed;
+        segment.lock();
+        try {
+            removed = segment.map.remove(key, co);
+            if (removed) {
+                cacheMap.remove(key, co);
+            }
+        } finally {
+            segment.unlock();
+        }
+        if (withMissCount) {
+            // 在丢失计数有效的情况下，移除一般为get时的超时操作，此处应该丢失数+1
+            this.missCount.increment();
+            this.statsCounter.recordMisses(1);
+        }
+        if (removed) {
+            onRemove(co.key, co.obj, RemovalCause.EXPIRED);
+        }
+    }
+
+    /**
+     * 缓存段，段锁保护段内的Map
+     *
+     * @param <K> 键类型
+     * @param <V> 值类型
+     */
+    protected static class Segment<K, V> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 段内对象，维护淘汰顺序
+         */
+        protected final Map<K, CacheObj<K, V>> map;
+        /**
+         * 段容量，{@code 0}表示无大小限制
+         */
+        protected final int capacity;
+
+        Segment( Map<K, CacheObj<K, V>> map, int capacity ) {
+            this.map = map;
+            this.capacity = capacity;
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.whaleal.icefrog.cache.impl;
 
 import com.whaleal.icefrog.cache.GlobalPruneTimer;
+import com.whaleal.icefrog.cache.stats.RemovalCause;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ScheduledFuture;
 
 /**
  * 定时缓存<br>
- * 此缓存没有容量限制，对象只有在过期后才会被移除
+ * 此缓存没有容量限制，对象只有在过期后才会被移除<br>
+ * 对象按照过期时间放入{@link ExpireTimingWheel}，清理时只处理已到期的时间槽，
+ * 因此清理代价与到期对象数成正比，而不是与缓存总数成正比。清理方式有两种：
+ * <ul>
+ * <li>定时清理：通过{@link #schedulePrune(long)}定时推进时间轮</li>
+ * <li>访问时清理：通过{@link #setPruneOnAccess(boolean)}开启后，读写操作顺带推进时间轮，无需额外线程</li>
+ * </ul>
  *
  * @param <K> 键类型
  * @param <V> 值类型
@@ -19,11 +25,21 @@ import java.util.concurrent.ScheduledFuture;
 public class TimedCache<K, V> extends AbstractCache<K, V> {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * 过期时间轮
+     */
+    private final ExpireTimingWheel<K, V> timingWheel;
+
     /**
      * 正在执行的定时任务
      */
     private ScheduledFuture<?> pruneJobFuture;
 
+    /**
+     * 是否在访问时顺带清理过期对象
+     */
+    private volatile boolean pruneOnAccess;
+
     /**
      * 构造
      *
@@ -34,7 +50,8 @@ public class TimedCache<K, V> extends AbstractCache<K, V> {
     }
 
     /**
-     * 构造
+     * 构造<br>
+     * map中已有的对象会被重新包装并放入时间轮，其存活时长不变，最后访问时间重置为当前时间
      *
      * @param timeout 过期时长
      * @param map     存储缓存对象的map
@@ -43,33 +60,119 @@ public class TimedCache<K, V> extends AbstractCache<K, V> {
         this.capacity = 0;
         this.timeout = timeout;
         this.cacheMap = map;
+        this.timingWheel = new ExpireTimingWheel<>(System.currentTimeMillis());
+        for (Map.Entry<K, CacheObj<K, V>> entry : map.entrySet()) {
+            final CacheObj<K, V> co = entry.getValue();
+            final ExpireTimingWheel.Node<K, V> node = new ExpireTimingWheel.Node<>(co.key, co.obj, co.getTtl());
+            entry.setValue(node);
+            timingWheel.schedule(node);
+        }
+    }
+
+    // ---------------------------------------------------------------- get
+
+    @Override
+    public V get( K key, boolean isUpdateLastAccess ) {
+        final V value = super.get(key, isUpdateLastAccess);
+        if (pruneOnAccess) {
+            tryPrune();
+        }
+        return value;
+    }
+
+    // ---------------------------------------------------------------- timing wheel
+
+    @Override
+    protected CacheObj<K, V> newCacheObj( K key, V object, long timeout ) {
+        return new ExpireTimingWheel.Node<>(key, object, timeout);
+    }
+
+    @Override
+    protected void afterPutWithoutLock( CacheObj<K, V> co, CacheObj<K, V> replaced ) {
+        if (null != replaced) {
+            timingWheel.unschedule((ExpireTimingWheel.Node<K, V>) replaced);
+        }
+        timingWheel.schedule((ExpireTimingWheel.Node<K, V>) co);
+        if (pruneOnAccess) {
+            // 已持有写锁，直接清理
+            pruneCache();
+        }
+    }
+
+    @Override
+    protected void afterRemoveWithoutLock( CacheObj<K, V> co ) {
+        timingWheel.unschedule((ExpireTimingWheel.Node<K, V>) co);
+    }
+
+    @Override
+    public void clear() {
+        final long stamp = lock.writeLock();
+        try {
+            cacheMap.clear();
+            timingWheel.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     // ---------------------------------------------------------------- prune
 
     /**
-     * 清理过期对象
+     * 清理过期对象，只处理时间轮中已到期的槽
      *
      * @return 清理数
      */
     @Override
     protected int pruneCache() {
-        int count = 0;
-        Iterator<CacheObj<K, V>> values = cacheMap.values().iterator();
-        CacheObj<K, V> co;
-        while (values.hasNext()) {
-            co = values.next();
-            if (co.isExpired()) {
-                values.remove();
-                onRemove(co.key, co.obj);
-                count++;
+        final int[] count = {0};
+        timingWheel.advance(System.currentTimeMillis(), node -> {
+            if (false == node.isExpired()) {
+                // 到期前被访问过，存活时间已延长
+                return false;
+            }
+            // 只有当前key仍映射到此对象时才移除，get时过期的对象已被移除
+            if (cacheMap.get(node.key) == node) {
+                cacheMap.remove(node.key);
+                onRemove(node.key, node.obj, RemovalCause.EXPIRED);
+                count[0]++;
+            }
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * 尝试清理过期对象，写锁被占用或时间轮无需推进时直接返回，不阻塞调用方
+     */
+    private void tryPrune() {
+        if (false == timingWheel.isAdvanceable(System.currentTimeMillis())) {
+            return;
+        }
+        final long stamp = lock.tryWriteLock();
+        if (0L != stamp) {
+            try {
+                pruneCache();
+            } finally {
+                lock.unlockWrite(stamp);
             }
         }
-        return count;
     }
 
     // ---------------------------------------------------------------- auto prune
 
+    /**
+     * 设置是否在访问时清理过期对象<br>
+     * 开启后每次put和get时顺带推进时间轮，清理代价分摊到每次访问，适用于不希望启动定时任务的场景
+     *
+     * @param pruneOnAccess 是否在访问时清理
+     * @return this
+     * @since 1.1.8
+     */
+    public TimedCache<K, V> setPruneOnAccess( boolean pruneOnAccess ) {
+        this.pruneOnAccess = pruneOnAccess;
+        return this;
+    }
+
     /**
      * 定时清理
      *
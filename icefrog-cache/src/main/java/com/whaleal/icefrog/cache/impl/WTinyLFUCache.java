@@ -0,0 +1,265 @@
+package com.whaleal.icefrog.cache.impl;
+
+import com.whaleal.icefrog.core.collection.IterChain;
+import com.whaleal.icefrog.core.lang.Precondition;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * W-TinyLFU(Window Tiny Least Frequently Used) 缓存<br>
+ * 每个段的空间分为三个区域：
+ * <ul>
+ * <li>窗口区（约1%）：新对象首先进入窗口区，按LRU淘汰，用于容纳突发的新热点</li>
+ * <li>试用区（主空间的20%）：从窗口区淘汰的对象只有在访问频率高于试用区LRU对象时才能进入，否则被直接丢弃</li>
+ * <li>保护区（主空间的80%）：试用区中再次被访问的对象晋升到保护区，保护区满时LRU对象降级回试用区</li>
+ * </ul>
+ * 访问频率由{@link FrequencySketch}估算，只扫描一次的冷数据无法挤掉真正的热点数据；
+ * 所有淘汰操作都只涉及链表头部，时间复杂度为O(1)。<br>
+ * 读操作不加锁，访问记录通过{@link java.util.concurrent.locks.Lock#tryLock()}尽力完成。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author wh
+ * @since 1.1.8
+ */
+public class WTinyLFUCache<K, V> extends SegmentedCache<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 构造
+     *
+     * @param capacity 容量
+     */
+    public WTinyLFUCache( int capacity ) {
+        this(capacity, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param capacity 容量
+     * @param timeout  默认超时时间，单位：毫秒
+     */
+    public WTinyLFUCache( int capacity, long timeout ) {
+        this(capacity, timeout, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param capacity         容量，必须大于0
+     * @param timeout          默认超时时间，单位：毫秒
+     * @param concurrencyLevel 预计的并发写线程数，{@code 0}表示使用CPU核数
+     */
+    public WTinyLFUCache( int capacity, long timeout, int concurrencyLevel ) {
+        super(checkCapacity(capacity), timeout, concurrencyLevel);
+    }
+
+    private static int checkCapacity( int capacity ) {
+        Precondition.isTrue(capacity > 0, "W-TinyLFU cache capacity must be greater than 0, but was {}", capacity);
+        return capacity;
+    }
+
+    @Override
+    protected Map<K, CacheObj<K, V>> createSegmentMap( int segmentCapacity ) {
+        return new RegionMap<>(segmentCapacity);
+    }
+
+    @Override
+    protected CacheObj<K, V> selectVictim( Map<K, CacheObj<K, V>> segmentMap ) {
+        return ((RegionMap<K, V>) segmentMap).selectVictim();
+    }
+
+    @Override
+    protected void afterAccess( Segment<K, V> segment, CacheObj<K, V> co ) {
+        if (segment.tryLock()) {
+            try {
+                ((RegionMap<K, V>) segment.map).recordAccess(co.key);
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    /**
+     * 段内的分区Map，组合窗口区、试用区和保护区三个访问顺序链表<br>
+     * 只在持有段锁时访问
+     *
+     * @param <K> 键类型
+     * @param <V> 值类型
+     */
+    static class RegionMap<K, V> extends AbstractMap<K, CacheObj<K, V>> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final LinkedHashMap<K, CacheObj<K, V>> window;
+        private final LinkedHashMap<K, CacheObj<K, V>> probation;
+        private final LinkedHashMap<K, CacheObj<K, V>> protect;
+        private final FrequencySketch sketch;
+        private final int windowCapacity;
+        private final int mainCapacity;
+        private final int protectCapacity;
+
+        RegionMap( int capacity ) {
+            this.windowCapacity = Math.max(1, capacity / 100);
+            this.mainCapacity = Math.max(0, capacity - windowCapacity);
+            this.protectCapacity = mainCapacity * 4 / 5;
+            this.window = new LinkedHashMap<>(16, 0.75f, true);
+            this.probation = new LinkedHashMap<>(16, 0.75f, true);
+            this.protect = new LinkedHashMap<>(16, 0.75f, true);
+            this.sketch = new FrequencySketch(capacity);
+        }
+
+        /**
+         * 记录一次访问：频率+1，并在各区域之间调整位置
+         *
+         * @param key 键
+         */
+        void recordAccess( K key ) {
+            sketch.increment(key);
+            if (null != window.get(key) || null != protect.get(key)) {
+                // LinkedHashMap的get已经将对象移至尾部
+                return;
+            }
+            final CacheObj<K, V> co = probation.remove(key);
+            if (null != co) {
+                // 试用区再次命中，晋升到保护区
+                protect.put(key, co);
+                if (protect.size() > protectCapacity) {
+                    final CacheObj<K, V> demoted = removeFirst(protect);
+                    probation.put(demoted.key, demoted);
+                }
+            }
+        }
+
+        /**
+         * 段已满时选出需要淘汰的对象<br>
+         * 窗口区溢出的候选对象与试用区的LRU对象比较访问频率，频率低者被淘汰
+         *
+         * @return 被淘汰的对象
+         */
+        CacheObj<K, V> selectVictim() {
+            while (window.size() >= windowCapacity && false == window.isEmpty()) {
+                final CacheObj<K, V> candidate = first(window);
+                if (probation.size() + protect.size() < mainCapacity) {
+                    // 主空间未满，直接转入试用区
+                    window.remove(candidate.key);
+                    probation.put(candidate.key, candidate);
+                    continue;
+                }
+
+                final CacheObj<K, V> victim = mainVictim();
+                if (null == victim) {
+                    return candidate;
+                }
+                if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    window.remove(candidate.key);
+                    probation.put(candidate.key, candidate);
+                    return victim;
+                }
+                return candidate;
+            }
+
+            final CacheObj<K, V> victim = mainVictim();
+            return (null != victim) ? victim : first(window);
+        }
+
+        private CacheObj<K, V> mainVictim() {
+            final CacheObj<K, V> victim = first(probation);
+            return (null != victim) ? victim : first(protect);
+        }
+
+        private static <K, V> CacheObj<K, V> first( LinkedHashMap<K, CacheObj<K, V>> map ) {
+            final Iterator<CacheObj<K, V>> values = map.values().iterator();
+            return values.hasNext() ? values.next() : null;
+        }
+
+        private static <K, V> CacheObj<K, V> removeFirst( LinkedHashMap<K, CacheObj<K, V>> map ) {
+            final Iterator<CacheObj<K, V>> values = map.values().iterator();
+            final CacheObj<K, V> co = values.next();
+            values.remove();
+            return co;
+        }
+
+        // ---------------------------------------------------------------- Map
+
+        @Override
+        public CacheObj<K, V> put( K key, CacheObj<K, V> value ) {
+            sketch.increment(key);
+            if (probation.containsKey(key)) {
+                return probation.put(key, value);
+            }
+            if (protect.containsKey(key)) {
+                return protect.put(key, value);
+            }
+            return window.put(key, value);
+        }
+
+        @Override
+        public CacheObj<K, V> get( Object key ) {
+            CacheObj<K, V> co = window.get(key);
+            if (null == co) {
+                co = probation.get(key);
+            }
+            if (null == co) {
+                co = protect.get(key);
+            }
+            return co;
+        }
+
+        @Override
+        public boolean containsKey( Object key ) {
+            return window.containsKey(key) || probation.containsKey(key) || protect.containsKey(key);
+        }
+
+        @Override
+        public CacheObj<K, V> remove( Object key ) {
+            CacheObj<K, V> co = window.remove(key);
+            if (null == co) {
+                co = probation.remove(key);
+            }
+            if (null == co) {
+                co = protect.remove(key);
+            }
+            return co;
+        }
+
+        @Override
+        public boolean remove( Object key, Object value ) {
+            return window.remove(key, value) || probation.remove(key, value) || protect.remove(key, value);
+        }
+
+        @Override
+        public int size() {
+            return window.size() + probation.size() + protect.size();
+        }
+
+        @Override
+        public void clear() {
+            window.clear();
+            probation.clear();
+            protect.clear();
+        }
+
+        @Override
+        public Set<Entry<K, CacheObj<K, V>>> entrySet() {
+            return new AbstractSet<Entry<K, CacheObj<K, V>>>() {
+                @Override
+                public Iterator<Entry<K, CacheObj<K, V>>> iterator() {
+                    return new IterChain<>(window.entrySet().iterator(),
+                            probation.entrySet().iterator(), protect.entrySet().iterator());
+                }
+
+                @Override
+                public int size() {
+                    return RegionMap.this.size();
+                }
+            };
+        }
+    }
+}
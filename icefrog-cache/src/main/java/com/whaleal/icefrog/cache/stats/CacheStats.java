@@ -0,0 +1,320 @@
+package com.whaleal.icefrog.cache.stats;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 缓存统计数据快照，不可变
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public final class CacheStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 空快照
+     */
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0,
+            new long[RemovalCause.values().length], new long[RemovalCause.values().length],
+            new long[ConcurrentStatsCounter.HISTOGRAM_BUCKETS]);
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long[] removalCounts;
+    private final long[] removalWeights;
+    private final long[] loadLatencyHistogram;
+    private final long weightedSize;
+
+    /**
+     * 构造，当前缓存的总权重为0
+     *
+     * @param hitCount             命中数
+     * @param missCount            未命中数
+     * @param loadSuccessCount     加载成功数
+     * @param loadFailureCount     加载失败数
+     * @param totalLoadTime        加载总耗时，单位纳秒
+     * @param removalCounts        按{@link RemovalCause#ordinal()}排列的移除数
+     * @param removalWeights       按{@link RemovalCause#ordinal()}排列的移除权重
+     * @param loadLatencyHistogram 加载耗时直方图，第i个桶为耗时在[2^(i-1), 2^i)纳秒之间的加载次数
+     */
+    public CacheStats( long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime,
+                       long[] removalCounts, long[] removalWeights, long[] loadLatencyHistogram ) {
+        this(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime,
+                removalCounts, removalWeights, loadLatencyHistogram, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param hitCount             命中数
+     * @param missCount            未命中数
+     * @param loadSuccessCount     加载成功数
+     * @param loadFailureCount     加载失败数
+     * @param totalLoadTime        加载总耗时，单位纳秒
+     * @param removalCounts        按{@link RemovalCause#ordinal()}排列的移除数
+     * @param removalWeights       按{@link RemovalCause#ordinal()}排列的移除权重
+     * @param loadLatencyHistogram 加载耗时直方图，第i个桶为耗时在[2^(i-1), 2^i)纳秒之间的加载次数
+     * @param weightedSize         生成快照时缓存的总权重
+     */
+    public CacheStats( long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime,
+                       long[] removalCounts, long[] removalWeights, long[] loadLatencyHistogram, long weightedSize ) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.removalCounts = removalCounts;
+        this.removalWeights = removalWeights;
+        this.loadLatencyHistogram = loadLatencyHistogram;
+        this.weightedSize = weightedSize;
+    }
+
+    /**
+     * @return 请求数，即命中数+未命中数
+     */
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return 命中数
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return 命中率，无请求时为1.0
+     */
+    public double hitRate() {
+        final long requestCount = requestCount();
+        return (requestCount == 0) ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * @return 未命中数
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * @return 未命中率，无请求时为0.0
+     */
+    public double missRate() {
+        final long requestCount = requestCount();
+        return (requestCount == 0) ? 0.0 : (double) missCount / requestCount;
+    }
+
+    /**
+     * @return 加载数，即加载成功数+加载失败数
+     */
+    public long loadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    /**
+     * @return 加载成功数
+     */
+    public long loadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    /**
+     * @return 加载失败数
+     */
+    public long loadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * @return 加载失败率，无加载时为0.0
+     */
+    public double loadFailureRate() {
+        final long loadCount = loadCount();
+        return (loadCount == 0) ? 0.0 : (double) loadFailureCount / loadCount;
+    }
+
+    /**
+     * @return 加载总耗时，单位纳秒
+     */
+    public long totalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * @return 平均加载耗时，单位纳秒
+     */
+    public double averageLoadPenalty() {
+        final long loadCount = loadCount();
+        return (loadCount == 0) ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * 估算加载耗时的百分位数，结果为百分位所在直方图桶的上界，误差在2倍以内
+     *
+     * @param percentile 百分位，范围(0, 100]，例如99表示P99
+     * @return 耗时上界，单位纳秒，无加载时为0
+     */
+    public long loadLatencyPercentile( double percentile ) {
+        long total = 0;
+        for (long count : loadLatencyHistogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long threshold = (long) Math.ceil(total * Math.min(percentile, 100.0) / 100.0);
+        long accumulated = 0;
+        for (int i = 0; i < loadLatencyHistogram.length; i++) {
+            accumulated += loadLatencyHistogram[i];
+            if (accumulated >= threshold && accumulated > 0) {
+                return (i >= 63) ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * @return 加载耗时直方图的副本
+     */
+    public long[] loadLatencyHistogram() {
+        return loadLatencyHistogram.clone();
+    }
+
+    /**
+     * 指定原因的移除数
+     *
+     * @param cause 移除原因
+     * @return 移除数
+     */
+    public long removalCount( RemovalCause cause ) {
+        return removalCounts[cause.ordinal()];
+    }
+
+    /**
+     * 指定原因的移除权重
+     *
+     * @param cause 移除原因
+     * @return 移除权重
+     */
+    public long removalWeight( RemovalCause cause ) {
+        return removalWeights[cause.ordinal()];
+    }
+
+    /**
+     * @return 淘汰数，即除主动移除以外的所有移除数
+     */
+    public long evictionCount() {
+        long count = 0;
+        for (RemovalCause cause : RemovalCause.values()) {
+            if (RemovalCause.EXPLICIT != cause) {
+                count += removalCounts[cause.ordinal()];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return 淘汰权重，即除主动移除以外的所有移除权重
+     */
+    public long evictionWeight() {
+        long weight = 0;
+        for (RemovalCause cause : RemovalCause.values()) {
+            if (RemovalCause.EXPLICIT != cause) {
+                weight += removalWeights[cause.ordinal()];
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * @return 生成快照时缓存的总权重，未设置权重计算器时即缓存对象数
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * 使用指定的总权重创建新的快照，其它数据不变
+     *
+     * @param weightedSize 缓存的总权重
+     * @return 新的快照
+     */
+    public CacheStats withWeightedSize( long weightedSize ) {
+        return new CacheStats(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime,
+                removalCounts, removalWeights, loadLatencyHistogram, weightedSize);
+    }
+
+    /**
+     * 计算两个快照之间的差值，用于统计某一时间段内的指标，总权重取当前快照的值
+     *
+     * @param other 较早的快照
+     * @return 差值快照
+     */
+    public CacheStats minus( CacheStats other ) {
+        return new CacheStats(
+                Math.max(0, hitCount - other.hitCount),
+                Math.max(0, missCount - other.missCount),
+                Math.max(0, loadSuccessCount - other.loadSuccessCount),
+                Math.max(0, loadFailureCount - other.loadFailureCount),
+                Math.max(0, totalLoadTime - other.totalLoadTime),
+                minus(removalCounts, other.removalCounts),
+                minus(removalWeights, other.removalWeights),
+                minus(loadLatencyHistogram, other.loadLatencyHistogram),
+                weightedSize);
+    }
+
+    private static long[] minus( long[] a, long[] b ) {
+        final long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = Math.max(0, a[i] - b[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+        if (this == o) {
+            return true;
+        }
+        if (false == (o instanceof CacheStats)) {
+            return false;
+        }
+        final CacheStats other = (CacheStats) o;
+        return hitCount == other.hitCount
+                && missCount == other.missCount
+                && loadSuccessCount == other.loadSuccessCount
+                && loadFailureCount == other.loadFailureCount
+                && totalLoadTime == other.totalLoadTime
+                && Arrays.equals(removalCounts, other.removalCounts)
+                && Arrays.equals(removalWeights, other.removalWeights)
+                && Arrays.equals(loadLatencyHistogram, other.loadLatencyHistogram)
+                && weightedSize == other.weightedSize;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(hitCount);
+        result = 31 * result + Long.hashCode(missCount);
+        result = 31 * result + Long.hashCode(loadSuccessCount);
+        result = 31 * result + Long.hashCode(loadFailureCount);
+        result = 31 * result + Long.hashCode(totalLoadTime);
+        result = 31 * result + Arrays.hashCode(removalCounts);
+        result = 31 * result + Arrays.hashCode(removalWeights);
+        result = 31 * result + Long.hashCode(weightedSize);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats [hitCount=" + hitCount + ", missCount=" + missCount + ", loadSuccessCount=" + loadSuccessCount
+                + ", loadFailureCount=" + loadFailureCount + ", totalLoadTime=" + totalLoadTime
+                + ", evictionCount=" + evictionCount() + ", evictionWeight=" + evictionWeight() + ", weightedSize=" + weightedSize
+                + ", explicitRemovalCount=" + removalCount(RemovalCause.EXPLICIT) + "]";
+    }
+}
@@ -0,0 +1,149 @@
+package com.whaleal.icefrog.cache.stats;
+
+import com.whaleal.icefrog.cache.Cache;
+import com.whaleal.icefrog.core.exceptions.UtilException;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 将缓存统计注册到JMX，可在JConsole、VisualVM等工具中查看<br>
+ * 注册后每次读取属性都会生成一次快照，不影响缓存的读写路径。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class CacheStatsJmx implements CacheStatsMXBean {
+
+    /**
+     * ObjectName的域
+     */
+    public static final String DOMAIN = "com.whaleal.icefrog.cache";
+
+    private final Cache<?, ?> cache;
+
+    /**
+     * 构造
+     *
+     * @param cache 缓存，需已设置{@link StatsCounter}
+     */
+    public CacheStatsJmx( Cache<?, ?> cache ) {
+        this.cache = cache;
+    }
+
+    /**
+     * 将缓存统计注册到平台MBeanServer，同名的已注册对象会被替换
+     *
+     * @param name  缓存名称
+     * @param cache 缓存
+     * @return 注册使用的ObjectName
+     * @throws UtilException 注册失败
+     */
+    public static ObjectName register( String name, Cache<?, ?> cache ) throws UtilException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName objectName = objectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new CacheStatsJmx(cache), objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new UtilException(e);
+        }
+    }
+
+    /**
+     * 取消注册
+     *
+     * @param name 缓存名称
+     * @throws UtilException 取消注册失败
+     */
+    public static void unregister( String name ) throws UtilException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName objectName = objectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new UtilException(e);
+        }
+    }
+
+    private static ObjectName objectName( String name ) throws JMException {
+        return new ObjectName(DOMAIN + ":type=CacheStatistics,name=" + ObjectName.quote(name));
+    }
+
+    @Override
+    public long getRequestCount() {
+        return cache.stats().requestCount();
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+        return cache.stats().loadSuccessCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return cache.stats().loadFailureCount();
+    }
+
+    @Override
+    public double getAverageLoadPenalty() {
+        return cache.stats().averageLoadPenalty();
+    }
+
+    @Override
+    public long getLoadLatencyP99() {
+        return cache.stats().loadLatencyPercentile(99);
+    }
+
+    @Override
+    public long getSizeEvictionCount() {
+        return cache.stats().removalCount(RemovalCause.SIZE);
+    }
+
+    @Override
+    public long getExpiredEvictionCount() {
+        return cache.stats().removalCount(RemovalCause.EXPIRED);
+    }
+
+    @Override
+    public long getExplicitRemovalCount() {
+        return cache.stats().removalCount(RemovalCause.EXPLICIT);
+    }
+
+    @Override
+    public long getEvictionWeight() {
+        return cache.stats().evictionWeight();
+    }
+
+    @Override
+    public long getWeightedSize() {
+        return cache.stats().weightedSize();
+    }
+
+    @Override
+    public long getSize() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.whaleal.icefrog.cache.stats;
+
+/**
+ * 缓存统计的JMX管理接口
+ *
+ * @author wh
+ * @see CacheStatsJmx
+ * @since 1.1.8
+ */
+public interface CacheStatsMXBean {
+
+    /**
+     * @return 请求数
+     */
+    long getRequestCount();
+
+    /**
+     * @return 命中数
+     */
+    long getHitCount();
+
+    /**
+     * @return 命中率
+     */
+    double getHitRate();
+
+    /**
+     * @return 未命中数
+     */
+    long getMissCount();
+
+    /**
+     * @return 加载成功数
+     */
+    long getLoadSuccessCount();
+
+    /**
+     * @return 加载失败数
+     */
+    long getLoadFailureCount();
+
+    /**
+     * @return 平均加载耗时，单位纳秒
+     */
+    double getAverageLoadPenalty();
+
+    /**
+     * @return 加载耗时P99，单位纳秒
+     */
+    long getLoadLatencyP99();
+
+    /**
+     * @return 因容量淘汰数
+     */
+    long getSizeEvictionCount();
+
+    /**
+     * @return 过期淘汰数
+     */
+    long getExpiredEvictionCount();
+
+    /**
+     * @return 主动移除数
+     */
+    long getExplicitRemovalCount();
+
+    /**
+     * @return 淘汰权重
+     */
+    long getEvictionWeight();
+
+    /**
+     * @return 当前缓存的总权重
+     */
+    long getWeightedSize();
+
+    /**
+     * @return 当前缓存对象数
+     */
+    long getSize();
+}
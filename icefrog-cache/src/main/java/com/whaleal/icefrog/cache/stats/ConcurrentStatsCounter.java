@@ -0,0 +1,102 @@
+package com.whaleal.icefrog.cache.stats;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于{@link LongAdder}的线程安全统计记录器，多线程高并发记录时无锁竞争<br>
+ * 加载耗时按2的幂分桶记录为直方图，第i个桶记录耗时在[2^(i-1), 2^i)纳秒之间的加载次数，第0个桶记录耗时为0的加载次数。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class ConcurrentStatsCounter implements StatsCounter, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 直方图桶数，覆盖long的全部范围
+     */
+    static final int HISTOGRAM_BUCKETS = 64;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder[] removalCounts;
+    private final LongAdder[] removalWeights;
+    private final LongAdder[] loadLatencyHistogram;
+
+    /**
+     * 构造
+     */
+    public ConcurrentStatsCounter() {
+        final int causes = RemovalCause.values().length;
+        this.removalCounts = newAdders(causes);
+        this.removalWeights = newAdders(causes);
+        this.loadLatencyHistogram = newAdders(HISTOGRAM_BUCKETS);
+    }
+
+    @Override
+    public void recordHits( int count ) {
+        hitCount.add(count);
+    }
+
+    @Override
+    public void recordMisses( int count ) {
+        missCount.add(count);
+    }
+
+    @Override
+    public void recordLoadSuccess( long loadTime ) {
+        loadSuccessCount.increment();
+        recordLoadTime(loadTime);
+    }
+
+    @Override
+    public void recordLoadFailure( long loadTime ) {
+        loadFailureCount.increment();
+        recordLoadTime(loadTime);
+    }
+
+    @Override
+    public void recordRemoval( RemovalCause cause, long weight ) {
+        removalCounts[cause.ordinal()].increment();
+        removalWeights[cause.ordinal()].add(weight);
+    }
+
+    @Override
+    public CacheStats snapshot() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                totalLoadTime.sum(), sum(removalCounts), sum(removalWeights), sum(loadLatencyHistogram));
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    private void recordLoadTime( long loadTime ) {
+        if (loadTime < 0) {
+            loadTime = 0;
+        }
+        totalLoadTime.add(loadTime);
+        loadLatencyHistogram[HISTOGRAM_BUCKETS - Long.numberOfLeadingZeros(loadTime)].increment();
+    }
+
+    private static LongAdder[] newAdders( int length ) {
+        final LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sum( LongAdder[] adders ) {
+        final long[] result = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            result[i] = adders[i].sum();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package com.whaleal.icefrog.cache.stats;
+
+/**
+ * 不记录任何数据的统计记录器，缓存默认使用此实现，所有方法均为空操作，不产生任何对象分配
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public enum DisabledStatsCounter implements StatsCounter {
+    /**
+     * 单例对象
+     */
+    INSTANCE;
+
+    @Override
+    public void recordHits( int count ) {
+    }
+
+    @Override
+    public void recordMisses( int count ) {
+    }
+
+    @Override
+    public void recordLoadSuccess( long loadTime ) {
+    }
+
+    @Override
+    public void recordLoadFailure( long loadTime ) {
+    }
+
+    @Override
+    public void recordRemoval( RemovalCause cause, long weight ) {
+    }
+
+    @Override
+    public CacheStats snapshot() {
+        return CacheStats.EMPTY;
+    }
+
+    @Override
+    public String toString() {
+        return "DisabledStatsCounter";
+    }
+}
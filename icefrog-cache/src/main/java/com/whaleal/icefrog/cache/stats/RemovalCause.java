@@ -0,0 +1,26 @@
+package com.whaleal.icefrog.cache.stats;
+
+/**
+ * 缓存对象被移除的原因
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public enum RemovalCause {
+    /**
+     * 调用remove等方法主动移除
+     */
+    EXPLICIT,
+    /**
+     * 超过存活时长过期
+     */
+    EXPIRED,
+    /**
+     * 缓存已满，按淘汰策略移除
+     */
+    SIZE,
+    /**
+     * 弱引用等被垃圾回收
+     */
+    COLLECTED
+}
@@ -0,0 +1,56 @@
+package com.whaleal.icefrog.cache.stats;
+
+/**
+ * 缓存统计记录器<br>
+ * 缓存在读取、加载、淘汰时调用对应方法，实现类需保证线程安全，且记录方法不应抛出异常。
+ *
+ * @author wh
+ * @see DisabledStatsCounter
+ * @see ConcurrentStatsCounter
+ * @since 1.1.8
+ */
+public interface StatsCounter {
+
+    /**
+     * 记录命中
+     *
+     * @param count 命中数
+     */
+    void recordHits( int count );
+
+    /**
+     * 记录未命中
+     *
+     * @param count 未命中数
+     */
+    void recordMisses( int count );
+
+    /**
+     * 记录一次成功的加载
+     *
+     * @param loadTime 加载耗时，单位纳秒
+     */
+    void recordLoadSuccess( long loadTime );
+
+    /**
+     * 记录一次失败的加载，包括抛出异常和返回{@code null}
+     *
+     * @param loadTime 加载耗时，单位纳秒
+     */
+    void recordLoadFailure( long loadTime );
+
+    /**
+     * 记录一次移除
+     *
+     * @param cause  移除原因
+     * @param weight 被移除对象的权重，按个数计量的缓存为1
+     */
+    void recordRemoval( RemovalCause cause, long weight );
+
+    /**
+     * 获取当前统计数据的快照
+     *
+     * @return 快照
+     */
+    CacheStats snapshot();
+}
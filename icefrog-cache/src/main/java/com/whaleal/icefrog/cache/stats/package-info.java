@@ -0,0 +1,6 @@
+/**
+ * 缓存统计，提供命中、加载、淘汰等指标的记录、快照以及JMX暴露
+ *
+ * @author wh
+ */
+package com.whaleal.icefrog.cache.stats;
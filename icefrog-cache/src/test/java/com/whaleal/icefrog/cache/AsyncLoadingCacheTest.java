@@ -0,0 +1,132 @@
+package com.whaleal.icefrog.cache;
+
+import com.whaleal.icefrog.core.collection.ListUtil;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步加载缓存测试
+ *
+ * @author wh
+ */
+public class AsyncLoadingCacheTest {
+
+    @Test
+    public void coalesceTest() {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final AsyncLoadingCache<String, String> cache = CacheUtil.newAsyncLoadingCache(100, 0,
+                AsyncCacheLoader.of(key -> {
+                    loadCount.incrementAndGet();
+                    ThreadUtil.sleep(200);
+                    return key.toUpperCase();
+                }));
+
+        // 并发未命中只加载一次
+        final CompletableFuture<?>[] futures = new CompletableFuture[32];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = cache.get("a");
+        }
+        CompletableFuture.allOf(futures).join();
+        for (CompletableFuture<?> future : futures) {
+            Assert.assertEquals("A", future.join());
+        }
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals(0, cache.loadingCount());
+        Assert.assertEquals("A", cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void getAllTest() {
+        final AtomicInteger batchCount = new AtomicInteger();
+        final AsyncLoadingCache<Integer, String> cache = CacheUtil.newAsyncLoadingCache(100, 0,
+                new AsyncCacheLoader<Integer, String>() {
+                    @Override
+                    public CompletableFuture<String> asyncLoad( Integer key, Executor executor ) {
+                        return CompletableFuture.completedFuture("v" + key);
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<Integer, String>> asyncLoadAll( Collection<? extends Integer> keys, Executor executor ) {
+                        batchCount.incrementAndGet();
+                        final Map<Integer, String> result = new HashMap<>();
+                        for (Integer key : keys) {
+                            // 奇数不存在
+                            if (key % 2 == 0) {
+                                result.put(key, "v" + key);
+                            }
+                        }
+                        return CompletableFuture.completedFuture(result);
+                    }
+                });
+        cache.put(0, "cached");
+
+        final List<Integer> keys = ListUtil.toList(0, 1, 2, 3, 4);
+        final Map<Integer, String> result = cache.getAll(keys).join();
+        Assert.assertEquals(1, batchCount.get());
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals("cached", result.get(0));
+        Assert.assertEquals("v2", result.get(2));
+        Assert.assertNull(result.get(1));
+        // 不存在的值不缓存
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void refreshAheadTest() {
+        final AtomicInteger version = new AtomicInteger();
+        final AsyncLoadingCache<String, Integer> cache = CacheUtil.<String, Integer>newAsyncLoadingCache(100, 1000,
+                AsyncCacheLoader.of(key -> version.incrementAndGet())).setRefreshAfterWrite(50);
+
+        Assert.assertEquals(Integer.valueOf(1), cache.get("key").join());
+        ThreadUtil.sleep(100);
+        // 超过刷新时长，立即返回旧值并在后台刷新
+        Assert.assertEquals(Integer.valueOf(1), cache.get("key").join());
+        ThreadUtil.sleep(100);
+        Assert.assertEquals(Integer.valueOf(2), cache.getIfPresent("key"));
+    }
+
+    @Test
+    public void loadFailTest() {
+        final AsyncLoadingCache<String, String> cache = CacheUtil.newAsyncLoadingCache(100, 0,
+                AsyncCacheLoader.of(key -> {
+                    throw new IllegalStateException("load fail");
+                }));
+        final CompletableFuture<String> future = cache.get("key");
+        try {
+            future.join();
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e.getCause() instanceof RuntimeException);
+        }
+        Assert.assertEquals(0, cache.loadingCount());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidateDuringLoadTest() {
+        final AtomicInteger version = new AtomicInteger();
+        final CompletableFuture<Integer> firstLoad = new CompletableFuture<>();
+        final AsyncLoadingCache<String, Integer> cache = CacheUtil.newAsyncLoadingCache(100, 0,
+                ( key, executor ) -> (0 == version.getAndIncrement()) ? firstLoad : CompletableFuture.completedFuture(version.get()));
+
+        final CompletableFuture<Integer> future = cache.get("key");
+        cache.invalidate("key");
+        Assert.assertEquals(0, cache.loadingCount());
+
+        // 失效前开始的加载仍返回给调用方，但不写入缓存
+        firstLoad.complete(0);
+        Assert.assertEquals(Integer.valueOf(0), future.join());
+        Assert.assertNull(cache.getIfPresent("key"));
+        Assert.assertEquals(Integer.valueOf(2), cache.get("key").join());
+        Assert.assertEquals(Integer.valueOf(2), cache.getIfPresent("key"));
+    }
+}
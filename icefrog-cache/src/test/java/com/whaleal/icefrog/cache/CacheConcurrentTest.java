@@ -1,5 +1,6 @@
 package com.whaleal.icefrog.cache;
 
+import com.whaleal.icefrog.cache.impl.ConcurrentLRUCache;
 import com.whaleal.icefrog.cache.impl.FIFOCache;
 import com.whaleal.icefrog.cache.impl.LRUCache;
 import com.whaleal.icefrog.cache.impl.WeakCache;
@@ -80,6 +81,25 @@ public class CacheConcurrentTest {
         ThreadUtil.sleep(5000);
     }
 
+    @Test
+    public void concurrentLruCacheTest() {
+        final ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(1024);
+        final AtomicInteger counter = new AtomicInteger();
+        ThreadUtil.concurrencyTest(16, () -> {
+            for (int i = 0; i < 10000; i++) {
+                final int key = counter.incrementAndGet() % 4096;
+                if (null == cache.get(key)) {
+                    cache.put(key, key);
+                }
+            }
+        });
+        // 并发读写下容量依旧不会超出
+        Assert.assertTrue(cache.size() <= cache.capacity());
+        for (Integer value : cache) {
+            Assert.assertNotNull(value);
+        }
+    }
+
     private void show( Cache<String, String> cache ) {
 
         for (Object tt : cache) {
@@ -0,0 +1,157 @@
+package com.whaleal.icefrog.cache;
+
+import com.whaleal.icefrog.cache.stats.CacheStats;
+import com.whaleal.icefrog.cache.stats.CacheStatsJmx;
+import com.whaleal.icefrog.cache.stats.ConcurrentStatsCounter;
+import com.whaleal.icefrog.cache.stats.RemovalCause;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 缓存统计测试
+ *
+ * @author wh
+ */
+public class CacheStatsTest {
+
+    @Test
+    public void disabledTest() {
+        final Cache<String, String> cache = CacheUtil.newLRUCache(3);
+        cache.put("key1", "value1");
+        cache.get("key1");
+        Assert.assertSame(CacheStats.EMPTY, cache.stats());
+    }
+
+    @Test
+    public void lruCacheStatsTest() {
+        final Cache<String, String> cache = CacheUtil.<String, String>newLRUCache(2)
+                .setStatsCounter(new ConcurrentStatsCounter());
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.get("key1");
+        cache.get("key3");
+        // key2被淘汰
+        cache.put("key3", "value3");
+        cache.remove("key1");
+
+        final CacheStats stats = cache.stats();
+        Assert.assertEquals(1, stats.hitCount());
+        Assert.assertEquals(1, stats.missCount());
+        Assert.assertEquals(0.5, stats.hitRate(), 0.0001);
+        Assert.assertEquals(1, stats.removalCount(RemovalCause.SIZE));
+        Assert.assertEquals(1, stats.removalCount(RemovalCause.EXPLICIT));
+        Assert.assertEquals(1, stats.evictionCount());
+    }
+
+    @Test
+    public void removalWeightTest() {
+        // 按值的长度计量权重
+        final Cache<String, String> cache = CacheUtil.<String, String>newLRUCache(2)
+                .setStatsCounter(new ConcurrentStatsCounter())
+                .setWeigher(( key, value ) -> value.length());
+        cache.put("key1", "a");
+        cache.put("key2", "bbb");
+        // key1被淘汰
+        cache.put("key3", "cc");
+        cache.remove("key2");
+
+        final CacheStats stats = cache.stats();
+        Assert.assertEquals(1, stats.removalWeight(RemovalCause.SIZE));
+        Assert.assertEquals(3, stats.removalWeight(RemovalCause.EXPLICIT));
+        Assert.assertEquals(1, stats.evictionWeight());
+        // 仅剩key3
+        Assert.assertEquals(2, stats.weightedSize());
+    }
+
+    @Test
+    public void weightedSizeTest() {
+        final Cache<String, String> cache = CacheUtil.<String, String>newLRUCache(4)
+                .setStatsCounter(new ConcurrentStatsCounter());
+        cache.put("key1", "a");
+        cache.put("key2", "bbb");
+        // 默认权重计算器下总权重即缓存对象数
+        Assert.assertEquals(2, cache.stats().weightedSize());
+
+        cache.setWeigher(( key, value ) -> value.length());
+        Assert.assertEquals(4, cache.stats().weightedSize());
+        // 差值保留当前快照的总权重
+        Assert.assertEquals(4, cache.stats().minus(CacheStats.EMPTY).weightedSize());
+    }
+
+    @Test
+    public void asyncLoadingStatsTest() {
+        final AsyncLoadingCache<String, String> cache = CacheUtil.<String, String>newAsyncLoadingCache(16, 0,
+                AsyncCacheLoader.of(String::toUpperCase)).setStatsCounter(new ConcurrentStatsCounter());
+        Assert.assertEquals("A", cache.get("a").join());
+        Assert.assertEquals("A", cache.get("a").join());
+        // 刷新时的内部检查不计入统计
+        Assert.assertEquals("A", cache.refresh("a").join());
+
+        final CacheStats stats = cache.stats();
+        Assert.assertEquals(1, stats.hitCount());
+        Assert.assertEquals(1, stats.missCount());
+        Assert.assertEquals(2, stats.loadSuccessCount());
+    }
+
+    @Test
+    public void loadStatsTest() {
+        final Cache<String, String> cache = CacheUtil.<String, String>newConcurrentLRUCache(16)
+                .setStatsCounter(new ConcurrentStatsCounter());
+        cache.get("key1", () -> {
+            ThreadUtil.sleep(10);
+            return "value1";
+        });
+        try {
+            cache.get("key2", () -> {
+                throw new IllegalStateException("load fail");
+            });
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // ignore
+        }
+
+        final CacheStats stats = cache.stats();
+        Assert.assertEquals(1, stats.loadSuccessCount());
+        Assert.assertEquals(1, stats.loadFailureCount());
+        Assert.assertTrue(stats.totalLoadTime() >= 10_000_000L);
+        // 直方图桶的上界不小于实际耗时
+        Assert.assertTrue(stats.loadLatencyPercentile(100) >= 10_000_000L);
+    }
+
+    @Test
+    public void expiredStatsTest() {
+        final Cache<String, String> cache = CacheUtil.<String, String>newTimedCache(10)
+                .setStatsCounter(new ConcurrentStatsCounter());
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        ThreadUtil.sleep(50);
+        Assert.assertNull(cache.get("key1"));
+        cache.prune();
+
+        final CacheStats stats = cache.stats();
+        Assert.assertEquals(2, stats.removalCount(RemovalCause.EXPIRED));
+        Assert.assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    public void jmxTest() throws Exception {
+        final Cache<String, String> cache = CacheUtil.<String, String>newWTinyLFUCache(16)
+                .setStatsCounter(new ConcurrentStatsCounter());
+        cache.put("key1", "value1");
+        cache.get("key1");
+
+        final ObjectName name = CacheStatsJmx.register("test", cache);
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Assert.assertEquals(1L, server.getAttribute(name, "HitCount"));
+            Assert.assertEquals(1L, server.getAttribute(name, "Size"));
+        } finally {
+            CacheStatsJmx.unregister("test");
+        }
+    }
+}
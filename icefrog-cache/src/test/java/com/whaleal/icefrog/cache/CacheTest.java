@@ -1,12 +1,20 @@
 package com.whaleal.icefrog.cache;
 
+import com.whaleal.icefrog.cache.impl.CacheObj;
+import com.whaleal.icefrog.cache.impl.ConcurrentLRUCache;
+import com.whaleal.icefrog.cache.impl.FrequencySketch;
 import com.whaleal.icefrog.cache.impl.TimedCache;
+import com.whaleal.icefrog.cache.impl.WTinyLFUCache;
 import com.whaleal.icefrog.core.date.DateUnit;
 import com.whaleal.icefrog.core.thread.ThreadUtil;
 import com.whaleal.icefrog.core.util.RandomUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * 缓存测试用例
  *
@@ -115,4 +123,167 @@ public class CacheTest {
         //取消定时清理
         timedCache.cancelPruneSchedule();
     }
+
+    @Test
+    public void concurrentLruCacheTest() {
+        Cache<String, String> lruCache = CacheUtil.newConcurrentLRUCache(3);
+        lruCache.setListener(( key, value ) -> {
+            // 只有key2会被淘汰
+            Assert.assertEquals("key2", key);
+            Assert.assertEquals("value2", value);
+        });
+        lruCache.put("key1", "value1", DateUnit.SECOND.getMillis() * 3);
+        lruCache.put("key2", "value2", DateUnit.SECOND.getMillis() * 3);
+        lruCache.put("key3", "value3", DateUnit.SECOND.getMillis() * 3);
+        //使用时间推近
+        lruCache.get("key1");
+        lruCache.put("key4", "value4", DateUnit.SECOND.getMillis() * 3);
+
+        Assert.assertEquals(3, lruCache.size());
+        Assert.assertNotNull(lruCache.get("key1"));
+        Assert.assertNull(lruCache.get("key2"));
+    }
+
+    @Test
+    public void concurrentLfuCacheTest() {
+        Cache<String, String> lfuCache = CacheUtil.newConcurrentLFUCache(3);
+        lfuCache.put("key1", "value1");
+        lfuCache.put("key2", "value2");
+        lfuCache.put("key3", "value3");
+        //使用次数+1
+        lfuCache.get("key1");
+        lfuCache.get("key3");
+        lfuCache.put("key4", "value4");
+
+        // 访问次数最少的key2被移除
+        Assert.assertNull(lfuCache.get("key2"));
+        Assert.assertNotNull(lfuCache.get("key1"));
+        Assert.assertNotNull(lfuCache.get("key3"));
+        Assert.assertNotNull(lfuCache.get("key4"));
+    }
+
+    @Test
+    public void concurrentLruCacheCapacityTest() {
+        ConcurrentLRUCache<String, String> lruCache = new ConcurrentLRUCache<>(1000, 0, 8);
+        Assert.assertTrue(lruCache.segmentCount() > 1);
+        for (int i = 0; i < 5000; i++) {
+            lruCache.put("key" + i, "value" + i);
+        }
+        Assert.assertEquals(1000, lruCache.size());
+        Assert.assertTrue(lruCache.isFull());
+    }
+
+    @Test
+    public void wTinyLfuCacheTest() {
+        WTinyLFUCache<Integer, Integer> cache = CacheUtil.newWTinyLFUCache(100);
+        // 热点数据，多次访问后频率较高
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(Integer.valueOf(i), cache.get(i));
+            }
+        }
+
+        // 扫描大量只访问一次的冷数据，期间热点数据持续被访问
+        for (int i = 1000; i < 11000; i++) {
+            cache.put(i, i);
+            cache.get(i % 100);
+        }
+        Assert.assertEquals(100, cache.size());
+
+        // 热点数据基本不被扫描数据挤出
+        int hit = 0;
+        for (int i = 0; i < 100; i++) {
+            if (null != cache.get(i)) {
+                hit++;
+            }
+        }
+        Assert.assertTrue(hit >= 90);
+    }
+
+    @Test
+    public void frequencySketchTest() {
+        FrequencySketch sketch = new FrequencySketch(512);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("cold");
+        // 计数器最大为15
+        Assert.assertEquals(15, sketch.frequency("hot"));
+        Assert.assertTrue(sketch.frequency("cold") >= 1);
+        Assert.assertEquals(0, sketch.frequency("absent") > 1 ? -1 : 0);
+    }
+
+    @Test
+    public void timedCachePruneTest() {
+        TimedCache<Integer, Integer> timedCache = CacheUtil.newTimedCache(0);
+        final AtomicInteger removed = new AtomicInteger();
+        timedCache.setListener(( key, value ) -> removed.incrementAndGet());
+        for (int i = 0; i < 1000; i++) {
+            // 偶数20毫秒过期，奇数1小时过期
+            timedCache.put(i, i, i % 2 == 0 ? 20 : DateUnit.HOUR.getMillis());
+        }
+        // 永不过期
+        timedCache.put(-1, -1);
+
+        ThreadUtil.sleep(100);
+        Assert.assertEquals(500, timedCache.prune());
+        Assert.assertEquals(500, removed.get());
+        Assert.assertEquals(501, timedCache.size());
+        Assert.assertEquals(Integer.valueOf(-1), timedCache.get(-1));
+        // 已到期的槽不会被重复处理
+        Assert.assertEquals(0, timedCache.prune());
+    }
+
+    @Test
+    public void timedCacheUpdateLastAccessTest() {
+        TimedCache<String, String> timedCache = CacheUtil.newTimedCache(100);
+        timedCache.put("key1", "value1");
+        timedCache.put("key2", "value2");
+        for (int i = 0; i < 5; i++) {
+            ThreadUtil.sleep(40);
+            // 持续访问key1，存活时间不断延长
+            Assert.assertEquals("value1", timedCache.get("key1"));
+        }
+        // key2已过期被清理，key1在时间轮中重新排期
+        Assert.assertEquals(1, timedCache.prune());
+        Assert.assertEquals(1, timedCache.size());
+        Assert.assertTrue(timedCache.containsKey("key1"));
+    }
+
+    @Test
+    public void timedCachePruneOnAccessTest() {
+        TimedCache<Integer, Integer> timedCache = CacheUtil.<Integer, Integer>newTimedCache(20).setPruneOnAccess(true);
+        for (int i = 0; i < 100; i++) {
+            timedCache.put(i, i);
+        }
+        ThreadUtil.sleep(100);
+
+        // 无定时任务，写入时顺带清理到期对象
+        timedCache.put(100, 100);
+        Assert.assertEquals(1, timedCache.size());
+    }
+
+    @Test
+    public void timedCacheWithExistingMapTest() {
+        final Map<String, CacheObj<String, String>> map = new HashMap<>();
+        map.put("key1", new CacheObj<String, String>("key1", "value1", 20) {
+            private static final long serialVersionUID = 1L;
+        });
+        map.put("key2", new CacheObj<String, String>("key2", "value2", 0) {
+            private static final long serialVersionUID = 1L;
+        });
+
+        // 已有对象被重新包装并放入时间轮，覆盖和移除不再出错
+        final TimedCache<String, String> timedCache = new TimedCache<>(0, map);
+        timedCache.put("key2", "value3");
+        Assert.assertEquals("value3", timedCache.get("key2"));
+        ThreadUtil.sleep(100);
+        Assert.assertEquals(1, timedCache.prune());
+        Assert.assertFalse(timedCache.containsKey("key1"));
+        timedCache.remove("key2");
+        Assert.assertEquals(0, timedCache.size());
+    }
 }
@@ -0,0 +1,113 @@
+package com.whaleal.icefrog.cache;
+
+import com.whaleal.icefrog.core.util.RandomUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 堆外缓存测试
+ *
+ * @author wh
+ */
+public class OffHeapBytesLRUCacheTest {
+
+    @Test
+    public void putAndGetTest() {
+        OffHeapBytesLRUCache cache = new OffHeapBytesLRUCache(64 * 1024, 1024, 16 * 1024);
+        byte[] small = RandomUtil.randomBytes(10);
+        byte[] large = RandomUtil.randomBytes(5000);
+        cache.put("small", small);
+        cache.put("large", large);
+        cache.put("empty", new byte[0]);
+
+        Assert.assertArrayEquals(small, cache.get("small"));
+        Assert.assertArrayEquals(large, cache.get("large"));
+        Assert.assertArrayEquals(new byte[0], cache.get("empty"));
+        Assert.assertNull(cache.get("none"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assert.assertTrue(cache.writeTo("large", out));
+        Assert.assertArrayEquals(large, out.toByteArray());
+
+        // 覆盖旧值，块被复用
+        byte[] replaced = RandomUtil.randomBytes(3000);
+        cache.put("large", replaced);
+        Assert.assertArrayEquals(replaced, cache.get("large"));
+
+        OffHeapBytesLRUCache.Statistics statistics = cache.getStatistics();
+        Assert.assertEquals(3, statistics.getEntryCount());
+        Assert.assertEquals(3010, statistics.getBytesInCache());
+        Assert.assertEquals(4 * 1024, statistics.getBytesUsed());
+        Assert.assertEquals(16 * 1024, statistics.getBytesAllocated());
+        Assert.assertEquals(1, statistics.getMissCount());
+    }
+
+    @Test
+    public void evictTest() {
+        OffHeapBytesLRUCache cache = new OffHeapBytesLRUCache(8 * 1024, 1024, 4 * 1024);
+        for (int i = 0; i < 8; i++) {
+            cache.put("key" + i, new byte[1024]);
+        }
+        // 使用时间推近
+        cache.get("key0");
+        cache.put("key8", new byte[2048]);
+
+        // key1和key2为最久未使用，被淘汰
+        Assert.assertTrue(cache.containsKey("key0"));
+        Assert.assertFalse(cache.containsKey("key1"));
+        Assert.assertFalse(cache.containsKey("key2"));
+        Assert.assertTrue(cache.containsKey("key8"));
+        Assert.assertEquals(2, cache.getStatistics().getEvictionCount());
+
+        // 大于容量的数据不缓存，已有的数据保持不变
+        Assert.assertFalse(cache.put("huge", new byte[9 * 1024]));
+        Assert.assertFalse(cache.put("key8", new byte[9 * 1024]));
+        Assert.assertArrayEquals(new byte[2048], cache.get("key8"));
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getStatistics().getBytesUsed());
+    }
+
+    @Test
+    public void writeToWithoutLockTest() throws Exception {
+        final OffHeapBytesLRUCache cache = new OffHeapBytesLRUCache(4 * 1024, 1024, 4 * 1024);
+        final byte[] data = RandomUtil.randomBytes(2000);
+        cache.put("a", data);
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write( byte[] b, int off, int len ) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(b, off, len);
+            }
+        };
+        final FutureTask<Boolean> task = new FutureTask<>(() -> cache.writeTo("a", out));
+        new Thread(task).start();
+        writing.await();
+
+        // 慢速写出期间读写不被阻塞，被移除数据的块不会被复用
+        Assert.assertArrayEquals(data, cache.get("a"));
+        Assert.assertTrue(cache.remove("a"));
+        Assert.assertTrue(cache.put("b", new byte[2000]));
+        Assert.assertTrue(cache.put("c", new byte[2000]));
+        Assert.assertFalse(cache.containsKey("b"));
+        Assert.assertEquals(4 * 1024, cache.getStatistics().getBytesUsed());
+
+        release.countDown();
+        Assert.assertTrue(task.get());
+        Assert.assertArrayEquals(data, out.toByteArray());
+        Assert.assertEquals(2 * 1024, cache.getStatistics().getBytesUsed());
+    }
+}
@@ -1,5 +1,7 @@
 package com.whaleal.icefrog.cron;
 
+import com.whaleal.icefrog.core.util.IdUtil;
+
 import java.util.TimeZone;
 
 /**
@@ -11,6 +13,19 @@ import java.util.TimeZone;
  */
 public class CronConfig {
 
+    /**
+     * 默认的排队数上限
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    /**
+     * 默认的作业分片数
+     */
+    public static final int DEFAULT_SHARD_COUNT = 64;
+    /**
+     * 默认的分片租约时长，单位毫秒
+     */
+    public static final long DEFAULT_LEASE_MILLIS = 30_000;
+
     /**
      * 时区
      */
@@ -19,6 +34,34 @@ public class CronConfig {
      * 是否支持秒匹配
      */
     protected boolean matchSecond;
+    /**
+     * 是否按下次触发时间调度
+     */
+    protected boolean useNextFireTime;
+    /**
+     * 默认的作业执行策略
+     */
+    protected ExecutePolicy executePolicy = ExecutePolicy.CONCURRENT;
+    /**
+     * 工作线程数上限，小于等于0表示不限制
+     */
+    protected int maxPoolSize;
+    /**
+     * 有界线程池的排队数上限
+     */
+    protected int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    /**
+     * 当前节点ID，使用作业存储时用于标识分片租约的持有者
+     */
+    protected String nodeId = IdUtil.fastSimpleUUID();
+    /**
+     * 作业分片数，集群中所有节点必须一致
+     */
+    protected int shardCount = DEFAULT_SHARD_COUNT;
+    /**
+     * 分片租约时长，单位毫秒
+     */
+    protected long leaseMillis = DEFAULT_LEASE_MILLIS;
 
     public CronConfig() {
     }
@@ -62,4 +105,164 @@ public class CronConfig {
         this.matchSecond = isMatchSecond;
         return this;
     }
+
+    /**
+     * 是否按下次触发时间调度
+     *
+     * @return <code>true</code>使用{@link NextFireTimer}，<code>false</code>使用{@link CronTimer}
+     * @since 1.1.8
+     */
+    public boolean isUseNextFireTime() {
+        return this.useNextFireTime;
+    }
+
+    /**
+     * 设置是否按下次触发时间调度，默认不使用<br>
+     * 默认的{@link CronTimer}每秒（分）检查一次所有任务的表达式，任务越多开销越大；
+     * 开启后使用{@link NextFireTimer}，预先计算每个任务的下次触发时间，只在有任务到期时唤醒，适合任务数量很多的场景
+     *
+     * @param useNextFireTime <code>true</code>使用，<code>false</code>不使用
+     * @return this
+     * @since 1.1.8
+     */
+    public CronConfig setUseNextFireTime( boolean useNextFireTime ) {
+        this.useNextFireTime = useNextFireTime;
+        return this;
+    }
+
+    /**
+     * 获得默认的作业执行策略，默认为{@link ExecutePolicy#CONCURRENT}
+     *
+     * @return 执行策略
+     * @since 1.1.8
+     */
+    public ExecutePolicy getExecutePolicy() {
+        return this.executePolicy;
+    }
+
+    /**
+     * 设置默认的作业执行策略，未单独设置执行策略的作业使用此策略
+     *
+     * @param executePolicy 执行策略
+     * @return this
+     * @since 1.1.8
+     */
+    public CronConfig setExecutePolicy( ExecutePolicy executePolicy ) {
+        this.executePolicy = executePolicy;
+        return this;
+    }
+
+    /**
+     * 获得工作线程数上限
+     *
+     * @return 工作线程数上限，小于等于0表示不限制
+     * @since 1.1.8
+     */
+    public int getMaxPoolSize() {
+        return this.maxPoolSize;
+    }
+
+    /**
+     * 设置工作线程数上限，默认不限制<br>
+     * 不限制时每个到期的作业都立即获得线程，大量作业同时到期会创建大量线程；
+     * 限制后超出的作业在队列中排队，队列已满时被拒绝并计入{@link TaskMetrics#getRejectedCount()}
+     *
+     * @param maxPoolSize 工作线程数上限，小于等于0表示不限制
+     * @return this
+     * @since 1.1.8
+     */
+    public CronConfig setMaxPoolSize( int maxPoolSize ) {
+        this.maxPoolSize = maxPoolSize;
+        return this;
+    }
+
+    /**
+     * 获得有界线程池的排队数上限
+     *
+     * @return 排队数上限
+     * @since 1.1.8
+     */
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    /**
+     * 设置有界线程池的排队数上限，默认{@link #DEFAULT_QUEUE_CAPACITY}，仅在设置了工作线程数上限时有效
+     *
+     * @param queueCapacity 排队数上限
+     * @return this
+     * @since 1.1.8
+     */
+    public CronConfig setQueueCapacity( int queueCapacity ) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * 获得当前节点ID
+     *
+     * @return 节点ID
+     * @since 1.1.8
+     */
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    /**
+     * 设置当前节点ID，默认随机生成，仅在使用作业存储时有效
+     *
+     * @param nodeId 节点ID
+     * @return this
+     * @since 1.1.8
+     */
+    public CronConfig setNodeId( String nodeId ) {
+        this.nodeId = nodeId;
+        return this;
+    }
+
+    /**
+     * 获得作业分片数
+     *
+     * @return 作业分片数
+     * @since 1.1.8
+     */
+    public int getShardCount() {
+        return this.shardCount;
+    }
+
+    /**
+     * 设置作业分片数，默认{@link #DEFAULT_SHARD_COUNT}，集群中所有节点必须一致<br>
+     * 分片数即可参与分担作业的最大节点数
+     *
+     * @param shardCount 作业分片数
+     * @return this
+     * @since 1.1.8
+     */
+    public CronConfig setShardCount( int shardCount ) {
+        this.shardCount = shardCount;
+        return this;
+    }
+
+    /**
+     * 获得分片租约时长，单位毫秒
+     *
+     * @return 分片租约时长
+     * @since 1.1.8
+     */
+    public long getLeaseMillis() {
+        return this.leaseMillis;
+    }
+
+    /**
+     * 设置分片租约时长，单位毫秒，默认{@link #DEFAULT_LEASE_MILLIS}<br>
+     * 节点宕机后其分片最多经过此时长被其它节点接管，租约每三分之一时长续约一次
+     *
+     * @param leaseMillis 分片租约时长
+     * @return this
+     * @since 1.1.8
+     */
+    public CronConfig setLeaseMillis( long leaseMillis ) {
+        this.leaseMillis = leaseMillis;
+        return this;
+    }
 }
@@ -0,0 +1,23 @@
+package com.whaleal.icefrog.cron;
+
+/**
+ * 作业的执行策略，决定作业的上一次执行尚未结束时如何处理新的触发
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public enum ExecutePolicy {
+
+    /**
+     * 并发执行，每次触发都启动新的执行，同一作业的多次执行可以重叠，为默认策略
+     */
+    CONCURRENT,
+    /**
+     * 上一次执行（包括排队等待中）尚未结束时跳过本次触发
+     */
+    SKIP_IF_RUNNING,
+    /**
+     * 上一次执行尚未结束时，期间的所有触发合并为一次，在上一次执行结束后立即执行
+     */
+    COALESCE
+}
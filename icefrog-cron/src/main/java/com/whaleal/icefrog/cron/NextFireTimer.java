@@ -0,0 +1,253 @@
+package com.whaleal.icefrog.cron;
+
+import com.whaleal.icefrog.core.date.DateUnit;
+import com.whaleal.icefrog.cron.task.CronTask;
+import com.whaleal.icefrog.log.Log;
+import com.whaleal.icefrog.log.LogFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于下次触发时间的定时器<br>
+ * 与{@link CronTimer}每秒（分）检查所有表达式不同，此定时器为每个任务预先计算下次触发时间，按触发时间放入优先队列，
+ * 线程只等待到队首任务到期，到期后执行并计算此任务的下次触发时间，因此每次唤醒的开销只与到期的任务数有关，与任务总数无关。
+ * <ul>
+ * <li>新增、移除、更新任务时只修改对应的队列项，移除采用标记方式，被标记的队列项在出队时丢弃</li>
+ * <li>新增的任务早于队首时唤醒定时器重新计算等待时间</li>
+ * <li>单次等待不超过一分钟，防止系统时间被向前调整后长时间不触发</li>
+ * </ul>
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class NextFireTimer extends Thread {
+
+    private static final Log log = LogFactory.get();
+
+    /**
+     * 单次最长等待时间
+     */
+    private static final long MAX_WAIT_MILLIS = DateUnit.MINUTE.getMillis();
+
+    private final Scheduler scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    /**
+     * 按下次触发时间排序的队列
+     */
+    private final PriorityQueue<FireEntry> queue = new PriorityQueue<>();
+    /**
+     * 任务ID与有效队列项的对应关系
+     */
+    private final Map<String, FireEntry> entries = new HashMap<>();
+    /**
+     * 定时任务是否已经被强制关闭
+     */
+    private volatile boolean isStop;
+
+    /**
+     * 构造
+     *
+     * @param scheduler {@link Scheduler}
+     */
+    public NextFireTimer( Scheduler scheduler ) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 加入任务，如果ID已存在则替换原有任务
+     *
+     * @param task {@link CronTask}
+     */
+    public void schedule( CronTask task ) {
+        final FireEntry entry = new FireEntry(task);
+        computeNext(entry, System.currentTimeMillis());
+        lock.lock();
+        try {
+            final FireEntry old = entries.put(task.getId(), entry);
+            if (null != old) {
+                old.cancelled = true;
+            }
+            if (entry.nextFireTime >= 0) {
+                queue.offer(entry);
+                if (queue.peek() == entry) {
+                    available.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 移除任务
+     *
+     * @param id 任务ID
+     */
+    public void deschedule( String id ) {
+        lock.lock();
+        try {
+            final FireEntry old = entries.remove(id);
+            if (null != old) {
+                old.cancelled = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 移除所有任务
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            for (FireEntry entry : entries.values()) {
+                entry.cancelled = true;
+            }
+            entries.clear();
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 等待触发的任务数
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void run() {
+        final List<FireEntry> dueEntries = new ArrayList<>();
+        while (false == isStop) {
+            try {
+                takeDue(dueEntries);
+            } catch (InterruptedException e) {
+                // 被中断直接退出Timer
+                break;
+            }
+
+            final long now = System.currentTimeMillis();
+            for (FireEntry entry : dueEntries) {
+                scheduler.taskExecutorManager.spawnExecutor(entry.task);
+                // 执行晚于触发时间时从当前时间开始计算，错过的触发点不再补偿
+                computeNext(entry, Math.max(entry.nextFireTime, now));
+            }
+
+            lock.lock();
+            try {
+                for (FireEntry entry : dueEntries) {
+                    // 表达式不再匹配的任务不再放回队列
+                    if (false == entry.cancelled && entry.nextFireTime >= 0) {
+                        queue.offer(entry);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            dueEntries.clear();
+        }
+        log.debug("icefrog-cron next fire timer stopped.");
+    }
+
+    /**
+     * 关闭定时器
+     */
+    public void stopTimer() {
+        this.isStop = true;
+        this.interrupt();
+    }
+
+    /**
+     * 等待直到有任务到期，将所有到期任务取出放入列表
+     *
+     * @param dueEntries 到期任务列表
+     * @throws InterruptedException 等待被中断
+     */
+    private void takeDue( List<FireEntry> dueEntries ) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (dueEntries.isEmpty()) {
+                final FireEntry head = queue.peek();
+                if (null == head) {
+                    available.await();
+                    continue;
+                }
+                if (head.cancelled) {
+                    queue.poll();
+                    continue;
+                }
+
+                final long now = System.currentTimeMillis();
+                final long delay = head.nextFireTime - now;
+                if (delay > 0) {
+                    available.await(Math.min(delay, MAX_WAIT_MILLIS), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+
+                FireEntry entry;
+                while (null != (entry = queue.peek()) && entry.nextFireTime <= now) {
+                    queue.poll();
+                    if (false == entry.cancelled) {
+                        dueEntries.add(entry);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 计算指定时间之后的下次触发时间
+     *
+     * @param entry 队列项
+     * @param after 起始时间（不含）
+     */
+    private void computeNext( FireEntry entry, long after ) {
+        final CronConfig config = scheduler.config;
+        entry.nextFireTime = entry.task.getPattern().nextMatchAfter(config.timezone, after, config.matchSecond);
+        if (entry.nextFireTime < 0) {
+            log.debug("Pattern [{}] of task [{}] will never match after {}", entry.task.getPattern(), entry.task.getId(), after);
+        }
+    }
+
+    /**
+     * 队列项，对应一个任务及其下次触发时间
+     */
+    private static class FireEntry implements Comparable<FireEntry> {
+        private final CronTask task;
+        /**
+         * 下次触发时间，-1表示不再触发
+         */
+        private long nextFireTime;
+        /**
+         * 是否已被移除或替换，由持有锁的线程修改
+         */
+        private volatile boolean cancelled;
+
+        FireEntry( CronTask task ) {
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo( FireEntry o ) {
+            return Long.compare(this.nextFireTime, o.nextFireTime);
+        }
+    }
+}
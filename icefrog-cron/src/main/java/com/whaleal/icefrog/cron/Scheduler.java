@@ -5,10 +5,14 @@ import com.whaleal.icefrog.core.thread.ExecutorBuilder;
 import com.whaleal.icefrog.core.thread.ThreadFactoryBuilder;
 import com.whaleal.icefrog.core.util.CharUtil;
 import com.whaleal.icefrog.core.util.IdUtil;
+import com.whaleal.icefrog.core.util.ReflectUtil;
 import com.whaleal.icefrog.core.util.StrUtil;
 import com.whaleal.icefrog.cron.listener.TaskListener;
 import com.whaleal.icefrog.cron.listener.TaskListenerManager;
 import com.whaleal.icefrog.cron.pattern.CronPattern;
+import com.whaleal.icefrog.cron.store.JobDefinition;
+import com.whaleal.icefrog.cron.store.JobStore;
+import com.whaleal.icefrog.cron.task.CronTask;
 import com.whaleal.icefrog.cron.task.InvokeTask;
 import com.whaleal.icefrog.cron.task.RunnableTask;
 import com.whaleal.icefrog.cron.task.Task;
@@ -16,10 +20,16 @@ import com.whaleal.icefrog.log.StaticLog;
 import com.whaleal.icefrog.setting.Setting;
 
 import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -48,6 +58,12 @@ import java.util.concurrent.locks.ReentrantLock;
  * <pre>
  * <strong>TaskExecutor</strong>：TaskLauncher匹配成功后，触发TaskExecutor执行具体的作业，执行完毕销毁
  * </pre>
+ * <p>
+ * 如果{@link #isUseNextFireTime()}为{@code true}，则使用{@link NextFireTimer}代替Timer和TaskLauncher，
+ * 按每个任务的下次触发时间直接启动TaskExecutor。
+ * <p>
+ * 如果设置了{@link JobStore}，新增、移除和更新的任务同时写入存储，启动时从存储恢复任务，
+ * 多个节点通过{@link ShardCoordinator}分担作业分片，每个作业在集群中只由一个节点触发。
  *
  * @author Looly
  * @author wh
@@ -85,6 +101,14 @@ public class Scheduler implements Serializable {
      * 线程池，用于执行TaskLauncher和TaskExecutor
      */
     protected ExecutorService threadExecutor;
+    /**
+     * 单独设置了执行策略的作业
+     */
+    protected final Map<String, ExecutePolicy> executePolicies = new ConcurrentHashMap<>();
+    /**
+     * 作业存储，{@code null}表示不持久化，所有作业只在本节点触发
+     */
+    protected JobStore jobStore;
     /**
      * 是否已经启动
      */
@@ -93,6 +117,14 @@ public class Scheduler implements Serializable {
      * 定时器
      */
     private CronTimer timer;
+    /**
+     * 按下次触发时间调度的定时器，{@link CronConfig#isUseNextFireTime()}为{@code true}时使用
+     */
+    private volatile NextFireTimer nextFireTimer;
+    /**
+     * 分片协调器，设置了作业存储时使用
+     */
+    private volatile ShardCoordinator shardCoordinator;
 
     // --------------------------------------------------------- Getters and Setters start
 
@@ -118,7 +150,8 @@ public class Scheduler implements Serializable {
 
     /**
      * 设置自定义线程池<br>
-     * 自定义线程池时须考虑方法执行的线程是否为守护线程
+     * 自定义线程池时须考虑方法执行的线程是否为守护线程<br>
+     * 在JDK21及以上版本中，可调用{@link #setVirtualThreadExecutor()}使用虚拟线程执行作业
      *
      * @param threadExecutor 自定义线程池
      * @return this
@@ -136,6 +169,22 @@ public class Scheduler implements Serializable {
         return this;
     }
 
+    /**
+     * 使用每个作业一个虚拟线程的线程池执行作业，作业中的阻塞操作不再占用平台线程<br>
+     * 项目以Java 8编译，此处通过反射调用{@code Executors.newVirtualThreadPerTaskExecutor()}
+     *
+     * @return this
+     * @throws CronException 当前JVM不支持虚拟线程或定时任务已经启动
+     * @since 1.1.8
+     */
+    public Scheduler setVirtualThreadExecutor() throws CronException {
+        final Method method = ReflectUtil.getMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+        if (null == method) {
+            throw new CronException("Virtual threads require Java 21+, current is {}", System.getProperty("java.version"));
+        }
+        return setThreadExecutor(ReflectUtil.invokeStatic(method));
+    }
+
     /**
      * 是否为守护线程
      *
@@ -185,6 +234,194 @@ public class Scheduler implements Serializable {
         return this;
     }
 
+    /**
+     * 是否按下次触发时间调度
+     *
+     * @return {@code true}使用，{@code false}不使用
+     * @since 1.1.8
+     */
+    public boolean isUseNextFireTime() {
+        return this.config.isUseNextFireTime();
+    }
+
+    /**
+     * 设置是否按下次触发时间调度，默认不使用<br>
+     * 开启后不再每秒（分）匹配所有任务，而是预先计算每个任务的下次触发时间，定时器只在有任务到期时唤醒，适合任务数量很多的场景。<br>
+     * 此模式下应通过调度器的方法新增、移除和更新任务，直接修改{@link #getTaskTable()}返回的任务表不会生效
+     *
+     * @param useNextFireTime {@code true}使用，{@code false}不使用
+     * @return this
+     * @throws CronException 定时任务已经启动抛出此异常
+     * @since 1.1.8
+     */
+    public Scheduler setUseNextFireTime( boolean useNextFireTime ) throws CronException {
+        lock.lock();
+        try {
+            checkStarted();
+            this.config.setUseNextFireTime(useNextFireTime);
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * 设置默认的作业执行策略，未单独设置执行策略的作业使用此策略，默认{@link ExecutePolicy#CONCURRENT}
+     *
+     * @param executePolicy 执行策略
+     * @return this
+     * @since 1.1.8
+     */
+    public Scheduler setExecutePolicy( ExecutePolicy executePolicy ) {
+        this.config.setExecutePolicy(executePolicy);
+        return this;
+    }
+
+    /**
+     * 单独设置作业的执行策略，可在运行时修改，下次触发时生效
+     *
+     * @param id            作业ID
+     * @param executePolicy 执行策略，{@code null}表示使用默认策略
+     * @return this
+     * @since 1.1.8
+     */
+    public Scheduler setExecutePolicy( String id, ExecutePolicy executePolicy ) {
+        if (null == executePolicy) {
+            this.executePolicies.remove(id);
+        } else {
+            this.executePolicies.put(id, executePolicy);
+        }
+        return this;
+    }
+
+    /**
+     * 获得作业的执行策略
+     *
+     * @param id 作业ID
+     * @return 执行策略，未单独设置时返回默认策略
+     * @since 1.1.8
+     */
+    public ExecutePolicy getExecutePolicy( String id ) {
+        final ExecutePolicy executePolicy = this.executePolicies.get(id);
+        return (null == executePolicy) ? this.config.getExecutePolicy() : executePolicy;
+    }
+
+    /**
+     * 使用有界线程池执行作业，线程数和排队数都有上限，作业无法提交时被拒绝而不是无限创建线程<br>
+     * 如果用户调用{@link #setThreadExecutor(ExecutorService)}自定义线程池则此参数无效
+     *
+     * @param maxPoolSize   工作线程数上限，小于等于0表示不限制
+     * @param queueCapacity 排队数上限
+     * @return this
+     * @throws CronException 定时任务已经启动抛出此异常
+     * @since 1.1.8
+     */
+    public Scheduler setWorkerPool( int maxPoolSize, int queueCapacity ) throws CronException {
+        lock.lock();
+        try {
+            checkStarted();
+            this.config.setMaxPoolSize(maxPoolSize).setQueueCapacity(queueCapacity);
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * 获取作业的执行统计，包括排队数、等待时间和执行时间等
+     *
+     * @param id 作业ID
+     * @return 执行统计，未启动或作业从未被触发时返回{@code null}
+     * @since 1.1.8
+     */
+    public TaskMetrics getTaskMetrics( String id ) {
+        final TaskExecutorManager taskExecutorManager = this.taskExecutorManager;
+        return (null == taskExecutorManager) ? null : taskExecutorManager.getMetrics(id);
+    }
+
+    /**
+     * 获得作业存储
+     *
+     * @return 作业存储，未设置时返回{@code null}
+     * @since 1.1.8
+     */
+    public JobStore getJobStore() {
+        return this.jobStore;
+    }
+
+    /**
+     * 设置作业存储<br>
+     * 设置后新增、移除和更新的任务同时写入存储，启动时恢复存储中的{@link InvokeTask}任务，并定期同步其它节点的修改。<br>
+     * 作业按ID分片，只有持有分片租约的节点触发作业，因此集群中各节点应使用相同的作业ID，
+     * 非{@link InvokeTask}的任务无法重建，需要各节点以相同ID自行注册。
+     *
+     * @param jobStore 作业存储
+     * @return this
+     * @throws CronException 定时任务已经启动抛出此异常
+     * @since 1.1.8
+     */
+    public Scheduler setJobStore( JobStore jobStore ) throws CronException {
+        lock.lock();
+        try {
+            checkStarted();
+            this.jobStore = jobStore;
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * 设置当前节点ID，默认随机生成，仅在设置了作业存储时有效
+     *
+     * @param nodeId 节点ID
+     * @return this
+     * @throws CronException 定时任务已经启动抛出此异常
+     * @since 1.1.8
+     */
+    public Scheduler setNodeId( String nodeId ) throws CronException {
+        lock.lock();
+        try {
+            checkStarted();
+            this.config.setNodeId(nodeId);
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * 设置作业分片数和分片租约时长，仅在设置了作业存储时有效，集群中所有节点的分片数必须一致
+     *
+     * @param shardCount  作业分片数
+     * @param leaseMillis 分片租约时长，单位毫秒
+     * @return this
+     * @throws CronException 定时任务已经启动抛出此异常
+     * @since 1.1.8
+     */
+    public Scheduler setShardLease( int shardCount, long leaseMillis ) throws CronException {
+        lock.lock();
+        try {
+            checkStarted();
+            this.config.setShardCount(shardCount).setLeaseMillis(leaseMillis);
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * 当前节点是否负责触发指定作业，未设置作业存储时始终为{@code true}
+     *
+     * @param id 作业ID
+     * @return 是否负责
+     * @since 1.1.8
+     */
+    public boolean isOwner( String id ) {
+        final ShardCoordinator shardCoordinator = this.shardCoordinator;
+        return null == shardCoordinator || shardCoordinator.isOwner(id);
+    }
+
     /**
      * 增加监听器
      *
@@ -212,7 +449,8 @@ public class Scheduler implements Serializable {
 
     /**
      * 批量加入配置文件中的定时任务<br>
-     * 配置文件格式为： xxx.xxx.xxx.Class.method = * * * * *
+     * 配置文件格式为： xxx.xxx.xxx.Class.method = * * * * *<br>
+     * 设置了作业存储时以类名与方法名作为作业ID，保证各节点加载同一配置时ID一致
      *
      * @param cronSetting 定时任务设置文件
      * @return this
@@ -230,7 +468,11 @@ public class Scheduler implements Serializable {
                     final String pattern = entry.getValue();
                     StaticLog.debug("Load job: {} {}", pattern, jobClass);
                     try {
-                        schedule(pattern, new InvokeTask(jobClass));
+                        if (null == this.jobStore) {
+                            schedule(pattern, new InvokeTask(jobClass));
+                        } else if (null == this.taskTable.getPattern(jobClass)) {
+                            schedule(jobClass, pattern, new InvokeTask(jobClass));
+                        }
                     } catch (Exception e) {
                         throw new CronException(e, "Schedule [{}] [{}] error!", pattern, jobClass);
                     }
@@ -241,24 +483,31 @@ public class Scheduler implements Serializable {
     }
 
     /**
-     * 新增Task，使用随机UUID
+     * 新增Task，使用随机UUID<br>
+     * 设置了作业存储时各节点生成的ID不同，同一作业会在每个节点各执行一次，因此必须显式指定ID
      *
      * @param pattern {@link CronPattern}对应的String表达式
      * @param task    {@link Runnable}
      * @return ID
+     * @throws CronException 设置了作业存储
      */
     public String schedule( String pattern, Runnable task ) {
         return schedule(pattern, new RunnableTask(task));
     }
 
     /**
-     * 新增Task，使用随机UUID
+     * 新增Task，使用随机UUID<br>
+     * 设置了作业存储时各节点生成的ID不同，同一作业会在每个节点各执行一次，因此必须显式指定ID
      *
      * @param pattern {@link CronPattern}对应的String表达式
      * @param task    {@link Task}
      * @return ID
+     * @throws CronException 设置了作业存储
      */
     public String schedule( String pattern, Task task ) {
+        if (null != this.jobStore) {
+            throw new CronException("Job store is set, schedule [{}] with an explicit id!", pattern);
+        }
         String id = IdUtil.fastUUID();
         schedule(id, pattern, task);
         return id;
@@ -297,23 +546,29 @@ public class Scheduler implements Serializable {
      * @return this
      */
     public Scheduler schedule( String id, CronPattern pattern, Task task ) {
-        taskTable.add(id, pattern, task);
+        scheduleLocal(id, pattern, task);
+        if (null != this.jobStore) {
+            this.jobStore.save(JobDefinition.of(id, pattern, task));
+        }
         return this;
     }
 
     /**
-     * 移除Task
+     * 移除Task，设置了作业存储时同时从存储中移除
      *
      * @param id Task的ID
      * @return this
      */
     public Scheduler deschedule( String id ) {
-        this.taskTable.remove(id);
-        return this;
+        // 先移除存储中的任务，避免同步时被重新加入
+        if (null != this.jobStore) {
+            this.jobStore.remove(id);
+        }
+        return descheduleLocal(id);
     }
 
     /**
-     * 更新Task执行的时间规则
+     * 更新Task执行的时间规则，设置了作业存储时同时更新存储
      *
      * @param id      Task的ID
      * @param pattern {@link CronPattern}
@@ -321,7 +576,63 @@ public class Scheduler implements Serializable {
      * @since 1.0.0
      */
     public Scheduler updatePattern( String id, CronPattern pattern ) {
-        this.taskTable.updatePattern(id, pattern);
+        final Task task = this.taskTable.getTask(id);
+        if (null != task && null != this.jobStore) {
+            this.jobStore.save(JobDefinition.of(id, pattern, task));
+        }
+        return updatePatternLocal(id, pattern);
+    }
+
+    /**
+     * 新增Task到本地任务表，不写入作业存储
+     *
+     * @param id      ID
+     * @param pattern {@link CronPattern}
+     * @param task    {@link Task}
+     * @return this
+     */
+    Scheduler scheduleLocal( String id, CronPattern pattern, Task task ) {
+        taskTable.add(id, pattern, task);
+        final NextFireTimer nextFireTimer = this.nextFireTimer;
+        if (null != nextFireTimer) {
+            nextFireTimer.schedule(new CronTask(id, pattern, task));
+        }
+        return this;
+    }
+
+    /**
+     * 从本地任务表移除Task，不修改作业存储
+     *
+     * @param id Task的ID
+     * @return this
+     */
+    Scheduler descheduleLocal( String id ) {
+        this.taskTable.remove(id);
+        this.executePolicies.remove(id);
+        if (null != this.taskExecutorManager) {
+            this.taskExecutorManager.removeMetrics(id);
+        }
+        final NextFireTimer nextFireTimer = this.nextFireTimer;
+        if (null != nextFireTimer) {
+            nextFireTimer.deschedule(id);
+        }
+        return this;
+    }
+
+    /**
+     * 更新本地任务表中Task执行的时间规则，不修改作业存储
+     *
+     * @param id      Task的ID
+     * @param pattern {@link CronPattern}
+     * @return this
+     */
+    Scheduler updatePatternLocal( String id, CronPattern pattern ) {
+        if (this.taskTable.updatePattern(id, pattern)) {
+            final NextFireTimer nextFireTimer = this.nextFireTimer;
+            if (null != nextFireTimer) {
+                nextFireTimer.schedule(new CronTask(id, pattern, this.taskTable.getTask(id)));
+            }
+        }
         return this;
     }
 
@@ -378,13 +689,19 @@ public class Scheduler implements Serializable {
     }
 
     /**
-     * 清空任务表
+     * 清空任务表<br>
+     * 作业存储由集群共享，此方法不清除存储中的任务，持久化的任务需通过{@link #deschedule(String)}移除
      *
      * @return this
      * @since 1.0.0
      */
     public Scheduler clear() {
         this.taskTable = new TaskTable();
+        this.executePolicies.clear();
+        final NextFireTimer nextFireTimer = this.nextFireTimer;
+        if (null != nextFireTimer) {
+            nextFireTimer.clear();
+        }
         return this;
     }
     // -------------------------------------------------------------------- shcedule end
@@ -418,18 +735,47 @@ public class Scheduler implements Serializable {
             checkStarted();
 
             if (null == this.threadExecutor) {
-                // 无界线程池，确保每一个需要执行的线程都可以及时运行，同时复用已有线程避免线程重复创建
-                this.threadExecutor = ExecutorBuilder.create().useSynchronousQueue().setThreadFactory(//
-                        ThreadFactoryBuilder.create().setNamePrefix("icefrog-cron-").setDaemon(this.daemon).build()//
-                ).build();
+                final ThreadFactory threadFactory = ThreadFactoryBuilder.create().setNamePrefix("icefrog-cron-").setDaemon(this.daemon).build();
+                final int maxPoolSize = this.config.getMaxPoolSize();
+                if (maxPoolSize > 0) {
+                    // 有界线程池，超出的作业排队，队列已满时拒绝
+                    this.threadExecutor = ExecutorBuilder.create()
+                            .setCorePoolSize(maxPoolSize)
+                            .setMaxPoolSize(maxPoolSize)
+                            .useArrayBlockingQueue(Math.max(1, this.config.getQueueCapacity()))
+                            .setHandler(new ThreadPoolExecutor.AbortPolicy())
+                            .setThreadFactory(threadFactory)
+                            .build();
+                } else {
+                    // 无界线程池，确保每一个需要执行的线程都可以及时运行，同时复用已有线程避免线程重复创建
+                    this.threadExecutor = ExecutorBuilder.create().useSynchronousQueue().setThreadFactory(threadFactory).build();
+                }
             }
             this.taskLauncherManager = new TaskLauncherManager(this);
             this.taskExecutorManager = new TaskExecutorManager(this);
 
-            // Start CronTimer
-            timer = new CronTimer(this);
-            timer.setDaemon(this.daemon);
-            timer.start();
+            if (null != this.jobStore) {
+                // 先恢复存储中的任务并获取分片，再启动定时器
+                final ShardCoordinator shardCoordinator = new ShardCoordinator(this, this.jobStore);
+                shardCoordinator.start();
+                this.shardCoordinator = shardCoordinator;
+            }
+
+            if (this.config.isUseNextFireTime()) {
+                // 先发布定时器再加载任务表，加载期间新增的任务不会遗漏
+                final NextFireTimer nextFireTimer = new NextFireTimer(this);
+                this.nextFireTimer = nextFireTimer;
+                for (CronTask cronTask : this.taskTable.getCronTasks()) {
+                    nextFireTimer.schedule(cronTask);
+                }
+                nextFireTimer.setDaemon(this.daemon);
+                nextFireTimer.start();
+            } else {
+                // Start CronTimer
+                timer = new CronTimer(this);
+                timer.setDaemon(this.daemon);
+                timer.start();
+            }
             this.started = true;
         } finally {
             lock.unlock();
@@ -464,8 +810,19 @@ public class Scheduler implements Serializable {
             }
 
             // 停止CronTimer
-            this.timer.stopTimer();
-            this.timer = null;
+            if (null != this.timer) {
+                this.timer.stopTimer();
+                this.timer = null;
+            }
+            if (null != this.nextFireTimer) {
+                this.nextFireTimer.stopTimer();
+                this.nextFireTimer = null;
+            }
+            // 释放分片，其它节点可立即接管
+            if (null != this.shardCoordinator) {
+                this.shardCoordinator.stop();
+                this.shardCoordinator = null;
+            }
 
             //停止线程池
             this.threadExecutor.shutdown();
@@ -0,0 +1,173 @@
+package com.whaleal.icefrog.cron;
+
+import com.whaleal.icefrog.core.thread.ThreadFactoryBuilder;
+import com.whaleal.icefrog.cron.pattern.CronPattern;
+import com.whaleal.icefrog.cron.store.JobDefinition;
+import com.whaleal.icefrog.cron.store.JobStore;
+import com.whaleal.icefrog.cron.task.InvokeTask;
+import com.whaleal.icefrog.log.StaticLog;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片协调器<br>
+ * 定期向{@link JobStore}续约当前节点的分片租约，并把其它节点新增、修改或移除的作业同步到本地任务表。<br>
+ * 作业按ID哈希分配到分片，只有持有分片且租约未过期的节点才触发作业，存储不可用时租约到期后本节点停止触发。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class ShardCoordinator {
+
+    private final Scheduler scheduler;
+    private final JobStore jobStore;
+    private final String nodeId;
+    private final int shardCount;
+    private final long leaseMillis;
+    /**
+     * 本地任务表中已持久化的作业ID，存储中不再存在时从本地移除
+     */
+    private final Set<String> syncedIds = new HashSet<>();
+
+    private volatile Set<Integer> ownedShards = Collections.emptySet();
+    /**
+     * 已持有分片的租约到期时间
+     */
+    private volatile long leaseDeadline;
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    /**
+     * 构造
+     *
+     * @param scheduler {@link Scheduler}
+     * @param jobStore  作业存储
+     */
+    public ShardCoordinator( Scheduler scheduler, JobStore jobStore ) {
+        this.scheduler = scheduler;
+        this.jobStore = jobStore;
+        this.nodeId = scheduler.config.getNodeId();
+        this.shardCount = scheduler.config.getShardCount();
+        this.leaseMillis = scheduler.config.getLeaseMillis();
+    }
+
+    /**
+     * 计算作业所在的分片
+     *
+     * @param id         作业ID
+     * @param shardCount 分片数
+     * @return 分片
+     */
+    public static int shardOf( String id, int shardCount ) {
+        return Math.floorMod(id.hashCode(), shardCount);
+    }
+
+    /**
+     * 同步作业并获取分片，然后启动定期续约
+     */
+    public synchronized void start() {
+        running = true;
+        renew();
+        final long period = Math.max(1, leaseMillis / 3);
+        executor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("icefrog-cron-shard-").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止续约并释放所有分片，其它节点可立即接管
+     */
+    public synchronized void stop() {
+        running = false;
+        if (null != executor) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        this.ownedShards = Collections.emptySet();
+        this.leaseDeadline = 0;
+        try {
+            jobStore.releaseShards(nodeId);
+        } catch (Exception e) {
+            StaticLog.warn(e, "Release shards of node [{}] error.", nodeId);
+        }
+    }
+
+    /**
+     * 当前节点是否负责触发指定作业
+     *
+     * @param id 作业ID
+     * @return 是否负责
+     */
+    public boolean isOwner( String id ) {
+        return System.currentTimeMillis() < leaseDeadline && ownedShards.contains(shardOf(id, shardCount));
+    }
+
+    /**
+     * @return 当前节点持有的分片
+     */
+    public Set<Integer> getOwnedShards() {
+        return Collections.unmodifiableSet(ownedShards);
+    }
+
+    /**
+     * 同步作业并续约，异常只记录日志，下次继续重试
+     */
+    private void renew() {
+        try {
+            syncJobs();
+        } catch (Exception e) {
+            StaticLog.warn(e, "Sync jobs from store error.");
+        }
+        try {
+            // 以发起续约的时刻计算到期时间，不会晚于存储中记录的到期时间
+            final long deadline = System.currentTimeMillis() + leaseMillis;
+            final Set<Integer> shards = jobStore.acquireShards(nodeId, shardCount, leaseMillis);
+            if (running) {
+                this.ownedShards = shards;
+                this.leaseDeadline = deadline;
+            }
+        } catch (Exception e) {
+            StaticLog.warn(e, "Acquire shards for node [{}] error.", nodeId);
+        }
+    }
+
+    /**
+     * 将存储中可重建的作业同步到本地任务表
+     */
+    private synchronized void syncJobs() {
+        final TaskTable taskTable = scheduler.taskTable;
+        final Set<String> ids = new HashSet<>();
+        for (JobDefinition job : jobStore.loadAll()) {
+            ids.add(job.getId());
+            final CronPattern pattern = taskTable.getPattern(job.getId());
+            if (null == pattern) {
+                if (job.isRestorable()) {
+                    try {
+                        scheduler.scheduleLocal(job.getId(), new CronPattern(job.getPattern()), new InvokeTask(job.getTarget()));
+                        syncedIds.add(job.getId());
+                    } catch (Exception e) {
+                        StaticLog.warn(e, "Restore job [{}] error.", job.getId());
+                    }
+                }
+            } else {
+                syncedIds.add(job.getId());
+                if (false == pattern.toString().equals(job.getPattern())) {
+                    scheduler.updatePatternLocal(job.getId(), new CronPattern(job.getPattern()));
+                }
+            }
+        }
+        // 其它节点移除的作业
+        syncedIds.removeIf(id -> {
+            if (false == ids.contains(id)) {
+                scheduler.descheduleLocal(id);
+                return true;
+            }
+            return false;
+        });
+    }
+}
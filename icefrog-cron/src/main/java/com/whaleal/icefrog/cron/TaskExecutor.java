@@ -15,6 +15,18 @@ public class TaskExecutor implements Runnable {
 
     private final Scheduler scheduler;
     private final CronTask task;
+    /**
+     * 执行统计，为{@code null}表示不统计
+     */
+    private final TaskMetrics metrics;
+    /**
+     * 触发时确定的执行策略，执行结束时按此策略释放执行权
+     */
+    private final ExecutePolicy executePolicy;
+    /**
+     * 提交时间，用于统计等待时间
+     */
+    private final long submitNanos;
 
     /**
      * 构造
@@ -23,8 +35,36 @@ public class TaskExecutor implements Runnable {
      * @param task      被执行的任务
      */
     public TaskExecutor( Scheduler scheduler, CronTask task ) {
+        this(scheduler, task, null);
+    }
+
+    /**
+     * 构造
+     *
+     * @param scheduler 调度器
+     * @param task      被执行的任务
+     * @param metrics   执行统计，{@code null}表示不统计
+     * @since 1.1.8
+     */
+    public TaskExecutor( Scheduler scheduler, CronTask task, TaskMetrics metrics ) {
+        this(scheduler, task, metrics, ExecutePolicy.CONCURRENT);
+    }
+
+    /**
+     * 构造
+     *
+     * @param scheduler     调度器
+     * @param task          被执行的任务
+     * @param metrics       执行统计，{@code null}表示不统计
+     * @param executePolicy 触发时确定的执行策略
+     * @since 1.1.8
+     */
+    public TaskExecutor( Scheduler scheduler, CronTask task, TaskMetrics metrics, ExecutePolicy executePolicy ) {
         this.scheduler = scheduler;
         this.task = task;
+        this.metrics = metrics;
+        this.executePolicy = executePolicy;
+        this.submitNanos = System.nanoTime();
     }
 
     /**
@@ -46,15 +86,34 @@ public class TaskExecutor implements Runnable {
         return this.task;
     }
 
+    /**
+     * 获得触发时确定的执行策略
+     *
+     * @return 执行策略
+     * @since 1.1.8
+     */
+    public ExecutePolicy getExecutePolicy() {
+        return this.executePolicy;
+    }
+
     @Override
     public void run() {
+        final long startNanos = System.nanoTime();
+        if (null != metrics) {
+            metrics.recordStart(startNanos - submitNanos);
+        }
+        boolean success = false;
         try {
             scheduler.listenerManager.notifyTaskStart(this);
             task.execute();
+            success = true;
             scheduler.listenerManager.notifyTaskSucceeded(this);
         } catch (Exception e) {
             scheduler.listenerManager.notifyTaskFailed(this, e);
         } finally {
+            if (null != metrics) {
+                metrics.recordEnd(System.nanoTime() - startNanos, success);
+            }
             scheduler.taskExecutorManager.notifyExecutorCompleted(this);
         }
     }
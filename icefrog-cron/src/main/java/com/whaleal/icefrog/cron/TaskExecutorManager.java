@@ -2,11 +2,15 @@ package com.whaleal.icefrog.cron;
 
 import com.whaleal.icefrog.cron.task.CronTask;
 import com.whaleal.icefrog.cron.task.Task;
+import com.whaleal.icefrog.log.StaticLog;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 作业执行管理器<br>
@@ -15,6 +19,9 @@ import java.util.List;
  * <p>
  * 此类用于管理正在运行的作业情况，作业启动后加入任务列表，任务结束移除
  * </p>
+ * <p>
+ * 启动作业时按{@link ExecutePolicy}处理同一作业的重叠执行，并为每个作业记录{@link TaskMetrics}
+ * </p>
  *
  * @author Looly
  * @author wh
@@ -26,6 +33,10 @@ public class TaskExecutorManager implements Serializable {
      * 执行器列表
      */
     private final List<TaskExecutor> executors = new ArrayList<>();
+    /**
+     * 作业ID与执行统计的对应关系
+     */
+    private final Map<String, TaskMetrics> metricsMap = new ConcurrentHashMap<>();
     protected Scheduler scheduler;
 
     public TaskExecutorManager( Scheduler scheduler ) {
@@ -43,21 +54,60 @@ public class TaskExecutorManager implements Serializable {
     }
 
     /**
-     * 启动 执行器TaskExecutor，即启动作业
+     * 获取作业的执行统计
+     *
+     * @param id 作业ID
+     * @return 执行统计，作业从未被触发时返回{@code null}
+     * @since 1.1.8
+     */
+    public TaskMetrics getMetrics( String id ) {
+        return this.metricsMap.get(id);
+    }
+
+    /**
+     * 获取所有作业的执行统计
+     *
+     * @return 执行统计列表
+     * @since 1.1.8
+     */
+    public List<TaskMetrics> getAllMetrics() {
+        return new ArrayList<>(this.metricsMap.values());
+    }
+
+    /**
+     * 移除作业的执行统计，作业被移除时调用
+     *
+     * @param id 作业ID
+     * @since 1.1.8
+     */
+    public void removeMetrics( String id ) {
+        this.metricsMap.remove(id);
+    }
+
+    /**
+     * 启动 执行器TaskExecutor，即启动作业<br>
+     * 如果设置了作业存储且作业所在分片不属于当前节点，本次触发由其它节点负责，直接忽略；
+     * 如果作业的执行策略不是{@link ExecutePolicy#CONCURRENT}且上一次执行尚未结束，本次触发被跳过或合并；
+     * 执行策略在触发时读取一次并记录在执行器上，执行结束时按同一策略释放执行权，执行期间修改策略只影响之后的触发；
+     * 如果线程池已满拒绝执行，本次触发被丢弃。
      *
      * @param task {@link Task}
-     * @return {@link TaskExecutor}
+     * @return {@link TaskExecutor}，不属于当前节点、跳过、合并或被拒绝时返回{@code null}
      */
     public TaskExecutor spawnExecutor( CronTask task ) {
-        final TaskExecutor executor = new TaskExecutor(this.scheduler, task);
-        synchronized (this.executors) {
-            this.executors.add(executor);
+        if (false == this.scheduler.isOwner(task.getId())) {
+            return null;
         }
-        // 子线程是否为deamon线程取决于父线程，因此此处无需显示调用
-        // executor.setDaemon(this.scheduler.daemon);
-//		executor.start();
-        this.scheduler.threadExecutor.execute(executor);
-        return executor;
+        final TaskMetrics metrics = this.metricsMap.computeIfAbsent(task.getId(), TaskMetrics::new);
+        final ExecutePolicy policy = this.scheduler.getExecutePolicy(task.getId());
+        if (ExecutePolicy.CONCURRENT != policy && false == metrics.active.compareAndSet(false, true)) {
+            if (ExecutePolicy.COALESCE == policy) {
+                metrics.pending.set(true);
+            }
+            metrics.recordSkipped();
+            return null;
+        }
+        return submit(task, metrics, policy);
     }
 
     /**
@@ -70,6 +120,67 @@ public class TaskExecutorManager implements Serializable {
         synchronized (executors) {
             executors.remove(executor);
         }
+        final CronTask task = executor.getCronTask();
+        final TaskMetrics metrics = this.metricsMap.get(task.getId());
+        final ExecutePolicy policy = executor.getExecutePolicy();
+        if (null != metrics && ExecutePolicy.CONCURRENT != policy) {
+            release(task, metrics, policy);
+        }
         return this;
     }
+
+    /**
+     * 提交执行器到线程池
+     *
+     * @param task    作业
+     * @param metrics 执行统计
+     * @param policy  触发时确定的执行策略
+     * @return {@link TaskExecutor}，被拒绝时返回{@code null}
+     */
+    private TaskExecutor submit( CronTask task, TaskMetrics metrics, ExecutePolicy policy ) {
+        final TaskExecutor executor = new TaskExecutor(this.scheduler, task, metrics, policy);
+        synchronized (this.executors) {
+            this.executors.add(executor);
+        }
+        metrics.recordQueued();
+        try {
+            // 子线程是否为deamon线程取决于父线程，因此此处无需显示调用
+            this.scheduler.threadExecutor.execute(executor);
+        } catch (RejectedExecutionException e) {
+            synchronized (this.executors) {
+                this.executors.remove(executor);
+            }
+            metrics.recordRejected();
+            if (ExecutePolicy.CONCURRENT != policy) {
+                // 仅释放本次持有的执行权
+                metrics.pending.set(false);
+                metrics.active.set(false);
+            }
+            StaticLog.warn("Task [{}] rejected, thread pool is full.", task.getId());
+            return null;
+        }
+        return executor;
+    }
+
+    /**
+     * 作业的一次执行结束，如果有被合并的触发则立即再执行一次，否则释放执行权
+     *
+     * @param task    作业
+     * @param metrics 执行统计
+     * @param policy  本次执行的执行策略
+     */
+    private void release( CronTask task, TaskMetrics metrics, ExecutePolicy policy ) {
+        while (true) {
+            if (metrics.pending.getAndSet(false)) {
+                // 保持执行权，直接执行合并后的一次
+                submit(task, metrics, policy);
+                return;
+            }
+            metrics.active.set(false);
+            // 释放前后之间到达的触发可能已被标记为合并，重新获取执行权后处理
+            if (false == metrics.pending.get() || false == metrics.active.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package com.whaleal.icefrog.cron;
 
+import com.whaleal.icefrog.cron.pattern.TimeFields;
+
 /**
  * 作业启动器<br>
  * 负责检查<strong>TaskTable</strong>是否有匹配到此时运行的Task<br>
@@ -12,6 +14,10 @@ public class TaskLauncher implements Runnable {
 
     private final Scheduler scheduler;
     private final long millis;
+    /**
+     * 已分解的时间字段，为{@code null}时按毫秒数分解
+     */
+    private final TimeFields fields;
 
     /**
      * 构造
@@ -20,14 +26,31 @@ public class TaskLauncher implements Runnable {
      * @param millis    毫秒数
      */
     public TaskLauncher( Scheduler scheduler, long millis ) {
+        this(scheduler, millis, null);
+    }
+
+    /**
+     * 构造
+     *
+     * @param scheduler {@link Scheduler}
+     * @param millis    毫秒数
+     * @param fields    毫秒数对应的时间字段，{@code null}表示按毫秒数分解
+     * @since 1.1.8
+     */
+    public TaskLauncher( Scheduler scheduler, long millis, TimeFields fields ) {
         this.scheduler = scheduler;
         this.millis = millis;
+        this.fields = fields;
     }
 
     @Override
     public void run() {
         //匹配秒部分由用户定义决定，始终不匹配年
-        scheduler.taskTable.executeTaskIfMatch(this.scheduler, this.millis);
+        if (null != this.fields) {
+            scheduler.taskTable.executeTaskIfMatch(this.scheduler, this.fields);
+        } else {
+            scheduler.taskTable.executeTaskIfMatch(this.scheduler, this.millis);
+        }
 
         //结束通知
         scheduler.taskLauncherManager.notifyLauncherCompleted(this);
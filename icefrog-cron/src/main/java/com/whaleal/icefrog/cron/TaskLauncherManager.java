@@ -1,8 +1,12 @@
 package com.whaleal.icefrog.cron;
 
+import com.whaleal.icefrog.cron.pattern.TimeFields;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 作业启动管理器
@@ -17,6 +21,10 @@ public class TaskLauncherManager implements Serializable {
      */
     protected final List<TaskLauncher> launchers = new ArrayList<>();
     protected Scheduler scheduler;
+    /**
+     * 可复用的时间字段，只在定时器线程中更新，缓存的时区偏移在多次触发间保持有效
+     */
+    private TimeFields timeFields;
 
     public TaskLauncherManager( Scheduler scheduler ) {
         this.scheduler = scheduler;
@@ -29,14 +37,24 @@ public class TaskLauncherManager implements Serializable {
      * @return {@link TaskLauncher}
      */
     protected TaskLauncher spawnLauncher( long millis ) {
-        final TaskLauncher launcher = new TaskLauncher(this.scheduler, millis);
+        final TimeZone timezone = this.scheduler.config.timezone;
+        if (null == this.timeFields || this.timeFields.getTimeZone() != timezone) {
+            this.timeFields = new TimeFields(timezone);
+        }
+        // 启动器异步执行，传入副本
+        final TaskLauncher launcher = new TaskLauncher(this.scheduler, millis, new TimeFields(this.timeFields.update(millis)));
         synchronized (this.launchers) {
             this.launchers.add(launcher);
         }
         //子线程是否为deamon线程取决于父线程，因此此处无需显示调用
         //launcher.setDaemon(this.scheduler.daemon);
 //		launcher.start();
-        this.scheduler.threadExecutor.execute(launcher);
+        try {
+            this.scheduler.threadExecutor.execute(launcher);
+        } catch (RejectedExecutionException e) {
+            // 有界线程池已满时在定时器线程中直接匹配，匹配本身很快，避免丢失此次触发
+            launcher.run();
+        }
         return launcher;
     }
 
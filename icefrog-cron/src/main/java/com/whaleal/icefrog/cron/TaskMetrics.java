@@ -0,0 +1,211 @@
+package com.whaleal.icefrog.cron;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个作业的执行统计，所有数值均为实时值，可被多个线程同时更新和读取<br>
+ * 包括：
+ * <ul>
+ * <li>排队数：已触发但尚未开始执行的次数，即在线程池队列中等待的次数</li>
+ * <li>等待时间：从触发到开始执行的时间，线程池繁忙时增大</li>
+ * <li>执行时间：从开始执行到执行结束的时间</li>
+ * <li>跳过和拒绝次数：因执行策略被跳过（或合并）的次数，以及线程池已满被拒绝的次数</li>
+ * </ul>
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class TaskMetrics implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+    private volatile long lastRunNanos;
+
+    /**
+     * 是否有执行尚未结束，用于{@link ExecutePolicy#SKIP_IF_RUNNING}和{@link ExecutePolicy#COALESCE}
+     */
+    final AtomicBoolean active = new AtomicBoolean();
+    /**
+     * 执行期间是否有被合并的触发，用于{@link ExecutePolicy#COALESCE}
+     */
+    final AtomicBoolean pending = new AtomicBoolean();
+
+    /**
+     * 构造
+     *
+     * @param id 作业ID
+     */
+    public TaskMetrics( String id ) {
+        this.id = id;
+    }
+
+    /**
+     * @return 作业ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return 已触发但尚未开始执行的次数
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * @return 正在执行的次数
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return 执行成功的次数
+     */
+    public long getSucceededCount() {
+        return succeeded.sum();
+    }
+
+    /**
+     * @return 执行失败的次数
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return 因执行策略被跳过或合并的触发次数
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * @return 线程池已满被拒绝的触发次数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return 平均等待时间，单位毫秒
+     */
+    public double getAverageWaitMillis() {
+        return average(totalWaitNanos.sum(), started.sum());
+    }
+
+    /**
+     * @return 最长等待时间，单位毫秒
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    /**
+     * @return 平均执行时间，单位毫秒
+     */
+    public double getAverageRunMillis() {
+        return average(totalRunNanos.sum(), getSucceededCount() + getFailedCount());
+    }
+
+    /**
+     * @return 最长执行时间，单位毫秒
+     */
+    public long getMaxRunMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxRunNanos.get());
+    }
+
+    /**
+     * @return 最近一次执行时间，单位毫秒
+     */
+    public long getLastRunMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastRunNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "TaskMetrics{id=" + id + ", queueDepth=" + getQueueDepth() + ", running=" + getRunning()
+                + ", succeeded=" + getSucceededCount() + ", failed=" + getFailedCount()
+                + ", skipped=" + getSkippedCount() + ", rejected=" + getRejectedCount()
+                + ", averageWaitMillis=" + getAverageWaitMillis() + ", maxWaitMillis=" + getMaxWaitMillis()
+                + ", averageRunMillis=" + getAverageRunMillis() + ", maxRunMillis=" + getMaxRunMillis() + "}";
+    }
+
+    // ---------------------------------------------------------------- record
+
+    /**
+     * 记录一次提交到线程池
+     */
+    void recordQueued() {
+        queued.incrementAndGet();
+    }
+
+    /**
+     * 记录一次被线程池拒绝
+     */
+    void recordRejected() {
+        queued.decrementAndGet();
+        rejected.increment();
+    }
+
+    /**
+     * 记录一次被跳过或合并
+     */
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * 记录开始执行
+     *
+     * @param waitNanos 从触发到开始执行的纳秒数
+     */
+    void recordStart( long waitNanos ) {
+        queued.decrementAndGet();
+        running.incrementAndGet();
+        started.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * 记录执行结束
+     *
+     * @param runNanos 执行的纳秒数
+     * @param success  是否成功
+     */
+    void recordEnd( long runNanos, boolean success ) {
+        running.decrementAndGet();
+        if (success) {
+            succeeded.increment();
+        } else {
+            failed.increment();
+        }
+        totalRunNanos.add(runNanos);
+        maxRunNanos.accumulateAndGet(runNanos, Math::max);
+        lastRunNanos = runNanos;
+    }
+
+    private static double average( long totalNanos, long count ) {
+        return (count <= 0) ? 0 : totalNanos / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -1,6 +1,7 @@
 package com.whaleal.icefrog.cron;
 
 import com.whaleal.icefrog.cron.pattern.CronPattern;
+import com.whaleal.icefrog.cron.pattern.TimeFields;
 import com.whaleal.icefrog.cron.task.CronTask;
 import com.whaleal.icefrog.cron.task.Task;
 
@@ -123,6 +124,26 @@ public class TaskTable implements Serializable {
         }
     }
 
+    /**
+     * 获取所有任务的快照，每个任务包装为带ID和表达式的{@link CronTask}
+     *
+     * @return 任务列表，修改此列表不影响任务表
+     * @since 1.1.8
+     */
+    public List<CronTask> getCronTasks() {
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            final List<CronTask> cronTasks = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                cronTasks.add(new CronTask(ids.get(i), patterns.get(i), tasks.get(i)));
+            }
+            return cronTasks;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     /**
      * 移除Task
      *
@@ -258,10 +279,21 @@ public class TaskTable implements Serializable {
      * @param millis    时间毫秒
      */
     public void executeTaskIfMatch( Scheduler scheduler, long millis ) {
+        executeTaskIfMatch(scheduler, new TimeFields(scheduler.config.timezone).update(millis));
+    }
+
+    /**
+     * 如果时间匹配则执行相应的Task，带读锁
+     *
+     * @param scheduler {@link Scheduler}
+     * @param fields    已分解的时间字段
+     * @since 1.1.8
+     */
+    public void executeTaskIfMatch( Scheduler scheduler, TimeFields fields ) {
         final Lock readLock = lock.readLock();
         readLock.lock();
         try {
-            executeTaskIfMatchInternal(scheduler, millis);
+            executeTaskIfMatchInternal(scheduler, fields);
         } finally {
             readLock.unlock();
         }
@@ -275,8 +307,21 @@ public class TaskTable implements Serializable {
      * @since 1.0.0
      */
     protected void executeTaskIfMatchInternal( Scheduler scheduler, long millis ) {
+        executeTaskIfMatchInternal(scheduler, new TimeFields(scheduler.config.timezone).update(millis));
+    }
+
+    /**
+     * 如果时间匹配则执行相应的Task，无锁<br>
+     * 时间只分解一次，所有表达式共用同一份字段匹配，匹配过程不创建对象
+     *
+     * @param scheduler {@link Scheduler}
+     * @param fields    已分解的时间字段
+     * @since 1.1.8
+     */
+    protected void executeTaskIfMatchInternal( Scheduler scheduler, TimeFields fields ) {
+        final boolean matchSecond = scheduler.config.matchSecond;
         for (int i = 0; i < size; i++) {
-            if (patterns.get(i).match(scheduler.config.timezone, millis, scheduler.config.matchSecond)) {
+            if (patterns.get(i).match(fields, matchSecond)) {
                 scheduler.taskExecutorManager.spawnExecutor(new CronTask(ids.get(i), patterns.get(i), tasks.get(i)));
             }
         }
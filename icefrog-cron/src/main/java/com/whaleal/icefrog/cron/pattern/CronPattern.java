@@ -1,6 +1,7 @@
 package com.whaleal.icefrog.cron.pattern;
 
 import com.whaleal.icefrog.core.date.DateUtil;
+import com.whaleal.icefrog.core.date.Month;
 import com.whaleal.icefrog.core.util.StrUtil;
 import com.whaleal.icefrog.cron.CronException;
 import com.whaleal.icefrog.cron.pattern.matcher.AlwaysTrueValueMatcher;
@@ -9,6 +10,14 @@ import com.whaleal.icefrog.cron.pattern.matcher.ValueMatcher;
 import com.whaleal.icefrog.cron.pattern.matcher.ValueMatcherBuilder;
 import com.whaleal.icefrog.cron.pattern.parser.*;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.*;
 
 /**
@@ -78,6 +87,11 @@ public class CronPattern {
     private static final ValueParser DAY_OF_WEEK_VALUE_PARSER = new DayOfWeekValueParser();
     private static final ValueParser YEAR_VALUE_PARSER = new YearValueParser();
 
+    /**
+     * 计算下一个匹配时间时向后查找的最大年数，公历以400年为周期，超过此范围仍无匹配则永远不会匹配
+     */
+    private static final int MAX_SEARCH_YEARS = 400;
+
     private final String pattern;
 
     /**
@@ -174,13 +188,213 @@ public class CronPattern {
      * @return 如果匹配返回 <code>true</code>, 否则返回 <code>false</code>
      */
     public boolean match( TimeZone timezone, long millis, boolean isMatchSecond ) {
-        final GregorianCalendar calendar = new GregorianCalendar(timezone);
-        calendar.setTimeInMillis(millis);
-        return match(calendar, isMatchSecond);
+        return match(new TimeFields(timezone).update(millis), isMatchSecond);
+    }
+
+    /**
+     * 给定时间字段是否匹配定时任务表达式<br>
+     * 匹配过程只读取已分解好的字段，不创建任何对象，适合同一时间匹配大量表达式
+     *
+     * @param fields        时间字段 {@link TimeFields}
+     * @param isMatchSecond 是否匹配秒
+     * @return 如果匹配返回 <code>true</code>, 否则返回 <code>false</code>
+     * @since 1.1.8
+     */
+    public boolean match( TimeFields fields, boolean isMatchSecond ) {
+        final int month = fields.getMonth();
+        for (int i = 0; i < matcherSize; i++) {
+            if (((false == isMatchSecond) || secondMatchers.get(i).match(fields.getSecond())) // 匹配秒（非秒匹配模式下始终返回true）
+                    && minuteMatchers.get(i).match(fields.getMinute())// 匹配分
+                    && hourMatchers.get(i).match(fields.getHour())// 匹配时
+                    && isMatchDayOfMonth(dayOfMonthMatchers.get(i), fields.getDayOfMonth(), month, fields.isLeapYear())// 匹配日
+                    && monthMatchers.get(i).match(month) // 匹配月
+                    && dayOfWeekMatchers.get(i).match(fields.getDayOfWeek())// 匹配周
+                    && isMatch(yearMatchers, i, fields.getYear())) {// 匹配年
+                return true;
+            }
+        }
+        return false;
     }
 
     // -------------------------------------------------------------------------------------- Private method start
 
+    /**
+     * 计算第i个单一表达式在给定时间之后的第一个匹配时间
+     *
+     * @param i             单一表达式的位置
+     * @param rules         时区规则
+     * @param millis        起始时间毫秒数（不含）
+     * @param start         起始时间对应的本地时间的下一秒（分）
+     * @param isMatchSecond 是否匹配秒
+     * @param maxYear       查找的最大年份
+     * @return 匹配的时间毫秒数，无匹配返回-1
+     */
+    private long nextMatchAfter( int i, ZoneRules rules, long millis, LocalDateTime start, boolean isMatchSecond, int maxYear ) {
+        final ChronoUnit unit = isMatchSecond ? ChronoUnit.SECONDS : ChronoUnit.MINUTES;
+        long result = -1;
+
+        // 起始时间位于夏令时结束的重复时段的前一次中时，重复时段后一次的较早本地时间仍在之后，单独查找
+        final ZoneOffsetTransition transition = rules.getTransition(start);
+        if (null != transition && transition.isOverlap()
+                && millis < transition.toEpochSecond() * 1000) {
+            final LocalDateTime local = nextLocalMatch(i, transition.getDateTimeAfter(), isMatchSecond, maxYear);
+            if (null != local && local.isBefore(transition.getDateTimeBefore())) {
+                result = local.toEpochSecond(transition.getOffsetAfter()) * 1000;
+            }
+        }
+
+        LocalDateTime local = start;
+        long candidate;
+        while (null != (local = nextLocalMatch(i, local, isMatchSecond, maxYear))) {
+            // 夏令时开始时跳过的本地时间无有效偏移，重复的本地时间有两个偏移，按时间先后排列
+            for (ZoneOffset offset : rules.getValidOffsets(local)) {
+                candidate = local.toEpochSecond(offset) * 1000;
+                if (candidate > millis) {
+                    return (result < 0) ? candidate : Math.min(result, candidate);
+                }
+            }
+            local = local.plus(1, unit);
+        }
+        return result;
+    }
+
+    /**
+     * 计算第i个单一表达式在给定本地时间（包含）之后的第一个匹配的本地时间
+     *
+     * @param i             单一表达式的位置
+     * @param start         起始本地时间
+     * @param isMatchSecond 是否匹配秒，不匹配时秒固定为0
+     * @param maxYear       查找的最大年份
+     * @return 匹配的本地时间，无匹配返回{@code null}
+     */
+    private LocalDateTime nextLocalMatch( int i, LocalDateTime start, boolean isMatchSecond, int maxYear ) {
+        int year = start.getYear();
+        int month = start.getMonthValue();
+        int day = start.getDayOfMonth();
+        int hour = start.getHour();
+        int minute = start.getMinute();
+        int second = isMatchSecond ? start.getSecond() : 0;
+
+        int value;
+        while (year <= maxYear) {
+            // 年
+            value = yearMatchers.get(i).nextAfter(year);
+            if (value < 0 || value > maxYear) {
+                return null;
+            }
+            if (value != year) {
+                year = value;
+                month = 1;
+                day = 1;
+                hour = minute = second = 0;
+            }
+            // 月
+            value = nextValue(monthMatchers.get(i), month, 12);
+            if (value < 0) {
+                year++;
+                month = 1;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (value != month) {
+                month = value;
+                day = 1;
+                hour = minute = second = 0;
+            }
+            // 日和周
+            value = nextDay(i, year, month, day);
+            if (value < 0) {
+                month++;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (value != day) {
+                day = value;
+                hour = minute = second = 0;
+            }
+            // 时
+            value = nextValue(hourMatchers.get(i), hour, 23);
+            if (value < 0) {
+                day++;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (value != hour) {
+                hour = value;
+                minute = second = 0;
+            }
+            // 分
+            value = nextValue(minuteMatchers.get(i), minute, 59);
+            if (value < 0) {
+                hour++;
+                minute = second = 0;
+                continue;
+            }
+            if (value != minute) {
+                minute = value;
+                second = 0;
+            }
+            // 秒
+            if (isMatchSecond) {
+                value = nextValue(secondMatchers.get(i), second, 59);
+                if (value < 0) {
+                    minute++;
+                    second = 0;
+                    continue;
+                }
+                second = value;
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        }
+        return null;
+    }
+
+    /**
+     * 获取第i个单一表达式在给定月份中，大于等于给定日的第一个同时匹配日和周的日
+     *
+     * @param i     单一表达式的位置
+     * @param year  年
+     * @param month 月，从1开始
+     * @param day   起始日（包含），可以超出本月天数
+     * @return 匹配的日，本月无匹配返回-1
+     */
+    private int nextDay( int i, int year, int month, int day ) {
+        final boolean isLeapYear = Year.isLeap(year);
+        final int lastDay = Month.getLastDay(month - 1, isLeapYear);
+        if (day > lastDay) {
+            return -1;
+        }
+        final ValueMatcher dayOfMonthMatcher = dayOfMonthMatchers.get(i);
+        final ValueMatcher dayOfWeekMatcher = dayOfWeekMatchers.get(i);
+        // 星期从0开始，0表示周日
+        int dayOfWeek = LocalDate.of(year, month, day).getDayOfWeek().getValue() % 7;
+        for (int d = day; d <= lastDay; d++) {
+            if (isMatchDayOfMonth(dayOfMonthMatcher, d, month, isLeapYear) && dayOfWeekMatcher.match(dayOfWeek)) {
+                return d;
+            }
+            dayOfWeek = (dayOfWeek + 1) % 7;
+        }
+        return -1;
+    }
+
+    /**
+     * 获取匹配器中大于等于给定值且不超过最大值的第一个匹配值
+     *
+     * @param matcher 匹配器
+     * @param value   起始值（包含）
+     * @param max     字段最大值
+     * @return 匹配值，无匹配返回-1
+     */
+    private static int nextValue( ValueMatcher matcher, int value, int max ) {
+        if (value > max) {
+            return -1;
+        }
+        final int next = matcher.nextAfter(value);
+        return (next > max) ? -1 : next;
+    }
+
     /**
      * 给定时间是否匹配定时任务表达式
      *
@@ -213,6 +427,35 @@ public class CronPattern {
         return false;
     }
 
+    /**
+     * 计算给定时间之后（不含）第一个匹配表达式的时间<br>
+     * 按年、月、日、时、分、秒逐个字段通过{@link ValueMatcher#nextAfter(int)}求下一个匹配值，不匹配的字段直接进位到下一个周期，
+     * 无需逐秒（分）尝试，夏令时切换时跳过不存在的本地时间，重复的本地时间按先后分别匹配
+     *
+     * @param timezone      时区 {@link TimeZone}
+     * @param millis        起始时间毫秒数
+     * @param isMatchSecond 是否匹配秒
+     * @return 匹配的时间毫秒数，400年（一个完整的公历周期）内无匹配返回-1
+     * @since 1.1.8
+     */
+    public long nextMatchAfter( TimeZone timezone, long millis, boolean isMatchSecond ) {
+        final ZoneRules rules = timezone.toZoneId().getRules();
+        final ChronoUnit unit = isMatchSecond ? ChronoUnit.SECONDS : ChronoUnit.MINUTES;
+        final Instant instant = Instant.ofEpochMilli(millis);
+        final LocalDateTime start = LocalDateTime.ofInstant(instant, rules.getOffset(instant)).truncatedTo(unit).plus(1, unit);
+        final int maxYear = start.getYear() + MAX_SEARCH_YEARS;
+
+        long result = -1;
+        long next;
+        for (int i = 0; i < matcherSize; i++) {
+            next = nextMatchAfter(i, rules, millis, start, isMatchSecond, maxYear);
+            if (next >= 0 && (result < 0 || next < result)) {
+                result = next;
+            }
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return this.pattern;
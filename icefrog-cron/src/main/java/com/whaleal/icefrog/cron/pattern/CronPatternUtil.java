@@ -1,13 +1,13 @@
 package com.whaleal.icefrog.cron.pattern;
 
 import com.whaleal.icefrog.core.collection.CollUtil;
-import com.whaleal.icefrog.core.date.DateUnit;
 import com.whaleal.icefrog.core.date.DateUtil;
 import com.whaleal.icefrog.core.lang.Precondition;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * 定时任务表达式工具类
@@ -88,15 +88,13 @@ public class CronPatternUtil {
     public static List<Date> matchedDates( CronPattern pattern, long start, long end, int count, boolean isMatchSecond ) {
         Precondition.isTrue(start < end, "Start date is later than end !");
 
+        final TimeZone timeZone = TimeZone.getDefault();
         final List<Date> result = new ArrayList<>(count);
-        long step = isMatchSecond ? DateUnit.SECOND.getMillis() : DateUnit.MINUTE.getMillis();
-        for (long i = start; i < end; i += step) {
-            if (pattern.match(i, isMatchSecond)) {
-                result.add(DateUtil.date(i));
-                if (result.size() >= count) {
-                    break;
-                }
-            }
+        // 从start开始（包含）直接计算每一个匹配时间，无需逐秒（分）检查
+        long next = pattern.nextMatchAfter(timeZone, start - 1, isMatchSecond);
+        while (next >= 0 && next < end && result.size() < count) {
+            result.add(DateUtil.date(next));
+            next = pattern.nextMatchAfter(timeZone, next, isMatchSecond);
         }
         return result;
     }
@@ -0,0 +1,201 @@
+package com.whaleal.icefrog.cron.pattern;
+
+import java.time.Instant;
+import java.time.Year;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.TimeZone;
+
+/**
+ * 表达式匹配使用的时间字段<br>
+ * 将毫秒数按时区一次性分解为秒、分、时、日、月、周、年，所有表达式使用同一份字段匹配，
+ * 代替每个表达式各自创建{@link java.util.GregorianCalendar}并读取字段。
+ * <ul>
+ * <li>时区偏移取自{@link ZoneRules}，并缓存到下一次偏移变化（如夏令时切换）前，时间向后推进时无需重复查找</li>
+ * <li>字段由纪元日数直接计算，{@link #update(long)}不创建任何对象，同一实例可反复使用</li>
+ * </ul>
+ * 此类非线程安全。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class TimeFields {
+
+    private static final int SECONDS_PER_DAY = 86400;
+    /**
+     * 0000-03-01到1970-01-01的天数
+     */
+    private static final long DAYS_0000_TO_1970 = 719468;
+    /**
+     * 400年的天数
+     */
+    private static final long DAYS_PER_CYCLE = 146097;
+
+    private final TimeZone timezone;
+    private final ZoneRules rules;
+    /**
+     * 当前缓存的偏移秒数
+     */
+    private int offsetSeconds;
+    /**
+     * 缓存的偏移生效区间[validFrom, validUntil)，单位秒
+     */
+    private long validFrom = Long.MAX_VALUE;
+    private long validUntil = Long.MIN_VALUE;
+
+    private int second;
+    private int minute;
+    private int hour;
+    private int dayOfMonth;
+    private int month;
+    private int dayOfWeek;
+    private int year;
+    private boolean leapYear;
+
+    /**
+     * 构造
+     *
+     * @param timezone 时区
+     */
+    public TimeFields( TimeZone timezone ) {
+        this.timezone = timezone;
+        this.rules = timezone.toZoneId().getRules();
+        if (rules.isFixedOffset()) {
+            this.offsetSeconds = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+            this.validFrom = Long.MIN_VALUE;
+            this.validUntil = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 复制构造，复制所有字段及缓存的偏移
+     *
+     * @param other 被复制的时间字段
+     */
+    public TimeFields( TimeFields other ) {
+        this.timezone = other.timezone;
+        this.rules = other.rules;
+        this.offsetSeconds = other.offsetSeconds;
+        this.validFrom = other.validFrom;
+        this.validUntil = other.validUntil;
+        this.second = other.second;
+        this.minute = other.minute;
+        this.hour = other.hour;
+        this.dayOfMonth = other.dayOfMonth;
+        this.month = other.month;
+        this.dayOfWeek = other.dayOfWeek;
+        this.year = other.year;
+        this.leapYear = other.leapYear;
+    }
+
+    /**
+     * 按给定时间更新所有字段
+     *
+     * @param millis 时间毫秒数
+     * @return this
+     */
+    public TimeFields update( long millis ) {
+        final long epochSecond = Math.floorDiv(millis, 1000L);
+        if (epochSecond < validFrom || epochSecond >= validUntil) {
+            refreshOffset(epochSecond);
+        }
+
+        final long localSecond = epochSecond + offsetSeconds;
+        final long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        final int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+        this.hour = secondOfDay / 3600;
+        this.minute = (secondOfDay / 60) % 60;
+        this.second = secondOfDay % 60;
+        // 1970-01-01为周四，星期从0开始，0表示周日
+        this.dayOfWeek = (int) Math.floorMod(epochDay + 4, 7);
+
+        // 以3月1日为年初计算年月日，闰日位于年末便于计算
+        final long zeroDay = epochDay + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(zeroDay, DAYS_PER_CYCLE);
+        final int dayOfEra = (int) (zeroDay - era * DAYS_PER_CYCLE);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        this.dayOfMonth = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        this.month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        this.year = (int) (yearOfEra + era * 400) + (this.month <= 2 ? 1 : 0);
+        this.leapYear = Year.isLeap(this.year);
+        return this;
+    }
+
+    /**
+     * @return 时区
+     */
+    public TimeZone getTimeZone() {
+        return timezone;
+    }
+
+    /**
+     * @return 秒，0~59
+     */
+    public int getSecond() {
+        return second;
+    }
+
+    /**
+     * @return 分，0~59
+     */
+    public int getMinute() {
+        return minute;
+    }
+
+    /**
+     * @return 时，0~23
+     */
+    public int getHour() {
+        return hour;
+    }
+
+    /**
+     * @return 日，1~31
+     */
+    public int getDayOfMonth() {
+        return dayOfMonth;
+    }
+
+    /**
+     * @return 月，1~12
+     */
+    public int getMonth() {
+        return month;
+    }
+
+    /**
+     * @return 星期，0（周日）~6（周六）
+     */
+    public int getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    /**
+     * @return 年
+     */
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * @return 是否闰年
+     */
+    public boolean isLeapYear() {
+        return leapYear;
+    }
+
+    /**
+     * 重新查找给定时间的偏移，并缓存到下一次偏移变化前
+     *
+     * @param epochSecond 时间秒数
+     */
+    private void refreshOffset( long epochSecond ) {
+        final Instant instant = Instant.ofEpochSecond(epochSecond);
+        this.offsetSeconds = rules.getOffset(instant).getTotalSeconds();
+        final ZoneOffsetTransition next = rules.nextTransition(instant);
+        this.validFrom = epochSecond;
+        this.validUntil = (null == next) ? Long.MAX_VALUE : next.toEpochSecond();
+    }
+}
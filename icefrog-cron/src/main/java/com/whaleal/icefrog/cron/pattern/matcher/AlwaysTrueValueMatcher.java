@@ -15,6 +15,16 @@ public class AlwaysTrueValueMatcher implements ValueMatcher {
         return true;
     }
 
+    @Override
+    public boolean match( int value ) {
+        return true;
+    }
+
+    @Override
+    public int nextAfter( int value ) {
+        return value;
+    }
+
     @Override
     public String toString() {
         return StrUtil.format("[Matcher]: always true.");
@@ -24,10 +24,22 @@ public class BoolArrayValueMatcher implements ValueMatcher {
 
     @Override
     public boolean match( Integer value ) {
-        if (null == value || value >= bValues.length) {
-            return false;
+        return null != value && match(value.intValue());
+    }
+
+    @Override
+    public boolean match( int value ) {
+        return value >= 0 && value < bValues.length && bValues[value];
+    }
+
+    @Override
+    public int nextAfter( int value ) {
+        for (int i = Math.max(value, 0); i < bValues.length; i++) {
+            if (bValues[i]) {
+                return i;
+            }
         }
-        return bValues[value];
+        return -1;
     }
 
     @Override
@@ -11,4 +11,40 @@ import com.whaleal.icefrog.core.lang.Matcher;
  */
 public interface ValueMatcher extends Matcher<Integer> {
 
+    /**
+     * 给定值是否匹配，避免装箱
+     *
+     * @param value 值
+     * @return 是否匹配
+     * @since 1.1.8
+     */
+    default boolean match( int value ) {
+        return match(Integer.valueOf(value));
+    }
+
+    /**
+     * 默认{@link #nextAfter(int)}向后查找的上限（包含），即表达式中年份的最大值
+     *
+     * @since 1.1.8
+     */
+    int MAX_SCAN_VALUE = 2099;
+
+    /**
+     * 获取大于等于给定值的第一个匹配值，用于直接计算下一个匹配时间而无需逐个尝试<br>
+     * 返回值可能超出字段本身的范围（例如始终匹配的匹配器原样返回），由调用方检查<br>
+     * 默认实现通过{@link #match(int)}逐个向后查找，直到{@link #MAX_SCAN_VALUE}，实现类可按自身结构覆盖以加快查找
+     *
+     * @param value 起始值（包含）
+     * @return 第一个匹配值，无匹配返回-1
+     * @since 1.1.8
+     */
+    default int nextAfter( int value ) {
+        for (int i = Math.max(value, 0); i <= MAX_SCAN_VALUE; i++) {
+            if (match(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
 }
@@ -1,24 +1,43 @@
 package com.whaleal.icefrog.cron.pattern.matcher;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * 年匹配<br>
- * 考虑年数字太大，不适合boolean数组，单独使用列表遍历匹配
+ * 考虑年数字太大，不适合boolean数组，单独使用有序数组二分查找匹配
  *
  * @author Looly
  * @author wh
  */
 public class YearValueMatcher implements ValueMatcher {
 
-    private final List<Integer> valueList;
+    private final int[] values;
 
     public YearValueMatcher( List<Integer> intValueList ) {
-        this.valueList = intValueList;
+        this.values = new int[intValueList.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = intValueList.get(i);
+        }
+        Arrays.sort(this.values);
     }
 
     @Override
     public boolean match( Integer t ) {
-        return valueList.contains(t);
+        return null != t && match(t.intValue());
+    }
+
+    @Override
+    public boolean match( int value ) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    @Override
+    public int nextAfter( int value ) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return (index < values.length) ? values[index] : -1;
     }
 }
@@ -0,0 +1,216 @@
+package com.whaleal.icefrog.cron.store;
+
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.cron.CronException;
+import com.whaleal.icefrog.db.Db;
+import com.whaleal.icefrog.db.Entity;
+import com.whaleal.icefrog.log.StaticLog;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 基于数据库的作业存储<br>
+ * 使用三张表，表名前缀默认为{@link #DEFAULT_TABLE_PREFIX}：
+ * <pre>
+ * {prefix}job   (id, pattern, target)          作业定义
+ * {prefix}node  (node_id, expire_at)           节点心跳
+ * {prefix}shard (shard_no, owner_id, expire_at) 分片租约
+ * </pre>
+ * 分片的续约、释放和抢占都是带条件的单条UPDATE，由数据库保证同一分片同一时刻只被一个节点持有，无需长事务或表锁。
+ * 表可以通过{@link #createTables()}创建，也可以参照其中的语句手动创建。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class DbJobStore implements JobStore {
+
+    /**
+     * 默认表名前缀
+     */
+    public static final String DEFAULT_TABLE_PREFIX = "cron_";
+
+    private final Db db;
+    private final String jobTable;
+    private final String nodeTable;
+    private final String shardTable;
+
+    /**
+     * 构造，使用默认表名前缀
+     *
+     * @param ds 数据源
+     */
+    public DbJobStore( DataSource ds ) {
+        this(Db.use(ds), DEFAULT_TABLE_PREFIX);
+    }
+
+    /**
+     * 构造
+     *
+     * @param db          {@link Db}
+     * @param tablePrefix 表名前缀
+     */
+    public DbJobStore( Db db, String tablePrefix ) {
+        this.db = db;
+        final String prefix = StrUtil.nullToEmpty(tablePrefix);
+        this.jobTable = prefix + "job";
+        this.nodeTable = prefix + "node";
+        this.shardTable = prefix + "shard";
+    }
+
+    /**
+     * 创建表，表已存在时跳过
+     *
+     * @return this
+     */
+    public DbJobStore createTables() {
+        try {
+            db.execute("CREATE TABLE IF NOT EXISTS " + jobTable
+                    + " (id VARCHAR(255) NOT NULL PRIMARY KEY, pattern VARCHAR(255) NOT NULL, target VARCHAR(512))");
+            db.execute("CREATE TABLE IF NOT EXISTS " + nodeTable
+                    + " (node_id VARCHAR(64) NOT NULL PRIMARY KEY, expire_at BIGINT NOT NULL)");
+            db.execute("CREATE TABLE IF NOT EXISTS " + shardTable
+                    + " (shard_no INT NOT NULL PRIMARY KEY, owner_id VARCHAR(64), expire_at BIGINT NOT NULL)");
+        } catch (SQLException e) {
+            throw new CronException(e, "Create job store tables error!");
+        }
+        return this;
+    }
+
+    @Override
+    public void save( JobDefinition job ) {
+        final String updateSql = "UPDATE " + jobTable + " SET pattern = ?, target = ? WHERE id = ?";
+        try {
+            if (db.execute(updateSql, job.getPattern(), job.getTarget(), job.getId()) > 0) {
+                return;
+            }
+            try {
+                db.execute("INSERT INTO " + jobTable + " (id, pattern, target) VALUES (?, ?, ?)",
+                        job.getId(), job.getPattern(), job.getTarget());
+            } catch (SQLException e) {
+                // 其它节点同时插入了相同ID，改为更新
+                if (0 == db.execute(updateSql, job.getPattern(), job.getTarget(), job.getId())) {
+                    throw e;
+                }
+            }
+        } catch (SQLException e) {
+            throw new CronException(e, "Save job [{}] error!", job.getId());
+        }
+    }
+
+    @Override
+    public void remove( String id ) {
+        try {
+            db.execute("DELETE FROM " + jobTable + " WHERE id = ?", id);
+        } catch (SQLException e) {
+            throw new CronException(e, "Remove job [{}] error!", id);
+        }
+    }
+
+    @Override
+    public List<JobDefinition> loadAll() {
+        final List<Entity> rows;
+        try {
+            rows = db.query("SELECT id, pattern, target FROM " + jobTable);
+        } catch (SQLException e) {
+            throw new CronException(e, "Load jobs error!");
+        }
+        final List<JobDefinition> jobs = new ArrayList<>(rows.size());
+        for (Entity row : rows) {
+            jobs.add(new JobDefinition(row.getStr("id"), row.getStr("pattern"), row.getStr("target")));
+        }
+        return jobs;
+    }
+
+    @Override
+    public Set<Integer> acquireShards( String nodeId, int shardCount, long leaseMillis ) {
+        final long now = System.currentTimeMillis();
+        final long expireAt = now + leaseMillis;
+        try {
+            // 心跳，并清理已失联的节点
+            if (0 == db.execute("UPDATE " + nodeTable + " SET expire_at = ? WHERE node_id = ?", expireAt, nodeId)) {
+                db.execute("INSERT INTO " + nodeTable + " (node_id, expire_at) VALUES (?, ?)", nodeId, expireAt);
+            }
+            db.execute("DELETE FROM " + nodeTable + " WHERE expire_at < ?", now);
+            final int aliveNodes = Math.max(1, db.queryNumber("SELECT COUNT(*) FROM " + nodeTable).intValue());
+            final int fairShare = (shardCount + aliveNodes - 1) / aliveNodes;
+
+            final List<Entity> rows = db.query("SELECT shard_no, owner_id, expire_at FROM " + shardTable
+                    + " WHERE shard_no < ? ORDER BY shard_no", shardCount);
+            final Set<Integer> free = new TreeSet<>();
+            final Set<Integer> mine = new TreeSet<>();
+            final Set<Integer> existing = new HashSet<>();
+            for (Entity row : rows) {
+                final int shard = row.getInt("shard_no");
+                existing.add(shard);
+                final String owner = row.getStr("owner_id");
+                if (null == owner || row.getLong("expire_at") < now) {
+                    free.add(shard);
+                } else if (owner.equals(nodeId)) {
+                    mine.add(shard);
+                }
+            }
+            for (int shard = 0; shard < shardCount; shard++) {
+                if (false == existing.contains(shard)) {
+                    insertShard(shard);
+                    free.add(shard);
+                }
+            }
+
+            // 续约仍有效的分片，超出份额的释放
+            final Set<Integer> owned = new TreeSet<>();
+            for (Integer shard : mine) {
+                if (owned.size() < fairShare) {
+                    if (db.execute("UPDATE " + shardTable + " SET expire_at = ? WHERE shard_no = ? AND owner_id = ?",
+                            expireAt, shard, nodeId) > 0) {
+                        owned.add(shard);
+                    }
+                } else {
+                    db.execute("UPDATE " + shardTable + " SET owner_id = NULL, expire_at = 0 WHERE shard_no = ? AND owner_id = ?",
+                            shard, nodeId);
+                }
+            }
+            // 抢占无主或已过期的分片，条件更新失败说明已被其它节点抢先
+            for (Integer shard : free) {
+                if (owned.size() >= fairShare) {
+                    break;
+                }
+                if (db.execute("UPDATE " + shardTable + " SET owner_id = ?, expire_at = ? WHERE shard_no = ? AND (owner_id IS NULL OR expire_at < ?)",
+                        nodeId, expireAt, shard, now) > 0) {
+                    owned.add(shard);
+                }
+            }
+            return owned;
+        } catch (SQLException e) {
+            throw new CronException(e, "Acquire shards for node [{}] error!", nodeId);
+        }
+    }
+
+    @Override
+    public void releaseShards( String nodeId ) {
+        try {
+            db.execute("UPDATE " + shardTable + " SET owner_id = NULL, expire_at = 0 WHERE owner_id = ?", nodeId);
+            db.execute("DELETE FROM " + nodeTable + " WHERE node_id = ?", nodeId);
+        } catch (SQLException e) {
+            throw new CronException(e, "Release shards of node [{}] error!", nodeId);
+        }
+    }
+
+    /**
+     * 插入无主的分片记录，其它节点已插入时忽略
+     *
+     * @param shard 分片
+     */
+    private void insertShard( int shard ) {
+        try {
+            db.execute("INSERT INTO " + shardTable + " (shard_no, owner_id, expire_at) VALUES (?, NULL, 0)", shard);
+        } catch (SQLException e) {
+            StaticLog.debug("Shard [{}] has been inserted by other node: {}", shard, e.getMessage());
+        }
+    }
+}
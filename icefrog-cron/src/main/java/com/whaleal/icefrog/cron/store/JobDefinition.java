@@ -0,0 +1,102 @@
+package com.whaleal.icefrog.cron.store;
+
+import com.whaleal.icefrog.cron.pattern.CronPattern;
+import com.whaleal.icefrog.cron.task.InvokeTask;
+import com.whaleal.icefrog.cron.task.Task;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * 持久化的作业定义<br>
+ * 作业本身是代码，只有{@link InvokeTask}可以通过类名与方法名在其它节点或重启后重建，
+ * 其它类型的作业只保存ID和表达式，需要各节点使用相同ID自行注册。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class JobDefinition implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final String pattern;
+    private final String target;
+
+    /**
+     * 构造
+     *
+     * @param id      作业ID
+     * @param pattern 表达式
+     * @param target  {@link InvokeTask}的类名与方法名，无法重建的作业为{@code null}
+     */
+    public JobDefinition( String id, String pattern, String target ) {
+        this.id = id;
+        this.pattern = pattern;
+        this.target = target;
+    }
+
+    /**
+     * 根据作业创建定义
+     *
+     * @param id      作业ID
+     * @param pattern 表达式
+     * @param task    作业
+     * @return 作业定义
+     */
+    public static JobDefinition of( String id, CronPattern pattern, Task task ) {
+        final String target = (task instanceof InvokeTask) ? ((InvokeTask) task).getClassNameWithMethodName() : null;
+        return new JobDefinition(id, pattern.toString(), target);
+    }
+
+    /**
+     * @return 作业ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return 表达式
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return {@link InvokeTask}的类名与方法名，无法重建的作业为{@code null}
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * 是否可以在其它节点或重启后重建作业
+     *
+     * @return 是否可重建
+     */
+    public boolean isRestorable() {
+        return null != target;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final JobDefinition that = (JobDefinition) o;
+        return id.equals(that.id) && Objects.equals(pattern, that.pattern) && Objects.equals(target, that.target);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, pattern, target);
+    }
+
+    @Override
+    public String toString() {
+        return "JobDefinition{id=" + id + ", pattern=" + pattern + ", target=" + target + "}";
+    }
+}
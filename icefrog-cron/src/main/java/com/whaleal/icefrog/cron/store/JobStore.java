@@ -0,0 +1,58 @@
+package com.whaleal.icefrog.cron.store;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 作业存储<br>
+ * 保存作业定义，并以租约的方式把作业分片分配给存活的节点：
+ * <ul>
+ *     <li>每个节点定期调用{@link #acquireShards(String, int, long)}，同时作为心跳</li>
+ *     <li>租约未过期的分片只属于一个节点，过期或被释放的分片可被其它节点抢占</li>
+ *     <li>每个节点最多持有{@code ceil(分片数 / 存活节点数)}个分片，超出的分片主动释放，新节点加入后逐步均衡</li>
+ * </ul>
+ * 租约过期时间使用各节点的本地时钟，节点间的时钟偏差应远小于租约时长。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public interface JobStore {
+
+    /**
+     * 保存作业，ID已存在时替换
+     *
+     * @param job 作业定义
+     */
+    void save( JobDefinition job );
+
+    /**
+     * 移除作业
+     *
+     * @param id 作业ID
+     */
+    void remove( String id );
+
+    /**
+     * 加载所有作业
+     *
+     * @return 作业定义列表
+     */
+    List<JobDefinition> loadAll();
+
+    /**
+     * 续约当前节点持有的分片，并按均衡份额释放多余分片或抢占无主分片
+     *
+     * @param nodeId      节点ID
+     * @param shardCount  分片数
+     * @param leaseMillis 租约时长，单位毫秒
+     * @return 续约后当前节点持有的分片，租约在调用时刻加租约时长后过期
+     */
+    Set<Integer> acquireShards( String nodeId, int shardCount, long leaseMillis );
+
+    /**
+     * 释放节点持有的所有分片并移除节点心跳，节点正常停止时调用
+     *
+     * @param nodeId 节点ID
+     */
+    void releaseShards( String nodeId );
+}
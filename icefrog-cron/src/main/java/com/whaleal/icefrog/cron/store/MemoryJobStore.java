@@ -0,0 +1,95 @@
+package com.whaleal.icefrog.cron.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 内存作业存储<br>
+ * 作业和租约只保存在当前进程中，重启后丢失，适用于同一进程内的多个调度器分担作业或测试。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class MemoryJobStore implements JobStore {
+
+    private final Map<String, JobDefinition> jobs = new LinkedHashMap<>();
+    /**
+     * 节点ID与心跳过期时间的对应关系
+     */
+    private final Map<String, Long> nodes = new HashMap<>();
+    /**
+     * 分片与租约的对应关系
+     */
+    private final Map<Integer, Lease> leases = new HashMap<>();
+
+    @Override
+    public synchronized void save( JobDefinition job ) {
+        jobs.put(job.getId(), job);
+    }
+
+    @Override
+    public synchronized void remove( String id ) {
+        jobs.remove(id);
+    }
+
+    @Override
+    public synchronized List<JobDefinition> loadAll() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    @Override
+    public synchronized Set<Integer> acquireShards( String nodeId, int shardCount, long leaseMillis ) {
+        final long now = System.currentTimeMillis();
+        final long expireAt = now + leaseMillis;
+        nodes.values().removeIf(nodeExpireAt -> nodeExpireAt < now);
+        nodes.put(nodeId, expireAt);
+        final int fairShare = (shardCount + nodes.size() - 1) / nodes.size();
+
+        // 续约仍有效的分片，超出份额的释放
+        final Set<Integer> owned = new TreeSet<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            final Lease lease = leases.get(shard);
+            if (null != lease && lease.owner.equals(nodeId) && lease.expireAt >= now) {
+                if (owned.size() < fairShare) {
+                    lease.expireAt = expireAt;
+                    owned.add(shard);
+                } else {
+                    leases.remove(shard);
+                }
+            }
+        }
+        // 抢占无主或已过期的分片
+        for (int shard = 0; shard < shardCount && owned.size() < fairShare; shard++) {
+            final Lease lease = leases.get(shard);
+            if (null == lease || lease.expireAt < now) {
+                leases.put(shard, new Lease(nodeId, expireAt));
+                owned.add(shard);
+            }
+        }
+        return owned;
+    }
+
+    @Override
+    public synchronized void releaseShards( String nodeId ) {
+        nodes.remove(nodeId);
+        leases.values().removeIf(lease -> lease.owner.equals(nodeId));
+    }
+
+    /**
+     * 分片租约
+     */
+    private static class Lease {
+        final String owner;
+        long expireAt;
+
+        Lease( String owner, long expireAt ) {
+            this.owner = owner;
+            this.expireAt = expireAt;
+        }
+    }
+}
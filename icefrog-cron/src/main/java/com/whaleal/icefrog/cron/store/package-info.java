@@ -0,0 +1,6 @@
+/**
+ * 作业存储，用于持久化动态加入的作业，并通过分片租约让多个节点分担作业，每个作业在集群中只由一个节点触发
+ *
+ * @author wh
+ */
+package com.whaleal.icefrog.cron.store;
@@ -19,6 +19,7 @@ import java.lang.reflect.Method;
  */
 public class InvokeTask implements Task {
 
+    private final String classNameWithMethodName;
     private final Object obj;
     private final Method method;
 
@@ -28,6 +29,7 @@ public class InvokeTask implements Task {
      * @param classNameWithMethodName 类名与方法名的字符串表示，方法名和类名使用#隔开或者.隔开
      */
     public InvokeTask( String classNameWithMethodName ) {
+        this.classNameWithMethodName = classNameWithMethodName;
         int splitIndex = classNameWithMethodName.lastIndexOf('#');
         if (splitIndex <= 0) {
             splitIndex = classNameWithMethodName.lastIndexOf('.');
@@ -58,6 +60,16 @@ public class InvokeTask implements Task {
         }
     }
 
+    /**
+     * 获取类名与方法名的字符串表示，即构造时传入的值
+     *
+     * @return 类名与方法名
+     * @since 1.1.8
+     */
+    public String getClassNameWithMethodName() {
+        return classNameWithMethodName;
+    }
+
     @Override
     public void execute() {
         try {
@@ -0,0 +1,134 @@
+package com.whaleal.icefrog.cron.timingwheel;
+
+import com.whaleal.icefrog.log.StaticLog;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link WheelTimer}中的一个延迟任务<br>
+ * 状态只能从初始变为已取消、已到期或定时器停止时未处理，三者互斥，通过CAS切换，取消无需加锁。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class WheelTimeout {
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+    private static final int ST_UNPROCESSED = 3;
+
+    private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+
+    private final WheelTimer timer;
+    private final Runnable task;
+    /**
+     * 到期的纳秒时间，与{@link System#nanoTime()}可比
+     */
+    private final long deadline;
+    private volatile int state = ST_INIT;
+
+    /**
+     * 提交队列中的下一个节点，由提交线程写入，定时器线程读取
+     */
+    volatile WheelTimeout queueNext;
+    /**
+     * 所在时间槽链表的前后节点，仅由定时器线程访问
+     */
+    WheelTimeout prev;
+    WheelTimeout next;
+    /**
+     * 到期的刻度，由定时器线程计算
+     */
+    long deadlineTick;
+
+    /**
+     * 构造
+     *
+     * @param timer    所属定时器
+     * @param task     任务
+     * @param deadline 到期的纳秒时间
+     */
+    WheelTimeout( WheelTimer timer, Runnable task, long deadline ) {
+        this.timer = timer;
+        this.task = task;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return 任务
+     */
+    public Runnable getTask() {
+        return task;
+    }
+
+    /**
+     * @return 到期的纳秒时间，与{@link System#nanoTime()}可比
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 取消任务，已取消或已到期的任务不能取消<br>
+     * 被取消的任务仍留在时间槽中，由定时器线程在经过时丢弃
+     *
+     * @return 是否取消成功
+     */
+    public boolean cancel() {
+        if (STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+            timer.onCancelled();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 是否已取消
+     */
+    public boolean isCancelled() {
+        return ST_CANCELLED == state;
+    }
+
+    /**
+     * @return 是否已到期
+     */
+    public boolean isExpired() {
+        return ST_EXPIRED == state;
+    }
+
+    /**
+     * 标记为到期，与取消互斥
+     *
+     * @return 是否标记成功，已取消时返回{@code false}
+     */
+    boolean markExpired() {
+        return STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED);
+    }
+
+    /**
+     * 标记为定时器停止时未处理，与取消互斥，标记后由{@link WheelTimer#stop()}返回给调用方
+     *
+     * @return 是否标记成功，已取消时返回{@code false}
+     */
+    boolean markUnprocessed() {
+        return STATE_UPDATER.compareAndSet(this, ST_INIT, ST_UNPROCESSED);
+    }
+
+    /**
+     * 执行任务，异常只记录日志，不影响同一批次中的其它任务
+     */
+    void run() {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            StaticLog.warn(e, "Timer task [{}] execute error.", task);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WheelTimeout{task=" + task + ", state=" + state + "}";
+    }
+}
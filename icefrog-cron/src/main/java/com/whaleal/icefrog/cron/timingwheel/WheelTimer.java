@@ -0,0 +1,408 @@
+package com.whaleal.icefrog.cron.timingwheel;
+
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.log.StaticLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 高吞吐多层时间轮定时器<br>
+ * 与{@link SystemTimer}不同，此定时器：
+ * <ul>
+ *     <li>提交任务时只向无锁的多生产者单消费者队列追加节点，不触碰时间轮</li>
+ *     <li>时间轮只由一个定时器线程推进，时间槽链表无需加锁</li>
+ *     <li>同一次推进中到期的任务按批次交给执行器，而不是每个任务提交一次</li>
+ *     <li>取消任务只是一次CAS，被取消的任务在时间槽经过时丢弃</li>
+ * </ul>
+ * 时间轮共{@code levels}层，每层{@code wheelSize}个槽，第n层一个槽的跨度为{@code tick * wheelSize^n}，
+ * 高层的槽到达时将其中任务重新分配到低层，超出最高层范围的任务先放入最高层，到达时再重新分配。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class WheelTimer {
+
+    private static final int ST_INIT = 0;
+    private static final int ST_STARTED = 1;
+    private static final int ST_STOPPED = 2;
+
+    private static final AtomicIntegerFieldUpdater<WheelTimer> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(WheelTimer.class, "state");
+    private static final AtomicReferenceFieldUpdater<WheelTimer, WheelTimeout> TAIL_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(WheelTimer.class, WheelTimeout.class, "tail");
+
+    /**
+     * 一个刻度的纳秒数
+     */
+    private final long tickNanos;
+    /**
+     * 每层槽数的位数，槽数为2的幂
+     */
+    private final int wheelBits;
+    private final int mask;
+    /**
+     * 时间轮层数
+     */
+    private final int levels;
+    /**
+     * 时间槽，下标为[层][槽]
+     */
+    private final Bucket[][] wheels;
+    /**
+     * 到期任务的执行器
+     */
+    private final Executor executor;
+    /**
+     * 每个批次最多包含的任务数
+     */
+    private final int batchSize;
+    /**
+     * 未到期且未取消的任务数
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    /**
+     * 提交队列的头（定时器线程访问）和尾（提交线程CAS）
+     */
+    private WheelTimeout head;
+    private volatile WheelTimeout tail;
+
+    private volatile int state = ST_INIT;
+    private volatile long startTime;
+    private Thread workerThread;
+    /**
+     * 下一个要处理的刻度，仅由定时器线程访问
+     */
+    private long currentTick;
+
+    /**
+     * 构造，刻度1毫秒，每层256槽，共4层，到期任务在定时器线程中直接执行
+     */
+    public WheelTimer() {
+        this(1, TimeUnit.MILLISECONDS, 256, 4, Runnable::run, 1024);
+    }
+
+    /**
+     * 构造
+     *
+     * @param tick      一个刻度的时长
+     * @param unit      刻度的时间单位
+     * @param wheelSize 每层槽数，向上取整为2的幂
+     * @param levels    时间轮层数
+     * @param executor  到期任务的执行器，每个批次提交一次
+     * @param batchSize 每个批次最多包含的任务数
+     */
+    public WheelTimer( long tick, TimeUnit unit, int wheelSize, int levels, Executor executor, int batchSize ) {
+        Precondition.isTrue(tick > 0, "Tick must be positive!");
+        Precondition.isTrue(wheelSize > 1 && wheelSize <= (1 << 16), "Wheel size must be in range [2, 65536]!");
+        Precondition.isTrue(levels > 0, "Levels must be positive!");
+        Precondition.notNull(executor, "Executor must not be null!");
+        Precondition.isTrue(batchSize > 0, "Batch size must be positive!");
+
+        this.tickNanos = unit.toNanos(tick);
+        this.wheelBits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+        Precondition.isTrue((long) wheelBits * levels < 63, "Wheel size and levels overflow!");
+        this.mask = (1 << wheelBits) - 1;
+        this.levels = levels;
+        this.executor = executor;
+        this.batchSize = batchSize;
+
+        this.wheels = new Bucket[levels][1 << wheelBits];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+
+        this.head = this.tail = new WheelTimeout(this, null, 0);
+    }
+
+    /**
+     * 启动定时器线程，重复启动无效
+     *
+     * @return this
+     */
+    public WheelTimer start() {
+        if (STATE_UPDATER.compareAndSet(this, ST_INIT, ST_STARTED)) {
+            startTime = System.nanoTime();
+            workerThread = ThreadUtil.newThread(this::work, "icefrog-wheel-timer", true);
+            workerThread.start();
+        }
+        return this;
+    }
+
+    /**
+     * 停止定时器，未到期的任务不再执行<br>
+     * 返回的任务已标记为未处理，不能再取消
+     *
+     * @return 未到期且未取消的任务
+     */
+    public List<WheelTimeout> stop() {
+        if (STATE_UPDATER.getAndSet(this, ST_STOPPED) != ST_STARTED) {
+            return Collections.emptyList();
+        }
+        LockSupport.unpark(workerThread);
+        boolean interrupted = false;
+        while (workerThread.isAlive()) {
+            try {
+                workerThread.join(100);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        final List<WheelTimeout> unprocessed = new ArrayList<>();
+        drainSubmissions(unprocessed);
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                bucket.clear(unprocessed);
+            }
+        }
+        return unprocessed;
+    }
+
+    /**
+     * 添加延迟任务，未启动时自动启动<br>
+     * 与{@link #stop()}并发时，任务要么由{@link #stop()}作为未处理任务返回，要么被拒绝，不会被遗漏
+     *
+     * @param task  任务
+     * @param delay 延迟时长
+     * @param unit  时间单位
+     * @return 延迟任务，可用于取消
+     * @throws RejectedExecutionException 定时器已停止
+     */
+    public WheelTimeout newTimeout( Runnable task, long delay, TimeUnit unit ) {
+        Precondition.notNull(task, "Task must not be null!");
+        if (ST_STOPPED == state) {
+            throw new RejectedExecutionException("Timer has been stopped!");
+        }
+        if (ST_INIT == state) {
+            start();
+        }
+
+        final WheelTimeout timeout = new WheelTimeout(this, task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+        pending.incrementAndGet();
+        // 多生产者入队：交换尾节点后再链接，定时器线程可能短暂看不到刚链接的节点，下一刻度再取
+        TAIL_UPDATER.getAndSet(this, timeout).queueNext = timeout;
+        // 入队期间定时器可能已停止，stop未取走的任务在此取消并拒绝，已取走的任务在其返回的未处理任务中
+        if (ST_STOPPED == state && timeout.cancel()) {
+            throw new RejectedExecutionException("Timer has been stopped!");
+        }
+        return timeout;
+    }
+
+    /**
+     * @return 未到期且未取消的任务数
+     */
+    public long getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * 任务被取消的回调
+     */
+    void onCancelled() {
+        pending.decrementAndGet();
+    }
+
+    /**
+     * 定时器线程主循环
+     */
+    private void work() {
+        final List<WheelTimeout> expired = new ArrayList<>();
+        while (ST_STARTED == state) {
+            final long elapsed = System.nanoTime() - startTime;
+            final long targetTick = elapsed / tickNanos;
+            if (targetTick < currentTick) {
+                LockSupport.parkNanos(this, currentTick * tickNanos - elapsed);
+                continue;
+            }
+
+            transferSubmissions();
+            while (currentTick <= targetTick) {
+                processTick(currentTick, expired);
+                currentTick++;
+            }
+            if (false == expired.isEmpty()) {
+                dispatch(expired);
+                expired.clear();
+            }
+        }
+    }
+
+    /**
+     * 将提交队列中的任务放入时间轮
+     */
+    private void transferSubmissions() {
+        WheelTimeout timeout;
+        while (null != (timeout = pollSubmission())) {
+            if (false == timeout.isCancelled()) {
+                long deadlineTick = (timeout.getDeadline() - startTime + tickNanos - 1) / tickNanos;
+                timeout.deadlineTick = Math.max(deadlineTick, currentTick);
+                place(timeout);
+            }
+        }
+    }
+
+    /**
+     * 从提交队列中取出一个任务，仅定时器线程调用
+     *
+     * @return 任务，队列为空返回{@code null}
+     */
+    private WheelTimeout pollSubmission() {
+        final WheelTimeout next = head.queueNext;
+        if (null != next) {
+            // 取出的节点成为新的哨兵节点
+            head.queueNext = null;
+            head = next;
+        }
+        return next;
+    }
+
+    /**
+     * 按相对当前刻度的距离选择层和槽
+     *
+     * @param timeout 任务
+     */
+    private void place( WheelTimeout timeout ) {
+        final long delta = timeout.deadlineTick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << (wheelBits * (level + 1)))) {
+            level++;
+        }
+        long placeTick = timeout.deadlineTick;
+        final long range = 1L << (wheelBits * levels);
+        if (delta >= range) {
+            // 超出最高层范围，先挂在最高层最远的槽上，到达时再重新分配
+            placeTick = currentTick + range - 1;
+        }
+        wheels[level][(int) ((placeTick >>> (wheelBits * level)) & mask)].add(timeout);
+    }
+
+    /**
+     * 处理一个刻度：先由高到低降级到达的高层槽，再收集第0层槽中的到期任务
+     *
+     * @param tick    刻度
+     * @param expired 到期任务收集
+     */
+    private void processTick( long tick, List<WheelTimeout> expired ) {
+        for (int level = levels - 1; level > 0; level--) {
+            final int shift = wheelBits * level;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                cascade(wheels[level][(int) ((tick >>> shift) & mask)]);
+            }
+        }
+
+        final Bucket bucket = wheels[0][(int) (tick & mask)];
+        WheelTimeout timeout = bucket.head;
+        bucket.head = bucket.tail = null;
+        while (null != timeout) {
+            final WheelTimeout next = timeout.next;
+            timeout.prev = timeout.next = null;
+            if (timeout.markExpired()) {
+                pending.decrementAndGet();
+                expired.add(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * 将高层槽中的任务重新分配到低层，已取消的任务直接丢弃
+     *
+     * @param bucket 高层槽
+     */
+    private void cascade( Bucket bucket ) {
+        WheelTimeout timeout = bucket.head;
+        bucket.head = bucket.tail = null;
+        while (null != timeout) {
+            final WheelTimeout next = timeout.next;
+            timeout.prev = timeout.next = null;
+            if (false == timeout.isCancelled()) {
+                place(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * 按批次将到期任务交给执行器，执行器拒绝时在定时器线程中执行
+     *
+     * @param expired 到期任务
+     */
+    private void dispatch( List<WheelTimeout> expired ) {
+        final int size = expired.size();
+        for (int from = 0; from < size; from += batchSize) {
+            final WheelTimeout[] batch = expired.subList(from, Math.min(size, from + batchSize)).toArray(new WheelTimeout[0]);
+            final Runnable batchTask = () -> {
+                for (WheelTimeout timeout : batch) {
+                    timeout.run();
+                }
+            };
+            try {
+                executor.execute(batchTask);
+            } catch (RejectedExecutionException e) {
+                StaticLog.warn("Timer executor rejected a batch of {} tasks, run them on timer thread.", batch.length);
+                batchTask.run();
+            }
+        }
+    }
+
+    /**
+     * 将提交队列中剩余的任务取出，用于停止时返回
+     *
+     * @param unprocessed 未处理任务收集
+     */
+    private void drainSubmissions( List<WheelTimeout> unprocessed ) {
+        WheelTimeout timeout;
+        while (null != (timeout = pollSubmission())) {
+            if (timeout.markUnprocessed()) {
+                unprocessed.add(timeout);
+            }
+        }
+    }
+
+    /**
+     * 时间槽，仅由定时器线程访问的双向链表
+     */
+    private static class Bucket {
+        WheelTimeout head;
+        WheelTimeout tail;
+
+        void add( WheelTimeout timeout ) {
+            if (null == tail) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void clear( List<WheelTimeout> unprocessed ) {
+            WheelTimeout timeout = head;
+            head = tail = null;
+            while (null != timeout) {
+                final WheelTimeout next = timeout.next;
+                timeout.prev = timeout.next = null;
+                if (timeout.markUnprocessed()) {
+                    unprocessed.add(timeout);
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.whaleal.icefrog.cron;
+
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.cron.pattern.CronPattern;
+import com.whaleal.icefrog.cron.task.CronTask;
+import com.whaleal.icefrog.cron.task.Task;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 作业执行策略和执行统计的单元测试
+ *
+ * @author wh
+ */
+public class ExecutePolicyTest {
+
+    private static final CronPattern PATTERN = new CronPattern("* * * * * *");
+
+    @Test
+    public void skipIfRunningTest() throws InterruptedException {
+        final Scheduler scheduler = new Scheduler().setExecutePolicy(ExecutePolicy.SKIP_IF_RUNNING);
+        scheduler.start(true);
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+            final CronTask task = new CronTask("slow", PATTERN, blocking(count, release));
+
+            Assert.assertNotNull(scheduler.taskExecutorManager.spawnExecutor(task));
+            Assert.assertNull(scheduler.taskExecutorManager.spawnExecutor(task));
+            Assert.assertNull(scheduler.taskExecutorManager.spawnExecutor(task));
+            release.countDown();
+            waitIdle(scheduler, "slow");
+
+            final TaskMetrics metrics = scheduler.getTaskMetrics("slow");
+            Assert.assertEquals(1, count.get());
+            Assert.assertEquals(2, metrics.getSkippedCount());
+            Assert.assertEquals(1, metrics.getSucceededCount());
+
+            // 执行结束后可以再次执行
+            Assert.assertNotNull(scheduler.taskExecutorManager.spawnExecutor(task));
+            waitIdle(scheduler, "slow");
+            Assert.assertEquals(2, count.get());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void coalesceTest() throws InterruptedException {
+        final Scheduler scheduler = new Scheduler();
+        scheduler.setExecutePolicy("slow", ExecutePolicy.COALESCE);
+        scheduler.start(true);
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+            final CronTask task = new CronTask("slow", PATTERN, blocking(count, release));
+
+            scheduler.taskExecutorManager.spawnExecutor(task);
+            // 执行期间的三次触发合并为一次
+            scheduler.taskExecutorManager.spawnExecutor(task);
+            scheduler.taskExecutorManager.spawnExecutor(task);
+            scheduler.taskExecutorManager.spawnExecutor(task);
+            release.countDown();
+            waitIdle(scheduler, "slow");
+
+            Assert.assertEquals(2, count.get());
+            Assert.assertEquals(3, scheduler.getTaskMetrics("slow").getSkippedCount());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void policySwitchTest() throws InterruptedException {
+        final Scheduler scheduler = new Scheduler();
+        scheduler.start(true);
+        try {
+            final CountDownLatch releaseConcurrent = new CountDownLatch(1);
+            final CountDownLatch releaseSkip = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+            Assert.assertNotNull(scheduler.taskExecutorManager.spawnExecutor(
+                    new CronTask("switch", PATTERN, blocking(count, releaseConcurrent))));
+
+            scheduler.setExecutePolicy("switch", ExecutePolicy.SKIP_IF_RUNNING);
+            final CronTask task = new CronTask("switch", PATTERN, blocking(count, releaseSkip));
+            Assert.assertNotNull(scheduler.taskExecutorManager.spawnExecutor(task));
+
+            // 按并发策略启动的执行结束时不能释放其它执行持有的执行权
+            releaseConcurrent.countDown();
+            final TaskMetrics metrics = scheduler.getTaskMetrics("switch");
+            for (int i = 0; i < 100 && metrics.getSucceededCount() < 1; i++) {
+                ThreadUtil.sleep(20);
+            }
+            Assert.assertEquals(1, metrics.getSucceededCount());
+            Assert.assertNull(scheduler.taskExecutorManager.spawnExecutor(task));
+
+            releaseSkip.countDown();
+            waitIdle(scheduler, "switch");
+            Assert.assertEquals(2, count.get());
+            Assert.assertFalse(metrics.active.get());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void boundedPoolTest() throws InterruptedException {
+        final Scheduler scheduler = new Scheduler().setWorkerPool(1, 1);
+        scheduler.start(true);
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+            final CronTask task = new CronTask("task", PATTERN, blocking(count, release));
+
+            // 一个执行，一个排队，其余被拒绝
+            for (int i = 0; i < 5; i++) {
+                scheduler.taskExecutorManager.spawnExecutor(task);
+            }
+            ThreadUtil.sleep(100);
+            final TaskMetrics metrics = scheduler.getTaskMetrics("task");
+            Assert.assertEquals(1, metrics.getRunning());
+            Assert.assertEquals(1, metrics.getQueueDepth());
+            Assert.assertEquals(3, metrics.getRejectedCount());
+
+            release.countDown();
+            waitIdle(scheduler, "task");
+            Assert.assertEquals(2, count.get());
+            Assert.assertTrue(metrics.getMaxWaitMillis() >= 100);
+            Assert.assertTrue(metrics.getMaxRunMillis() >= 100);
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void virtualThreadExecutorTest() throws InterruptedException {
+        final Scheduler scheduler = new Scheduler();
+        try {
+            scheduler.setVirtualThreadExecutor();
+        } catch (CronException e) {
+            // Java 21以下不支持虚拟线程
+            Assert.assertTrue(e.getMessage().contains("Java 21"));
+            return;
+        }
+        scheduler.start(true);
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+            release.countDown();
+            Assert.assertNotNull(scheduler.taskExecutorManager.spawnExecutor(new CronTask("virtual", PATTERN, blocking(count, release))));
+            waitIdle(scheduler, "virtual");
+            Assert.assertEquals(1, count.get());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    private static Task blocking( AtomicInteger count, CountDownLatch release ) {
+        return () -> {
+            count.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private static void waitIdle( Scheduler scheduler, String id ) {
+        final TaskMetrics metrics = scheduler.getTaskMetrics(id);
+        for (int i = 0; i < 100 && (metrics.getQueueDepth() > 0 || metrics.getRunning() > 0 || metrics.active.get()); i++) {
+            ThreadUtil.sleep(20);
+        }
+    }
+}
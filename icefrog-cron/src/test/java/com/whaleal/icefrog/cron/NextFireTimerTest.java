@@ -0,0 +1,53 @@
+package com.whaleal.icefrog.cron;
+
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.cron.pattern.CronPattern;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按下次触发时间调度的单元测试
+ *
+ * @author wh
+ */
+public class NextFireTimerTest {
+
+    @Test
+    public void scheduleTest() {
+        final AtomicInteger fired = new AtomicInteger();
+        final AtomicInteger never = new AtomicInteger();
+        final Scheduler scheduler = new Scheduler()
+                .setMatchSecond(true)
+                .setUseNextFireTime(true);
+        scheduler.schedule("everySecond", "* * * * * *", (Runnable) fired::incrementAndGet);
+        // 启动前加入的任务在启动时加载，启动后加入的任务立即生效
+        scheduler.start(true);
+        scheduler.schedule("removed", "* * * * * *", (Runnable) never::incrementAndGet);
+        scheduler.deschedule("removed");
+        scheduler.schedule("farFuture", "0 0 0 1 1 *", (Runnable) never::incrementAndGet);
+
+        ThreadUtil.sleep(2500);
+        scheduler.stop(true);
+
+        Assert.assertTrue(fired.get() >= 2);
+        Assert.assertEquals(0, never.get());
+    }
+
+    @Test
+    public void updatePatternTest() {
+        final AtomicInteger fired = new AtomicInteger();
+        final Scheduler scheduler = new Scheduler()
+                .setMatchSecond(true)
+                .setUseNextFireTime(true);
+        scheduler.schedule("task", "0 0 0 1 1 *", (Runnable) fired::incrementAndGet);
+        scheduler.start(true);
+        scheduler.updatePattern("task", new CronPattern("* * * * * *"));
+
+        ThreadUtil.sleep(1500);
+        scheduler.stop(true);
+
+        Assert.assertTrue(fired.get() >= 1);
+    }
+}
@@ -0,0 +1,86 @@
+package com.whaleal.icefrog.cron;
+
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.cron.store.JobStore;
+import com.whaleal.icefrog.cron.store.MemoryJobStore;
+import com.whaleal.icefrog.cron.task.InvokeTask;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多节点分片调度单元测试
+ *
+ * @author wh
+ */
+public class ShardCoordinatorTest {
+
+    private static final AtomicInteger INVOKED = new AtomicInteger();
+
+    public static void invoke() {
+        INVOKED.incrementAndGet();
+    }
+
+    @Test
+    public void fireOnceTest() {
+        final JobStore store = new MemoryJobStore();
+        final AtomicInteger fired = new AtomicInteger();
+        final Scheduler node1 = newNode(store, "node1");
+        final Scheduler node2 = newNode(store, "node2");
+        for (int i = 0; i < 8; i++) {
+            node1.schedule("job" + i, "* * * * * *", (Runnable) fired::incrementAndGet);
+            node2.schedule("job" + i, "* * * * * *", (Runnable) fired::incrementAndGet);
+        }
+        node1.start(true);
+        node2.start(true);
+
+        // 每个作业只由持有其分片的节点触发
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(node1.isOwner("job" + i) ^ node2.isOwner("job" + i));
+        }
+        ThreadUtil.sleep(2500);
+        node1.stop();
+        node2.stop();
+
+        Assert.assertTrue(fired.get() >= 8);
+        Assert.assertTrue(fired.get() <= 8 * 3);
+    }
+
+    @Test
+    public void restoreTest() {
+        final JobStore store = new MemoryJobStore();
+        final String target = ShardCoordinatorTest.class.getName() + ".invoke";
+        final Scheduler node1 = newNode(store, "node1");
+        node1.schedule("invoke", "* * * * * *", new InvokeTask(target));
+        Assert.assertEquals(1, store.loadAll().size());
+        Assert.assertEquals(target, store.loadAll().get(0).getTarget());
+
+        // 新节点启动时从存储恢复任务
+        final Scheduler node2 = newNode(store, "node2").start(true);
+        Assert.assertNotNull(node2.getTask("invoke"));
+        ThreadUtil.sleep(1500);
+        Assert.assertTrue(INVOKED.get() >= 1);
+
+        // 移除后同步到其它节点
+        node1.deschedule("invoke");
+        ThreadUtil.sleep(500);
+        Assert.assertNull(node2.getTask("invoke"));
+        node2.stop();
+    }
+
+    @Test(expected = CronException.class)
+    public void scheduleWithoutIdTest() {
+        // 设置了作业存储时随机ID会使作业在每个节点各执行一次
+        newNode(new MemoryJobStore(), "node1").schedule("* * * * * *", (Runnable) () -> {
+        });
+    }
+
+    private static Scheduler newNode( JobStore store, String nodeId ) {
+        return new Scheduler()
+                .setMatchSecond(true)
+                .setJobStore(store)
+                .setNodeId(nodeId)
+                .setShardLease(4, 300);
+    }
+}
@@ -5,6 +5,8 @@ import com.whaleal.icefrog.cron.CronException;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.TimeZone;
+
 /**
  * 定时任务单元测试类
  *
@@ -147,6 +149,61 @@ public class CronPatternTest {
         CronPattern pattern = new CronPattern("0/1 * * * 1/1 ? 2020-2120");
     }
 
+    @Test
+    public void nextMatchAfterTest() {
+        final TimeZone timeZone = TimeZone.getDefault();
+        CronPattern pattern = new CronPattern("0 0 */1 * * *");
+        long next = pattern.nextMatchAfter(timeZone, DateUtil.parse("2018-10-15 14:33:22").getTime(), true);
+        Assert.assertEquals("2018-10-15 15:00:00", DateUtil.date(next).toString());
+
+        // 起始时间本身匹配时不包含
+        next = pattern.nextMatchAfter(timeZone, next, true);
+        Assert.assertEquals("2018-10-15 16:00:00", DateUtil.date(next).toString());
+
+        pattern = new CronPattern("30 12 L * *");
+        next = pattern.nextMatchAfter(timeZone, DateUtil.parse("2019-02-01 00:00:00").getTime(), false);
+        Assert.assertEquals("2019-02-28 12:30:00", DateUtil.date(next).toString());
+    }
+
+    @Test
+    public void nextMatchAfterLeapDayTest() {
+        final TimeZone timeZone = TimeZone.getDefault();
+        // 闰年2月29日，逐分钟检查需要数百万次匹配
+        final CronPattern pattern = new CronPattern("0 0 0 29 2 *");
+        long next = pattern.nextMatchAfter(timeZone, DateUtil.parse("2021-03-01 00:00:00").getTime(), true);
+        Assert.assertEquals("2024-02-29 00:00:00", DateUtil.date(next).toString());
+        next = pattern.nextMatchAfter(timeZone, next, true);
+        Assert.assertEquals("2028-02-29 00:00:00", DateUtil.date(next).toString());
+
+        // 永远不会匹配的日期
+        Assert.assertEquals(-1, new CronPattern("0 0 0 30 2 *").nextMatchAfter(timeZone, next, true));
+    }
+
+    @Test
+    public void nextMatchAfterCompareTest() {
+        // 与逐秒匹配的结果比较，包含夏令时开始和结束
+        final TimeZone timeZone = TimeZone.getTimeZone("America/New_York");
+        final String[] patterns = {"*/7 * * * * *", "0 30 2 * * *", "15 */20 1-3 * * 0", "0 0 0 L * ?", "0 5 9-17 * * 1-5|30 * 2 * * *"};
+        final long[] starts = {
+                DateUtil.parse("2021-03-13 22:00:00").getTime(), DateUtil.parse("2021-11-06 22:00:00").getTime()
+        };
+        for (String patternStr : patterns) {
+            final CronPattern pattern = new CronPattern(patternStr);
+            for (long start : starts) {
+                long expected = start;
+                long actual = start;
+                for (int i = 0; i < 20; i++) {
+                    expected = expected / 1000 * 1000 + 1000;
+                    while (false == pattern.match(timeZone, expected, true)) {
+                        expected += 1000;
+                    }
+                    actual = pattern.nextMatchAfter(timeZone, actual, true);
+                    Assert.assertEquals(patternStr, expected, actual);
+                }
+            }
+        }
+    }
+
     /**
      * 表达式是否匹配日期
      *
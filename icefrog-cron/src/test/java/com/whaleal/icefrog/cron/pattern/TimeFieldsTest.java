@@ -0,0 +1,60 @@
+package com.whaleal.icefrog.cron.pattern;
+
+import com.whaleal.icefrog.core.util.RandomUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * {@link TimeFields} 单元测试
+ *
+ * @author wh
+ */
+public class TimeFieldsTest {
+
+    @Test
+    public void updateTest() {
+        final String[] zones = {"UTC", "Asia/Shanghai", "America/New_York", "Australia/Lord_Howe", "Asia/Kolkata"};
+        for (String zone : zones) {
+            final TimeZone timeZone = TimeZone.getTimeZone(zone);
+            final TimeFields fields = new TimeFields(timeZone);
+            final GregorianCalendar calendar = new GregorianCalendar(timeZone);
+            // 随机时间，同一实例反复更新，包含向前和向后跳转
+            for (int i = 0; i < 10000; i++) {
+                final long millis = RandomUtil.randomLong(0, 4102444800000L);
+                calendar.setTimeInMillis(millis);
+                fields.update(millis);
+                assertFields(calendar, fields);
+            }
+        }
+    }
+
+    @Test
+    public void dstTest() {
+        // 逐分钟跨越夏令时开始和结束，验证缓存的偏移及时刷新
+        final TimeZone timeZone = TimeZone.getTimeZone("America/New_York");
+        final TimeFields fields = new TimeFields(timeZone);
+        final GregorianCalendar calendar = new GregorianCalendar(timeZone);
+        final long[] starts = {1615680000000L, 1636239600000L};
+        for (long start : starts) {
+            for (long millis = start; millis < start + 6 * 3600 * 1000L; millis += 60 * 1000L) {
+                calendar.setTimeInMillis(millis);
+                assertFields(calendar, fields.update(millis));
+            }
+        }
+    }
+
+    private static void assertFields( GregorianCalendar calendar, TimeFields fields ) {
+        Assert.assertEquals(calendar.get(Calendar.SECOND), fields.getSecond());
+        Assert.assertEquals(calendar.get(Calendar.MINUTE), fields.getMinute());
+        Assert.assertEquals(calendar.get(Calendar.HOUR_OF_DAY), fields.getHour());
+        Assert.assertEquals(calendar.get(Calendar.DAY_OF_MONTH), fields.getDayOfMonth());
+        Assert.assertEquals(calendar.get(Calendar.MONTH) + 1, fields.getMonth());
+        Assert.assertEquals(calendar.get(Calendar.DAY_OF_WEEK) - 1, fields.getDayOfWeek());
+        Assert.assertEquals(calendar.get(Calendar.YEAR), fields.getYear());
+        Assert.assertEquals(calendar.isLeapYear(calendar.get(Calendar.YEAR)), fields.isLeapYear());
+    }
+}
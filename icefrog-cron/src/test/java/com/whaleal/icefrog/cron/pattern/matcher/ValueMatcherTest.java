@@ -0,0 +1,24 @@
+package com.whaleal.icefrog.cron.pattern.matcher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@link ValueMatcher} 单元测试
+ *
+ * @author wh
+ */
+public class ValueMatcherTest {
+
+    @Test
+    public void defaultNextAfterTest() {
+        // 仅实现match的匹配器使用默认的逐个查找
+        final ValueMatcher evenMatcher = value -> null != value && value % 2 == 0;
+        Assert.assertEquals(4, evenMatcher.nextAfter(3));
+        Assert.assertEquals(4, evenMatcher.nextAfter(4));
+        Assert.assertEquals(0, evenMatcher.nextAfter(-5));
+
+        final ValueMatcher noneMatcher = value -> false;
+        Assert.assertEquals(-1, noneMatcher.nextAfter(0));
+    }
+}
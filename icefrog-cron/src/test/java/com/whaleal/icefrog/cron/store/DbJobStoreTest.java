@@ -0,0 +1,63 @@
+package com.whaleal.icefrog.cron.store;
+
+import com.whaleal.icefrog.db.ds.simple.SimpleDataSource;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 基于H2内存数据库的作业存储单元测试
+ *
+ * @author wh
+ */
+public class DbJobStoreTest {
+
+    private static DbJobStore store;
+
+    @BeforeClass
+    public static void init() {
+        store = new DbJobStore(new SimpleDataSource("jdbc:h2:mem:cron_store;DB_CLOSE_DELAY=-1", "sa", ""))
+                .createTables();
+    }
+
+    @Test
+    public void saveTest() {
+        store.save(new JobDefinition("saveTest", "* * * * *", "com.demo.Job.run"));
+        store.save(new JobDefinition("saveTest", "*/5 * * * *", null));
+
+        JobDefinition job = null;
+        for (JobDefinition definition : store.loadAll()) {
+            if ("saveTest".equals(definition.getId())) {
+                job = definition;
+            }
+        }
+        Assert.assertEquals(new JobDefinition("saveTest", "*/5 * * * *", null), job);
+
+        store.remove("saveTest");
+        final List<JobDefinition> jobs = store.loadAll();
+        for (JobDefinition definition : jobs) {
+            Assert.assertNotEquals("saveTest", definition.getId());
+        }
+    }
+
+    @Test
+    public void shardTest() {
+        Assert.assertEquals(6, store.acquireShards("db-node1", 6, 10_000).size());
+        Assert.assertEquals(0, store.acquireShards("db-node2", 6, 10_000).size());
+
+        final Set<Integer> shards1 = store.acquireShards("db-node1", 6, 10_000);
+        final Set<Integer> shards2 = store.acquireShards("db-node2", 6, 10_000);
+        Assert.assertEquals(3, shards1.size());
+        Assert.assertEquals(3, shards2.size());
+        final Set<Integer> all = new HashSet<>(shards1);
+        all.addAll(shards2);
+        Assert.assertEquals(6, all.size());
+
+        store.releaseShards("db-node1");
+        store.releaseShards("db-node2");
+    }
+}
@@ -0,0 +1,62 @@
+package com.whaleal.icefrog.cron.store;
+
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 内存作业存储单元测试
+ *
+ * @author wh
+ */
+public class MemoryJobStoreTest {
+
+    @Test
+    public void saveTest() {
+        final JobStore store = new MemoryJobStore();
+        store.save(new JobDefinition("a", "* * * * *", "com.demo.Job.run"));
+        store.save(new JobDefinition("a", "*/2 * * * *", "com.demo.Job.run"));
+        store.save(new JobDefinition("b", "* * * * *", null));
+        Assert.assertEquals(2, store.loadAll().size());
+        Assert.assertEquals("*/2 * * * *", store.loadAll().get(0).getPattern());
+        Assert.assertFalse(store.loadAll().get(1).isRestorable());
+
+        store.remove("a");
+        Assert.assertEquals(1, store.loadAll().size());
+    }
+
+    @Test
+    public void shardTest() {
+        final JobStore store = new MemoryJobStore();
+        // 单节点持有全部分片
+        Assert.assertEquals(8, store.acquireShards("node1", 8, 10_000).size());
+
+        // 新节点加入后老节点释放一半，新节点再接管
+        Assert.assertEquals(0, store.acquireShards("node2", 8, 10_000).size());
+        final Set<Integer> shards1 = store.acquireShards("node1", 8, 10_000);
+        final Set<Integer> shards2 = store.acquireShards("node2", 8, 10_000);
+        Assert.assertEquals(4, shards1.size());
+        Assert.assertEquals(4, shards2.size());
+        final Set<Integer> all = new HashSet<>(shards1);
+        all.addAll(shards2);
+        Assert.assertEquals(8, all.size());
+
+        // 节点正常停止后立即被接管
+        store.releaseShards("node1");
+        Assert.assertEquals(8, store.acquireShards("node2", 8, 10_000).size());
+    }
+
+    @Test
+    public void leaseExpireTest() {
+        final JobStore store = new MemoryJobStore();
+        Assert.assertEquals(4, store.acquireShards("node1", 4, 50).size());
+        Assert.assertEquals(0, store.acquireShards("node2", 4, 50).size());
+
+        // node1不再续约，租约过期后由node2接管
+        ThreadUtil.sleep(100);
+        Assert.assertEquals(4, store.acquireShards("node2", 4, 50).size());
+    }
+}
@@ -0,0 +1,93 @@
+package com.whaleal.icefrog.cron.timingwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WheelTimer}与{@link ScheduledThreadPoolExecutor}的基准测试<br>
+ * 每次调用提交大量延迟为1到maxDelayMs毫秒的任务，其中一半在到期前取消，等待其余任务全部执行完毕。
+ * 运行main方法或使用JMH插件执行。
+ *
+ * @author wh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WheelTimerBenchmark {
+
+    private static final int TIMEOUTS = 1_000_000;
+
+    @Param({"1", "10"})
+    public int maxDelayMs;
+
+    private WheelTimer wheelTimer;
+    private ScheduledThreadPoolExecutor scheduledExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wheelTimer = new WheelTimer().start();
+        scheduledExecutor = new ScheduledThreadPoolExecutor(1);
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wheelTimer.stop();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TIMEOUTS)
+    public void wheelTimer() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(TIMEOUTS / 2);
+        for (int i = 0; i < TIMEOUTS; i++) {
+            final WheelTimeout timeout = wheelTimer.newTimeout(latch::countDown, 1 + i % maxDelayMs, TimeUnit.MILLISECONDS);
+            if ((i & 1) == 1) {
+                timeout.cancel();
+            }
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TIMEOUTS)
+    public void scheduledThreadPoolExecutor() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(TIMEOUTS / 2);
+        for (int i = 0; i < TIMEOUTS; i++) {
+            final ScheduledFuture<?> future = scheduledExecutor.schedule(latch::countDown, 1 + i % maxDelayMs, TimeUnit.MILLISECONDS);
+            if ((i & 1) == 1) {
+                future.cancel(false);
+            }
+        }
+        latch.await();
+    }
+
+    public static void main( String[] args ) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WheelTimerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
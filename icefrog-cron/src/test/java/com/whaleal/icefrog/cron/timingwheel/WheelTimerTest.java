@@ -0,0 +1,120 @@
+package com.whaleal.icefrog.cron.timingwheel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多层时间轮定时器单元测试
+ *
+ * @author wh
+ */
+public class WheelTimerTest {
+
+    @Test
+    public void expireTest() throws InterruptedException {
+        // 每层4槽共2层，只覆盖16个刻度，较长的延迟需要多次降级
+        final WheelTimer timer = new WheelTimer(1, TimeUnit.MILLISECONDS, 4, 2, Runnable::run, 8);
+        final int count = 500;
+        final CountDownLatch latch = new CountDownLatch(count);
+        final AtomicInteger early = new AtomicInteger();
+        for (int i = 0; i < count; i++) {
+            final long delay = i % 200;
+            final long submitted = System.nanoTime();
+            timer.newTimeout(() -> {
+                if (System.nanoTime() - submitted < TimeUnit.MILLISECONDS.toNanos(delay)) {
+                    early.incrementAndGet();
+                }
+                latch.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, early.get());
+        Assert.assertEquals(0, timer.getPendingCount());
+        timer.stop();
+    }
+
+    @Test
+    public void cancelTest() throws InterruptedException {
+        final WheelTimer timer = new WheelTimer().start();
+        final AtomicInteger fired = new AtomicInteger();
+        final WheelTimeout timeout = timer.newTimeout(fired::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, timer.getPendingCount());
+
+        Assert.assertTrue(timeout.cancel());
+        Assert.assertFalse(timeout.cancel());
+        Assert.assertTrue(timeout.isCancelled());
+        Assert.assertEquals(0, timer.getPendingCount());
+
+        Thread.sleep(150);
+        Assert.assertEquals(0, fired.get());
+        Assert.assertFalse(timeout.isExpired());
+        timer.stop();
+    }
+
+    @Test
+    public void batchExecutorTest() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final WheelTimer timer = new WheelTimer(1, TimeUnit.MILLISECONDS, 64, 2, executor, 16);
+        final int count = 10000;
+        final CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            timer.newTimeout(latch::countDown, 10, TimeUnit.MILLISECONDS);
+        }
+
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        timer.stop();
+        executor.shutdown();
+    }
+
+    @Test
+    public void stopTest() {
+        final WheelTimer timer = new WheelTimer().start();
+        timer.newTimeout(() -> {
+        }, 1, TimeUnit.HOURS);
+        timer.newTimeout(() -> {
+        }, 2, TimeUnit.HOURS).cancel();
+
+        final List<WheelTimeout> unprocessed = timer.stop();
+        Assert.assertEquals(1, unprocessed.size());
+        Assert.assertTrue(timer.stop().isEmpty());
+    }
+
+    @Test
+    public void stopWhileSubmittingTest() throws InterruptedException {
+        final WheelTimer timer = new WheelTimer().start();
+        final AtomicInteger accepted = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(4);
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        timer.newTimeout(() -> {
+                        }, 1, TimeUnit.HOURS);
+                        accepted.incrementAndGet();
+                    }
+                } catch (RejectedExecutionException e) {
+                    // 定时器已停止
+                }
+            });
+            threads[i].start();
+        }
+        started.await();
+        final List<WheelTimeout> unprocessed = timer.stop();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 每个被接受的任务都在未处理任务中
+        Assert.assertEquals(accepted.get(), unprocessed.size());
+    }
+}
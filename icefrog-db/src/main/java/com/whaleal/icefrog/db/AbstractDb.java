@@ -9,10 +9,12 @@ import com.whaleal.icefrog.db.sql.Condition.LikeType;
 import javax.sql.DataSource;
 import java.io.Serializable;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * 抽象数据库操作类<br>
@@ -184,6 +186,83 @@ public abstract class AbstractDb implements Serializable {
         }
     }
 
+    /**
+     * 游标查询，按fetchSize分批从数据库读取并逐行映射，内存占用与结果集总行数无关<br>
+     * 非事务中使用独立连接，遍历器关闭时归还；事务中使用事务连接，关闭遍历器时不关闭连接<br>
+     * 遍历结束时自动关闭，提前结束遍历须手动关闭
+     *
+     * @param <T>           行对象类型
+     * @param sql           查询语句
+     * @param fetchSize     每批读取行数，实际值由方言决定，见{@link Dialect#getCursorFetchSize(int)}
+     * @param mapperFactory 行映射器工厂，见{@link RowMapper#entity(boolean)}、{@link RowMapper#bean(Class)}
+     * @param params        参数
+     * @return {@link CursorIter}
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public <T> CursorIter<T> queryCursor( String sql, int fetchSize, RsHandler<RowMapper<T>> mapperFactory, Object... params ) throws SQLException {
+        Connection conn = this.getConnection();
+        final boolean inTransaction = false == conn.getAutoCommit();
+        if (false == inTransaction) {
+            // 游标存活期间当前线程可能继续执行其它操作并关闭线程绑定的连接，此处使用独立连接
+            this.closeConnection(conn);
+            conn = this.ds.getConnection();
+        }
+
+        final Dialect dialect = runner.getDialect();
+        final Connection cursorConn = conn;
+        final boolean needTransaction = false == inTransaction && dialect.isCursorNeedTransaction();
+        final AutoCloseable onClose = inTransaction ? null : () -> {
+            try {
+                if (needTransaction) {
+                    cursorConn.setAutoCommit(true);
+                }
+            } finally {
+                cursorConn.close();
+            }
+        };
+
+        PreparedStatement ps = null;
+        try {
+            if (needTransaction) {
+                cursorConn.setAutoCommit(false);
+            }
+            ps = StatementUtil.prepareStatementForCursor(cursorConn, sql, dialect.getCursorFetchSize(fetchSize), params);
+        } catch (SQLException | RuntimeException e) {
+            DbUtil.close(ps, onClose);
+            throw e;
+        }
+        return SqlExecutor.queryCursor(ps, mapperFactory, onClose);
+    }
+
+    /**
+     * 游标查询，逐行映射为{@link Entity}，关闭{@link Stream}时释放游标和连接
+     *
+     * @param sql    查询语句
+     * @param params 参数
+     * @return {@link Stream}，使用完毕须关闭
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public Stream<Entity> stream( String sql, Object... params ) throws SQLException {
+        return queryCursor(sql, CursorIter.DEFAULT_FETCH_SIZE, RowMapper.entity(this.caseInsensitive), params).stream();
+    }
+
+    /**
+     * 游标查询，逐行映射为Bean，关闭{@link Stream}时释放游标和连接
+     *
+     * @param <T>       Bean类型
+     * @param sql       查询语句
+     * @param beanClass Bean类型
+     * @param params    参数
+     * @return {@link Stream}，使用完毕须关闭
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public <T> Stream<T> stream( String sql, Class<T> beanClass, Object... params ) throws SQLException {
+        return queryCursor(sql, CursorIter.DEFAULT_FETCH_SIZE, RowMapper.bean(beanClass), params).stream();
+    }
+
     /**
      * 执行非查询语句<br>
      * 语句包括 插入、更新、删除
@@ -353,6 +432,46 @@ public abstract class AbstractDb implements Serializable {
         }
     }
 
+    /**
+     * 分块批量插入，使用默认块大小，见{@link #insertBulk(Iterable, int, int)}
+     *
+     * @param records 记录，可为延迟读取的{@link Iterable}
+     * @return 插入行数
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public long insertBulk( Iterable<Entity> records ) throws SQLException {
+        return insertBulk(records, BulkInserter.DEFAULT_CHUNK_SIZE, 1);
+    }
+
+    /**
+     * 分块批量插入，适用于大量数据导入<br>
+     * 方言支持时每块生成一条多行插入语句，否则每块执行一次JDBC批处理，相同结构的块复用预编译语句。<br>
+     * 非事务中每块提交一次，parallelism大于1时使用多个连接并行插入，失败时此前已提交的块不回滚；
+     * 事务中使用事务连接顺序插入，不单独提交
+     *
+     * @param records     记录，可为延迟读取的{@link Iterable}，连续的相同结构（表名和字段一致）记录放入同一块
+     * @param chunkSize   每块行数，多行插入时同时受{@link Dialect#getMaxInsertRows(int)}限制
+     * @param parallelism 并行连接数，事务中忽略
+     * @return 插入行数
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public long insertBulk( Iterable<Entity> records, int chunkSize, int parallelism ) throws SQLException {
+        final BulkInserter inserter = new BulkInserter(runner.getDialect(), chunkSize);
+        Connection conn = null;
+        try {
+            conn = this.getConnection();
+            if (false == conn.getAutoCommit()) {
+                // 事务中
+                return inserter.insert(conn, records);
+            }
+        } finally {
+            this.closeConnection(conn);
+        }
+        return inserter.insert(this.ds, records, parallelism);
+    }
+
     /**
      * 插入数据
      *
@@ -0,0 +1,425 @@
+package com.whaleal.icefrog.db;
+
+import com.whaleal.icefrog.core.collection.CollUtil;
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.db.dialect.Dialect;
+import com.whaleal.icefrog.db.sql.SqlBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 分块批量插入<br>
+ * 将记录按块（chunk）依次插入，每块一次与数据库交互，内存中最多只保留少量块：
+ * <ul>
+ *     <li>方言支持多行插入时，每块生成一条 INSERT ... VALUES (...), (...) 语句，行数受{@link Dialect#getMaxInsertRows(int)}限制</li>
+ *     <li>不支持时，每块使用JDBC批处理执行一次</li>
+ *     <li>相同行数的块SQL相同，预编译语句通过{@link StatementCache}复用</li>
+ * </ul>
+ * 结构相同（表名和字段一致）的连续记录才会放入同一块，结构变化时提前结束当前块。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class BulkInserter {
+
+    /**
+     * 默认每块行数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * 并行插入时通知工作线程结束的标记
+     */
+    private static final List<Entity> END = new ArrayList<>(0);
+
+    private final Dialect dialect;
+    private final int chunkSize;
+
+    /**
+     * 构造
+     *
+     * @param dialect   方言
+     * @param chunkSize 每块行数
+     */
+    public BulkInserter( Dialect dialect, int chunkSize ) {
+        Precondition.notNull(dialect, "Dialect must be not null !");
+        Precondition.isTrue(chunkSize > 0, "Chunk size must be positive !");
+        this.dialect = dialect;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 在指定连接上插入，不提交事务，此方法不会关闭Connection
+     *
+     * @param conn    数据库连接
+     * @param records 记录
+     * @return 插入行数
+     * @throws SQLException SQL执行异常
+     */
+    public long insert( Connection conn, Iterable<Entity> records ) throws SQLException {
+        try (StatementCache cache = new StatementCache(conn)) {
+            return insert(cache, records);
+        }
+    }
+
+    /**
+     * 使用指定的语句缓存插入，不提交事务，多次调用时可复用已预编译的语句
+     *
+     * @param cache   语句缓存
+     * @param records 记录
+     * @return 插入行数
+     * @throws SQLException SQL执行异常
+     */
+    public long insert( StatementCache cache, Iterable<Entity> records ) throws SQLException {
+        long count = 0;
+        final ChunkReader reader = new ChunkReader(records.iterator());
+        List<Entity> chunk;
+        while (null != (chunk = reader.next())) {
+            count += executeChunk(cache, chunk);
+        }
+        return count;
+    }
+
+    /**
+     * 从数据源获取连接插入，每块提交一次事务<br>
+     * parallelism大于1时由多个线程各自持有一个连接并行插入，当前线程负责读取记录并分块；
+     * 任一块失败后停止插入并抛出异常，此前已提交的块不会回滚
+     *
+     * @param ds          数据源
+     * @param records     记录
+     * @param parallelism 并行连接数
+     * @return 插入行数
+     * @throws SQLException SQL执行异常
+     */
+    public long insert( DataSource ds, Iterable<Entity> records, int parallelism ) throws SQLException {
+        if (parallelism <= 1) {
+            final Worker worker = new Worker(ds);
+            try {
+                worker.open();
+                final ChunkReader reader = new ChunkReader(records.iterator());
+                List<Entity> chunk;
+                while (null != (chunk = reader.next())) {
+                    worker.execute(chunk);
+                }
+                return worker.count;
+            } finally {
+                worker.close();
+            }
+        }
+
+        final BlockingQueue<List<Entity>> queue = new ArrayBlockingQueue<>(parallelism * 2);
+        final AtomicLong count = new AtomicLong();
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final ExecutorService executor = ThreadUtil.newExecutor(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            executor.execute(() -> {
+                final Worker worker = new Worker(ds);
+                try {
+                    worker.open();
+                } catch (SQLException e) {
+                    error.compareAndSet(null, e);
+                }
+                try {
+                    // 出错后继续取出剩余的块但不再执行，保证读取线程不会阻塞
+                    List<Entity> chunk;
+                    while (END != (chunk = queue.take())) {
+                        if (null == error.get()) {
+                            try {
+                                worker.execute(chunk);
+                            } catch (SQLException | RuntimeException e) {
+                                error.compareAndSet(null, e);
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    error.compareAndSet(null, e);
+                    Thread.currentThread().interrupt();
+                } finally {
+                    count.addAndGet(worker.count);
+                    worker.close();
+                }
+            });
+        }
+
+        try {
+            final ChunkReader reader = new ChunkReader(records.iterator());
+            List<Entity> chunk;
+            while (null == error.get() && null != (chunk = reader.next())) {
+                queue.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            error.compareAndSet(null, e);
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            error.compareAndSet(null, e);
+        } finally {
+            for (int i = 0; i < parallelism; i++) {
+                putQuietly(queue, END);
+            }
+            executor.shutdown();
+            awaitQuietly(executor);
+        }
+
+        final Exception e = error.get();
+        if (null != e) {
+            if (e instanceof SQLException) {
+                throw (SQLException) e;
+            }
+            throw new DbRuntimeException(e, "Bulk insert failed after {} rows", count.get());
+        }
+        return count.get();
+    }
+
+    // ---------------------------------------------------------------------------- Private method start
+
+    /**
+     * 执行一块插入
+     *
+     * @param cache 语句缓存
+     * @param chunk 结构相同的记录
+     * @return 插入行数
+     * @throws SQLException SQL执行异常
+     */
+    private int executeChunk( StatementCache cache, List<Entity> chunk ) throws SQLException {
+        final Entity template = templateOf(chunk.get(0));
+        final SqlBuilder multi = dialect.insertMultiValues(template, chunk.size());
+        if (null != multi) {
+            final List<String> fields = multi.getFields();
+            final int fieldCount = fields.size();
+            // 同一字段各行的null类型相同，只按第一行的参数位置获取一次
+            final Integer[] nullTypes = new Integer[fieldCount];
+            final PreparedStatement ps = cache.prepare(multi.build());
+            int paramIndex = 1;
+            Object value;
+            for (Entity record : chunk) {
+                for (int i = 0; i < fieldCount; i++, paramIndex++) {
+                    value = record.get(fields.get(i));
+                    if (null == value) {
+                        if (null == nullTypes[i]) {
+                            nullTypes[i] = StatementUtil.getTypeOfNull(ps, i + 1);
+                        }
+                        ps.setNull(paramIndex, nullTypes[i]);
+                    } else {
+                        StatementUtil.setParam(ps, paramIndex, value);
+                    }
+                }
+            }
+            return ps.executeUpdate();
+        }
+
+        final Map<Integer, Integer> nullTypeCache = new HashMap<>();
+
+        final SqlBuilder single = SqlBuilder.create(dialect.getWrapper()).insert(template, dialect.dialectName());
+        final List<String> fields = paramFieldsOf(single, template);
+        final PreparedStatement ps = cache.prepare(single.build());
+        for (Entity record : chunk) {
+            StatementUtil.fillParams(ps, CollUtil.valuesOfKeys(record, fields), nullTypeCache);
+            ps.addBatch();
+        }
+        int count = 0;
+        for (int result : ps.executeBatch()) {
+            // 部分驱动批处理成功时返回SUCCESS_NO_INFO
+            count += (result >= 0) ? result : 1;
+        }
+        return count;
+    }
+
+    /**
+     * 复制记录作为生成SQL的模板，避免生成SQL时修改原记录的表名<br>
+     * 保留字段值，使Oracle的“字段名.nextval”等按值处理的字段生成与单条插入相同的SQL，同一块中的记录按第一条记录生成SQL
+     *
+     * @param record 记录
+     * @return 模板
+     */
+    private static Entity templateOf( Entity record ) {
+        final Entity template = Entity.create(record.getTableName());
+        template.putAll(record);
+        return template;
+    }
+
+    /**
+     * 获取插入语句中以参数传入的字段，Oracle的“字段名.nextval”直接写入SQL，不占用参数位置
+     *
+     * @param insert   插入语句
+     * @param template 模板
+     * @return 参数字段
+     */
+    private static List<String> paramFieldsOf( SqlBuilder insert, Entity template ) {
+        final List<String> fields = insert.getFields();
+        if (insert.getParamValues().size() == fields.size()) {
+            return fields;
+        }
+        final List<String> paramFields = new ArrayList<>(insert.getParamValues().size());
+        Object value;
+        for (String field : fields) {
+            value = template.get(field);
+            if (false == (value instanceof String && StrUtil.endWithIgnoreCase((String) value, ".nextval"))) {
+                paramFields.add(field);
+            }
+        }
+        return paramFields;
+    }
+
+    /**
+     * 两条记录表名和字段是否一致
+     *
+     * @param a 记录
+     * @param b 记录
+     * @return 是否一致
+     */
+    private static boolean isSameStructure( Entity a, Entity b ) {
+        return StrUtil.equals(a.getTableName(), b.getTableName())
+                && a.size() == b.size()
+                && a.keySet().equals(b.keySet());
+    }
+
+    private static void putQuietly( BlockingQueue<List<Entity>> queue, List<Entity> chunk ) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(chunk);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly( ExecutorService executor ) {
+        try {
+            while (false == executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // 等待工作线程提交或回滚当前块
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    // ---------------------------------------------------------------------------- Private method end
+
+    /**
+     * 分块读取记录，结构变化或达到块大小时结束当前块，结构不同的记录留给下一块
+     */
+    private class ChunkReader {
+        private final Iterator<Entity> iter;
+        private Entity pending;
+        /**
+         * 方言是否支持多行插入，读取第一块时判断一次
+         */
+        private Boolean multiValues;
+
+        ChunkReader( Iterator<Entity> iter ) {
+            this.iter = iter;
+        }
+
+        /**
+         * @return 下一块记录，无记录时返回{@code null}
+         */
+        List<Entity> next() {
+            Entity first = pending;
+            pending = null;
+            if (null == first) {
+                if (false == iter.hasNext()) {
+                    return null;
+                }
+                first = iter.next();
+            }
+
+            final int limit = maxRowsOf(first);
+            final List<Entity> chunk = new ArrayList<>(limit);
+            chunk.add(first);
+            while (chunk.size() < limit && iter.hasNext()) {
+                final Entity record = iter.next();
+                if (false == isSameStructure(first, record)) {
+                    pending = record;
+                    break;
+                }
+                chunk.add(record);
+            }
+            return chunk;
+        }
+
+        /**
+         * 每块最多行数，同时满足块大小和方言的单条语句限制
+         *
+         * @param record 块的第一条记录
+         * @return 最多行数
+         */
+        private int maxRowsOf( Entity record ) {
+            if (null == multiValues) {
+                multiValues = null != dialect.insertMultiValues(templateOf(record), 1);
+            }
+            if (false == multiValues) {
+                return chunkSize;
+            }
+            return Math.min(chunkSize, dialect.getMaxInsertRows(record.size()));
+        }
+    }
+
+    /**
+     * 持有一个连接的插入执行者，每块提交一次事务，结束时恢复自动提交并关闭连接
+     */
+    private class Worker {
+        private final DataSource ds;
+        private Connection conn;
+        private StatementCache cache;
+        private boolean autoCommit;
+        private long count;
+
+        Worker( DataSource ds ) {
+            this.ds = ds;
+        }
+
+        void open() throws SQLException {
+            conn = ds.getConnection();
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            cache = new StatementCache(conn);
+        }
+
+        void execute( List<Entity> chunk ) throws SQLException {
+            try {
+                final int rows = executeChunk(cache, chunk);
+                conn.commit();
+                count += rows;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ignore) {
+                    // ignore
+                }
+                throw e;
+            }
+        }
+
+        void close() {
+            DbUtil.close(cache);
+            if (null != conn) {
+                try {
+                    conn.setAutoCommit(autoCommit);
+                } catch (SQLException ignore) {
+                    // ignore
+                }
+                DbUtil.close(conn);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.whaleal.icefrog.db;
+
+import com.whaleal.icefrog.core.collection.ComputeIter;
+import com.whaleal.icefrog.core.collection.IterableIter;
+import com.whaleal.icefrog.db.handler.RowMapper;
+
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于只进游标的结果集遍历器<br>
+ * 每次只从数据库读取一批（fetchSize）数据并逐行映射，内存占用与结果集总行数无关。<br>
+ * 遍历结束时自动关闭，提前结束遍历时须手动关闭，推荐使用方式：
+ *
+ * <pre>
+ * try (CursorIter&lt;Entity&gt; iter = db.queryCursor(sql, RowMapper.entity(false))) {
+ *     for (Entity entity : iter) {
+ *         // do something
+ *     }
+ * }
+ * </pre>
+ *
+ * @param <T> 行对象类型
+ * @author wh
+ * @since 1.1.8
+ */
+public class CursorIter<T> extends ComputeIter<T> implements IterableIter<T>, Closeable {
+
+    /**
+     * 默认每批读取行数
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final Statement statement;
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    /**
+     * 关闭结果集后的回调，用于归还连接等，可为{@code null}
+     */
+    private final AutoCloseable onClose;
+    private boolean closed;
+
+    /**
+     * 构造
+     *
+     * @param statement 执行查询的{@link Statement}，随遍历器一起关闭
+     * @param rs        结果集
+     * @param mapper    行映射器
+     * @param onClose   关闭结果集后的回调，用于归还连接等，可为{@code null}
+     */
+    public CursorIter( Statement statement, ResultSet rs, RowMapper<T> mapper, AutoCloseable onClose ) {
+        this.statement = statement;
+        this.rs = rs;
+        this.mapper = mapper;
+        this.onClose = onClose;
+    }
+
+    @Override
+    protected T computeNext() {
+        if (closed) {
+            return null;
+        }
+        try {
+            if (rs.next()) {
+                return mapper.map(rs);
+            }
+        } catch (SQLException e) {
+            close();
+            throw new DbRuntimeException(e);
+        }
+        // 读取结束，及时释放游标
+        close();
+        return null;
+    }
+
+    /**
+     * 转为顺序{@link Stream}，关闭Stream时关闭此遍历器
+     *
+     * @return {@link Stream}
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * 是否已关闭
+     *
+     * @return 是否已关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 关闭结果集和{@link Statement}并执行关闭回调，重复关闭无效
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        finish();
+        DbUtil.close(rs, statement, onClose);
+    }
+}
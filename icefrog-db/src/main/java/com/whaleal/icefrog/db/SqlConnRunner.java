@@ -7,10 +7,12 @@ import com.whaleal.icefrog.db.dialect.DialectFactory;
 import com.whaleal.icefrog.db.handler.EntityListHandler;
 import com.whaleal.icefrog.db.handler.HandleHelper;
 import com.whaleal.icefrog.db.handler.PageResultHandler;
+import com.whaleal.icefrog.db.handler.RowMapper;
 import com.whaleal.icefrog.db.handler.RsHandler;
 import com.whaleal.icefrog.db.sql.Condition.LikeType;
 import com.whaleal.icefrog.db.sql.Query;
 import com.whaleal.icefrog.db.sql.SqlBuilder;
+import com.whaleal.icefrog.db.sql.SqlExecutor;
 import com.whaleal.icefrog.db.sql.SqlUtil;
 
 import javax.sql.DataSource;
@@ -117,6 +119,21 @@ public class SqlConnRunner extends DialectRunner {
         return insert(conn, records.toArray(new Entity[0]));
     }
 
+    /**
+     * 分块批量插入，方言支持时每块生成一条多行插入语句，否则每块执行一次JDBC批处理<br>
+     * 连续的相同结构（表名和字段一致）记录放入同一块，不提交事务，此方法不会关闭Connection
+     *
+     * @param conn      数据库连接
+     * @param records   记录，可为延迟读取的{@link Iterable}
+     * @param chunkSize 每块行数
+     * @return 插入行数
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public long insertBulk( Connection conn, Iterable<Entity> records, int chunkSize ) throws SQLException {
+        return new BulkInserter(getDialect(), chunkSize).insert(conn, records);
+    }
+
     /**
      * 插入数据<br>
      * 此方法不会关闭Connection
@@ -278,6 +295,25 @@ public class SqlConnRunner extends DialectRunner {
         return findAll(conn, Entity.create(tableName).set(field, values));
     }
 
+    /**
+     * 游标查询，按方言设置fetchSize，逐行读取结果<br>
+     * 遍历器关闭时关闭结果集和PreparedStatement，此方法不会关闭Connection<br>
+     * 部分数据库（如PostgreSQL）仅在关闭自动提交时使用游标，见{@link Dialect#isCursorNeedTransaction()}
+     *
+     * @param <T>           行对象类型
+     * @param conn          数据库连接对象
+     * @param sql           查询语句
+     * @param fetchSize     每批读取行数
+     * @param mapperFactory 行映射器工厂，见{@link RowMapper#entity(boolean)}、{@link RowMapper#bean(Class)}
+     * @param params        参数
+     * @return {@link CursorIter}，使用完毕须关闭
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public <T> CursorIter<T> queryCursor( Connection conn, String sql, int fetchSize, RsHandler<RowMapper<T>> mapperFactory, Object... params ) throws SQLException {
+        return SqlExecutor.queryCursor(conn, sql, getDialect().getCursorFetchSize(fetchSize), mapperFactory, params);
+    }
+
     /**
      * 获取查询结果总数，生成类似于 SELECT count(1) from (sql) as _count
      *
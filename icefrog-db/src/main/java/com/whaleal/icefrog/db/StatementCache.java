@@ -0,0 +1,106 @@
+package com.whaleal.icefrog.db;
+
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.db.sql.SqlLog;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个连接上的{@link PreparedStatement}缓存<br>
+ * 相同SQL复用已预编译的语句，超出容量时按最近最少使用关闭并移除。<br>
+ * 此对象非线程安全，与{@link Connection}一样只应在一个线程中使用，使用完毕须关闭，关闭时只关闭缓存的语句，不关闭连接
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class StatementCache implements Closeable {
+
+    /**
+     * 默认缓存的语句数
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final Connection conn;
+    private final Map<String, PreparedStatement> cache;
+
+    /**
+     * 构造，使用默认容量
+     *
+     * @param conn 数据库连接
+     */
+    public StatementCache( Connection conn ) {
+        this(conn, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 构造
+     *
+     * @param conn     数据库连接
+     * @param capacity 最多缓存的语句数
+     */
+    public StatementCache( Connection conn, int capacity ) {
+        Precondition.notNull(conn, "Connection must be not null !");
+        Precondition.isTrue(capacity > 0, "Capacity must be positive !");
+        this.conn = conn;
+        this.cache = new LinkedHashMap<String, PreparedStatement>(capacity, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, PreparedStatement> eldest ) {
+                if (size() > capacity) {
+                    DbUtil.close(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取预编译语句，不存在或已关闭时新建并缓存<br>
+     * 返回的语句可能带有上次使用留下的参数和批次，使用前须重新设置全部参数
+     *
+     * @param sql SQL语句，使用"?"做为占位符
+     * @return {@link PreparedStatement}，不能单独关闭
+     * @throws SQLException SQL异常
+     */
+    public PreparedStatement prepare( String sql ) throws SQLException {
+        PreparedStatement ps = cache.get(sql);
+        if (null == ps || ps.isClosed()) {
+            SqlLog.INSTANCE.logForBatch(sql);
+            ps = conn.prepareStatement(sql);
+            cache.put(sql, ps);
+        }
+        return ps;
+    }
+
+    /**
+     * @return 数据库连接
+     */
+    public Connection getConnection() {
+        return conn;
+    }
+
+    /**
+     * @return 缓存的语句数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 关闭并移除所有缓存的语句，不关闭连接
+     */
+    @Override
+    public void close() {
+        for (PreparedStatement ps : cache.values()) {
+            DbUtil.close(ps);
+        }
+        cache.clear();
+    }
+}
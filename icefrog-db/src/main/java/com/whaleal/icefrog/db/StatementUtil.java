@@ -139,6 +139,39 @@ public class StatementUtil {
         return fillParams(ps, params);
     }
 
+    /**
+     * 创建用于游标查询的{@link PreparedStatement}，结果集为只进、只读，按fetchSize分批从数据库读取
+     *
+     * @param conn      数据库连接
+     * @param sql       SQL语句，使用"?"做为占位符
+     * @param fetchSize 每批读取行数，0表示使用驱动默认值，MySQL可传{@link Integer#MIN_VALUE}开启逐行流式读取
+     * @param params    "?"对应参数列表
+     * @return {@link PreparedStatement}
+     * @throws SQLException SQL异常
+     * @since 1.1.8
+     */
+    public static PreparedStatement prepareStatementForCursor( Connection conn, String sql, int fetchSize, Object... params ) throws SQLException {
+        Precondition.notBlank(sql, "Sql String must be not blank!");
+        sql = sql.trim();
+
+        if (ArrayUtil.isNotEmpty(params) && 1 == params.length && params[0] instanceof Map) {
+            // 检查参数是否为命名方式的参数
+            final NamedSql namedSql = new NamedSql(sql, Convert.toMap(String.class, Object.class, params[0]));
+            sql = namedSql.getSql();
+            params = namedSql.getParams();
+        }
+
+        SqlLog.INSTANCE.log(sql, ArrayUtil.isEmpty(params) ? null : params);
+        final PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            ps.setFetchSize(fetchSize);
+            return fillParams(ps, params);
+        } catch (SQLException | RuntimeException e) {
+            DbUtil.close(ps);
+            throw e;
+        }
+    }
+
     /**
      * 创建批量操作的{@link PreparedStatement}
      *
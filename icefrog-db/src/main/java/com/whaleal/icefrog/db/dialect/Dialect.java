@@ -144,6 +144,52 @@ public interface Dialect extends Serializable {
         return psForPage(conn, sqlBuilder, null);
     }
 
+    /**
+     * 构建多行插入语句，形如：INSERT INTO table (a, b) VALUES (?, ?), (?, ?)<br>
+     * 参数按行依次排列，每行的字段顺序与{@link SqlBuilder#getFields()}一致
+     *
+     * @param template 模板记录，只使用表名和字段名
+     * @param rowCount 行数
+     * @return {@link SqlBuilder}，数据库不支持多行插入时返回{@code null}
+     * @since 1.1.8
+     */
+    default SqlBuilder insertMultiValues( Entity template, int rowCount ) {
+        return null;
+    }
+
+    /**
+     * 单条多行插入语句最多包含的行数，受数据库单条语句参数个数上限约束
+     *
+     * @param fieldCount 每行字段数
+     * @return 最多行数，不小于1
+     * @since 1.1.8
+     */
+    default int getMaxInsertRows( int fieldCount ) {
+        // PostgreSQL等驱动单条语句最多32767个参数
+        return Math.max(1, 32767 / Math.max(1, fieldCount));
+    }
+
+    /**
+     * 游标查询时实际使用的fetchSize，部分驱动需要特殊值才会分批读取而不是一次读取全部结果
+     *
+     * @param fetchSize 期望的每批读取行数
+     * @return 设置到{@link PreparedStatement#setFetchSize(int)}的值
+     * @since 1.1.8
+     */
+    default int getCursorFetchSize( int fetchSize ) {
+        return fetchSize;
+    }
+
+    /**
+     * 游标查询是否需要关闭自动提交，部分驱动仅在事务中才使用服务端游标
+     *
+     * @return 是否需要关闭自动提交
+     * @since 1.1.8
+     */
+    default boolean isCursorNeedTransaction() {
+        return false;
+    }
+
     /**
      * 方言名
      *
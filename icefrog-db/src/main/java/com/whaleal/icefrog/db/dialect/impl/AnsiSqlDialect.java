@@ -56,6 +56,24 @@ public class AnsiSqlDialect implements Dialect {
         return StatementUtil.prepareStatementForBatch(conn, insert.build(), insert.getFields(), entities);
     }
 
+    @Override
+    public SqlBuilder insertMultiValues( Entity template, int rowCount ) {
+        final SqlBuilder insert = SqlBuilder.create(wrapper).insert(template, this.dialectName());
+        final int fieldCount = insert.getFields().size();
+        final StringBuilder row = new StringBuilder(fieldCount * 3 + 2).append(", (");
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                row.append(", ");
+            }
+            row.append('?');
+        }
+        row.append(')');
+        for (int i = 1; i < rowCount; i++) {
+            insert.append(row);
+        }
+        return insert;
+    }
+
     @Override
     public PreparedStatement psForDelete( Connection conn, Query query ) throws SQLException {
         Precondition.notNull(query, "query must be not null !");
@@ -23,6 +23,14 @@ public class MysqlDialect extends AnsiSqlDialect {
         return find.append(" LIMIT ").append(page.getStartPosition()).append(", ").append(page.getPageSize());
     }
 
+    /**
+     * MySQL驱动默认一次读取全部结果，fetchSize为{@link Integer#MIN_VALUE}时逐行流式读取
+     */
+    @Override
+    public int getCursorFetchSize( int fetchSize ) {
+        return Integer.MIN_VALUE;
+    }
+
     @Override
     public String dialectName() {
         return DialectName.MYSQL.toString();
@@ -1,5 +1,6 @@
 package com.whaleal.icefrog.db.dialect.impl;
 
+import com.whaleal.icefrog.db.Entity;
 import com.whaleal.icefrog.db.Page;
 import com.whaleal.icefrog.db.dialect.DialectName;
 import com.whaleal.icefrog.db.sql.SqlBuilder;
@@ -28,6 +29,14 @@ public class OracleDialect extends AnsiSqlDialect {
                 .append(" where table_alias.rownum_ > ").append(startEnd[0]);//
     }
 
+    /**
+     * Oracle不支持INSERT ... VALUES (...), (...)，批量插入使用JDBC批处理
+     */
+    @Override
+    public SqlBuilder insertMultiValues( Entity template, int rowCount ) {
+        return null;
+    }
+
     @Override
     public String dialectName() {
         return DialectName.ORACLE.name();
@@ -3,6 +3,7 @@ package com.whaleal.icefrog.db.dialect.impl;
 import com.whaleal.icefrog.db.Entity;
 import com.whaleal.icefrog.db.dialect.DialectName;
 import com.whaleal.icefrog.db.sql.Query;
+import com.whaleal.icefrog.db.sql.SqlBuilder;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -28,6 +29,14 @@ public class PhoenixDialect extends AnsiSqlDialect {
         return super.psForInsert(conn, entity);
     }
 
+    /**
+     * Phoenix的UPSERT不支持多行VALUES，批量插入使用JDBC批处理
+     */
+    @Override
+    public SqlBuilder insertMultiValues( Entity template, int rowCount ) {
+        return null;
+    }
+
     @Override
     public String dialectName() {
         return DialectName.PHOENIX.name();
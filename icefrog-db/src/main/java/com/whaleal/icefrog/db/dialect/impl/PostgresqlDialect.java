@@ -17,6 +17,14 @@ public class PostgresqlDialect extends AnsiSqlDialect {
         wrapper = new Wrapper('"');
     }
 
+    /**
+     * PostgreSQL驱动仅在非自动提交模式下按fetchSize使用游标分批读取
+     */
+    @Override
+    public boolean isCursorNeedTransaction() {
+        return true;
+    }
+
     @Override
     public String dialectName() {
         return DialectName.POSTGREESQL.name();
@@ -33,6 +33,14 @@ public class SqlServer2012Dialect extends AnsiSqlDialect {
                 .append(" row only");//
     }
 
+    /**
+     * SQL Server单条语句最多2100个参数，VALUES最多1000行
+     */
+    @Override
+    public int getMaxInsertRows( int fieldCount ) {
+        return Math.max(1, Math.min(1000, 2000 / Math.max(1, fieldCount)));
+    }
+
     @Override
     public String dialectName() {
         return DialectName.SQLSERVER2012.name();
@@ -16,6 +16,14 @@ public class Sqlite3Dialect extends AnsiSqlDialect {
         wrapper = new Wrapper('[', ']');
     }
 
+    /**
+     * SQLite默认单条语句最多999个参数
+     */
+    @Override
+    public int getMaxInsertRows( int fieldCount ) {
+        return Math.max(1, 999 / Math.max(1, fieldCount));
+    }
+
     @Override
     public String dialectName() {
         return DialectName.SQLITE3.name();
@@ -0,0 +1,277 @@
+package com.whaleal.icefrog.db.ds.pooled;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 并发容器，用于存放池化对象，借出和归还都不加锁：
+ * <ol>
+ *     <li>优先从当前线程上次归还的对象中借出，同一线程反复借还时不与其它线程竞争</li>
+ *     <li>其次遍历共享列表，通过CAS修改对象状态抢占空闲对象</li>
+ *     <li>仍无空闲对象时在公平的{@link SynchronousQueue}上限时等待，归还的对象优先直接交给等待最久的线程</li>
+ * </ol>
+ * 对象的状态只能通过CAS修改，后台检查时先将空闲对象标记为保留，避免与借出冲突。
+ *
+ * @param <T> 池化对象类型
+ * @author wh
+ * @since 1.1.8
+ */
+public class ConcurrentBag<T extends ConcurrentBag.BagEntry> {
+
+    /**
+     * 每个线程最多记录的最近归还对象数
+     */
+    private static final int THREAD_LIST_SIZE = 16;
+
+    private final CopyOnWriteArrayList<T> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<WeakReference<T>>> threadList = ThreadLocal.withInitial(() -> new ArrayList<>(THREAD_LIST_SIZE));
+    private final SynchronousQueue<T> handoffQueue = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * 借出对象，不等待
+     *
+     * @return 对象，无空闲对象时返回{@code null}
+     */
+    public T borrow() {
+        // 当前线程最近归还的对象
+        final List<WeakReference<T>> list = threadList.get();
+        for (int i = list.size() - 1; i >= 0; i--) {
+            final T entry = list.remove(i).get();
+            if (null != entry && entry.compareAndSet(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        // 共享列表
+        for (T entry : sharedList) {
+            if (entry.compareAndSet(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 限时等待归还的对象，按等待先后公平交接
+     *
+     * @param timeout 等待时长
+     * @param unit    时间单位
+     * @return 对象，超时返回{@code null}
+     * @throws InterruptedException 等待被中断
+     */
+    public T poll( long timeout, TimeUnit unit ) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        while (remaining > 0) {
+            final long start = System.nanoTime();
+            final T entry = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (null == entry) {
+                return null;
+            }
+            if (entry.compareAndSet(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+                return entry;
+            }
+            remaining -= System.nanoTime() - start;
+        }
+        return null;
+    }
+
+    /**
+     * 登记一个等待者，登记后归还的对象优先交给等待者<br>
+     * 登记前归还的对象可能已进入其它线程的最近归还列表，因此登记后应再调用一次{@link #borrow()}，失败后再{@link #poll(long, TimeUnit)}
+     */
+    public void beginWait() {
+        waiters.incrementAndGet();
+    }
+
+    /**
+     * 注销一个等待者
+     */
+    public void endWait() {
+        waiters.decrementAndGet();
+    }
+
+    /**
+     * 归还对象，有等待者时直接交接，否则记录到当前线程的最近归还列表
+     *
+     * @param entry 对象
+     */
+    public void requite( T entry ) {
+        entry.setState(BagEntry.STATE_NOT_IN_USE);
+
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (entry.getState() != BagEntry.STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+                return;
+            }
+            if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+
+        final List<WeakReference<T>> list = threadList.get();
+        if (list.size() < THREAD_LIST_SIZE) {
+            list.add(new WeakReference<>(entry));
+        }
+    }
+
+    /**
+     * 加入新对象，有等待者时直接交接
+     *
+     * @param entry 对象，状态须为{@link BagEntry#STATE_NOT_IN_USE}或{@link BagEntry#STATE_IN_USE}
+     */
+    public void add( T entry ) {
+        sharedList.add(entry);
+        handoff(entry);
+    }
+
+    /**
+     * 移除对象，对象须已被借出或保留
+     *
+     * @param entry 对象
+     * @return 是否移除成功
+     */
+    public boolean remove( T entry ) {
+        if (false == entry.compareAndSet(BagEntry.STATE_IN_USE, BagEntry.STATE_REMOVED)
+                && false == entry.compareAndSet(BagEntry.STATE_RESERVED, BagEntry.STATE_REMOVED)) {
+            return false;
+        }
+        return sharedList.remove(entry);
+    }
+
+    /**
+     * 保留空闲对象，保留期间不会被借出
+     *
+     * @param entry 对象
+     * @return 是否保留成功
+     */
+    public boolean reserve( T entry ) {
+        return entry.compareAndSet(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_RESERVED);
+    }
+
+    /**
+     * 取消保留，对象重新可被借出
+     *
+     * @param entry 对象
+     */
+    public void unreserve( T entry ) {
+        if (entry.compareAndSet(BagEntry.STATE_RESERVED, BagEntry.STATE_NOT_IN_USE)) {
+            handoff(entry);
+        }
+    }
+
+    /**
+     * 获取指定状态的对象快照
+     *
+     * @param state 状态
+     * @return 对象列表
+     */
+    public List<T> values( int state ) {
+        final List<T> list = new ArrayList<>();
+        for (T entry : sharedList) {
+            if (entry.getState() == state) {
+                list.add(entry);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 获取所有对象快照
+     *
+     * @return 对象列表
+     */
+    public List<T> values() {
+        return new ArrayList<>(sharedList);
+    }
+
+    /**
+     * 统计指定状态的对象数
+     *
+     * @param state 状态
+     * @return 对象数
+     */
+    public int getCount( int state ) {
+        int count = 0;
+        for (T entry : sharedList) {
+            if (entry.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return 对象总数
+     */
+    public int size() {
+        return sharedList.size();
+    }
+
+    /**
+     * @return 等待者数
+     */
+    public int getWaitingCount() {
+        return waiters.get();
+    }
+
+    /**
+     * 有等待者时将空闲对象直接交给等待者，直到交接成功或对象已被其它线程借出
+     *
+     * @param entry 对象
+     */
+    private void handoff( T entry ) {
+        while (waiters.get() > 0 && entry.getState() == BagEntry.STATE_NOT_IN_USE && false == handoffQueue.offer(entry)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 容器中的对象，状态通过CAS修改
+     */
+    public abstract static class BagEntry {
+        public static final int STATE_NOT_IN_USE = 0;
+        public static final int STATE_IN_USE = 1;
+        public static final int STATE_REMOVED = -1;
+        public static final int STATE_RESERVED = -2;
+
+        private static final AtomicIntegerFieldUpdater<BagEntry> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(BagEntry.class, "state");
+
+        private volatile int state;
+
+        /**
+         * @return 状态
+         */
+        public int getState() {
+            return state;
+        }
+
+        /**
+         * 设置状态
+         *
+         * @param state 状态
+         */
+        public void setState( int state ) {
+            this.state = state;
+        }
+
+        /**
+         * CAS修改状态
+         *
+         * @param expect 期望的状态
+         * @param update 新状态
+         * @return 是否修改成功
+         */
+        public boolean compareAndSet( int expect, int update ) {
+            return STATE_UPDATER.compareAndSet(this, expect, update);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.whaleal.icefrog.db.ds.pooled;
+
+import com.whaleal.icefrog.core.io.IoUtil;
+import com.whaleal.icefrog.core.map.MapUtil;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.db.DbRuntimeException;
+import com.whaleal.icefrog.db.ds.simple.AbstractDataSource;
+import com.whaleal.icefrog.log.StaticLog;
+import com.whaleal.icefrog.setting.dialect.Props;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.whaleal.icefrog.db.ds.pooled.ConcurrentBag.BagEntry.STATE_IN_USE;
+import static com.whaleal.icefrog.db.ds.pooled.ConcurrentBag.BagEntry.STATE_NOT_IN_USE;
+
+/**
+ * 高并发池化数据源<br>
+ * 与{@link PooledDataSource}相比，获取和归还连接都不加锁：
+ * <ul>
+ *     <li>连接存放在{@link ConcurrentBag}中，优先借出当前线程上次归还的连接</li>
+ *     <li>池满时在公平队列上限时等待，归还的连接直接交给等待最久的线程，超时才抛出异常</li>
+ *     <li>空闲超过一定时间的连接借出前先检查有效性</li>
+ *     <li>后台线程定期关闭超过空闲时长或存活时长的连接、剔除失效连接，并补足最小闲置连接数</li>
+ * </ul>
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class ConcurrentPooledDataSource extends AbstractDataSource {
+
+    /**
+     * 空闲不超过此时长的连接借出时不检查有效性，毫秒
+     */
+    private static final long ALIVE_BYPASS_MILLIS = 500;
+    /**
+     * 等待时每隔此时长检查一次是否可以新建连接，毫秒
+     */
+    private static final long WAIT_SLICE_MILLIS = 50;
+    /**
+     * 未配置{@link DbConfig#getValidationQuery()}时使用的检查SQL
+     */
+    private static final String DEFAULT_VALIDATION_QUERY = "SELECT 1";
+
+    private final DbConfig config;
+    private final ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>();
+    /**
+     * 物理连接总数，包括正在创建的连接
+     */
+    private final AtomicInteger totalCount = new AtomicInteger();
+    /**
+     * 等待超时次数
+     */
+    private final LongAdder waitTimeoutCount = new LongAdder();
+    /**
+     * 等待的总纳秒数
+     */
+    private final LongAdder waitNanos = new LongAdder();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    /**
+     * 驱动是否支持{@link Connection#isValid(int)}，不支持时改用检查SQL
+     */
+    private volatile boolean isValidSupported = true;
+
+    /**
+     * 构造，读取默认的配置文件和默认分组
+     */
+    public ConcurrentPooledDataSource() {
+        this(StrUtil.EMPTY);
+    }
+
+    /**
+     * 构造，读取默认的配置文件
+     *
+     * @param group 分组
+     */
+    public ConcurrentPooledDataSource( String group ) {
+        this(new DbSetting(), group);
+    }
+
+    /**
+     * 构造
+     *
+     * @param setting 数据库配置文件对象
+     * @param group   分组
+     */
+    public ConcurrentPooledDataSource( DbSetting setting, String group ) {
+        this(setting.getDbConfig(group));
+    }
+
+    /**
+     * 构造
+     *
+     * @param config 数据库配置
+     */
+    public ConcurrentPooledDataSource( DbConfig config ) {
+        this.config = config;
+        int initialSize = Math.min(config.getInitialSize(), maxActive());
+        try {
+            while (initialSize-- > 0) {
+                totalCount.incrementAndGet();
+                bag.add(newEntry(STATE_NOT_IN_USE));
+            }
+        } catch (SQLException | RuntimeException e) {
+            // 回滚计数并关闭已创建的连接，避免泄漏
+            totalCount.decrementAndGet();
+            for (PoolEntry entry : bag.values(STATE_NOT_IN_USE)) {
+                if (bag.reserve(entry)) {
+                    closeEntry(entry);
+                }
+            }
+            throw (e instanceof SQLException) ? new DbRuntimeException(e) : (RuntimeException) e;
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newNamedThreadFactory("icefrog-pool-housekeeper-", true));
+        final long interval = config.getEvictionInterval();
+        if (interval > 0) {
+            this.housekeeper.scheduleWithFixedDelay(this::houseKeep, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 从数据库连接池中获取数据库连接对象
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(config.getMaxWait());
+    }
+
+    @Override
+    public Connection getConnection( String username, String password ) throws SQLException {
+        throw new SQLException("Pooled DataSource is not allow to get special Connection!");
+    }
+
+    /**
+     * 获取连接对象
+     *
+     * @param wait 当池中无连接时等待的毫秒数
+     * @return 连接对象
+     * @throws SQLException SQL异常
+     */
+    public Connection getConnection( long wait ) throws SQLException {
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(Math.max(0, wait));
+        while (true) {
+            if (closed) {
+                throw new SQLException("ConcurrentPooledDataSource is closed!");
+            }
+            PoolEntry entry = bag.borrow();
+            if (null == entry) {
+                entry = tryCreate();
+            }
+            if (null == entry) {
+                entry = await(deadline);
+            }
+            if (null == entry) {
+                waitTimeoutCount.increment();
+                waitNanos.add(System.nanoTime() - start);
+                throw new SQLException(StrUtil.format("Wait connection timeout after {} ms, active: {}, idle: {}, waiting: {}",
+                        wait, getActiveCount(), getIdleCount(), getWaitingCount()));
+            }
+
+            final long now = System.currentTimeMillis();
+            if (now - entry.lastAccessTime > ALIVE_BYPASS_MILLIS && false == isValid(entry)) {
+                // 失效的连接直接关闭，重新获取
+                closeEntry(entry);
+                continue;
+            }
+            entry.lastAccessTime = now;
+            waitNanos.add(System.nanoTime() - start);
+            return new ProxyConnection(this, entry);
+        }
+    }
+
+    /**
+     * 获取配置
+     *
+     * @return 配置
+     */
+    public DbConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return 已借出的连接数
+     */
+    public int getActiveCount() {
+        return bag.getCount(STATE_IN_USE);
+    }
+
+    /**
+     * @return 空闲连接数
+     */
+    public int getIdleCount() {
+        return bag.getCount(STATE_NOT_IN_USE);
+    }
+
+    /**
+     * @return 物理连接总数
+     */
+    public int getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * @return 正在等待连接的线程数
+     */
+    public int getWaitingCount() {
+        return bag.getWaitingCount();
+    }
+
+    /**
+     * @return 等待连接超时的次数
+     */
+    public long getWaitTimeoutCount() {
+        return waitTimeoutCount.sum();
+    }
+
+    /**
+     * @return 获取连接累计耗费的毫秒数，包括成功和超时
+     */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+        // 借出的连接在归还时关闭
+        for (PoolEntry entry : bag.values(STATE_NOT_IN_USE)) {
+            if (bag.reserve(entry)) {
+                closeEntry(entry);
+            }
+        }
+    }
+
+    @Override
+    protected void finalize() {
+        IoUtil.close(this);
+    }
+
+    /**
+     * 归还连接，由{@link ProxyConnection#close()}调用
+     *
+     * @param entry 物理连接
+     */
+    void requite( PoolEntry entry ) {
+        final long now = System.currentTimeMillis();
+        entry.lastAccessTime = now;
+        final long maxLifetime = config.getMaxLifetime();
+        if (closed || (maxLifetime > 0 && now - entry.createTime > maxLifetime)) {
+            closeEntry(entry);
+            return;
+        }
+        bag.requite(entry);
+    }
+
+    /**
+     * 在池未满时新建一个已借出的连接
+     *
+     * @return 连接，池已满返回{@code null}
+     * @throws SQLException 新建连接失败
+     */
+    private PoolEntry tryCreate() throws SQLException {
+        final int maxActive = maxActive();
+        int total;
+        do {
+            total = totalCount.get();
+            if (total >= maxActive) {
+                return null;
+            }
+        } while (false == totalCount.compareAndSet(total, total + 1));
+
+        final PoolEntry entry;
+        try {
+            entry = newEntry(STATE_IN_USE);
+        } catch (SQLException | RuntimeException e) {
+            totalCount.decrementAndGet();
+            throw e;
+        }
+        bag.add(entry);
+        return entry;
+    }
+
+    /**
+     * 池已满时等待其它线程归还连接，等待期间有连接被关闭时尝试新建
+     *
+     * @param deadline 等待截止的纳秒时间
+     * @return 连接，超时返回{@code null}
+     * @throws SQLException 等待被中断或新建连接失败
+     */
+    private PoolEntry await( long deadline ) throws SQLException {
+        bag.beginWait();
+        try {
+            PoolEntry entry = bag.borrow();
+            long remaining;
+            while (null == entry && false == closed && (remaining = deadline - System.nanoTime()) > 0) {
+                entry = bag.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(WAIT_SLICE_MILLIS)), TimeUnit.NANOSECONDS);
+                if (null == entry && totalCount.get() < maxActive()) {
+                    entry = tryCreate();
+                }
+            }
+            return entry;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection!", e);
+        } finally {
+            bag.endWait();
+        }
+    }
+
+    /**
+     * 后台检查：关闭超时的空闲连接和失效连接，补足最小闲置连接数
+     */
+    private void houseKeep() {
+        try {
+            final long now = System.currentTimeMillis();
+            final long idleTimeout = config.getIdleTimeout();
+            final long maxLifetime = config.getMaxLifetime();
+            int removable = totalCount.get() - config.getMinIdle();
+            for (PoolEntry entry : bag.values(STATE_NOT_IN_USE)) {
+                if (false == bag.reserve(entry)) {
+                    // 已被借出
+                    continue;
+                }
+                if ((maxLifetime > 0 && now - entry.createTime > maxLifetime)
+                        || (removable > 0 && idleTimeout > 0 && now - entry.lastAccessTime > idleTimeout)) {
+                    closeEntry(entry);
+                    removable--;
+                } else if (false == isValid(entry)) {
+                    closeEntry(entry);
+                    removable--;
+                } else {
+                    bag.unreserve(entry);
+                }
+            }
+            fillPool();
+        } catch (Exception e) {
+            StaticLog.warn(e, "Pool house keeping error.");
+        }
+    }
+
+    /**
+     * 补足最小闲置连接数
+     *
+     * @throws SQLException 新建连接失败
+     */
+    private void fillPool() throws SQLException {
+        final int target = Math.min(config.getMinIdle(), maxActive());
+        while (false == closed && getIdleCount() < target) {
+            final int total = totalCount.get();
+            if (total >= maxActive() || false == totalCount.compareAndSet(total, total + 1)) {
+                return;
+            }
+            try {
+                bag.add(newEntry(STATE_NOT_IN_USE));
+            } catch (SQLException | RuntimeException e) {
+                totalCount.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 检查连接是否有效<br>
+     * 优先使用{@link Connection#isValid(int)}，驱动不支持（抛出异常）时记录日志，之后改用检查SQL
+     *
+     * @param entry 连接
+     * @return 是否有效
+     */
+    private boolean isValid( PoolEntry entry ) {
+        final int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(config.getValidationTimeout() + 999));
+        if (isValidSupported) {
+            try {
+                return entry.raw.isValid(timeoutSeconds);
+            } catch (SQLException | AbstractMethodError e) {
+                isValidSupported = false;
+                StaticLog.warn("Connection.isValid is not supported by driver, validate connections by query instead: {}", e.getMessage());
+            }
+        }
+        final String query = StrUtil.isBlank(config.getValidationQuery()) ? DEFAULT_VALIDATION_QUERY : config.getValidationQuery();
+        try (Statement stmt = entry.raw.createStatement()) {
+            stmt.setQueryTimeout(timeoutSeconds);
+            stmt.execute(query);
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 从池中移除并关闭物理连接，连接须已被借出或保留
+     *
+     * @param entry 连接
+     */
+    private void closeEntry( PoolEntry entry ) {
+        if (bag.remove(entry)) {
+            totalCount.decrementAndGet();
+        }
+        entry.closeRaw();
+    }
+
+    /**
+     * @return 最大连接数，未设置时不限制
+     */
+    private int maxActive() {
+        final int maxActive = config.getMaxActive();
+        return maxActive > 0 ? maxActive : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 新建物理连接
+     *
+     * @param state 初始状态
+     * @return 连接
+     * @throws SQLException SQL异常
+     */
+    private PoolEntry newEntry( int state ) throws SQLException {
+        final Props info = new Props();
+        final String user = config.getUser();
+        if (user != null) {
+            info.setProperty("user", user);
+        }
+        final String password = config.getPass();
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+        // 其它参数
+        final Properties connProps = config.getConnProps();
+        if (MapUtil.isNotEmpty(connProps)) {
+            info.putAll(connProps);
+        }
+
+        final PoolEntry entry = new PoolEntry(DriverManager.getConnection(config.getUrl(), info));
+        entry.setState(state);
+        return entry;
+    }
+}
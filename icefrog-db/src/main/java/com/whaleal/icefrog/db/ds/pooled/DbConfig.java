@@ -23,6 +23,11 @@ public class DbConfig {
     private int minIdle;            //最小闲置连接数
     private int maxActive;        //最大活跃连接数
     private long maxWait;        //获取连接的超时等待
+    private long idleTimeout = 600_000L;        //空闲连接的最长空闲时间，超出且多于最小闲置连接数时关闭
+    private long maxLifetime = 1_800_000L;        //连接的最长存活时间，超出后关闭
+    private long validationTimeout = 5_000L;        //连接有效性检查的超时
+    private String validationQuery;        //驱动不支持Connection.isValid时用于检查连接有效性的SQL，未设置时使用SELECT 1
+    private long evictionInterval = 30_000L;        //后台检查空闲连接的间隔
 
     // 连接配置
     private Properties connProps;
@@ -128,6 +133,46 @@ public class DbConfig {
         this.maxWait = maxWait;
     }
 
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout( long idleTimeout ) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime( long maxLifetime ) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public long getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    public void setValidationTimeout( long validationTimeout ) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    public String getValidationQuery() {
+        return validationQuery;
+    }
+
+    public void setValidationQuery( String validationQuery ) {
+        this.validationQuery = validationQuery;
+    }
+
+    public long getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    public void setEvictionInterval( long evictionInterval ) {
+        this.evictionInterval = evictionInterval;
+    }
+
     public Properties getConnProps() {
         return connProps;
     }
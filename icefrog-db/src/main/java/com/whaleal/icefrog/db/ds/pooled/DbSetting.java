@@ -72,6 +72,11 @@ public class DbSetting {
         dbConfig.setMinIdle(setting.getInt("minIdle", group, 0));
         dbConfig.setMaxActive(setting.getInt("maxActive", group, 8));
         dbConfig.setMaxWait(setting.getLong("maxWait", group, 6000L));
+        dbConfig.setIdleTimeout(setting.getLong("idleTimeout", group, 600000L));
+        dbConfig.setMaxLifetime(setting.getLong("maxLifetime", group, 1800000L));
+        dbConfig.setValidationTimeout(setting.getLong("validationTimeout", group, 5000L));
+        dbConfig.setValidationQuery(setting.getStr("validationQuery", group, null));
+        dbConfig.setEvictionInterval(setting.getLong("evictionInterval", group, 30000L));
 
         // remarks等特殊配置，since 5.3.8
         String connValue;
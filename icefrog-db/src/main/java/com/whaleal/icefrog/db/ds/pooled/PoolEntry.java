@@ -0,0 +1,47 @@
+package com.whaleal.icefrog.db.ds.pooled;
+
+import com.whaleal.icefrog.db.DbUtil;
+
+import java.sql.Connection;
+
+/**
+ * {@link ConcurrentPooledDataSource}中的一个物理连接
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class PoolEntry extends ConcurrentBag.BagEntry {
+
+    final Connection raw;
+    /**
+     * 创建时间，毫秒
+     */
+    final long createTime;
+    /**
+     * 最后一次借出或归还的时间，毫秒
+     */
+    volatile long lastAccessTime;
+
+    /**
+     * 构造
+     *
+     * @param raw 物理连接
+     */
+    PoolEntry( Connection raw ) {
+        this.raw = raw;
+        this.createTime = System.currentTimeMillis();
+        this.lastAccessTime = this.createTime;
+    }
+
+    /**
+     * 关闭物理连接
+     */
+    void closeRaw() {
+        DbUtil.close(raw);
+    }
+
+    @Override
+    public String toString() {
+        return "PoolEntry{raw=" + raw + ", state=" + getState() + "}";
+    }
+}
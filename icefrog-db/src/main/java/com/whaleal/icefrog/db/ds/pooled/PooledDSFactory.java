@@ -7,7 +7,7 @@ import com.whaleal.icefrog.setting.Setting;
 import javax.sql.DataSource;
 
 /**
- * icefrog自身实现的池化数据源工厂类
+ * icefrog自身实现的池化数据源工厂类，创建{@link ConcurrentPooledDataSource}
  *
  * @author Looly
  * @author wh
@@ -37,6 +37,10 @@ public class PooledDSFactory extends AbstractDSFactory {
         dbConfig.setMinIdle(poolSetting.getInt("minIdle", 0));
         dbConfig.setMaxActive(poolSetting.getInt("maxActive", 8));
         dbConfig.setMaxWait(poolSetting.getLong("maxWait", 6000L));
+        dbConfig.setIdleTimeout(poolSetting.getLong("idleTimeout", 600000L));
+        dbConfig.setMaxLifetime(poolSetting.getLong("maxLifetime", 1800000L));
+        dbConfig.setValidationTimeout(poolSetting.getLong("validationTimeout", 5000L));
+        dbConfig.setEvictionInterval(poolSetting.getLong("evictionInterval", 30000L));
 
         // remarks等特殊配置，since 5.3.8
         String connValue;
@@ -47,6 +51,6 @@ public class PooledDSFactory extends AbstractDSFactory {
             }
         }
 
-        return new PooledDataSource(dbConfig);
+        return new ConcurrentPooledDataSource(dbConfig);
     }
 }
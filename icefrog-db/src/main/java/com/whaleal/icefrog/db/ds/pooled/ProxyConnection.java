@@ -0,0 +1,49 @@
+package com.whaleal.icefrog.db.ds.pooled;
+
+import java.sql.SQLException;
+
+/**
+ * {@link ConcurrentPooledDataSource}每次借出时创建的连接代理，关闭时归还物理连接，重复关闭无效
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class ProxyConnection extends ConnectionWraper {
+
+    private final ConcurrentPooledDataSource ds;
+    private final PoolEntry entry;
+    private boolean isClosed;
+
+    /**
+     * 构造
+     *
+     * @param ds    数据源
+     * @param entry 借出的物理连接
+     */
+    ProxyConnection( ConcurrentPooledDataSource ds, PoolEntry entry ) {
+        this.ds = ds;
+        this.entry = entry;
+        this.raw = entry.raw;
+    }
+
+    /**
+     * 重写关闭连接，实际操作是归还到连接池中
+     */
+    @Override
+    public void close() {
+        if (false == isClosed) {
+            isClosed = true;
+            ds.requite(entry);
+        }
+    }
+
+    /**
+     * 连接是否关闭，关闭条件：<br>
+     * 1、被归还到池中
+     * 2、实际连接已关闭
+     */
+    @Override
+    public boolean isClosed() throws SQLException {
+        return isClosed || raw.isClosed();
+    }
+}
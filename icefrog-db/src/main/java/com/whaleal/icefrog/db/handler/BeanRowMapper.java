@@ -0,0 +1,256 @@
+package com.whaleal.icefrog.db.handler;
+
+import com.whaleal.icefrog.core.bean.BeanUtil;
+import com.whaleal.icefrog.core.bean.PropDesc;
+import com.whaleal.icefrog.core.convert.BasicType;
+import com.whaleal.icefrog.core.convert.Convert;
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.lang.SimpleCache;
+import com.whaleal.icefrog.core.util.ClassUtil;
+import com.whaleal.icefrog.core.util.ReflectUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.core.util.TypeUtil;
+import com.whaleal.icefrog.db.DbRuntimeException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 结果集行到Bean的映射器<br>
+ * 按（Bean类型，结果集列名及列类型）编译一次并缓存，列与setter的对应关系、目标类型在编译时确定，
+ * 每行只需读取列值、按需转换并通过{@link MethodHandle}调用setter，不再重复查找属性和反射调用。
+ *
+ * @param <T> Bean类型
+ * @author wh
+ * @since 1.1.8
+ */
+public class BeanRowMapper<T> implements RowMapper<T> {
+
+    /**
+     * 每个Bean类型最多缓存的结果集结构数，超出后不再缓存，避免动态SQL导致缓存无限增长
+     */
+    private static final int MAX_SHAPES_PER_CLASS = 64;
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final SimpleCache<Class<?>, Map<String, BeanRowMapper<?>>> CACHE = new SimpleCache<>();
+
+    private final Class<T> beanClass;
+    private final MethodHandle constructor;
+    private final Binding[] bindings;
+
+    /**
+     * 获取映射器，相同Bean类型和结果集结构使用同一个映射器
+     *
+     * @param <T>         Bean类型
+     * @param beanClass   Bean类型
+     * @param meta        {@link ResultSetMetaData}
+     * @param columnCount 列数
+     * @return 映射器
+     * @throws SQLException 读取元数据异常
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanRowMapper<T> of( Class<T> beanClass, ResultSetMetaData meta, int columnCount ) throws SQLException {
+        Precondition.notNull(beanClass, "Bean Class must be not null !");
+        final String[] labels = new String[columnCount];
+        final int[] types = new int[columnCount];
+        final StringBuilder shape = new StringBuilder();
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = meta.getColumnLabel(i + 1);
+            types[i] = meta.getColumnType(i + 1);
+            shape.append(labels[i]).append(':').append(types[i]).append(',');
+        }
+
+        final Map<String, BeanRowMapper<?>> shapes = CACHE.get(beanClass, ConcurrentHashMap::new);
+        final String key = shape.toString();
+        BeanRowMapper<T> mapper = (BeanRowMapper<T>) shapes.get(key);
+        if (null == mapper) {
+            mapper = new BeanRowMapper<>(beanClass, labels, types);
+            if (shapes.size() < MAX_SHAPES_PER_CLASS) {
+                final BeanRowMapper<T> exist = (BeanRowMapper<T>) shapes.putIfAbsent(key, mapper);
+                if (null != exist) {
+                    mapper = exist;
+                }
+            }
+        }
+        return mapper;
+    }
+
+    /**
+     * 构造，编译列与setter的对应关系
+     *
+     * @param beanClass Bean类型
+     * @param labels    列名
+     * @param types     列类型，见{@link Types}
+     */
+    private BeanRowMapper( Class<T> beanClass, String[] labels, int[] types ) {
+        this.beanClass = beanClass;
+        this.constructor = compileConstructor(beanClass);
+
+        //忽略字段大小写
+        final Map<String, PropDesc> propMap = BeanUtil.getBeanDesc(beanClass).getPropMap(true);
+        final List<Binding> list = new ArrayList<>(labels.length);
+        PropDesc pd;
+        Method setter;
+        for (int i = 0; i < labels.length; i++) {
+            pd = propMap.get(labels[i]);
+            if (null == pd) {
+                // 尝试驼峰命名风格
+                pd = propMap.get(StrUtil.toCamelCase(labels[i]));
+            }
+            setter = (null == pd) ? null : pd.getSetter();
+            if (null != setter) {
+                list.add(new Binding(i + 1, types[i], TypeUtil.getFirstParamType(setter), compileSetter(setter)));
+            }
+        }
+        this.bindings = list.toArray(new Binding[0]);
+    }
+
+    /**
+     * 将结果集当前行映射为Bean
+     *
+     * @param rs 结果集，已定位到当前行
+     * @return Bean
+     * @throws SQLException SQL执行异常
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T map( ResultSet rs ) throws SQLException {
+        final T bean;
+        try {
+            bean = (null == constructor) ? ReflectUtil.newInstanceIfPossible(beanClass) : (T) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DbRuntimeException(e);
+        }
+
+        for (Binding binding : bindings) {
+            binding.apply(bean, rs);
+        }
+        return bean;
+    }
+
+    /**
+     * 编译无参构造方法，无无参构造时返回{@code null}，由{@link ReflectUtil#newInstanceIfPossible(Class)}兜底
+     *
+     * @param beanClass Bean类型
+     * @return 构造方法句柄
+     */
+    private static MethodHandle compileConstructor( Class<?> beanClass ) {
+        final Constructor<?> constructor = ReflectUtil.getConstructor(beanClass);
+        if (null == constructor) {
+            return null;
+        }
+        try {
+            return MethodHandles.lookup().unreflectConstructor(ReflectUtil.setAccessible(constructor)).asType(CONSTRUCTOR_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // 无法访问时退回反射创建
+            return null;
+        }
+    }
+
+    /**
+     * 编译setter为{@code (Object, Object)void}签名的方法句柄
+     *
+     * @param setter setter方法
+     * @return 方法句柄
+     */
+    private static MethodHandle compileSetter( Method setter ) {
+        try {
+            return MethodHandles.lookup().unreflect(ReflectUtil.setAccessible(setter)).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new DbRuntimeException(e, "Can not access setter [{}] !", setter);
+        }
+    }
+
+    /**
+     * 单列到setter的绑定
+     */
+    private static class Binding {
+        private final int columnIndex;
+        private final int columnType;
+        private final Type targetType;
+        /**
+         * 目标类型为Class时，列值已是该类型的实例则跳过转换
+         */
+        private final Class<?> targetClass;
+        /**
+         * 原始类型setter遇到null时使用的默认值
+         */
+        private final Object nullValue;
+        private final MethodHandle setter;
+
+        Binding( int columnIndex, int columnType, Type targetType, MethodHandle setter ) {
+            this.columnIndex = columnIndex;
+            this.columnType = columnType;
+            this.targetType = (Object.class == targetType) ? null : targetType;
+            final Class<?> clazz = TypeUtil.getClass(targetType);
+            this.targetClass = (targetType instanceof Class) ? BasicType.wrap(clazz) : null;
+            this.nullValue = (null != clazz && clazz.isPrimitive()) ? ClassUtil.getDefaultValue(clazz) : null;
+            this.setter = setter;
+        }
+
+        /**
+         * 读取列值、转换并注入Bean
+         *
+         * @param bean Bean
+         * @param rs   结果集
+         * @throws SQLException SQL执行异常
+         */
+        void apply( Object bean, ResultSet rs ) throws SQLException {
+            Object value = read(rs);
+            if (null != value && null != targetType && (null == targetClass || false == targetClass.isInstance(value))) {
+                // 按照setter参数要求转换
+                value = Convert.convert(targetType, value);
+            }
+            if (null == value) {
+                value = nullValue;
+            }
+            try {
+                setter.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new DbRuntimeException(e);
+            }
+        }
+
+        /**
+         * 读取列值，针对日期时间等做单独处理
+         *
+         * @param rs 结果集
+         * @return 列值
+         * @throws SQLException SQL执行异常
+         */
+        private Object read( ResultSet rs ) throws SQLException {
+            switch (columnType) {
+                case Types.TIMESTAMP:
+                    try {
+                        return rs.getTimestamp(columnIndex);
+                    } catch (SQLException ignore) {
+                        // issue#776@Github
+                        // 当数据库中日期为0000-00-00 00:00:00报错，转为null
+                        return null;
+                    }
+                case Types.TIME:
+                    return rs.getTime(columnIndex);
+                default:
+                    return rs.getObject(columnIndex);
+            }
+        }
+    }
+}
@@ -1,16 +1,11 @@
 package com.whaleal.icefrog.db.handler;
 
-import com.whaleal.icefrog.core.bean.BeanUtil;
-import com.whaleal.icefrog.core.bean.PropDesc;
 import com.whaleal.icefrog.core.convert.Convert;
 import com.whaleal.icefrog.core.lang.Precondition;
 import com.whaleal.icefrog.core.util.ArrayUtil;
-import com.whaleal.icefrog.core.util.ReflectUtil;
 import com.whaleal.icefrog.core.util.StrUtil;
-import com.whaleal.icefrog.core.util.TypeUtil;
 import com.whaleal.icefrog.db.Entity;
 
-import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -19,7 +14,6 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 数据结果集处理辅助类
@@ -82,28 +76,8 @@ public class HandleHelper {
             return (T) StrUtil.join(", ", objRow);
         }
 
-        //普通bean
-        final T bean = ReflectUtil.newInstanceIfPossible(beanClass);
-        //忽略字段大小写
-        final Map<String, PropDesc> propMap = BeanUtil.getBeanDesc(beanClass).getPropMap(true);
-        String columnLabel;
-        PropDesc pd;
-        Method setter;
-        Object value;
-        for (int i = 1; i <= columnCount; i++) {
-            columnLabel = meta.getColumnLabel(i);
-            pd = propMap.get(columnLabel);
-            if (null == pd) {
-                // 尝试驼峰命名风格
-                pd = propMap.get(StrUtil.toCamelCase(columnLabel));
-            }
-            setter = (null == pd) ? null : pd.getSetter();
-            if (null != setter) {
-                value = getColumnValue(rs, i, meta.getColumnType(i), TypeUtil.getFirstParamType(setter));
-                ReflectUtil.invokeWithCheck(bean, setter, value);
-            }
-        }
-        return bean;
+        //普通bean，按结果集结构编译的映射器已缓存
+        return BeanRowMapper.of(beanClass, meta, columnCount).map(rs);
     }
 
     /**
@@ -248,6 +222,15 @@ public class HandleHelper {
         final ResultSetMetaData meta = rs.getMetaData();
         final int columnCount = meta.getColumnCount();
 
+        if (isPlainBean(elementBeanType)) {
+            // 整个结果集共用一个映射器
+            final BeanRowMapper<E> mapper = BeanRowMapper.of(elementBeanType, meta, columnCount);
+            while (rs.next()) {
+                collection.add(mapper.map(rs));
+            }
+            return collection;
+        }
+
         while (rs.next()) {
             collection.add(handleRow(columnCount, meta, rs, elementBeanType));
         }
@@ -255,6 +238,20 @@ public class HandleHelper {
         return collection;
     }
 
+    /**
+     * 是否为普通Bean，即非数组、集合、{@link Entity}及字符串
+     *
+     * @param beanClass Bean类型
+     * @return 是否为普通Bean
+     */
+    static boolean isPlainBean( Class<?> beanClass ) {
+        return null != beanClass
+                && false == beanClass.isArray()
+                && false == Iterable.class.isAssignableFrom(beanClass)
+                && false == beanClass.isAssignableFrom(Entity.class)
+                && String.class != beanClass;
+    }
+
     // -------------------------------------------------------------------------------------------------------------- Private method start
 
     /**
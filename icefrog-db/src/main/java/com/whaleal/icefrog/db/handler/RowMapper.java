@@ -0,0 +1,61 @@
+package com.whaleal.icefrog.db.handler;
+
+import com.whaleal.icefrog.db.Entity;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * 单行映射接口<br>
+ * 与{@link RsHandler}一次处理整个结果集不同，此接口每次只映射结果集的当前行，用于游标方式逐行读取大结果集
+ *
+ * @param <T> 行对象类型
+ * @author wh
+ * @since 1.1.8
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * 映射结果集当前行<br>
+     * 实现中不应移动游标
+     *
+     * @param rs 结果集，已定位到当前行
+     * @return 行对象，不能为{@code null}
+     * @throws SQLException SQL异常
+     */
+    T map( ResultSet rs ) throws SQLException;
+
+    /**
+     * 按结果集结构创建行映射为{@link Entity}的映射器
+     *
+     * @param caseInsensitive 是否大小写不敏感
+     * @return 映射器工厂，根据结果集元数据创建映射器
+     */
+    static RsHandler<RowMapper<Entity>> entity( boolean caseInsensitive ) {
+        return rs -> {
+            final ResultSetMetaData meta = rs.getMetaData();
+            final int columnCount = meta.getColumnCount();
+            return row -> HandleHelper.handleRow(columnCount, meta, row, caseInsensitive);
+        };
+    }
+
+    /**
+     * 按结果集结构创建行映射为Bean的映射器，普通Bean使用缓存的{@link BeanRowMapper}
+     *
+     * @param <T>       Bean类型
+     * @param beanClass Bean类型
+     * @return 映射器工厂，根据结果集元数据创建映射器
+     */
+    static <T> RsHandler<RowMapper<T>> bean( Class<T> beanClass ) {
+        return rs -> {
+            final ResultSetMetaData meta = rs.getMetaData();
+            final int columnCount = meta.getColumnCount();
+            if (HandleHelper.isPlainBean(beanClass)) {
+                return BeanRowMapper.of(beanClass, meta, columnCount);
+            }
+            return row -> HandleHelper.handleRow(columnCount, meta, row, beanClass);
+        };
+    }
+}
@@ -1,8 +1,10 @@
 package com.whaleal.icefrog.db.sql;
 
 import com.whaleal.icefrog.core.collection.ArrayIter;
+import com.whaleal.icefrog.db.CursorIter;
 import com.whaleal.icefrog.db.DbUtil;
 import com.whaleal.icefrog.db.StatementUtil;
+import com.whaleal.icefrog.db.handler.RowMapper;
 import com.whaleal.icefrog.db.handler.RsHandler;
 
 import java.sql.*;
@@ -270,6 +272,24 @@ public class SqlExecutor {
         return query(conn, sqlBuilder.build(), rsh, sqlBuilder.getParamValueArray());
     }
 
+    /**
+     * 执行游标查询，返回逐行读取的遍历器，结果集为只进、只读，按fetchSize分批从数据库读取<br>
+     * 遍历器关闭时关闭结果集和PreparedStatement，此方法不会关闭Connection
+     *
+     * @param <T>           行对象类型
+     * @param conn          数据库连接对象
+     * @param sql           查询语句
+     * @param fetchSize     每批读取行数
+     * @param mapperFactory 行映射器工厂，根据结果集元数据创建行映射器，见{@link RowMapper#entity(boolean)}、{@link RowMapper#bean(Class)}
+     * @param params        参数
+     * @return {@link CursorIter}，使用完毕须关闭
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public static <T> CursorIter<T> queryCursor( Connection conn, String sql, int fetchSize, RsHandler<RowMapper<T>> mapperFactory, Object... params ) throws SQLException {
+        return queryCursor(StatementUtil.prepareStatementForCursor(conn, sql, fetchSize, params), mapperFactory, null);
+    }
+
     // -------------------------------------------------------------------------------------- Execute With PreparedStatement
 
     /**
@@ -338,6 +358,29 @@ public class SqlExecutor {
         }
     }
 
+    /**
+     * 执行游标查询，返回逐行读取的遍历器<br>
+     * 遍历器关闭时关闭结果集和PreparedStatement，并执行关闭回调；执行失败时立即关闭PreparedStatement并执行关闭回调
+     *
+     * @param <T>           行对象类型
+     * @param ps            PreparedStatement，已填充参数
+     * @param mapperFactory 行映射器工厂，根据结果集元数据创建行映射器
+     * @param onClose       关闭回调，用于归还连接等，可为{@code null}
+     * @return {@link CursorIter}，使用完毕须关闭
+     * @throws SQLException SQL执行异常
+     * @since 1.1.8
+     */
+    public static <T> CursorIter<T> queryCursor( PreparedStatement ps, RsHandler<RowMapper<T>> mapperFactory, AutoCloseable onClose ) throws SQLException {
+        ResultSet rs = null;
+        try {
+            rs = ps.executeQuery();
+            return new CursorIter<>(ps, rs, mapperFactory.handle(rs), onClose);
+        } catch (SQLException | RuntimeException e) {
+            DbUtil.close(rs, ps, onClose);
+            throw e;
+        }
+    }
+
     // -------------------------------------------------------------------------------------------------------------------------------- Private method start
 
     /**
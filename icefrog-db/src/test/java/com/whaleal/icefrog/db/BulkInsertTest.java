@@ -0,0 +1,103 @@
+package com.whaleal.icefrog.db;
+
+import com.whaleal.icefrog.db.dialect.impl.OracleDialect;
+import com.whaleal.icefrog.db.ds.simple.SimpleDataSource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分块批量插入单元测试，使用H2内存数据库
+ *
+ * @author wh
+ */
+public class BulkInsertTest {
+
+    private static DataSource ds;
+    private static Db db;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        ds = new SimpleDataSource("jdbc:h2:mem:bulk_insert_test;DB_CLOSE_DELAY=-1", "sa", "");
+        db = Db.use(ds);
+        db.execute("CREATE TABLE bulk_user(id INTEGER, name VARCHAR(32), age INTEGER)");
+        db.execute("CREATE TABLE bulk_log(id INTEGER, msg VARCHAR(32))");
+    }
+
+    @Before
+    public void clean() throws SQLException {
+        db.execute("DELETE FROM bulk_user");
+        db.execute("DELETE FROM bulk_log");
+    }
+
+    @Test
+    public void insertBulkTest() throws SQLException {
+        Assert.assertEquals(2500, db.insertBulk(users(2500), 1000, 1));
+        Assert.assertEquals(2500, db.count(Entity.create("bulk_user")));
+        Assert.assertEquals(1250, db.queryNumber("select count(1) from bulk_user where age is null").intValue());
+    }
+
+    @Test
+    public void insertBulkParallelTest() throws SQLException {
+        Assert.assertEquals(10000, db.insertBulk(users(10000), 500, 4));
+        Assert.assertEquals(10000, db.count(Entity.create("bulk_user")));
+    }
+
+    @Test
+    public void mixedStructureTest() throws SQLException {
+        final List<Entity> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(Entity.create("bulk_user").set("id", i).set("name", "user" + i));
+            records.add(Entity.create("bulk_log").set("id", i).set("msg", "log" + i));
+        }
+        Assert.assertEquals(20, db.insertBulk(records));
+        Assert.assertEquals(10, db.count(Entity.create("bulk_user")));
+        Assert.assertEquals(10, db.count(Entity.create("bulk_log")));
+    }
+
+    @Test
+    public void statementCacheTest() throws SQLException {
+        try (Connection conn = ds.getConnection();
+             StatementCache cache = new StatementCache(conn)) {
+            final BulkInserter inserter = new BulkInserter(db.getRunner().getDialect(), 100);
+            Assert.assertEquals(300, inserter.insert(cache, users(300)));
+            Assert.assertEquals(1, cache.size());
+            // 相同结构再次插入复用已预编译的语句
+            Assert.assertEquals(250, inserter.insert(cache, users(250)));
+            Assert.assertEquals(2, cache.size());
+        }
+        Assert.assertEquals(550, db.count(Entity.create("bulk_user")));
+    }
+
+    @Test
+    public void oracleNextvalTest() throws SQLException {
+        final DataSource oracleDs = new SimpleDataSource("jdbc:h2:mem:bulk_insert_oracle;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        final Db oracleDb = Db.use(oracleDs);
+        oracleDb.execute("CREATE SEQUENCE bulk_seq");
+        oracleDb.execute("CREATE TABLE bulk_seq_user(id INTEGER, name VARCHAR(32))");
+        final List<Entity> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(Entity.create("bulk_seq_user").set("id", "bulk_seq.nextval").set("name", "user" + i));
+        }
+        try (Connection conn = oracleDs.getConnection()) {
+            // 字段名.nextval按值生成SQL，不作为参数
+            Assert.assertEquals(5, new BulkInserter(new OracleDialect(), 2).insert(conn, records));
+        }
+        Assert.assertEquals(15, oracleDb.queryNumber("select sum(id) from bulk_seq_user").intValue());
+    }
+
+    private static List<Entity> users( int count ) {
+        final List<Entity> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(Entity.create("bulk_user").set("id", i).set("name", "user" + i).set("age", (i % 2 == 0) ? null : i));
+        }
+        return records;
+    }
+}
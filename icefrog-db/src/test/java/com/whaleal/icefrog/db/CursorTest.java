@@ -0,0 +1,61 @@
+package com.whaleal.icefrog.db;
+
+import com.whaleal.icefrog.db.ds.simple.SimpleDataSource;
+import com.whaleal.icefrog.db.handler.RowMapper;
+import com.whaleal.icefrog.db.pojo.User;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 游标查询单元测试，使用H2内存数据库
+ *
+ * @author wh
+ */
+public class CursorTest {
+
+    private static Db db;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        db = Db.use(new SimpleDataSource("jdbc:h2:mem:cursor_test;DB_CLOSE_DELAY=-1", "sa", ""));
+        db.execute("CREATE TABLE t_user(id INTEGER, name VARCHAR(32), age INTEGER)");
+        for (int i = 1; i <= 100; i++) {
+            db.insert(Entity.create("t_user").set("id", i).set("name", "user" + i).set("age", i % 50));
+        }
+    }
+
+    @Test
+    public void streamTest() throws SQLException {
+        try (Stream<Entity> stream = db.stream("select * from t_user where age > ?", 10)) {
+            Assert.assertEquals(78, stream.count());
+        }
+        try (Stream<User> stream = db.stream("select id, name, age from t_user order by id", User.class)) {
+            Assert.assertEquals("user1", stream.findFirst().map(User::getName).orElse(null));
+        }
+    }
+
+    @Test
+    public void cursorCloseTest() throws SQLException {
+        final CursorIter<Entity> iter = db.queryCursor("select * from t_user order by id", 10, RowMapper.entity(true));
+        int count = 0;
+        for (Entity entity : iter) {
+            count++;
+            Assert.assertEquals(count, entity.getInt("id").intValue());
+        }
+        Assert.assertEquals(100, count);
+        // 遍历结束自动关闭
+        Assert.assertTrue(iter.isClosed());
+
+        final CursorIter<Entity> iter2 = db.queryCursor("select * from t_user", 10, RowMapper.entity(false));
+        final Iterator<Entity> it = iter2.iterator();
+        Assert.assertTrue(it.hasNext());
+        it.next();
+        iter2.close();
+        Assert.assertFalse(it.hasNext());
+    }
+}
@@ -0,0 +1,267 @@
+package com.whaleal.icefrog.db.ds.pooled;
+
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.db.DbRuntimeException;
+import com.whaleal.icefrog.db.DbUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * 高并发池化数据源单元测试，使用H2内存数据库
+ *
+ * @author wh
+ */
+public class ConcurrentPooledDataSourceTest {
+
+    private ConcurrentPooledDataSource ds;
+
+    @Before
+    public void init() {
+        final DbConfig config = new DbConfig("jdbc:h2:mem:concurrent_pool", "sa", "");
+        config.setInitialSize(1);
+        config.setMaxActive(2);
+        config.setMaxWait(200);
+        ds = new ConcurrentPooledDataSource(config);
+    }
+
+    @After
+    public void close() {
+        ds.close();
+    }
+
+    @Test
+    public void reuseTest() throws SQLException {
+        final Connection conn = ds.getConnection();
+        final Connection raw = conn.unwrap(Connection.class);
+        Assert.assertEquals(1, ds.getActiveCount());
+        conn.close();
+        // 重复关闭无效
+        conn.close();
+        Assert.assertTrue(conn.isClosed());
+        Assert.assertEquals(0, ds.getActiveCount());
+        Assert.assertEquals(1, ds.getIdleCount());
+
+        // 同一线程优先借出上次归还的连接
+        try (Connection conn2 = ds.getConnection()) {
+            Assert.assertSame(raw, conn2.unwrap(Connection.class));
+            Assert.assertEquals(1, ds.getTotalCount());
+        }
+    }
+
+    @Test
+    public void waitTimeoutTest() throws SQLException {
+        final Connection conn1 = ds.getConnection();
+        final Connection conn2 = ds.getConnection();
+        Assert.assertEquals(2, ds.getTotalCount());
+        try {
+            ds.getConnection();
+            Assert.fail("Pool should be exhausted");
+        } catch (SQLException e) {
+            Assert.assertEquals(1, ds.getWaitTimeoutCount());
+        }
+
+        // 等待期间归还的连接直接交给等待者
+        ThreadUtil.execAsync(() -> {
+            ThreadUtil.sleep(50);
+            DbUtil.close(conn1);
+        });
+        try (Connection conn3 = ds.getConnection(1000)) {
+            Assert.assertFalse(conn3.isClosed());
+        }
+        conn2.close();
+        Assert.assertEquals(2, ds.getIdleCount());
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        final int threads = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch latch = new CountDownLatch(threads);
+        final AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 200; j++) {
+                    try (Connection conn = ds.getConnection(5000)) {
+                        conn.createStatement().close();
+                    } catch (SQLException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                latch.countDown();
+            });
+        }
+
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertEquals(0, failed.get());
+        Assert.assertEquals(0, ds.getActiveCount());
+        Assert.assertTrue(ds.getTotalCount() <= 2);
+    }
+
+    @Test
+    public void initFailTest() throws SQLException {
+        final FailingDriver driver = new FailingDriver(2);
+        DriverManager.registerDriver(driver);
+        try {
+            final DbConfig config = new DbConfig();
+            config.setUrl("jdbc:failing:h2:mem:concurrent_pool_fail");
+            config.setUser("sa");
+            config.setPass("");
+            config.setInitialSize(3);
+            try {
+                new ConcurrentPooledDataSource(config);
+                Assert.fail("Init should fail");
+            } catch (DbRuntimeException e) {
+                Assert.assertTrue(e.getCause() instanceof SQLException);
+            }
+            // 已创建的连接全部关闭
+            Assert.assertEquals(1, driver.opened.size());
+            Assert.assertTrue(driver.opened.get(0).isClosed());
+        } finally {
+            DriverManager.deregisterDriver(driver);
+        }
+    }
+
+    @Test
+    public void isValidNotSupportedTest() throws SQLException {
+        final NoIsValidDriver driver = new NoIsValidDriver();
+        DriverManager.registerDriver(driver);
+        try {
+            final DbConfig config = new DbConfig();
+            config.setUrl("jdbc:noisvalid:h2:mem:concurrent_pool_no_is_valid");
+            config.setUser("sa");
+            config.setPass("");
+            config.setInitialSize(1);
+            config.setMaxActive(1);
+            try (ConcurrentPooledDataSource noIsValidDs = new ConcurrentPooledDataSource(config)) {
+                // 空闲超过免检时长，借出前检查有效性
+                ThreadUtil.sleep(600);
+                noIsValidDs.getConnection().close();
+                ThreadUtil.sleep(600);
+                noIsValidDs.getConnection().close();
+
+                // isValid只尝试一次，之后使用检查SQL，连接未被误判为失效
+                Assert.assertEquals(1, driver.isValidCalls.get());
+                Assert.assertEquals(2, driver.queryCalls.get());
+                Assert.assertEquals(1, noIsValidDs.getTotalCount());
+            }
+        } finally {
+            DriverManager.deregisterDriver(driver);
+        }
+    }
+
+    /**
+     * 代理H2驱动，连接的isValid方法抛出异常，记录检查SQL的执行次数
+     */
+    private static class NoIsValidDriver extends FailingDriver {
+        private final AtomicInteger isValidCalls = new AtomicInteger();
+        private final AtomicInteger queryCalls = new AtomicInteger();
+
+        NoIsValidDriver() {
+            super("jdbc:noisvalid:", 0);
+        }
+
+        @Override
+        public Connection connect( String url, Properties info ) throws SQLException {
+            final Connection conn = super.connect(url, info);
+            if (null == conn) {
+                return null;
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class}, ( proxy, method, args ) -> {
+                if ("isValid".equals(method.getName())) {
+                    isValidCalls.incrementAndGet();
+                    throw new SQLFeatureNotSupportedException("isValid");
+                }
+                if ("createStatement".equals(method.getName())) {
+                    queryCalls.incrementAndGet();
+                }
+                try {
+                    return method.invoke(conn, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+
+    /**
+     * 代理H2驱动，第N次获取连接时失败
+     */
+    private static class FailingDriver implements Driver {
+        private final String prefix;
+        private final int failAt;
+        private final List<Connection> opened = new ArrayList<>();
+
+        FailingDriver( int failAt ) {
+            this("jdbc:failing:", failAt);
+        }
+
+        FailingDriver( String prefix, int failAt ) {
+            this.prefix = prefix;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public Connection connect( String url, Properties info ) throws SQLException {
+            if (false == acceptsURL(url)) {
+                return null;
+            }
+            if (opened.size() + 1 == failAt) {
+                throw new SQLException("Expected failure");
+            }
+            final Connection conn = DriverManager.getConnection("jdbc:" + url.substring(prefix.length()), info);
+            opened.add(conn);
+            return conn;
+        }
+
+        @Override
+        public boolean acceptsURL( String url ) {
+            return url.startsWith(prefix);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo( String url, Properties info ) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
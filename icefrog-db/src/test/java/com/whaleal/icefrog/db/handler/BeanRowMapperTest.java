@@ -0,0 +1,116 @@
+package com.whaleal.icefrog.db.handler;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * {@link BeanRowMapper}单元测试，使用H2内存数据库
+ *
+ * @author wh
+ */
+public class BeanRowMapperTest {
+
+    private static Connection conn;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:bean_row_mapper", "sa", "");
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE person(id BIGINT, user_name VARCHAR(32), age INTEGER, birthday TIMESTAMP, remark VARCHAR(32))");
+            st.execute("INSERT INTO person VALUES(1, 'alice', 18, TIMESTAMP '2000-01-01 10:00:00', 'x')");
+            st.execute("INSERT INTO person VALUES(2, 'bob', NULL, NULL, 'y')");
+        }
+    }
+
+    @AfterClass
+    public static void close() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    public void handleRsToBeanListTest() throws SQLException {
+        final List<Person> list;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, user_name, age, birthday, remark FROM person ORDER BY id")) {
+            list = HandleHelper.handleRsToBeanList(rs, new ArrayList<>(), Person.class);
+        }
+
+        Assert.assertEquals(2, list.size());
+        final Person alice = list.get(0);
+        Assert.assertEquals("1", alice.getId());
+        Assert.assertEquals("alice", alice.getUserName());
+        Assert.assertEquals(18, alice.getAge());
+        Assert.assertNotNull(alice.getBirthday());
+
+        // 原始类型遇到null取默认值
+        final Person bob = list.get(1);
+        Assert.assertEquals(0, bob.getAge());
+        Assert.assertNull(bob.getBirthday());
+    }
+
+    @Test
+    public void cacheTest() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            try (ResultSet rs1 = st.executeQuery("SELECT id, age FROM person");
+                 ResultSet rs2 = conn.createStatement().executeQuery("SELECT id, age FROM person")) {
+                Assert.assertSame(BeanRowMapper.of(Person.class, rs1.getMetaData(), 2),
+                        BeanRowMapper.of(Person.class, rs2.getMetaData(), 2));
+            }
+            try (ResultSet rs1 = st.executeQuery("SELECT id, age FROM person");
+                 ResultSet rs2 = conn.createStatement().executeQuery("SELECT id, user_name FROM person")) {
+                Assert.assertNotSame(BeanRowMapper.of(Person.class, rs1.getMetaData(), 2),
+                        BeanRowMapper.of(Person.class, rs2.getMetaData(), 2));
+            }
+        }
+    }
+
+    public static class Person {
+        private String id;
+        private String userName;
+        private int age;
+        private Date birthday;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId( String id ) {
+            this.id = id;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public void setUserName( String userName ) {
+            this.userName = userName;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge( int age ) {
+            this.age = age;
+        }
+
+        public Date getBirthday() {
+            return birthday;
+        }
+
+        public void setBirthday( Date birthday ) {
+            this.birthday = birthday;
+        }
+    }
+}
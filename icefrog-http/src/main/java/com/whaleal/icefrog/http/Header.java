@@ -105,6 +105,14 @@ public enum Header {
      * 请求的内容长度
      */
     CONTENT_LENGTH("Content-Length"),
+    /**
+     * 只请求实体的一部分，指定范围，如：bytes=500-999
+     */
+    RANGE("Range"),
+    /**
+     * 实体未改变时才按Range返回部分内容，否则返回整个实体，值为ETag或最后修改时间
+     */
+    IF_RANGE("If-Range"),
 
     //------------------------------------------------------------- 响应头域
     /**
@@ -127,6 +135,18 @@ public enum Header {
      * ETag
      */
     ETAG("ETag"),
+    /**
+     * 资源的最后修改时间
+     */
+    LAST_MODIFIED("Last-Modified"),
+    /**
+     * 服务端是否支持范围请求，支持时为bytes
+     */
+    ACCEPT_RANGES("Accept-Ranges"),
+    /**
+     * 部分内容在整个实体中的位置，如：bytes 500-999/8000
+     */
+    CONTENT_RANGE("Content-Range"),
     /**
      * 重定向指示到的URL
      */
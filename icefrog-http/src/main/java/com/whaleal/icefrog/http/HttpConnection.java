@@ -114,18 +114,22 @@ public class HttpConnection {
                 || Method.PATCH.equals(method)//
                 || Method.DELETE.equals(method)) {
             this.conn.setUseCaches(false);
-
-            // 增加PATCH方法支持
-            if (Method.PATCH.equals(method)) {
-                HttpGlobalConfig.allowPatch();
-            }
         }
 
         // method
         try {
             this.conn.setRequestMethod(method.toString());
         } catch (ProtocolException e) {
-            throw new HttpException(e);
+            // JDK自带实现不支持PATCH方法，注入后重试，自定义传输层的实现可能已原生支持
+            if (false == Method.PATCH.equals(method)) {
+                throw new HttpException(e);
+            }
+            HttpGlobalConfig.allowPatch();
+            try {
+                this.conn.setRequestMethod(method.toString());
+            } catch (ProtocolException e2) {
+                throw new HttpException(e2);
+            }
         }
 
         return this;
@@ -521,25 +525,11 @@ public class HttpConnection {
      * 有些时候https请求会出现com.sun.net.ssl.internal.www.protocol.https.HttpsURLConnectionOldImpl的实现，此为sun内部api，按照普通http请求处理
      *
      * @return {@link HttpURLConnection}，https返回{@link HttpsURLConnection}
+     * @see HttpGlobalConfig#setTransport(com.whaleal.icefrog.http.transport.HttpTransport)
      */
     private HttpURLConnection openHttp() throws IOException {
-        final URLConnection conn = openConnection();
-        if (false == conn instanceof HttpURLConnection) {
-            // 防止其它协议造成的转换异常
-            throw new HttpException("'{}' of URL [{}] is not a http connection, make sure URL is format for http.", conn.getClass().getName(), this.url);
-        }
-
-        return (HttpURLConnection) conn;
-    }
-
-    /**
-     * 建立连接
-     *
-     * @return {@link URLConnection}
-     * @throws IOException IO异常
-     */
-    private URLConnection openConnection() throws IOException {
-        return (null == this.proxy) ? url.openConnection() : url.openConnection(this.proxy);
+        // 由全局配置的传输层打开连接，默认使用JDK自带实现
+        return HttpGlobalConfig.getTransport().open(this.url, this.proxy);
     }
     // --------------------------------------------------------------- Private Method end
 }
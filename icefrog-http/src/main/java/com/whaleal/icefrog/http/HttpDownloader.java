@@ -54,6 +54,26 @@ public class HttpDownloader {
         return requestDownload(url, timeout).writeBody(targetFileOrDir, streamProgress);
     }
 
+    /**
+     * 分段并行下载远程文件，支持断点续传，服务端不支持范围请求时退化为单连接下载
+     *
+     * @param url             请求的url
+     * @param targetFileOrDir 目标文件或目录，当为目录时，取URL中的文件名，取不到使用编码后的URL做为文件名
+     * @param segmentCount    分段数，即并行连接数
+     * @param timeout         超时，单位毫秒，-1表示默认超时
+     * @param streamProgress  进度条
+     * @return 文件大小
+     * @see SegmentedDownloader
+     * @since 1.1.8
+     */
+    public static long downloadFileSegmented( String url, File targetFileOrDir, int segmentCount, int timeout, StreamProgress streamProgress ) {
+        return SegmentedDownloader.of(url)
+                .setSegmentCount(segmentCount)
+                .setTimeout(timeout)
+                .setStreamProgress(streamProgress)
+                .download(targetFileOrDir);
+    }
+
     /**
      * 下载远程文件，返回文件
      *
@@ -1,14 +1,18 @@
 package com.whaleal.icefrog.http;
 
+import com.whaleal.icefrog.core.thread.GlobalThreadPool;
 import com.whaleal.icefrog.core.util.ArrayUtil;
 import com.whaleal.icefrog.core.util.ReflectUtil;
 import com.whaleal.icefrog.http.cookie.GlobalCookieManager;
+import com.whaleal.icefrog.http.transport.HttpTransport;
+import com.whaleal.icefrog.http.transport.JdkHttpTransport;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.net.CookieManager;
 import java.net.HttpURLConnection;
+import java.util.concurrent.Executor;
 
 /**
  * HTTP 全局参数配置
@@ -22,6 +26,8 @@ public class HttpGlobalConfig implements Serializable {
 
     protected static int timeout = -1;
     private static boolean isAllowPatch = false;
+    private static volatile HttpTransport transport = JdkHttpTransport.INSTANCE;
+    private static volatile Executor asyncExecutor;
 
     /**
      * 获取全局默认的超时时长
@@ -41,6 +47,52 @@ public class HttpGlobalConfig implements Serializable {
         timeout = customTimeout;
     }
 
+    /**
+     * 获取全局的HTTP传输层，默认为{@link JdkHttpTransport}
+     *
+     * @return {@link HttpTransport}
+     * @since 1.1.8
+     */
+    public static HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * 设置全局的HTTP传输层，之后创建的请求均通过此传输层打开连接，如切换为带连接池的实现：
+     * <pre>
+     * HttpGlobalConfig.setTransport(new PooledHttpTransport().setMaxConnectionsPerHost(50));
+     * </pre>
+     * 被替换的传输层不会自动关闭，如不再使用须调用其{@link HttpTransport#close()}方法
+     *
+     * @param customTransport 传输层，{@code null}表示恢复为{@link JdkHttpTransport}
+     * @since 1.1.8
+     */
+    synchronized public static void setTransport( HttpTransport customTransport ) {
+        transport = (null == customTransport) ? JdkHttpTransport.INSTANCE : customTransport;
+    }
+
+    /**
+     * 获取{@link HttpRequest#sendAsync()}默认使用的线程池，未设置时使用{@link GlobalThreadPool}
+     *
+     * @return {@link Executor}
+     * @since 1.1.8
+     */
+    public static Executor getAsyncExecutor() {
+        final Executor executor = asyncExecutor;
+        return (null == executor) ? GlobalThreadPool.getExecutor() : executor;
+    }
+
+    /**
+     * 设置{@link HttpRequest#sendAsync()}默认使用的线程池<br>
+     * 请求在线程池中以阻塞方式执行，每个进行中的请求占用一个线程，线程池大小即异步请求的最大并发数
+     *
+     * @param customAsyncExecutor 线程池，{@code null}表示使用{@link GlobalThreadPool}
+     * @since 1.1.8
+     */
+    synchronized public static void setAsyncExecutor( Executor customAsyncExecutor ) {
+        asyncExecutor = customAsyncExecutor;
+    }
+
     /**
      * 获取Cookie管理器，用于自定义Cookie管理
      *
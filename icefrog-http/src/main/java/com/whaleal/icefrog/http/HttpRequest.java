@@ -12,6 +12,7 @@ import com.whaleal.icefrog.core.lang.Precondition;
 import com.whaleal.icefrog.core.map.MapUtil;
 import com.whaleal.icefrog.core.net.SSLUtil;
 import com.whaleal.icefrog.core.net.url.UrlBuilder;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
 import com.whaleal.icefrog.core.util.ArrayUtil;
 import com.whaleal.icefrog.core.util.ObjectUtil;
 import com.whaleal.icefrog.core.util.StrUtil;
@@ -27,6 +28,13 @@ import java.net.*;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
@@ -62,9 +70,9 @@ public class HttpRequest extends HttpBase<HttpRequest> {
      */
     private String cookie;
     /**
-     * 连接对象
+     * 连接对象，异步请求取消时由其它线程断开
      */
-    private HttpConnection httpConnection;
+    private volatile HttpConnection httpConnection;
     /**
      * 是否禁用缓存
      */
@@ -97,6 +105,14 @@ public class HttpRequest extends HttpBase<HttpRequest> {
      * SSLSocketFactory，用于HTTPS安全连接
      */
     private SSLSocketFactory ssf;
+    /**
+     * 异步请求使用的线程池，{@code null}表示使用全局配置
+     */
+    private Executor asyncExecutor;
+    /**
+     * 异步请求的总超时，包括连接、发送请求和读取响应体，0或小于0表示不限制
+     */
+    private int requestTimeout;
 
     /**
      * 构造，URL编码默认使用UTF-8
@@ -778,6 +794,33 @@ public class HttpRequest extends HttpBase<HttpRequest> {
         return this;
     }
 
+    /**
+     * 设置{@link #sendAsync()}的总超时，单位：毫秒<br>
+     * 与连接超时和读取超时不同，此超时从提交请求开始计时，包括排队等待、连接、发送请求和读取完整响应体的时间，
+     * 超时后返回的{@link CompletableFuture}以{@link TimeoutException}异常结束，并断开连接
+     *
+     * @param milliseconds 超时毫秒数，0或小于0表示不限制
+     * @return this
+     * @since 1.1.8
+     */
+    public HttpRequest setRequestTimeout( int milliseconds ) {
+        this.requestTimeout = milliseconds;
+        return this;
+    }
+
+    /**
+     * 设置{@link #sendAsync()}执行请求使用的线程池，不设置时使用{@link HttpGlobalConfig#getAsyncExecutor()}<br>
+     * 请求在线程池中以阻塞方式执行，每个进行中的请求占用一个线程
+     *
+     * @param executor 线程池
+     * @return this
+     * @since 1.1.8
+     */
+    public HttpRequest setAsyncExecutor( Executor executor ) {
+        this.asyncExecutor = executor;
+        return this;
+    }
+
     /**
      * 禁用缓存
      *
@@ -934,6 +977,65 @@ public class HttpRequest extends HttpBase<HttpRequest> {
         return this.execute(true);
     }
 
+    /**
+     * 将请求交给线程池执行，调用线程不阻塞<br>
+     * 注意这不是非阻塞IO：请求仍通过{@link HttpGlobalConfig#getTransport()}以阻塞方式连接、发送和读取，
+     * 每个进行中的请求在整个交互期间占用线程池的一个线程，并发请求数受线程池大小限制，
+     * 需要大量并发请求时应配合{@link #setAsyncExecutor(Executor)}设置足够大小的线程池。<br>
+     * 与{@link #executeAsync()}不同，返回的{@link HttpResponse}已读取完整响应体，可直接获取内容：
+     * <pre>
+     * HttpRequest.get(url).setRequestTimeout(3000).sendAsync()
+     *     .thenApply(HttpResponse::body)
+     *     .thenAccept(Console::log);
+     * </pre>
+     * 调用{@link CompletableFuture#cancel(boolean)}或达到{@link #setRequestTimeout(int)}设置的超时后，断开连接以中止正在进行的读写。<br>
+     * 请求执行期间不能修改或重复执行此请求对象。
+     *
+     * @return 响应的{@link CompletableFuture}，请求失败时以{@link HttpException}等异常结束
+     * @since 1.1.8
+     */
+    public CompletableFuture<HttpResponse> sendAsync() {
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        final Executor executor = ObjectUtil.defaultIfNull(this.asyncExecutor, HttpGlobalConfig.getAsyncExecutor());
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // 排队期间已取消或超时
+                    return;
+                }
+                try {
+                    final HttpResponse response = execute(false);
+                    if (false == future.complete(response)) {
+                        response.close();
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        if (this.requestTimeout > 0) {
+            final int timeout = this.requestTimeout;
+            final ScheduledFuture<?> timer = TimeoutScheduler.INSTANCE.schedule(() -> future.completeExceptionally(
+                    new HttpException(new TimeoutException(StrUtil.format("Request timeout after {} ms: {}", timeout, this.url)))),
+                    timeout, TimeUnit.MILLISECONDS);
+            future.whenComplete(( response, e ) -> timer.cancel(false));
+        }
+        future.whenComplete(( response, e ) -> {
+            if (null != e) {
+                // 取消或超时，断开连接使阻塞中的读写立即失败
+                final HttpConnection conn = this.httpConnection;
+                if (null != conn) {
+                    conn.disconnectQuietly();
+                }
+            }
+        });
+        return future;
+    }
+
     /**
      * 执行Reuqest请求
      *
@@ -1265,4 +1367,16 @@ public class HttpRequest extends HttpBase<HttpRequest> {
     }
     // ---------------------------------------------------------------- Private method end
 
+    /**
+     * 异步请求超时计时器，首次使用时创建，使用单个守护线程
+     */
+    private static class TimeoutScheduler {
+        private static final ScheduledThreadPoolExecutor INSTANCE;
+
+        static {
+            INSTANCE = new ScheduledThreadPoolExecutor(1, ThreadUtil.newNamedThreadFactory("icefrog-http-timeout-", true));
+            // 请求正常结束时取消的计时任务及时移除
+            INSTANCE.setRemoveOnCancelPolicy(true);
+        }
+    }
 }
@@ -11,9 +11,13 @@ import com.whaleal.icefrog.http.cookie.GlobalCookieManager;
 
 import java.io.*;
 import java.net.HttpCookie;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 
 /**
  * Http响应类<br>
@@ -279,6 +283,115 @@ public class HttpResponse extends HttpBase<HttpResponse> implements Closeable {
         return HttpUtil.getString(bodyBytes(), this.charset, null == this.charsetFromResponse);
     }
 
+    /**
+     * 获取响应内容的{@link Reader}，使用响应头中的编码（未指定时使用请求编码）逐步解码<br>
+     * 异步模式下直接读取Http流，可配合JSON等流式解析器在读取过程中逐步处理，读取完毕后需关闭此类
+     *
+     * @return {@link BufferedReader}
+     * @since 1.1.8
+     */
+    public BufferedReader bodyReader() {
+        return IoUtil.getReader(bodyStream(), this.charset);
+    }
+
+    /**
+     * 分块读取响应内容，使用默认缓冲区大小
+     *
+     * @param consumer 块处理函数
+     * @return 读取的bytes数
+     * @see #readBodyChunks(int, Consumer)
+     * @since 1.1.8
+     */
+    public long readBodyChunks( Consumer<ByteBuffer> consumer ) {
+        return readBodyChunks(IoUtil.DEFAULT_BUFFER_SIZE, consumer);
+    }
+
+    /**
+     * 分块读取响应内容，每读取一块调用一次处理函数，读取完毕后关闭Http流<br>
+     * 异步模式（{@link HttpRequest#executeAsync()}）下直接读取Http流，内存占用不超过缓冲区大小，不会将全部内容读入内存。<br>
+     * 传给处理函数的{@link ByteBuffer}在各次调用间复用，处理函数返回后其内容即失效，需要保留的数据须自行复制。
+     *
+     * @param bufferSize 缓冲区大小
+     * @param consumer   块处理函数，参数为已翻转可直接读取的{@link ByteBuffer}
+     * @return 读取的bytes数
+     * @throws IORuntimeException IO异常
+     * @since 1.1.8
+     */
+    public long readBodyChunks( int bufferSize, Consumer<ByteBuffer> consumer ) throws IORuntimeException {
+        Precondition.isTrue(bufferSize > 0, "Buffer size must be positive !");
+        Precondition.notNull(consumer, "[consumer] must be not null!");
+        final byte[] bytes = new byte[bufferSize];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long total = 0;
+        try {
+            final InputStream in = bodyStream();
+            int n;
+            while (-1 != (n = in.read(bytes))) {
+                if (0 == n) {
+                    continue;
+                }
+                buffer.clear();
+                buffer.limit(n);
+                consumer.accept(buffer);
+                total += n;
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        } finally {
+            IoUtil.close(this);
+        }
+        return total;
+    }
+
+    /**
+     * 将响应内容写出到{@link WritableByteChannel}，不关闭通道<br>
+     * 异步模式下直接读取Http流写出，内存占用不超过缓冲区大小
+     *
+     * @param channel    写出的通道
+     * @param bufferSize 缓冲区大小
+     * @return 写出bytes数
+     * @throws IORuntimeException IO异常
+     * @since 1.1.8
+     */
+    public long writeBody( WritableByteChannel channel, int bufferSize ) throws IORuntimeException {
+        Precondition.notNull(channel, "[channel] must be not null!");
+        return readBodyChunks(bufferSize, buffer -> {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * 将响应内容写出到{@link FileChannel}的指定位置，不改变通道的当前位置，不关闭通道<br>
+     * 多个响应可并发写出到同一文件的不同位置，用于分段下载等场景
+     *
+     * @param channel    写出的文件通道
+     * @param position   写出的起始位置
+     * @param bufferSize 缓冲区大小
+     * @return 写出bytes数
+     * @throws IORuntimeException IO异常
+     * @since 1.1.8
+     */
+    public long writeBody( FileChannel channel, long position, int bufferSize ) throws IORuntimeException {
+        Precondition.notNull(channel, "[channel] must be not null!");
+        Precondition.isTrue(position >= 0, "Position must not be negative !");
+        final long[] offset = {position};
+        return readBodyChunks(bufferSize, buffer -> {
+            try {
+                while (buffer.hasRemaining()) {
+                    offset[0] += channel.write(buffer, offset[0]);
+                }
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        });
+    }
+
     /**
      * 将响应内容写出到{@link OutputStream}<br>
      * 异步模式下直接读取Http流写出，同步模式下将存储在内存中的响应内容写出<br>
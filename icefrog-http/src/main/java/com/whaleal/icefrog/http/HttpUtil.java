@@ -11,12 +11,14 @@ import com.whaleal.icefrog.core.text.StrBuilder;
 import com.whaleal.icefrog.core.util.*;
 import com.whaleal.icefrog.http.cookie.GlobalCookieManager;
 import com.whaleal.icefrog.http.server.SimpleServer;
+import com.whaleal.icefrog.http.server.nio.NioHttpServer;
 
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.CookieManager;
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -807,6 +809,19 @@ public class HttpUtil {
         return new SimpleServer(port);
     }
 
+    /**
+     * 创建基于NIO的简易Http服务器，支持长连接和管线化请求，适合高并发场景<br>
+     * 需要引入icefrog-socket依赖
+     *
+     * @param port 端口
+     * @return {@link SimpleServer}
+     * @see NioHttpServer
+     * @since 1.1.8
+     */
+    public static SimpleServer createNioServer( int port ) {
+        return new SimpleServer(NioHttpServer.create(new InetSocketAddress(port)));
+    }
+
     /**
      * 构建简单的账号秘密验证信息，构建后类似于：
      * <pre>
@@ -0,0 +1,592 @@
+package com.whaleal.icefrog.http;
+
+import com.whaleal.icefrog.core.io.FileUtil;
+import com.whaleal.icefrog.core.io.IORuntimeException;
+import com.whaleal.icefrog.core.io.IoUtil;
+import com.whaleal.icefrog.core.io.StreamProgress;
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分段并行下载<br>
+ * 先以{@code Range: bytes=0-0}请求探测服务端是否支持范围请求及文件总长度，支持时：
+ * <ul>
+ *     <li>将文件分为多段，每段使用一个连接并行下载，通过{@link FileChannel}按位置直接写入预先分配大小的临时文件</li>
+ *     <li>每段失败后只重试本段，从已写入的位置继续</li>
+ *     <li>下载进度定期保存到断点文件，下载中断后再次下载同一文件时从断点继续，文件在服务端变化（长度、ETag、最后修改时间）时重新下载</li>
+ * </ul>
+ * 服务端不支持范围请求或长度未知时，退化为单连接下载。下载完成后临时文件重命名为目标文件，并删除断点文件。
+ *
+ * <pre>
+ * SegmentedDownloader.of(url).setSegmentCount(8).download(FileUtil.file("d:/download/"));
+ * </pre>
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class SegmentedDownloader {
+
+    /**
+     * 默认分段数
+     */
+    public static final int DEFAULT_SEGMENT_COUNT = 4;
+    /**
+     * 默认每段最小长度，文件较小时减少分段数
+     */
+    public static final long DEFAULT_MIN_SEGMENT_SIZE = 1024 * 1024L;
+    /**
+     * 默认每段最大重试次数
+     */
+    public static final int DEFAULT_MAX_RETRY = 3;
+    /**
+     * 下载中的临时文件后缀
+     */
+    public static final String PART_SUFFIX = ".part";
+    /**
+     * 断点文件后缀
+     */
+    public static final String MANIFEST_SUFFIX = ".manifest";
+    /**
+     * 每段每写入此长度保存一次断点
+     */
+    private static final long CHECKPOINT_SIZE = 8 * 1024 * 1024L;
+
+    private final String url;
+    private int segmentCount = DEFAULT_SEGMENT_COUNT;
+    private long minSegmentSize = DEFAULT_MIN_SEGMENT_SIZE;
+    private int maxRetry = DEFAULT_MAX_RETRY;
+    private long retryIntervalMillis = 1000;
+    private int timeout = -1;
+    private int bufferSize = IoUtil.DEFAULT_BUFFER_SIZE;
+    private StreamProgress streamProgress;
+
+    /**
+     * 创建分段下载器
+     *
+     * @param url 下载地址
+     * @return SegmentedDownloader
+     */
+    public static SegmentedDownloader of( String url ) {
+        return new SegmentedDownloader(url);
+    }
+
+    /**
+     * 构造
+     *
+     * @param url 下载地址
+     */
+    public SegmentedDownloader( String url ) {
+        Precondition.notBlank(url, "[url] is blank !");
+        this.url = url;
+    }
+
+    /**
+     * 设置分段数，即并行连接数，从断点继续时使用断点文件中的分段
+     *
+     * @param segmentCount 分段数
+     * @return this
+     */
+    public SegmentedDownloader setSegmentCount( int segmentCount ) {
+        Precondition.isTrue(segmentCount > 0, "Segment count must be positive !");
+        this.segmentCount = segmentCount;
+        return this;
+    }
+
+    /**
+     * 设置每段最小长度，文件长度不足以分为指定段数时减少分段
+     *
+     * @param minSegmentSize 每段最小长度
+     * @return this
+     */
+    public SegmentedDownloader setMinSegmentSize( long minSegmentSize ) {
+        Precondition.isTrue(minSegmentSize > 0, "Min segment size must be positive !");
+        this.minSegmentSize = minSegmentSize;
+        return this;
+    }
+
+    /**
+     * 设置每段连续失败后的最大重试次数，重试时有数据写入则重新计数
+     *
+     * @param maxRetry 最大重试次数
+     * @return this
+     */
+    public SegmentedDownloader setMaxRetry( int maxRetry ) {
+        Precondition.isTrue(maxRetry >= 0, "Max retry must not be negative !");
+        this.maxRetry = maxRetry;
+        return this;
+    }
+
+    /**
+     * 设置重试间隔，第n次重试等待n倍间隔
+     *
+     * @param retryIntervalMillis 重试间隔，单位毫秒
+     * @return this
+     */
+    public SegmentedDownloader setRetryIntervalMillis( long retryIntervalMillis ) {
+        Precondition.isTrue(retryIntervalMillis >= 0, "Retry interval must not be negative !");
+        this.retryIntervalMillis = retryIntervalMillis;
+        return this;
+    }
+
+    /**
+     * 设置每个请求的连接和读取超时
+     *
+     * @param timeout 超时，单位毫秒，-1表示默认超时
+     * @return this
+     */
+    public SegmentedDownloader setTimeout( int timeout ) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * 设置每个连接读取使用的缓冲区大小
+     *
+     * @param bufferSize 缓冲区大小
+     * @return this
+     */
+    public SegmentedDownloader setBufferSize( int bufferSize ) {
+        Precondition.isTrue(bufferSize > 0, "Buffer size must be positive !");
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * 设置进度条，进度为所有分段已下载的总长度，从断点继续时包括此前已下载的部分
+     *
+     * @param streamProgress 进度条
+     * @return this
+     */
+    public SegmentedDownloader setStreamProgress( StreamProgress streamProgress ) {
+        this.streamProgress = streamProgress;
+        return this;
+    }
+
+    /**
+     * 下载文件
+     *
+     * @param targetFileOrDir 目标文件或目录，当为目录时，取URL中的文件名，取不到使用编码后的URL做为文件名
+     * @return 文件大小
+     * @throws HttpException 下载失败，已下载的部分保留，再次下载时从断点继续
+     */
+    public long download( File targetFileOrDir ) throws HttpException {
+        Precondition.notNull(targetFileOrDir, "[targetFileOrDir] must be not null!");
+
+        final File target;
+        final long length;
+        final String etag;
+        final String lastModified;
+        final HttpResponse probe = request(0, 0, null).executeAsync();
+        try {
+            target = probe.completeFileNameFromHeader(targetFileOrDir);
+            length = (HttpStatus.HTTP_PARTIAL == probe.getStatus()) ? parseTotalLength(probe.header(Header.CONTENT_RANGE)) : -1;
+            if (length < 0) {
+                // 不支持范围请求或长度未知，单连接下载
+                return downloadSingle(probe, target);
+            }
+            etag = probe.header(Header.ETAG);
+            lastModified = probe.header(Header.LAST_MODIFIED);
+        } finally {
+            probe.close();
+        }
+
+        final File part = new File(target.getParentFile(), target.getName() + PART_SUFFIX);
+        final File manifestFile = new File(target.getParentFile(), target.getName() + MANIFEST_SUFFIX);
+        Manifest manifest = Manifest.load(manifestFile);
+        if (null == manifest || false == manifest.matches(url, length, etag, lastModified) || part.length() != length) {
+            manifest = Manifest.create(manifestFile, url, length, etag, lastModified, split(length));
+            FileUtil.mkParentDirs(part);
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(part, "rw");
+             FileChannel channel = raf.getChannel()) {
+            if (raf.length() != length) {
+                raf.setLength(length);
+            }
+            manifest.save();
+            downloadSegments(manifest, channel);
+        } catch (IOException e) {
+            throw new HttpException(e);
+        }
+
+        try {
+            Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new HttpException(e);
+        }
+        FileUtil.del(manifestFile);
+        if (null != streamProgress) {
+            streamProgress.finish();
+        }
+        return length;
+    }
+
+    // ---------------------------------------------------------------------------- Private method start
+
+    /**
+     * 并行下载所有未完成的分段，任一分段最终失败时保存断点并抛出异常
+     */
+    private void downloadSegments( Manifest manifest, FileChannel channel ) throws IOException {
+        final AtomicLong downloaded = new AtomicLong(manifest.downloaded());
+        if (null != streamProgress) {
+            streamProgress.start();
+            streamProgress.progress(downloaded.get());
+        }
+
+        final List<Segment> pending = new ArrayList<>();
+        for (Segment segment : manifest.segments) {
+            if (false == segment.isDone()) {
+                pending.add(segment);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService executor = ThreadUtil.newExecutor(pending.size());
+        final List<Future<?>> futures = new ArrayList<>(pending.size());
+        for (Segment segment : pending) {
+            futures.add(executor.submit(() -> downloadSegment(segment, manifest, channel, downloaded)));
+        }
+        executor.shutdown();
+
+        Throwable error = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (null == error) {
+                    error = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = e;
+                executor.shutdownNow();
+                break;
+            }
+        }
+        // 无论成功与否都保存一次断点，失败时供下次继续
+        manifest.checkpoint(channel);
+        if (null != error) {
+            throw new HttpException(error, "Download [{}] failed with {}/{} bytes downloaded, download again to resume",
+                    url, downloaded.get(), manifest.length);
+        }
+    }
+
+    /**
+     * 下载单个分段，失败时从已写入的位置重试
+     */
+    private void downloadSegment( Segment segment, Manifest manifest, FileChannel channel, AtomicLong downloaded ) {
+        int attempts = 0;
+        while (false == segment.isDone()) {
+            final long before = segment.next;
+            try {
+                fetch(segment, manifest, channel, downloaded);
+            } catch (UnrecoverableException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (segment.next > before) {
+                    // 本次有进展，重新计数
+                    attempts = 0;
+                }
+                if (++attempts > maxRetry) {
+                    throw e;
+                }
+                ThreadUtil.sleep(retryIntervalMillis * attempts);
+            }
+        }
+    }
+
+    private void fetch( Segment segment, Manifest manifest, FileChannel channel, AtomicLong downloaded ) {
+        final HttpResponse response = request(segment.next, segment.end, manifest.validator()).executeAsync();
+        try {
+            final int status = response.getStatus();
+            if (HttpStatus.HTTP_PARTIAL != status) {
+                if (HttpStatus.HTTP_OK == status) {
+                    // If-Range不匹配时服务端返回整个实体
+                    throw new UnrecoverableException("Resource [{}] has changed or server ignored Range request", url);
+                }
+                throw new HttpException("Server response error with status code: [{}]", status);
+            }
+
+            response.readBodyChunks(bufferSize, buffer -> {
+                final int n = buffer.remaining();
+                long position = segment.next;
+                if (position + n - 1 > segment.end) {
+                    throw new IORuntimeException("Server returned more data than requested for range {}-{}", segment.next, segment.end);
+                }
+                try {
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                } catch (IOException e) {
+                    throw new IORuntimeException(e);
+                }
+                segment.next = position;
+                onProgress(downloaded.addAndGet(n));
+
+                segment.unsaved += n;
+                if (segment.unsaved >= CHECKPOINT_SIZE) {
+                    segment.unsaved = 0;
+                    try {
+                        manifest.checkpoint(channel);
+                    } catch (IOException e) {
+                        throw new IORuntimeException(e);
+                    }
+                }
+            });
+        } finally {
+            response.close();
+        }
+        if (false == segment.isDone()) {
+            throw new IORuntimeException("Premature end of range {}-{} at {}", segment.start, segment.end, segment.next);
+        }
+    }
+
+    private void onProgress( long total ) {
+        if (null != streamProgress) {
+            synchronized (streamProgress) {
+                streamProgress.progress(total);
+            }
+        }
+    }
+
+    /**
+     * 不支持范围请求时使用探测请求的响应直接下载，其它情况重新请求
+     */
+    private long downloadSingle( HttpResponse probe, File target ) {
+        HttpResponse response = probe;
+        if (HttpStatus.HTTP_OK != probe.getStatus()) {
+            probe.close();
+            response = HttpUtil.createGet(url, true).timeout(timeout).executeAsync();
+        }
+        if (false == response.isOk()) {
+            response.close();
+            throw new HttpException("Server response error with status code: [{}]", response.getStatus());
+        }
+        return response.writeBody(target, PART_SUFFIX, streamProgress);
+    }
+
+    /**
+     * 构建范围请求，禁用压缩保证返回内容与字节范围对应
+     *
+     * @param start     起始位置
+     * @param end       结束位置（包括）
+     * @param validator If-Range的值，{@code null}表示不校验
+     * @return HttpRequest
+     */
+    private HttpRequest request( long start, long end, String validator ) {
+        final HttpRequest request = HttpUtil.createGet(url, true)
+                .timeout(timeout)
+                .header(Header.RANGE, StrUtil.format("bytes={}-{}", start, end))
+                .header(Header.ACCEPT_ENCODING, "identity");
+        if (StrUtil.isNotBlank(validator)) {
+            request.header(Header.IF_RANGE, validator);
+        }
+        return request;
+    }
+
+    /**
+     * 按分段数和每段最小长度分段
+     */
+    private List<Segment> split( long length ) {
+        final long maxCount = Math.max(1, (length + minSegmentSize - 1) / minSegmentSize);
+        final int count = (int) Math.min(segmentCount, maxCount);
+        final long size = length / count;
+        final List<Segment> segments = new ArrayList<>(count);
+        long start = 0;
+        for (int i = 0; i < count; i++) {
+            final long end = (i == count - 1) ? length - 1 : start + size - 1;
+            segments.add(new Segment(start, end, start));
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    /**
+     * 从Content-Range中解析总长度，如bytes 0-0/1234
+     *
+     * @return 总长度，未知时返回-1
+     */
+    private static long parseTotalLength( String contentRange ) {
+        final String total = StrUtil.subAfter(contentRange, '/', true);
+        if (StrUtil.isBlank(total) || "*".equals(total.trim())) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(total.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    // ---------------------------------------------------------------------------- Private method end
+
+    /**
+     * 不可重试的下载错误，如资源已变化
+     */
+    private static class UnrecoverableException extends HttpException {
+        private static final long serialVersionUID = 1L;
+
+        UnrecoverableException( String messageTemplate, Object... params ) {
+            super(messageTemplate, params);
+        }
+    }
+
+    /**
+     * 分段，[start, end]为闭区间，next为下一个待写入的位置
+     */
+    private static class Segment {
+        final long start;
+        final long end;
+        volatile long next;
+        /**
+         * 上次保存断点后写入的长度，只由下载本段的线程访问
+         */
+        long unsaved;
+
+        Segment( long start, long end, long next ) {
+            this.start = start;
+            this.end = end;
+            this.next = next;
+        }
+
+        boolean isDone() {
+            return next > end;
+        }
+    }
+
+    /**
+     * 断点文件，Properties格式，记录资源信息和各分段的下载位置
+     */
+    private static class Manifest {
+        final File file;
+        final String url;
+        final long length;
+        final String etag;
+        final String lastModified;
+        final List<Segment> segments;
+
+        private Manifest( File file, String url, long length, String etag, String lastModified, List<Segment> segments ) {
+            this.file = file;
+            this.url = url;
+            this.length = length;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.segments = segments;
+        }
+
+        static Manifest create( File file, String url, long length, String etag, String lastModified, List<Segment> segments ) {
+            return new Manifest(file, url, length, etag, lastModified, segments);
+        }
+
+        /**
+         * 读取断点文件，不存在或格式错误时返回{@code null}
+         */
+        static Manifest load( File file ) {
+            if (false == file.isFile()) {
+                return null;
+            }
+            final Properties props = new Properties();
+            try (InputStream in = FileUtil.getInputStream(file)) {
+                props.load(in);
+                final int count = Integer.parseInt(props.getProperty("segment.count"));
+                final List<Segment> segments = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    final List<String> parts = StrUtil.split(props.getProperty("segment." + i), ',');
+                    segments.add(new Segment(Long.parseLong(parts.get(0)), Long.parseLong(parts.get(1)), Long.parseLong(parts.get(2))));
+                }
+                return new Manifest(file, props.getProperty("url"), Long.parseLong(props.getProperty("length")),
+                        props.getProperty("etag"), props.getProperty("lastModified"), segments);
+            } catch (IOException | RuntimeException e) {
+                // 断点文件损坏，重新下载
+                return null;
+            }
+        }
+
+        boolean matches( String url, long length, String etag, String lastModified ) {
+            return StrUtil.equals(this.url, url)
+                    && this.length == length
+                    && StrUtil.equals(this.etag, etag)
+                    && StrUtil.equals(this.lastModified, lastModified);
+        }
+
+        /**
+         * If-Range的值，优先使用ETag，弱ETag不能用于If-Range
+         */
+        String validator() {
+            if (StrUtil.isNotBlank(etag) && false == StrUtil.startWith(etag, "W/")) {
+                return etag;
+            }
+            return lastModified;
+        }
+
+        long downloaded() {
+            long total = 0;
+            for (Segment segment : segments) {
+                total += segment.next - segment.start;
+            }
+            return total;
+        }
+
+        /**
+         * 先记录各分段位置，将已写入的数据刷到磁盘后再保存，保证断点位置之前的数据均已落盘
+         */
+        synchronized void checkpoint( FileChannel channel ) throws IOException {
+            final long[] positions = new long[segments.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = segments.get(i).next;
+            }
+            channel.force(false);
+            save(positions);
+        }
+
+        synchronized void save() throws IOException {
+            final long[] positions = new long[segments.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = segments.get(i).next;
+            }
+            save(positions);
+        }
+
+        private void save( long[] positions ) throws IOException {
+            final Properties props = new Properties();
+            props.setProperty("url", url);
+            props.setProperty("length", String.valueOf(length));
+            if (null != etag) {
+                props.setProperty("etag", etag);
+            }
+            if (null != lastModified) {
+                props.setProperty("lastModified", lastModified);
+            }
+            props.setProperty("segment.count", String.valueOf(segments.size()));
+            for (int i = 0; i < positions.length; i++) {
+                final Segment segment = segments.get(i);
+                props.setProperty("segment." + i, segment.start + "," + segment.end + "," + positions[i]);
+            }
+
+            // 先写临时文件再替换，避免中断时断点文件不完整
+            final File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (OutputStream out = FileUtil.getOutputStream(temp)) {
+                props.store(out, "icefrog segmented download manifest");
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
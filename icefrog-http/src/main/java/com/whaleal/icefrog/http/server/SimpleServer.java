@@ -3,6 +3,7 @@ package com.whaleal.icefrog.http.server;
 import com.sun.net.httpserver.*;
 import com.whaleal.icefrog.core.io.IORuntimeException;
 import com.whaleal.icefrog.core.lang.Console;
+import com.whaleal.icefrog.core.lang.Precondition;
 import com.whaleal.icefrog.core.thread.GlobalThreadPool;
 import com.whaleal.icefrog.core.util.StrUtil;
 import com.whaleal.icefrog.http.server.action.Action;
@@ -10,6 +11,7 @@ import com.whaleal.icefrog.http.server.action.RootAction;
 import com.whaleal.icefrog.http.server.filter.HttpFilter;
 import com.whaleal.icefrog.http.server.filter.SimpleFilter;
 import com.whaleal.icefrog.http.server.handler.ActionHandler;
+import com.whaleal.icefrog.http.server.nio.NioHttpServer;
 
 import java.io.File;
 import java.io.IOException;
@@ -19,7 +21,7 @@ import java.util.List;
 import java.util.concurrent.Executor;
 
 /**
- * 简易Http服务器，基于{@link HttpServer}
+ * 简易Http服务器，基于{@link HttpServer}，默认使用JDK自带实现，也可使用基于NIO的{@link NioHttpServer}
  *
  * @author Looly
  * @author wh
@@ -80,6 +82,23 @@ public class SimpleServer {
         filters = new ArrayList<>();
     }
 
+    /**
+     * 构造，使用指定的{@link HttpServer}实现，如{@link NioHttpServer}
+     *
+     * <pre>
+     * new SimpleServer(NioHttpServer.create(new InetSocketAddress(8080)))
+     * </pre>
+     *
+     * @param server 已绑定地址的{@link HttpServer}
+     * @since 1.1.8
+     */
+    public SimpleServer( HttpServer server ) {
+        Precondition.notNull(server, "HttpServer must be not null!");
+        this.server = server;
+        setExecutor(GlobalThreadPool.getExecutor());
+        filters = new ArrayList<>();
+    }
+
     /**
      * 增加请求过滤器，此过滤器对所有请求有效<br>
      * 此方法需在以下方法前之前调用：
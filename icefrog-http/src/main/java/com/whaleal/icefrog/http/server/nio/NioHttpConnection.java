@@ -0,0 +1,502 @@
+package com.whaleal.icefrog.http.server.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.whaleal.icefrog.core.io.IoUtil;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.http.HttpException;
+import com.whaleal.icefrog.http.HttpStatus;
+import com.whaleal.icefrog.log.StaticLog;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 一个客户端连接，负责读取请求头、按顺序处理同一连接上的请求（包括管线化的请求）并写出响应<br>
+ * 请求头由Selector线程非阻塞读取，头信息完整后取消读事件关注，交给工作线程处理；
+ * 工作线程独占连接，请求体和响应体的读写在数据未就绪时从服务端共享的Selector池借用一个Selector等待，等待结束即注销并归还，
+ * 因此慢速客户端只占用工作线程而不阻塞Selector线程，同时处理中的连接不再读取新数据，形成背压。
+ * 响应完成后如缓冲区中已有下一个完整请求则继续处理，否则重新关注读事件。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+final class NioHttpConnection {
+
+    /**
+     * 请求体读缓冲区大小，附加在请求头缓冲区之后
+     */
+    private static final int BODY_BUFFER_SIZE = 8 * 1024;
+    /**
+     * 响应写缓冲区大小
+     */
+    private static final int OUT_BUFFER_SIZE = 8 * 1024;
+    /**
+     * 处理器未读取的请求体，不超过此长度时读取丢弃以复用连接，否则关闭连接
+     */
+    private static final long MAX_DRAIN_SIZE = 64 * 1024;
+
+    final NioHttpServer server;
+    final SocketChannel channel;
+    private final SelectionKey key;
+    final InetSocketAddress remoteAddress;
+    final InetSocketAddress localAddress;
+
+    /**
+     * 读缓冲区，[0, headEnd)为当前请求头，[pos, limit)为未消费的数据
+     */
+    private final byte[] buf;
+    private final ByteBuffer readBuffer;
+    private int pos;
+    private int limit;
+    private int headEnd;
+    /**
+     * 查找请求头结束位置时下次开始的位置，避免重复扫描
+     */
+    private int scanFrom;
+
+    private final ByteBuffer out = ByteBuffer.allocate(OUT_BUFFER_SIZE);
+    /**
+     * 工作线程正在等待读写就绪时使用的Selector，关闭连接时用于唤醒等待
+     */
+    private volatile Selector waitingSelector;
+
+    /**
+     * 是否有请求正在被工作线程处理
+     */
+    volatile boolean busy;
+    /**
+     * 上一个响应完成（或连接建立）的时间
+     */
+    volatile long lastActive;
+    private volatile boolean closed;
+    private int served;
+
+    NioHttpConnection( NioHttpServer server, SocketChannel channel, SelectionKey key ) throws IOException {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+        this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+        this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+        this.buf = new byte[server.getMaxRequestHeadSize() + BODY_BUFFER_SIZE];
+        this.readBuffer = ByteBuffer.wrap(buf);
+        this.lastActive = System.currentTimeMillis();
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    /**
+     * 读事件就绪，在Selector线程中调用，请求头完整（或超长）时交给工作线程处理
+     *
+     * @throws IOException IO异常
+     */
+    void onReadable() throws IOException {
+        if (busy) {
+            // 读取busy同时保证工作线程对缓冲区的修改可见
+            return;
+        }
+        readBuffer.limit(buf.length).position(limit);
+        final int n = channel.read(readBuffer);
+        if (n < 0) {
+            close();
+            return;
+        }
+        limit += n;
+        if (server.isStopping()) {
+            close();
+            return;
+        }
+        if (hasHead() || limit >= server.getMaxRequestHeadSize()) {
+            busy = true;
+            key.interestOps(0);
+            dispatch();
+        }
+    }
+
+    /**
+     * 处理缓冲区中的请求直到没有完整的请求头，在工作线程中调用
+     */
+    void process() {
+        try {
+            while (hasHead()) {
+                final RequestHead head;
+                try {
+                    head = RequestHead.parse(buf, headEnd);
+                } catch (HttpException e) {
+                    sendError(HttpStatus.HTTP_BAD_REQUEST, e.getMessage());
+                    close();
+                    return;
+                }
+                if (false == serve(head)) {
+                    close();
+                    return;
+                }
+            }
+            if (limit >= server.getMaxRequestHeadSize()) {
+                sendError(431, "Request Header Fields Too Large");
+                close();
+                return;
+            }
+
+            lastActive = System.currentTimeMillis();
+            busy = false;
+            if (server.isStopping()) {
+                close();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            key.selector().wakeup();
+        } catch (IOException | CancelledKeyException e) {
+            // 客户端断开或超时
+            close();
+        } catch (Throwable e) {
+            StaticLog.error(e);
+            close();
+        }
+    }
+
+    /**
+     * 关闭连接
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        busy = false;
+        IoUtil.close(channel);
+        final Selector selector = waitingSelector;
+        if (null != selector) {
+            selector.wakeup();
+        }
+        server.remove(this);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    // ---------------------------------------------------------------------------- 请求体读取，供NioHttpExchange使用
+
+    /**
+     * 读取请求体数据，缓冲区中无数据且目标足够大时直接读入目标数组
+     *
+     * @param b   目标数组
+     * @param off 开始位置
+     * @param len 最大长度，调用方需保证不超过请求体剩余长度，避免读入下一个请求
+     * @return 读取的长度，连接关闭返回-1
+     * @throws IOException IO异常或超时
+     */
+    int read( byte[] b, int off, int len ) throws IOException {
+        if (pos == limit) {
+            if (len >= BODY_BUFFER_SIZE) {
+                return readDirect(ByteBuffer.wrap(b, off, len));
+            }
+            if (fill() < 0) {
+                return -1;
+            }
+        }
+        final int n = Math.min(len, limit - pos);
+        System.arraycopy(buf, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * 读取请求体的一个字节，用于解析chunked格式
+     *
+     * @return 字节，连接关闭返回-1
+     * @throws IOException IO异常或超时
+     */
+    int read() throws IOException {
+        if (pos == limit && fill() < 0) {
+            return -1;
+        }
+        return buf[pos++] & 0xff;
+    }
+
+    // ---------------------------------------------------------------------------- 响应写出，供NioHttpExchange使用
+
+    void write( int b ) throws IOException {
+        if (false == out.hasRemaining()) {
+            flushBuffer();
+        }
+        out.put((byte) b);
+    }
+
+    /**
+     * 写出数据，数据较大时先写出缓冲区中的数据，再直接写出数据，避免复制
+     */
+    void write( byte[] b, int off, int len ) throws IOException {
+        if (len > out.remaining()) {
+            flushBuffer();
+            if (len >= out.capacity()) {
+                writeFully(ByteBuffer.wrap(b, off, len));
+                return;
+            }
+        }
+        out.put(b, off, len);
+    }
+
+    /**
+     * 按ISO-8859-1写出字符串，超出范围的字符写出为'?'
+     */
+    void writeAscii( String str ) throws IOException {
+        final int length = str.length();
+        for (int i = 0; i < length; i++) {
+            final char c = str.charAt(i);
+            write((c < 256) ? c : '?');
+        }
+    }
+
+    /**
+     * 将缓冲区中的数据写出到客户端
+     *
+     * @throws IOException IO异常或超时
+     */
+    void flush() throws IOException {
+        flushBuffer();
+    }
+
+    // ---------------------------------------------------------------------------- Private method start
+
+    /**
+     * 处理一个请求
+     *
+     * @return 连接是否可以继续使用
+     */
+    private boolean serve( RequestHead head ) throws IOException {
+        served++;
+        pos = headEnd;
+
+        URI uri;
+        try {
+            uri = new URI(head.target);
+        } catch (URISyntaxException e) {
+            sendError(HttpStatus.HTTP_BAD_REQUEST, "Bad request URI");
+            return false;
+        }
+
+        boolean keepAlive = isKeepAlive(head);
+        final long contentLength;
+        final boolean chunked = head.contains("Transfer-Encoding");
+        try {
+            if (chunked) {
+                if (false == head.hasToken("Transfer-Encoding", "chunked")) {
+                    sendError(HttpStatus.HTTP_NOT_IMPLEMENTED, "Unsupported Transfer-Encoding");
+                    return false;
+                }
+                // 同时存在Content-Length时以chunked为准，但不再复用连接
+                keepAlive &= false == head.contains("Content-Length");
+                contentLength = -1;
+            } else {
+                contentLength = Math.max(0, head.contentLength());
+            }
+        } catch (HttpException e) {
+            sendError(HttpStatus.HTTP_BAD_REQUEST, e.getMessage());
+            return false;
+        }
+
+        final NioHttpContext context = server.findContext(uri.getPath());
+        final NioHttpExchange exchange = new NioHttpExchange(this, head, uri, context, contentLength, keepAlive);
+        if (null == context) {
+            exchange.sendResponseHeaders(HttpStatus.HTTP_NOT_FOUND, -1);
+        } else {
+            try {
+                if (authenticate(context, exchange)) {
+                    new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(exchange);
+                }
+            } catch (Throwable e) {
+                if (closed) {
+                    return false;
+                }
+                StaticLog.error(e, "Handle request [{} {}] error", head.method, head.target);
+                if (exchange.isHeadersSent()) {
+                    // 响应已开始，无法再发送错误信息
+                    return false;
+                }
+                exchange.sendResponseHeaders(HttpStatus.HTTP_INTERNAL_ERROR, -1);
+            }
+        }
+
+        if (false == exchange.finish(MAX_DRAIN_SIZE)) {
+            return false;
+        }
+        flush();
+        compact();
+        final int maxRequests = server.getMaxRequestsPerConnection();
+        return exchange.isKeepAlive() && (maxRequests <= 0 || served < maxRequests);
+    }
+
+    /**
+     * 按上下文的认证器认证，失败时直接返回响应码
+     */
+    private boolean authenticate( NioHttpContext context, NioHttpExchange exchange ) throws IOException {
+        final Authenticator authenticator = context.getAuthenticator();
+        if (null == authenticator) {
+            return true;
+        }
+        final Authenticator.Result result = authenticator.authenticate(exchange);
+        if (result instanceof Authenticator.Success) {
+            exchange.setPrincipal(((Authenticator.Success) result).getPrincipal());
+            return true;
+        }
+        final int code = (result instanceof Authenticator.Failure)
+                ? ((Authenticator.Failure) result).getResponseCode()
+                : ((Authenticator.Retry) result).getResponseCode();
+        exchange.sendResponseHeaders(code, -1);
+        return false;
+    }
+
+    /**
+     * HTTP/1.1默认保持连接，HTTP/1.0需要显式声明keep-alive
+     */
+    private boolean isKeepAlive( RequestHead head ) {
+        if (server.isStopping()) {
+            return false;
+        }
+        if ("HTTP/1.0".equals(head.protocol)) {
+            return head.hasToken("Connection", "keep-alive");
+        }
+        return false == head.hasToken("Connection", "close");
+    }
+
+    /**
+     * 缓冲区中是否有完整的请求头，有则记录其结束位置
+     */
+    private boolean hasHead() {
+        // 忽略请求之间多余的空行
+        while (pos < limit && ('\r' == buf[pos] || '\n' == buf[pos])) {
+            pos++;
+        }
+        if (pos > 0) {
+            compact();
+        }
+        final int end = RequestHead.findEnd(buf, Math.max(0, scanFrom - 3), limit);
+        if (end < 0 || end > server.getMaxRequestHeadSize()) {
+            scanFrom = limit;
+            return false;
+        }
+        headEnd = end;
+        return true;
+    }
+
+    /**
+     * 将未消费的数据移到缓冲区开头，丢弃已处理的请求
+     */
+    private void compact() {
+        final int remaining = limit - pos;
+        if (remaining > 0 && pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, remaining);
+        }
+        pos = 0;
+        limit = remaining;
+        headEnd = 0;
+        scanFrom = 0;
+    }
+
+    /**
+     * 缓冲区已消费完时读取更多请求体数据到请求头之后的区域
+     */
+    private int fill() throws IOException {
+        pos = limit = headEnd;
+        readBuffer.limit(buf.length).position(limit);
+        final int n = readDirect(readBuffer);
+        if (n > 0) {
+            limit += n;
+        }
+        return n;
+    }
+
+    private int readDirect( ByteBuffer dst ) throws IOException {
+        int n;
+        while (0 == (n = channel.read(dst))) {
+            await(SelectionKey.OP_READ);
+        }
+        return n;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.flip();
+        try {
+            writeFully(out);
+        } finally {
+            out.clear();
+        }
+    }
+
+    private void writeFully( ByteBuffer src ) throws IOException {
+        while (src.hasRemaining()) {
+            if (0 == channel.write(src)) {
+                await(SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    /**
+     * 在工作线程中等待连接可读或可写，使用从服务端借用的Selector，等待结束后注销连接并归还
+     */
+    private void await( int op ) throws IOException {
+        final Selector selector = server.borrowSelector();
+        SelectionKey ioKey = null;
+        waitingSelector = selector;
+        try {
+            // 先发布等待的Selector再检查状态，保证并发的close能唤醒本次等待
+            if (closed) {
+                throw new IOException("Connection closed");
+            }
+            ioKey = channel.register(selector, op);
+            final long timeout = server.getIoTimeoutMillis();
+            final long deadline = System.currentTimeMillis() + timeout;
+            while (0 == selector.select(timeout)) {
+                if (closed) {
+                    throw new IOException("Connection closed");
+                }
+                if (timeout > 0 && System.currentTimeMillis() >= deadline) {
+                    throw new SocketTimeoutException(StrUtil.format("{} timeout after {}ms",
+                            (SelectionKey.OP_READ == op) ? "Read" : "Write", timeout));
+                }
+            }
+        } finally {
+            waitingSelector = null;
+            if (null != ioKey) {
+                ioKey.cancel();
+            }
+            server.releaseSelector(selector);
+        }
+    }
+
+    /**
+     * 发送简单的错误响应，并声明关闭连接
+     */
+    private void sendError( int code, String message ) {
+        final byte[] body = StrUtil.nullToEmpty(message).getBytes(CharsetUtil.CHARSET_UTF_8);
+        try {
+            out.clear();
+            writeAscii(StrUtil.format("HTTP/1.1 {} {}\r\nContent-Type: text/plain; charset=UTF-8\r\nContent-Length: {}\r\nConnection: close\r\n\r\n",
+                    code, NioHttpExchange.reason(code), body.length));
+            write(body, 0, body.length);
+            flush();
+        } catch (IOException e) {
+            // 客户端已断开，忽略
+        }
+    }
+
+    private void dispatch() {
+        try {
+            server.execute(this::process);
+        } catch (RejectedExecutionException e) {
+            close();
+        }
+    }
+    // ---------------------------------------------------------------------------- Private method end
+}
@@ -0,0 +1,82 @@
+package com.whaleal.icefrog.http.server.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link NioHttpServer}的请求映射上下文
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+final class NioHttpContext extends HttpContext {
+
+    private final NioHttpServer server;
+    private final String path;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final List<Filter> filters = new CopyOnWriteArrayList<>();
+    private volatile HttpHandler handler;
+    private volatile Authenticator authenticator;
+
+    NioHttpContext( NioHttpServer server, String path, HttpHandler handler ) {
+        this.server = server;
+        this.path = path;
+        this.handler = handler;
+    }
+
+    @Override
+    public HttpHandler getHandler() {
+        return this.handler;
+    }
+
+    @Override
+    public void setHandler( HttpHandler handler ) {
+        if (null == handler) {
+            throw new NullPointerException("Null handler parameter");
+        }
+        if (null != this.handler) {
+            throw new IllegalArgumentException("Handler already set");
+        }
+        this.handler = handler;
+    }
+
+    @Override
+    public String getPath() {
+        return this.path;
+    }
+
+    @Override
+    public HttpServer getServer() {
+        return this.server;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return this.attributes;
+    }
+
+    @Override
+    public List<Filter> getFilters() {
+        return this.filters;
+    }
+
+    @Override
+    public Authenticator setAuthenticator( Authenticator auth ) {
+        final Authenticator old = this.authenticator;
+        this.authenticator = auth;
+        return old;
+    }
+
+    @Override
+    public Authenticator getAuthenticator() {
+        return this.authenticator;
+    }
+}
@@ -0,0 +1,648 @@
+package com.whaleal.icefrog.http.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import com.whaleal.icefrog.core.date.DateUtil;
+import com.whaleal.icefrog.core.io.IoUtil;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于{@link NioHttpConnection}的{@link HttpExchange}实现，行为与JDK实现保持一致：
+ * <ul>
+ *     <li>{@link #sendResponseHeaders(int, long)}的长度为0表示chunked，-1表示无响应体</li>
+ *     <li>响应头写入连接的写缓冲区，与响应体一起写出，小响应只需一次系统调用</li>
+ *     <li>处理器未发送响应头时返回500</li>
+ * </ul>
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+final class NioHttpExchange extends HttpExchange {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private static volatile CachedDate cachedDate = new CachedDate(0, null);
+
+    private final NioHttpConnection conn;
+    private final RequestHead head;
+    private final URI uri;
+    private final NioHttpContext context;
+    private final Headers responseHeaders = new Headers();
+    private final RequestBody requestBody;
+    private final ResponseBody responseBody = new ResponseBody();
+    private final boolean expectContinue;
+    private InputStream userIn;
+    private OutputStream userOut;
+    private Map<String, Object> attributes;
+    private HttpPrincipal principal;
+    private int responseCode = -1;
+    private boolean headersSent;
+    private boolean continueSent;
+    private boolean keepAlive;
+
+    NioHttpExchange( NioHttpConnection conn, RequestHead head, URI uri, NioHttpContext context, long contentLength, boolean keepAlive ) {
+        this.conn = conn;
+        this.head = head;
+        this.uri = uri;
+        this.context = context;
+        this.keepAlive = keepAlive;
+        this.requestBody = new RequestBody(contentLength);
+        this.expectContinue = head.hasToken("Expect", "100-continue");
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return head.toHeaders();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return this.responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return this.uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return head.method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return this.context;
+    }
+
+    @Override
+    public void close() {
+        IoUtil.close(getRequestBody());
+        IoUtil.close(getResponseBody());
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return (null != this.userIn) ? this.userIn : this.requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return (null != this.userOut) ? this.userOut : this.responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders( int rCode, long responseLength ) throws IOException {
+        if (headersSent) {
+            throw new IOException("headers already sent");
+        }
+        final boolean http10 = "HTTP/1.0".equals(head.protocol);
+        final boolean noBody = "HEAD".equals(head.method) || 204 == rCode || 304 == rCode || rCode < 200;
+        String framing = null;
+        if (noBody) {
+            responseBody.mode = Mode.NONE;
+            if ("HEAD".equals(head.method) && responseLength > 0) {
+                framing = "Content-Length: " + responseLength;
+            }
+        } else if (responseLength > 0) {
+            responseBody.mode = Mode.FIXED;
+            responseBody.remaining = responseLength;
+            framing = "Content-Length: " + responseLength;
+        } else if (responseLength < 0) {
+            responseBody.mode = Mode.NONE;
+            framing = "Content-Length: 0";
+        } else if (http10) {
+            // HTTP/1.0不支持chunked，以关闭连接表示响应结束
+            responseBody.mode = Mode.UNTIL_CLOSE;
+            keepAlive = false;
+        } else {
+            responseBody.mode = Mode.CHUNKED;
+            framing = "Transfer-Encoding: chunked";
+        }
+        final List<String> connection = responseHeaders.get("Connection");
+        if (null != connection && connection.stream().anyMatch("close"::equalsIgnoreCase)) {
+            keepAlive = false;
+        }
+
+        conn.writeAscii("HTTP/1.1 " + rCode + ' ' + reason(rCode) + "\r\n");
+        conn.writeAscii("Date: " + httpDate() + "\r\n");
+        for (Map.Entry<String, List<String>> entry : responseHeaders.entrySet()) {
+            final String name = entry.getKey();
+            if ("Content-Length".equalsIgnoreCase(name) || "Transfer-Encoding".equalsIgnoreCase(name)
+                    || "Connection".equalsIgnoreCase(name) || "Date".equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                writeHeader(name, value);
+            }
+        }
+        if (null != framing) {
+            conn.writeAscii(framing + "\r\n");
+        }
+        if (false == keepAlive) {
+            conn.writeAscii("Connection: close\r\n");
+        } else if (http10) {
+            conn.writeAscii("Connection: keep-alive\r\n");
+        }
+        conn.writeAscii("\r\n");
+
+        this.responseCode = rCode;
+        this.headersSent = true;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return conn.remoteAddress;
+    }
+
+    @Override
+    public int getResponseCode() {
+        return this.responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return conn.localAddress;
+    }
+
+    @Override
+    public String getProtocol() {
+        return head.protocol;
+    }
+
+    @Override
+    public Object getAttribute( String name ) {
+        return attributes().get(name);
+    }
+
+    @Override
+    public void setAttribute( String name, Object value ) {
+        if (null == value) {
+            attributes().remove(name);
+        } else {
+            attributes().put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams( InputStream i, OutputStream o ) {
+        if (null != i) {
+            this.userIn = i;
+        }
+        if (null != o) {
+            this.userOut = o;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return this.principal;
+    }
+
+    void setPrincipal( HttpPrincipal principal ) {
+        this.principal = principal;
+    }
+
+    boolean isHeadersSent() {
+        return this.headersSent;
+    }
+
+    /**
+     * 连接是否可继续使用，在{@link #finish(long)}之后有效
+     */
+    boolean isKeepAlive() {
+        return this.keepAlive;
+    }
+
+    /**
+     * 处理器返回后完成本次交换：补发响应、结束响应体、丢弃未读取的请求体
+     *
+     * @param maxDrain 最多丢弃的请求体长度
+     * @return 连接是否可继续使用
+     * @throws IOException IO异常
+     */
+    boolean finish( long maxDrain ) throws IOException {
+        if (false == headersSent) {
+            sendResponseHeaders(500, -1);
+        }
+        if (false == responseBody.closed) {
+            try {
+                // 优先关闭过滤器包装后的流，使包装流写出剩余数据
+                getResponseBody().close();
+                responseBody.close();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        if (responseBody.incomplete || Mode.UNTIL_CLOSE == responseBody.mode) {
+            return false;
+        }
+        if (expectContinue && false == continueSent) {
+            // 客户端可能不会发送请求体，无法确定下一个请求的开始位置
+            keepAlive = false;
+            return true;
+        }
+        if (keepAlive && false == requestBody.drain(maxDrain)) {
+            keepAlive = false;
+        }
+        return true;
+    }
+
+    /**
+     * 获取HTTP状态码对应的原因短语
+     *
+     * @param code 状态码
+     * @return 原因短语
+     */
+    static String reason( int code ) {
+        switch (code) {
+            case 100:
+                return "Continue";
+            case 101:
+                return "Switching Protocols";
+            case 200:
+                return "OK";
+            case 201:
+                return "Created";
+            case 202:
+                return "Accepted";
+            case 204:
+                return "No Content";
+            case 206:
+                return "Partial Content";
+            case 301:
+                return "Moved Permanently";
+            case 302:
+                return "Found";
+            case 303:
+                return "See Other";
+            case 304:
+                return "Not Modified";
+            case 307:
+                return "Temporary Redirect";
+            case 400:
+                return "Bad Request";
+            case 401:
+                return "Unauthorized";
+            case 403:
+                return "Forbidden";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 413:
+                return "Payload Too Large";
+            case 416:
+                return "Range Not Satisfiable";
+            case 431:
+                return "Request Header Fields Too Large";
+            case 500:
+                return "Internal Server Error";
+            case 501:
+                return "Not Implemented";
+            case 502:
+                return "Bad Gateway";
+            case 503:
+                return "Service Unavailable";
+            default:
+                return "";
+        }
+    }
+
+    // ---------------------------------------------------------------------------- Private method start
+    private void writeHeader( String name, String value ) throws IOException {
+        if (null == value) {
+            value = "";
+        }
+        if (value.indexOf('\r') >= 0 || value.indexOf('\n') >= 0) {
+            throw new IOException("Illegal character in header value: " + name);
+        }
+        conn.writeAscii(name);
+        conn.writeAscii(": ");
+        conn.writeAscii(value);
+        conn.writeAscii("\r\n");
+    }
+
+    private Map<String, Object> attributes() {
+        if (null == this.attributes) {
+            this.attributes = (null != context) ? context.getAttributes() : new HashMap<>();
+        }
+        return this.attributes;
+    }
+
+    private void sendContinue() throws IOException {
+        if (expectContinue && false == continueSent && false == headersSent) {
+            conn.writeAscii("HTTP/1.1 100 Continue\r\n\r\n");
+            conn.flush();
+        }
+        continueSent = true;
+    }
+
+    /**
+     * Date头信息每秒只格式化一次
+     */
+    private static String httpDate() {
+        final long second = System.currentTimeMillis() / 1000;
+        CachedDate date = cachedDate;
+        if (date.second != second) {
+            date = new CachedDate(second, DateUtil.formatHttpDate(new Date(second * 1000)));
+            cachedDate = date;
+        }
+        return date.value;
+    }
+    // ---------------------------------------------------------------------------- Private method end
+
+    private enum Mode {
+        /**
+         * 无响应体
+         */
+        NONE,
+        /**
+         * 固定长度
+         */
+        FIXED,
+        /**
+         * chunked
+         */
+        CHUNKED,
+        /**
+         * 以关闭连接结束，用于HTTP/1.0的不定长度响应
+         */
+        UNTIL_CLOSE
+    }
+
+    private static class CachedDate {
+        final long second;
+        final String value;
+
+        CachedDate( long second, String value ) {
+            this.second = second;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 请求体，固定长度或chunked，读取不会越过请求体的边界
+     */
+    private class RequestBody extends InputStream {
+        /**
+         * 固定长度时为剩余长度，chunked时为-1
+         */
+        private long remaining;
+        private final boolean chunked;
+        private long chunkRemaining;
+        private boolean eof;
+
+        RequestBody( long contentLength ) {
+            this.chunked = contentLength < 0;
+            this.remaining = contentLength;
+            this.eof = 0 == contentLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return (-1 == read(b, 0, 1)) ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) throws IOException {
+            if (eof) {
+                return -1;
+            }
+            if (0 == len) {
+                return 0;
+            }
+            if (false == continueSent) {
+                sendContinue();
+            }
+            if (chunked) {
+                if (0 == chunkRemaining && false == nextChunk()) {
+                    return -1;
+                }
+                final int n = checkEof(conn.read(b, off, (int) Math.min(len, chunkRemaining)));
+                chunkRemaining -= n;
+                if (0 == chunkRemaining) {
+                    readCrlf();
+                }
+                return n;
+            }
+
+            final int n = checkEof(conn.read(b, off, (int) Math.min(len, remaining)));
+            remaining -= n;
+            if (0 == remaining) {
+                eof = true;
+            }
+            return n;
+        }
+
+        /**
+         * 读取并丢弃剩余的请求体
+         *
+         * @param max 最大丢弃长度
+         * @return 是否已读取到请求体末尾
+         */
+        boolean drain( long max ) throws IOException {
+            if (eof) {
+                return true;
+            }
+            if (false == chunked && remaining > max) {
+                return false;
+            }
+            final byte[] skip = new byte[(int) Math.min(CHUNK_SIZE, Math.max(1, max))];
+            long total = 0;
+            int n;
+            while (total <= max && -1 != (n = read(skip, 0, skip.length))) {
+                total += n;
+            }
+            return eof;
+        }
+
+        @Override
+        public void close() {
+            // 未读取的部分在交换结束时处理
+        }
+
+        /**
+         * 读取chunk大小行，最后一个chunk之后读取并忽略trailer
+         */
+        private boolean nextChunk() throws IOException {
+            final String line = readLine();
+            final int semicolon = line.indexOf(';');
+            final String size = (semicolon >= 0) ? line.substring(0, semicolon).trim() : line.trim();
+            try {
+                chunkRemaining = Long.parseLong(size, 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad chunk size: " + line);
+            }
+            if (chunkRemaining < 0) {
+                throw new IOException("Bad chunk size: " + line);
+            }
+            if (0 == chunkRemaining) {
+                String trailer;
+                do {
+                    trailer = readLine();
+                } while (false == trailer.isEmpty());
+                eof = true;
+                return false;
+            }
+            return true;
+        }
+
+        private void readCrlf() throws IOException {
+            if (false == readLine().isEmpty()) {
+                throw new IOException("Missing CRLF after chunk");
+            }
+        }
+
+        private String readLine() throws IOException {
+            final StringBuilder line = new StringBuilder();
+            int b;
+            while ('\n' != (b = conn.read())) {
+                if (-1 == b) {
+                    throw new EOFException("Unexpected end of chunked request body");
+                }
+                if (line.length() >= 1024) {
+                    throw new IOException("Chunk line too long");
+                }
+                if ('\r' != b) {
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        private int checkEof( int n ) throws EOFException {
+            if (n < 0) {
+                throw new EOFException("Unexpected end of request body");
+            }
+            return n;
+        }
+    }
+
+    /**
+     * 响应体，按{@link #sendResponseHeaders(int, long)}确定的方式分帧
+     */
+    private class ResponseBody extends OutputStream {
+        private Mode mode;
+        private long remaining;
+        private byte[] chunk;
+        private int chunkSize;
+        private boolean closed;
+        /**
+         * 固定长度的响应未写完
+         */
+        private boolean incomplete;
+
+        @Override
+        public void write( int b ) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException {
+            checkWritable();
+            if (0 == len) {
+                return;
+            }
+            switch (mode) {
+                case NONE:
+                    throw new IOException("Response has no body");
+                case FIXED:
+                    if (len > remaining) {
+                        throw new IOException("too many bytes to write to stream");
+                    }
+                    conn.write(b, off, len);
+                    remaining -= len;
+                    break;
+                case CHUNKED:
+                    writeChunked(b, off, len);
+                    break;
+                default:
+                    conn.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            checkWritable();
+            if (Mode.CHUNKED == mode) {
+                flushChunk();
+            }
+            conn.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed || false == headersSent) {
+                return;
+            }
+            closed = true;
+            if (Mode.CHUNKED == mode) {
+                flushChunk();
+                conn.writeAscii("0\r\n\r\n");
+            }
+            conn.flush();
+            if (Mode.FIXED == mode && remaining > 0) {
+                incomplete = true;
+                throw new IOException("insufficient bytes written to stream");
+            }
+        }
+
+        private void checkWritable() throws IOException {
+            if (false == headersSent) {
+                throw new IOException("response headers not sent yet");
+            }
+            if (closed) {
+                throw new IOException("stream is closed");
+            }
+        }
+
+        /**
+         * 小数据先合并到chunk缓冲区，避免产生大量小chunk，大数据直接作为一个chunk写出
+         */
+        private void writeChunked( byte[] b, int off, int len ) throws IOException {
+            if (null == chunk) {
+                chunk = new byte[CHUNK_SIZE];
+            }
+            if (chunkSize + len <= chunk.length) {
+                System.arraycopy(b, off, chunk, chunkSize, len);
+                chunkSize += len;
+                return;
+            }
+            flushChunk();
+            if (len >= chunk.length) {
+                writeChunk(b, off, len);
+            } else {
+                System.arraycopy(b, off, chunk, 0, len);
+                chunkSize = len;
+            }
+        }
+
+        private void flushChunk() throws IOException {
+            if (chunkSize > 0) {
+                writeChunk(chunk, 0, chunkSize);
+                chunkSize = 0;
+            }
+        }
+
+        private void writeChunk( byte[] b, int off, int len ) throws IOException {
+            conn.writeAscii(Integer.toHexString(len));
+            conn.writeAscii("\r\n");
+            conn.write(b, off, len);
+            conn.writeAscii("\r\n");
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.whaleal.icefrog.http.server.nio;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.whaleal.icefrog.core.io.IoUtil;
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.core.util.ReflectUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.http.HttpException;
+import com.whaleal.icefrog.socket.nio.NioServer;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于icefrog-socket {@link NioServer}的HTTP/1.1服务端，实现{@link HttpServer}，可替换JDK自带实现（icefrog-socket为可选依赖，使用时需自行引入）：
+ * <ul>
+ *     <li>一个Selector线程负责接入和读取请求头，请求头解析只记录位置不复制数据</li>
+ *     <li>请求交给{@link #setExecutor(Executor)}指定的线程池处理，处理中的连接暂停读取，形成背压</li>
+ *     <li>支持长连接和管线化请求，空闲超过{@link #setKeepAliveMillis(long)}的连接被关闭</li>
+ *     <li>在Java 21及以上版本可通过{@link #newVirtualThreadExecutor()}为每个请求使用一个虚拟线程</li>
+ * </ul>
+ *
+ * <pre>
+ * HttpServer server = NioHttpServer.create(new InetSocketAddress(8080));
+ * new SimpleServer(server).addAction("/", (req, res) -&gt; res.write("OK")).start();
+ * </pre>
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class NioHttpServer extends HttpServer {
+
+    /**
+     * 默认请求头最大长度
+     */
+    public static final int DEFAULT_MAX_REQUEST_HEAD_SIZE = 8 * 1024;
+    /**
+     * 默认空闲长连接保持时间
+     */
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 60 * 1000L;
+    /**
+     * 默认处理请求时读写等待超时
+     */
+    public static final long DEFAULT_IO_TIMEOUT_MILLIS = 30 * 1000L;
+
+    private static final AtomicInteger SERVER_COUNT = new AtomicInteger();
+    /**
+     * 最多保留的空闲Selector数，超出时归还的Selector直接关闭
+     */
+    private static final int MAX_IDLE_IO_SELECTORS = 16;
+
+    private final Map<String, NioHttpContext> contexts = new ConcurrentHashMap<>();
+    private final Map<NioHttpConnection, Boolean> connections = new ConcurrentHashMap<>();
+    /**
+     * 工作线程等待连接读写就绪时共用的空闲Selector
+     */
+    private final Queue<Selector> ioSelectors = new ConcurrentLinkedQueue<>();
+    private NioServer nioServer;
+    private Executor executor;
+    private ScheduledExecutorService sweeper;
+    private Thread selectorThread;
+    private volatile boolean stopping;
+
+    private int maxRequestHeadSize = DEFAULT_MAX_REQUEST_HEAD_SIZE;
+    private int maxRequestsPerConnection;
+    private long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+    private long ioTimeoutMillis = DEFAULT_IO_TIMEOUT_MILLIS;
+
+    /**
+     * 创建并绑定到指定地址
+     *
+     * @param address 监听地址，端口为0表示随机可用端口
+     * @return NioHttpServer
+     */
+    public static NioHttpServer create( InetSocketAddress address ) {
+        final NioHttpServer server = new NioHttpServer();
+        try {
+            server.bind(address, 0);
+        } catch (IOException e) {
+            throw new HttpException(e);
+        }
+        return server;
+    }
+
+    /**
+     * 当前JVM是否支持虚拟线程（Java 21及以上）
+     *
+     * @return 是否支持
+     */
+    public static boolean isVirtualThreadSupported() {
+        return null != ReflectUtil.getMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+    }
+
+    /**
+     * 创建每个任务使用一个虚拟线程的线程池，用于{@link #setExecutor(Executor)}，
+     * 处理器中的阻塞操作不再占用平台线程。项目以Java 8编译，此处通过反射调用
+     *
+     * @return 线程池
+     * @throws HttpException 当前JVM不支持虚拟线程
+     */
+    public static ExecutorService newVirtualThreadExecutor() throws HttpException {
+        final Method method = ReflectUtil.getMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+        if (null == method) {
+            throw new HttpException("Virtual threads require Java 21+, current is {}", System.getProperty("java.version"));
+        }
+        return ReflectUtil.invokeStatic(method);
+    }
+
+    /**
+     * 构造，需调用{@link #bind(InetSocketAddress, int)}绑定地址
+     */
+    public NioHttpServer() {
+    }
+
+    /**
+     * 设置请求头（包括请求行）最大长度，超出返回431，需在{@link #start()}前设置
+     *
+     * @param maxRequestHeadSize 最大长度
+     * @return this
+     */
+    public NioHttpServer setMaxRequestHeadSize( int maxRequestHeadSize ) {
+        Precondition.isTrue(maxRequestHeadSize > 0, "Max request head size must be positive !");
+        this.maxRequestHeadSize = maxRequestHeadSize;
+        return this;
+    }
+
+    /**
+     * 设置每个长连接最多处理的请求数，达到后响应Connection: close
+     *
+     * @param maxRequestsPerConnection 最大请求数，小于等于0表示不限制
+     * @return this
+     */
+    public NioHttpServer setMaxRequestsPerConnection( int maxRequestsPerConnection ) {
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        return this;
+    }
+
+    /**
+     * 设置空闲长连接保持时间，超时未收到完整请求头的连接被关闭
+     *
+     * @param keepAliveMillis 保持时间，单位毫秒
+     * @return this
+     */
+    public NioHttpServer setKeepAliveMillis( long keepAliveMillis ) {
+        Precondition.isTrue(keepAliveMillis > 0, "Keep alive millis must be positive !");
+        this.keepAliveMillis = keepAliveMillis;
+        return this;
+    }
+
+    /**
+     * 设置处理请求时读取请求体或写出响应的等待超时
+     *
+     * @param ioTimeoutMillis 超时，单位毫秒，0表示不超时
+     * @return this
+     */
+    public NioHttpServer setIoTimeoutMillis( long ioTimeoutMillis ) {
+        Precondition.isTrue(ioTimeoutMillis >= 0, "IO timeout millis must not be negative !");
+        this.ioTimeoutMillis = ioTimeoutMillis;
+        return this;
+    }
+
+    public int getMaxRequestHeadSize() {
+        return this.maxRequestHeadSize;
+    }
+
+    public int getMaxRequestsPerConnection() {
+        return this.maxRequestsPerConnection;
+    }
+
+    public long getKeepAliveMillis() {
+        return this.keepAliveMillis;
+    }
+
+    public long getIoTimeoutMillis() {
+        return this.ioTimeoutMillis;
+    }
+
+    /**
+     * 当前打开的连接数
+     *
+     * @return 连接数
+     */
+    public int getConnectionCount() {
+        return this.connections.size();
+    }
+
+    @Override
+    public void bind( InetSocketAddress addr, int backlog ) throws IOException {
+        if (null != this.nioServer) {
+            throw new BindException("NioHttpServer already bound");
+        }
+        if (null == addr) {
+            throw new NullPointerException("null address");
+        }
+        // NioServer使用默认的backlog
+        try {
+            this.nioServer = new NioServer(addr);
+        } catch (Exception e) {
+            final BindException bindException = new BindException(e.getMessage());
+            bindException.initCause(e);
+            throw bindException;
+        }
+        this.nioServer.setChannelHandler(this::handle);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (null == this.nioServer) {
+            throw new IllegalStateException("server not bound");
+        }
+        if (null != this.selectorThread) {
+            throw new IllegalStateException("server already started");
+        }
+        final int id = SERVER_COUNT.incrementAndGet();
+        this.sweeper = new ScheduledThreadPoolExecutor(1, r -> ThreadUtil.newThread(r, "icefrog-nio-http-sweeper-" + id, true));
+        final long period = Math.max(100, Math.min(1000, keepAliveMillis / 2));
+        this.sweeper.scheduleWithFixedDelay(this::closeIdle, period, period, TimeUnit.MILLISECONDS);
+        this.selectorThread = ThreadUtil.newThread(nioServer::listen, "icefrog-nio-http-selector-" + id, false);
+        this.selectorThread.start();
+    }
+
+    @Override
+    public void setExecutor( Executor executor ) {
+        if (null != this.selectorThread) {
+            throw new IllegalStateException("server already started");
+        }
+        this.executor = executor;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * 停止服务：不再接受新请求，等待处理中的请求完成，最多等待指定秒数后关闭所有连接
+     *
+     * @param delay 最长等待秒数
+     */
+    @Override
+    public void stop( int delay ) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("negative delay parameter");
+        }
+        if (stopping) {
+            return;
+        }
+        this.stopping = true;
+        closeIdle();
+        final long deadline = System.currentTimeMillis() + delay * 1000L;
+        while (System.currentTimeMillis() < deadline && connections.keySet().stream().anyMatch(conn -> conn.busy)) {
+            ThreadUtil.sleep(50);
+        }
+        for (NioHttpConnection conn : connections.keySet()) {
+            conn.close();
+        }
+        if (null != this.nioServer) {
+            this.nioServer.close();
+        }
+        if (null != this.sweeper) {
+            this.sweeper.shutdownNow();
+        }
+        if (null != this.selectorThread) {
+            try {
+                this.selectorThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeIdleSelectors();
+    }
+
+    @Override
+    public HttpContext createContext( String path, HttpHandler handler ) {
+        if (null == path || false == path.startsWith(StrUtil.SLASH)) {
+            throw new IllegalArgumentException("Illegal value for path");
+        }
+        final NioHttpContext context = new NioHttpContext(this, path, handler);
+        if (null != this.contexts.putIfAbsent(path, context)) {
+            throw new IllegalArgumentException("cannot add context to list");
+        }
+        return context;
+    }
+
+    @Override
+    public HttpContext createContext( String path ) {
+        return createContext(path, null);
+    }
+
+    @Override
+    public void removeContext( String path ) throws IllegalArgumentException {
+        if (null == this.contexts.remove(path)) {
+            throw new IllegalArgumentException("cannot remove element from list");
+        }
+    }
+
+    @Override
+    public void removeContext( HttpContext context ) {
+        removeContext(context.getPath());
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return (null == this.nioServer) ? null : this.nioServer.getAddress();
+    }
+
+    // ---------------------------------------------------------------------------- package-private method start
+
+    /**
+     * 按最长前缀匹配查找上下文，与JDK实现一致
+     *
+     * @param path 请求路径
+     * @return 上下文，未找到或未设置处理器返回{@code null}
+     */
+    NioHttpContext findContext( String path ) {
+        if (null == path) {
+            return null;
+        }
+        NioHttpContext found = null;
+        for (NioHttpContext context : this.contexts.values()) {
+            if (path.startsWith(context.getPath())
+                    && (null == found || context.getPath().length() > found.getPath().length())) {
+                found = context;
+            }
+        }
+        return (null == found || null == found.getHandler()) ? null : found;
+    }
+
+    boolean isStopping() {
+        return this.stopping;
+    }
+
+    /**
+     * 交给线程池处理，未设置线程池时在Selector线程中处理
+     */
+    void execute( Runnable task ) {
+        if (null == this.executor) {
+            task.run();
+        } else {
+            this.executor.execute(task);
+        }
+    }
+
+    void remove( NioHttpConnection conn ) {
+        this.connections.remove(conn);
+    }
+
+    /**
+     * 借用一个Selector用于在工作线程中等待连接读写就绪，无空闲Selector时新建
+     *
+     * @return Selector
+     * @throws IOException 新建Selector失败
+     */
+    Selector borrowSelector() throws IOException {
+        final Selector selector = this.ioSelectors.poll();
+        return (null == selector) ? Selector.open() : selector;
+    }
+
+    /**
+     * 归还借用的Selector，连接的SelectionKey须已取消<br>
+     * 归还前执行一次selectNow，使已取消的SelectionKey真正注销，同一连接之后可以再次注册，同时清除残留的唤醒状态
+     *
+     * @param selector Selector
+     */
+    void releaseSelector( Selector selector ) {
+        try {
+            selector.selectNow();
+            selector.selectedKeys().clear();
+        } catch (IOException | RuntimeException e) {
+            IoUtil.close(selector);
+            return;
+        }
+        if (this.stopping || this.ioSelectors.size() >= MAX_IDLE_IO_SELECTORS) {
+            IoUtil.close(selector);
+            return;
+        }
+        this.ioSelectors.offer(selector);
+        if (this.stopping) {
+            // 与stop并发归还时由此关闭
+            closeIdleSelectors();
+        }
+    }
+    // ---------------------------------------------------------------------------- package-private method end
+
+    // ---------------------------------------------------------------------------- Private method start
+
+    /**
+     * 关闭所有空闲的Selector
+     */
+    private void closeIdleSelectors() {
+        Selector selector;
+        while (null != (selector = this.ioSelectors.poll())) {
+            IoUtil.close(selector);
+        }
+    }
+
+    /**
+     * 读事件处理，首次可读时创建连接并附加到SelectionKey上
+     */
+    private void handle( SocketChannel channel ) {
+        final SelectionKey key = channel.keyFor(nioServer.getSelector());
+        NioHttpConnection conn = (NioHttpConnection) key.attachment();
+        try {
+            if (null == conn) {
+                conn = new NioHttpConnection(this, channel, key);
+                key.attach(conn);
+                this.connections.put(conn, Boolean.TRUE);
+            }
+            conn.onReadable();
+        } catch (IOException e) {
+            // 客户端断开
+            if (null != conn) {
+                conn.close();
+            } else {
+                key.cancel();
+                IoUtil.close(channel);
+            }
+        }
+    }
+
+    /**
+     * 关闭空闲超时的连接，停止时关闭所有空闲连接
+     */
+    private void closeIdle() {
+        final long now = System.currentTimeMillis();
+        for (NioHttpConnection conn : connections.keySet()) {
+            if (false == conn.busy && (stopping || now - conn.lastActive > keepAliveMillis)) {
+                conn.close();
+            }
+        }
+    }
+    // ---------------------------------------------------------------------------- Private method end
+}
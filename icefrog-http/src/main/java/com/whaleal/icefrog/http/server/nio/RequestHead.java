@@ -0,0 +1,325 @@
+package com.whaleal.icefrog.http.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.http.HttpException;
+
+import java.util.Arrays;
+
+/**
+ * 请求行和请求头，解析时只记录各部分在读缓冲区中的位置，不复制数据<br>
+ * 请求方法为常见方法时直接使用常量，头信息的名称和值只在被访问时才解码为字符串，
+ * 因此只能在读缓冲区被下一个请求覆盖前使用
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+final class RequestHead {
+
+    private static final String[] KNOWN_METHODS = {"GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH", "TRACE", "CONNECT"};
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final byte[] buf;
+    /**
+     * 头信息结束位置（不包括），即请求体开始位置
+     */
+    final int end;
+    final String method;
+    final String target;
+    final String protocol;
+    /**
+     * 每个头信息占4个位置：名称开始、名称结束、值开始、值结束
+     */
+    private int[] slices = new int[64];
+    private int count;
+    private Headers headers;
+
+    private RequestHead( byte[] buf, int end, String method, String target, String protocol ) {
+        this.buf = buf;
+        this.end = end;
+        this.method = method;
+        this.target = target;
+        this.protocol = protocol;
+    }
+
+    /**
+     * 查找头信息结束位置，即空行之后的位置，兼容只使用LF换行的客户端
+     *
+     * @param buf   缓冲区
+     * @param from  开始查找的位置
+     * @param limit 数据结束位置
+     * @return 头信息结束位置，未找到返回-1
+     */
+    static int findEnd( byte[] buf, int from, int limit ) {
+        for (int i = from; i < limit; i++) {
+            if (LF != buf[i]) {
+                continue;
+            }
+            if (i + 1 < limit && LF == buf[i + 1]) {
+                return i + 2;
+            }
+            if (i + 2 < limit && CR == buf[i + 1] && LF == buf[i + 2]) {
+                return i + 3;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解析[0, end)范围内的请求行和请求头
+     *
+     * @param buf 缓冲区
+     * @param end 头信息结束位置，见{@link #findEnd(byte[], int, int)}
+     * @return RequestHead
+     * @throws HttpException 请求格式错误
+     */
+    static RequestHead parse( byte[] buf, int end ) throws HttpException {
+        int lineEnd = lineEnd(buf, 0, end);
+        // 请求行：METHOD SP request-target SP HTTP-version
+        final int sp1 = indexOf(buf, (byte) ' ', 0, lineEnd);
+        final int sp2 = (sp1 < 0) ? -1 : indexOf(buf, (byte) ' ', sp1 + 1, lineEnd);
+        if (sp1 <= 0 || sp2 <= sp1 + 1 || sp2 == contentEnd(buf, lineEnd) - 1) {
+            throw new HttpException("Bad request line");
+        }
+        final RequestHead head = new RequestHead(buf, end, method(buf, sp1),
+                ascii(buf, sp1 + 1, sp2), ascii(buf, sp2 + 1, contentEnd(buf, lineEnd)));
+        if (false == head.protocol.startsWith("HTTP/1.")) {
+            throw new HttpException("Unsupported protocol: {}", head.protocol);
+        }
+
+        int pos = lineEnd + 1;
+        while (pos < end) {
+            lineEnd = lineEnd(buf, pos, end);
+            final int contentEnd = contentEnd(buf, lineEnd);
+            if (contentEnd == pos) {
+                // 空行，头信息结束
+                break;
+            }
+            if (' ' == buf[pos] || '\t' == buf[pos]) {
+                throw new HttpException("Obsolete line folding is not supported");
+            }
+            final int colon = indexOf(buf, (byte) ':', pos, contentEnd);
+            if (colon <= pos || ' ' == buf[colon - 1] || '\t' == buf[colon - 1]) {
+                throw new HttpException("Bad header line");
+            }
+            int valueStart = colon + 1;
+            int valueEnd = contentEnd;
+            while (valueStart < valueEnd && isWhitespace(buf[valueStart])) {
+                valueStart++;
+            }
+            while (valueEnd > valueStart && isWhitespace(buf[valueEnd - 1])) {
+                valueEnd--;
+            }
+            head.add(pos, colon, valueStart, valueEnd);
+            pos = lineEnd + 1;
+        }
+        return head;
+    }
+
+    /**
+     * 获取第一个指定名称的头信息值
+     *
+     * @param name 头信息名称，不区分大小写
+     * @return 值，不存在返回{@code null}
+     */
+    String get( String name ) {
+        final int i = indexOf(name);
+        return (i < 0) ? null : value(i);
+    }
+
+    /**
+     * 头信息是否包含指定名称
+     *
+     * @param name 头信息名称，不区分大小写
+     * @return 是否包含
+     */
+    boolean contains( String name ) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * 指定头信息的值中是否包含指定的标记，如Connection: keep-alive, Upgrade中的keep-alive，
+     * 多个同名头信息都会被检查，比较时不区分大小写
+     *
+     * @param name  头信息名称
+     * @param token 标记
+     * @return 是否包含
+     */
+    boolean hasToken( String name, String token ) {
+        for (int i = 0; i < count; i++) {
+            if (false == nameEquals(i, name)) {
+                continue;
+            }
+            final int valueEnd = slices[i * 4 + 3];
+            int start = slices[i * 4 + 2];
+            while (start < valueEnd) {
+                int tokenEnd = indexOf(buf, (byte) ',', start, valueEnd);
+                if (tokenEnd < 0) {
+                    tokenEnd = valueEnd;
+                }
+                int s = start;
+                int e = tokenEnd;
+                while (s < e && isWhitespace(buf[s])) {
+                    s++;
+                }
+                while (e > s && isWhitespace(buf[e - 1])) {
+                    e--;
+                }
+                if (regionEqualsIgnoreCase(s, e, token)) {
+                    return true;
+                }
+                start = tokenEnd + 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析Content-Length，不解码为字符串
+     *
+     * @return 长度，不存在返回-1
+     * @throws HttpException 格式错误或存在多个不同的值
+     */
+    long contentLength() throws HttpException {
+        long length = -1;
+        for (int i = 0; i < count; i++) {
+            if (false == nameEquals(i, "Content-Length")) {
+                continue;
+            }
+            final int start = slices[i * 4 + 2];
+            final int end = slices[i * 4 + 3];
+            if (start == end || end - start > 18) {
+                throw new HttpException("Bad Content-Length");
+            }
+            long value = 0;
+            for (int j = start; j < end; j++) {
+                final int digit = buf[j] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new HttpException("Bad Content-Length");
+                }
+                value = value * 10 + digit;
+            }
+            if (length >= 0 && length != value) {
+                throw new HttpException("Conflicting Content-Length");
+            }
+            length = value;
+        }
+        return length;
+    }
+
+    /**
+     * 转换为{@link Headers}，首次调用时解码，结果被缓存
+     *
+     * @return {@link Headers}
+     */
+    Headers toHeaders() {
+        if (null == this.headers) {
+            final Headers headers = new Headers();
+            for (int i = 0; i < count; i++) {
+                headers.add(ascii(buf, slices[i * 4], slices[i * 4 + 1]), value(i));
+            }
+            this.headers = headers;
+        }
+        return this.headers;
+    }
+
+    // ---------------------------------------------------------------------------- Private method start
+    private void add( int nameStart, int nameEnd, int valueStart, int valueEnd ) {
+        if (count * 4 == slices.length) {
+            slices = Arrays.copyOf(slices, slices.length * 2);
+        }
+        final int i = count * 4;
+        slices[i] = nameStart;
+        slices[i + 1] = nameEnd;
+        slices[i + 2] = valueStart;
+        slices[i + 3] = valueEnd;
+        count++;
+    }
+
+    private int indexOf( String name ) {
+        for (int i = 0; i < count; i++) {
+            if (nameEquals(i, name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String value( int i ) {
+        final int start = slices[i * 4 + 2];
+        return new String(buf, start, slices[i * 4 + 3] - start, CharsetUtil.CHARSET_ISO_8859_1);
+    }
+
+    private boolean nameEquals( int i, String name ) {
+        return regionEqualsIgnoreCase(slices[i * 4], slices[i * 4 + 1], name);
+    }
+
+    private boolean regionEqualsIgnoreCase( int start, int end, String str ) {
+        if (end - start != str.length()) {
+            return false;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            if (toLowerCase(buf[start + i]) != toLowerCase((byte) str.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 常见请求方法使用常量，避免每次创建字符串
+     */
+    private static String method( byte[] buf, int end ) {
+        for (String method : KNOWN_METHODS) {
+            if (method.length() != end) {
+                continue;
+            }
+            int i = 0;
+            while (i < end && buf[i] == method.charAt(i)) {
+                i++;
+            }
+            if (i == end) {
+                return method;
+            }
+        }
+        return ascii(buf, 0, end);
+    }
+
+    private static String ascii( byte[] buf, int start, int end ) {
+        return new String(buf, start, end - start, CharsetUtil.CHARSET_ISO_8859_1);
+    }
+
+    /**
+     * 行结束位置，即LF的位置
+     */
+    private static int lineEnd( byte[] buf, int from, int end ) {
+        final int i = indexOf(buf, LF, from, end);
+        return (i < 0) ? end : i;
+    }
+
+    /**
+     * 去掉行尾CR后的内容结束位置
+     */
+    private static int contentEnd( byte[] buf, int lineEnd ) {
+        return (lineEnd > 0 && CR == buf[lineEnd - 1]) ? lineEnd - 1 : lineEnd;
+    }
+
+    private static int indexOf( byte[] buf, byte b, int from, int end ) {
+        for (int i = from; i < end; i++) {
+            if (b == buf[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace( byte b ) {
+        return ' ' == b || '\t' == b;
+    }
+
+    private static byte toLowerCase( byte b ) {
+        return (b >= 'A' && b <= 'Z') ? (byte) (b + 32) : b;
+    }
+    // ---------------------------------------------------------------------------- Private method end
+}
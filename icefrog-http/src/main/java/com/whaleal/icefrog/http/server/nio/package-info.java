@@ -0,0 +1,7 @@
+/**
+ * 基于icefrog-socket NIO的HTTP/1.1服务端引擎，实现{@link com.sun.net.httpserver.HttpServer}，
+ * 可替换{@link com.whaleal.icefrog.http.server.SimpleServer}默认使用的JDK实现，已有的Action、过滤器无需修改。
+ *
+ * @author wh
+ */
+package com.whaleal.icefrog.http.server.nio;
@@ -0,0 +1,39 @@
+package com.whaleal.icefrog.http.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+
+/**
+ * HTTP传输层接口，负责为每个请求打开底层连接<br>
+ * {@link com.whaleal.icefrog.http.HttpConnection}只依赖{@link HttpURLConnection}的公开方法，
+ * 因此实现类只需返回一个{@link HttpURLConnection}（https请求返回{@link javax.net.ssl.HttpsURLConnection}），
+ * 即可在不修改{@link com.whaleal.icefrog.http.HttpRequest}调用方式的前提下替换连接管理方式。<br>
+ * 通过{@link com.whaleal.icefrog.http.HttpGlobalConfig#setTransport(HttpTransport)}全局切换。
+ *
+ * @author wh
+ * @see JdkHttpTransport
+ * @see PooledHttpTransport
+ * @since 1.1.8
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * 打开连接，此时不应真正建立网络连接
+     *
+     * @param url   URL，协议为http或https
+     * @param proxy 代理，无代理传{@code null}
+     * @return {@link HttpURLConnection}
+     * @throws IOException IO异常
+     */
+    HttpURLConnection open( URL url, Proxy proxy ) throws IOException;
+
+    /**
+     * 关闭传输层，释放持有的连接等资源，默认无操作
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,34 @@
+package com.whaleal.icefrog.http.transport;
+
+import com.whaleal.icefrog.http.HttpException;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+
+/**
+ * 基于JDK自带{@link URL#openConnection()}的传输层，默认实现<br>
+ * 连接复用由JDK的KeepAliveCache管理，可通过系统属性http.keepAlive、http.maxConnections调整
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class JdkHttpTransport implements HttpTransport {
+
+    /**
+     * 单例
+     */
+    public static final JdkHttpTransport INSTANCE = new JdkHttpTransport();
+
+    @Override
+    public HttpURLConnection open( URL url, Proxy proxy ) throws IOException {
+        final URLConnection conn = (null == proxy) ? url.openConnection() : url.openConnection(proxy);
+        if (false == conn instanceof HttpURLConnection) {
+            // 防止其它协议造成的转换异常
+            throw new HttpException("'{}' of URL [{}] is not a http connection, make sure URL is format for http.", conn.getClass().getName(), url);
+        }
+        return (HttpURLConnection) conn;
+    }
+}
@@ -0,0 +1,191 @@
+package com.whaleal.icefrog.http.transport;
+
+import com.whaleal.icefrog.core.io.IoUtil;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+
+/**
+ * 连接池中的一个HTTP/1.1长连接，持有Socket及其缓冲流<br>
+ * 同一时刻只被一个请求使用
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+final class PooledConnection {
+
+    /**
+     * 响应行和头信息单行最大长度
+     */
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    final PooledHttpTransport.Route route;
+    final Socket socket;
+    final InputStream in;
+    final OutputStream out;
+    /**
+     * 空闲过期时间点
+     */
+    long expireAt;
+    /**
+     * 已完成的请求数，大于0表示为复用的连接
+     */
+    int useCount;
+
+    private PooledConnection( PooledHttpTransport.Route route, Socket socket ) throws IOException {
+        this.route = route;
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    /**
+     * 建立新连接，按需经过代理并完成TLS握手和域名验证
+     *
+     * @param route          路由
+     * @param connectTimeout 连接超时，0表示不超时
+     * @return 连接
+     * @throws IOException IO异常
+     */
+    static PooledConnection connect( PooledHttpTransport.Route route, int connectTimeout ) throws IOException {
+        final Proxy proxy = route.proxy;
+        Socket socket;
+        if (null != proxy && Proxy.Type.SOCKS == proxy.type()) {
+            socket = new Socket(proxy);
+            socket.connect(InetSocketAddress.createUnresolved(route.host, route.port), connectTimeout);
+        } else if (route.isHttpProxy()) {
+            socket = new Socket();
+            final InetSocketAddress address = (InetSocketAddress) proxy.address();
+            socket.connect(address.isUnresolved() ? new InetSocketAddress(address.getHostString(), address.getPort()) : address, connectTimeout);
+        } else {
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(route.host, route.port), connectTimeout);
+        }
+
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            if (route.https) {
+                if (route.isHttpProxy()) {
+                    tunnel(socket, route);
+                }
+                socket = handshake(socket, route);
+            }
+            return new PooledConnection(route, socket);
+        } catch (IOException | RuntimeException e) {
+            IoUtil.close(socket);
+            throw e;
+        }
+    }
+
+    /**
+     * 设置读取超时
+     *
+     * @param readTimeout 读取超时，0表示不超时
+     * @throws IOException IO异常
+     */
+    void setReadTimeout( int readTimeout ) throws IOException {
+        socket.setSoTimeout(readTimeout);
+    }
+
+    /**
+     * 连接是否仍可使用，对端关闭的连接在读取前无法可靠判断，由调用方重试处理
+     *
+     * @return 是否可用
+     */
+    boolean isOpen() {
+        return false == socket.isClosed() && false == socket.isInputShutdown() && false == socket.isOutputShutdown();
+    }
+
+    /**
+     * 读取以CRLF结尾的一行，使用ISO-8859-1解码
+     *
+     * @return 行内容，未读到任何字节即到达流末尾时返回{@code null}
+     * @throws IOException IO异常
+     */
+    String readLine() throws IOException {
+        return readLine(this.in);
+    }
+
+    void close() {
+        IoUtil.close(socket);
+    }
+
+    // ---------------------------------------------------------------------------- Private method start
+
+    /**
+     * 通过HTTP代理的CONNECT方法建立隧道
+     */
+    private static void tunnel( Socket socket, PooledHttpTransport.Route route ) throws IOException {
+        final String authority = route.host + ':' + route.port;
+        final OutputStream out = socket.getOutputStream();
+        out.write(StrUtil.format("CONNECT {} HTTP/1.1\r\nHost: {}\r\n\r\n", authority, authority).getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+        out.flush();
+
+        // 隧道响应只有状态行和头信息，逐字节读取避免吞掉后续TLS数据
+        final InputStream in = socket.getInputStream();
+        final String statusLine = readLine(in);
+        if (null == statusLine) {
+            throw new EOFException("Proxy closed connection while tunneling to " + authority);
+        }
+        final String[] parts = StrUtil.splitToArray(statusLine, ' ', 3);
+        if (parts.length < 2 || false == "200".equals(parts[1])) {
+            throw new IOException(StrUtil.format("Unable to tunnel through proxy to {}, proxy returns: {}", authority, statusLine));
+        }
+        String line;
+        do {
+            line = readLine(in);
+        } while (StrUtil.isNotEmpty(line));
+    }
+
+    /**
+     * TLS握手并验证域名，未指定域名验证器时使用JDK的HTTPS端点验证
+     */
+    private static Socket handshake( Socket socket, PooledHttpTransport.Route route ) throws IOException {
+        final SSLSocket sslSocket = (SSLSocket) route.ssf.createSocket(socket, route.host, route.port, true);
+        if (null == route.hostnameVerifier) {
+            final SSLParameters parameters = sslSocket.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            sslSocket.setSSLParameters(parameters);
+        }
+        sslSocket.startHandshake();
+        if (null != route.hostnameVerifier && false == route.hostnameVerifier.verify(route.host, sslSocket.getSession())) {
+            IoUtil.close(sslSocket);
+            throw new SSLPeerUnverifiedException("Hostname " + route.host + " not verified");
+        }
+        return sslSocket;
+    }
+
+    private static String readLine( InputStream in ) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        int b;
+        while (-1 != (b = in.read())) {
+            if ('\n' == b) {
+                break;
+            }
+            if (buffer.size() >= MAX_LINE_LENGTH) {
+                throw new IOException("HTTP header line exceeds " + MAX_LINE_LENGTH + " bytes");
+            }
+            buffer.write(b);
+        }
+        if (-1 == b && 0 == buffer.size()) {
+            return null;
+        }
+        final String line = buffer.toString(CharsetUtil.ISO_8859_1);
+        return StrUtil.removeSuffix(line, "\r");
+    }
+    // ---------------------------------------------------------------------------- Private method end
+}
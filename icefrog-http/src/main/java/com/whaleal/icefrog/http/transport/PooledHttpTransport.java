@@ -0,0 +1,416 @@
+package com.whaleal.icefrog.http.transport;
+
+import com.whaleal.icefrog.core.lang.Precondition;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.http.HttpException;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 带连接池的HTTP/1.1传输层<br>
+ * 与JDK自带实现相比，提供以下可控的连接管理：
+ * <ul>
+ *     <li>按目标主机（协议、域名、端口、代理、SSL配置）分别维护连接池，长连接读完响应后归还复用</li>
+ *     <li>每个主机的连接总数（使用中+空闲）受{@link #setMaxConnectionsPerHost(int)}限制，超出时等待其它请求归还，等待超时抛出异常</li>
+ *     <li>空闲连接超过{@link #setKeepAliveMillis(long)}（或服务端Keep-Alive头中的timeout）后由后台守护线程关闭</li>
+ *     <li>复用的连接可能已被服务端关闭，请求体可重放时自动换用新连接重试</li>
+ * </ul>
+ * 使用方式：
+ * <pre>
+ * HttpGlobalConfig.setTransport(new PooledHttpTransport().setMaxConnectionsPerHost(50));
+ * </pre>
+ * 配置项须在首次请求前设置。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    /**
+     * 默认每个主机最大连接数
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+    /**
+     * 默认空闲连接保持时长
+     */
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 60 * 1000L;
+    /**
+     * 默认等待可用连接的超时时长
+     */
+    public static final long DEFAULT_LEASE_TIMEOUT_MILLIS = 30 * 1000L;
+
+    private volatile int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private volatile int maxIdleConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private volatile long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+    private volatile long leaseTimeoutMillis = DEFAULT_LEASE_TIMEOUT_MILLIS;
+
+    private final ConcurrentMap<Route, HostPool> pools = new ConcurrentHashMap<>();
+    private ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    /**
+     * 设置每个主机最大连接数，包括使用中和空闲的连接
+     *
+     * @param maxConnectionsPerHost 最大连接数
+     * @return this
+     */
+    public PooledHttpTransport setMaxConnectionsPerHost( int maxConnectionsPerHost ) {
+        Precondition.isTrue(maxConnectionsPerHost > 0, "Max connections per host must be positive !");
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        return this;
+    }
+
+    /**
+     * 设置每个主机最多保留的空闲连接数，0表示不复用连接
+     *
+     * @param maxIdleConnectionsPerHost 最多空闲连接数
+     * @return this
+     */
+    public PooledHttpTransport setMaxIdleConnectionsPerHost( int maxIdleConnectionsPerHost ) {
+        Precondition.isTrue(maxIdleConnectionsPerHost >= 0, "Max idle connections per host must not be negative !");
+        this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+        return this;
+    }
+
+    /**
+     * 设置空闲连接保持时长，超时后关闭
+     *
+     * @param keepAliveMillis 保持时长，单位毫秒
+     * @return this
+     */
+    public PooledHttpTransport setKeepAliveMillis( long keepAliveMillis ) {
+        Precondition.isTrue(keepAliveMillis > 0, "Keep alive millis must be positive !");
+        this.keepAliveMillis = keepAliveMillis;
+        return this;
+    }
+
+    /**
+     * 设置连接数达到上限时等待可用连接的超时时长
+     *
+     * @param leaseTimeoutMillis 超时时长，单位毫秒，0表示一直等待
+     * @return this
+     */
+    public PooledHttpTransport setLeaseTimeoutMillis( long leaseTimeoutMillis ) {
+        Precondition.isTrue(leaseTimeoutMillis >= 0, "Lease timeout millis must not be negative !");
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        return this;
+    }
+
+    @Override
+    public HttpURLConnection open( URL url, Proxy proxy ) throws IOException {
+        if (closed) {
+            throw new IOException("Transport has been closed");
+        }
+        final String protocol = url.getProtocol();
+        if (false == "http".equalsIgnoreCase(protocol) && false == "https".equalsIgnoreCase(protocol)) {
+            throw new HttpException("Protocol [{}] of URL [{}] is not supported by pooled transport.", protocol, url);
+        }
+        return new PooledHttpURLConnection(url, proxy, this);
+    }
+
+    /**
+     * 所有主机的空闲连接数
+     *
+     * @return 空闲连接数
+     */
+    public int getIdleCount() {
+        int count = 0;
+        for (HostPool pool : pools.values()) {
+            count += pool.idleCount();
+        }
+        return count;
+    }
+
+    /**
+     * 所有主机的连接总数，包括使用中和空闲的连接
+     *
+     * @return 连接总数
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (HostPool pool : pools.values()) {
+            count += pool.total;
+        }
+        return count;
+    }
+
+    /**
+     * 关闭所有超过保持时长的空闲连接，后台守护线程会定期调用
+     */
+    public void evictIdle() {
+        final long now = System.currentTimeMillis();
+        for (HostPool pool : pools.values()) {
+            pool.evict(now);
+        }
+    }
+
+    /**
+     * 关闭所有空闲连接并停止后台线程，使用中的连接在归还时关闭
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (null != evictor) {
+                evictor.shutdownNow();
+            }
+        }
+        for (HostPool pool : pools.values()) {
+            pool.shutdown();
+        }
+    }
+
+    // ---------------------------------------------------------------------------- Package method start
+
+    /**
+     * 获取连接，优先复用空闲连接，连接数达到上限时等待
+     *
+     * @param route          路由
+     * @param connectTimeout 新建连接的超时时长
+     * @return 连接
+     * @throws IOException IO异常或等待超时
+     */
+    PooledConnection lease( Route route, int connectTimeout ) throws IOException {
+        if (closed) {
+            throw new IOException("Transport has been closed");
+        }
+        startEvictorIfNecessary();
+
+        final HostPool pool = pools.computeIfAbsent(route, key -> new HostPool());
+        final PooledConnection idle = pool.acquire(System.currentTimeMillis());
+        if (null != idle) {
+            return idle;
+        }
+        // 已占用一个连接名额，新建失败时须释放
+        try {
+            return PooledConnection.connect(route, connectTimeout);
+        } catch (IOException | RuntimeException e) {
+            pool.release(null, false);
+            throw e;
+        }
+    }
+
+    /**
+     * 归还连接
+     *
+     * @param conn            连接
+     * @param reusable        是否可复用，否则关闭
+     * @param keepAliveMillis 服务端声明的保持时长，小于等于0表示未声明
+     */
+    void release( PooledConnection conn, boolean reusable, long keepAliveMillis ) {
+        final HostPool pool = pools.get(conn.route);
+        if (null == pool) {
+            conn.close();
+            return;
+        }
+        if (reusable) {
+            conn.useCount++;
+            final long keepAlive = keepAliveMillis > 0 ? Math.min(keepAliveMillis, this.keepAliveMillis) : this.keepAliveMillis;
+            conn.expireAt = System.currentTimeMillis() + keepAlive;
+        }
+        pool.release(conn, reusable);
+    }
+    // ---------------------------------------------------------------------------- Package method end
+
+    /**
+     * 首次获取连接时启动空闲连接回收线程，检查间隔为保持时长的一半，介于1秒和30秒之间
+     */
+    private synchronized void startEvictorIfNecessary() {
+        if (null != evictor || closed) {
+            return;
+        }
+        final long period = Math.max(1000L, Math.min(keepAliveMillis / 2, 30 * 1000L));
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, ThreadUtil.newNamedThreadFactory("icefrog-http-evictor-", true));
+        executor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        this.evictor = executor;
+    }
+
+    /**
+     * 单个主机的连接池，空闲连接后进先出，使最近使用的连接优先复用
+     */
+    private class HostPool {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+        /**
+         * 使用中和空闲的连接总数
+         */
+        private volatile int total;
+
+        /**
+         * 取出一个空闲连接，无空闲连接但未达上限时占用一个名额并返回{@code null}
+         */
+        PooledConnection acquire( long now ) throws IOException {
+            final long timeout = leaseTimeoutMillis;
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            lock.lock();
+            try {
+                while (true) {
+                    PooledConnection conn;
+                    while (null != (conn = idle.pollFirst())) {
+                        if (conn.expireAt > now && conn.isOpen()) {
+                            return conn;
+                        }
+                        conn.close();
+                        total--;
+                    }
+                    if (closed) {
+                        throw new IOException("Transport has been closed");
+                    }
+                    if (total < maxConnectionsPerHost) {
+                        total++;
+                        return null;
+                    }
+                    if (0 == timeout) {
+                        available.await();
+                    } else {
+                        if (nanos <= 0) {
+                            throw new SocketTimeoutException(StrUtil.format("Timeout waiting for connection, max connections per host: {}", maxConnectionsPerHost));
+                        }
+                        nanos = available.awaitNanos(nanos);
+                    }
+                    now = System.currentTimeMillis();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for connection", e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 归还连接，conn为{@code null}时只释放名额
+         */
+        void release( PooledConnection conn, boolean reusable ) {
+            lock.lock();
+            try {
+                if (null != conn && reusable && false == closed && idle.size() < maxIdleConnectionsPerHost && conn.isOpen()) {
+                    idle.addFirst(conn);
+                } else {
+                    if (null != conn) {
+                        conn.close();
+                    }
+                    total--;
+                }
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void evict( long now ) {
+            lock.lock();
+            try {
+                final Iterator<PooledConnection> iter = idle.iterator();
+                while (iter.hasNext()) {
+                    final PooledConnection conn = iter.next();
+                    if (conn.expireAt <= now || false == conn.isOpen()) {
+                        iter.remove();
+                        conn.close();
+                        total--;
+                        available.signal();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void shutdown() {
+            lock.lock();
+            try {
+                PooledConnection conn;
+                while (null != (conn = idle.pollFirst())) {
+                    conn.close();
+                    total--;
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int idleCount() {
+            lock.lock();
+            try {
+                return idle.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 连接池的键，相同路由的连接可以互相复用
+     */
+    static final class Route {
+        final String host;
+        final int port;
+        final boolean https;
+        final Proxy proxy;
+        final SSLSocketFactory ssf;
+        final HostnameVerifier hostnameVerifier;
+
+        Route( String host, int port, boolean https, Proxy proxy, SSLSocketFactory ssf, HostnameVerifier hostnameVerifier ) {
+            this.host = host;
+            this.port = port;
+            this.https = https;
+            this.proxy = (null == proxy || Proxy.Type.DIRECT == proxy.type()) ? null : proxy;
+            this.ssf = https ? ssf : null;
+            this.hostnameVerifier = https ? hostnameVerifier : null;
+        }
+
+        /**
+         * @return 是否使用HTTP代理
+         */
+        boolean isHttpProxy() {
+            return null != proxy && Proxy.Type.HTTP == proxy.type();
+        }
+
+        @Override
+        public boolean equals( Object o ) {
+            if (this == o) {
+                return true;
+            }
+            if (false == o instanceof Route) {
+                return false;
+            }
+            final Route route = (Route) o;
+            return port == route.port
+                    && https == route.https
+                    && host.equalsIgnoreCase(route.host)
+                    && Objects.equals(proxy, route.proxy)
+                    && ssf == route.ssf
+                    && hostnameVerifier == route.hostnameVerifier;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host.toLowerCase(), port, https, proxy, System.identityHashCode(ssf), System.identityHashCode(hostnameVerifier));
+        }
+
+        @Override
+        public String toString() {
+            return (https ? "https://" : "http://") + host + ':' + port;
+        }
+    }
+}
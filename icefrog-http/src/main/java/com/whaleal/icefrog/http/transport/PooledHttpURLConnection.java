@@ -0,0 +1,853 @@
+package com.whaleal.icefrog.http.transport;
+
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.net.Proxy;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于{@link PooledHttpTransport}连接池的{@link java.net.HttpURLConnection}实现，使用HTTP/1.1协议<br>
+ * 继承{@link HttpsURLConnection}以便http和https请求共用同一实现，http请求忽略SSL相关设置。<br>
+ * 请求体默认缓存在内存中，在读取响应时一并发送，以便复用的连接失效时重试，非幂等的请求（POST、PATCH）只在请求未完整发出时重试；
+ * 设置了{@link #setChunkedStreamingMode(int)}或{@link #setFixedLengthStreamingMode(long)}时直接写出到连接，不再重试。<br>
+ * 响应体读取完毕后连接自动归还连接池，未读完即关闭或调用{@link #disconnect()}时关闭连接。
+ *
+ * @author wh
+ * @since 1.1.8
+ */
+final class PooledHttpURLConnection extends HttpsURLConnection {
+
+    private static final Set<String> METHODS = new HashSet<>(Arrays.asList("GET", "POST", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE", "PATCH"));
+    /**
+     * 幂等方法，请求发出后复用的连接失效时可以重发
+     */
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE"));
+    private static final String HTTP_1_1 = "HTTP/1.1";
+    private static final int HTTP_SWITCHING_PROTOCOLS = 101;
+
+    private final PooledHttpTransport transport;
+    private final Proxy proxy;
+    private PooledHttpTransport.Route route;
+    private Map<String, List<String>> requestHeaders;
+    /**
+     * 当前持有的连接，归还后为{@code null}<br>
+     * {@link #disconnect()}可能由其它线程调用，只有通过getAndSet取得连接的一方归还，避免重复归还
+     */
+    private final AtomicReference<PooledConnection> conn = new AtomicReference<>();
+    private volatile boolean disconnected;
+    private SSLSession sslSession;
+
+    private ByteArrayOutputStream bufferedBody;
+    private OutputStream streamingBody;
+    private boolean requestSent;
+
+    private String statusLine;
+    private final List<String> headerKeys = new ArrayList<>();
+    private final List<String> headerValues = new ArrayList<>();
+    private InputStream body;
+    private boolean reusable;
+    private long keepAliveMillis;
+    private IOException failure;
+
+    /**
+     * 构造
+     *
+     * @param url       URL
+     * @param proxy     代理，无代理传{@code null}
+     * @param transport 连接池
+     */
+    PooledHttpURLConnection( URL url, Proxy proxy, PooledHttpTransport transport ) {
+        super(url);
+        this.proxy = proxy;
+        this.transport = transport;
+    }
+
+    @Override
+    public void setRequestMethod( String method ) throws ProtocolException {
+        if (connected) {
+            throw new ProtocolException("Can't reset method: already connected");
+        }
+        if (false == METHODS.contains(method)) {
+            throw new ProtocolException("Invalid HTTP method: " + method);
+        }
+        this.method = method;
+    }
+
+    @Override
+    public void connect() throws IOException {
+        if (connected) {
+            return;
+        }
+        final boolean https = "https".equalsIgnoreCase(url.getProtocol());
+        SSLSocketFactory ssf = null;
+        HostnameVerifier verifier = null;
+        if (https) {
+            ssf = getSSLSocketFactory();
+            verifier = getHostnameVerifier();
+            if (verifier == getDefaultHostnameVerifier() && verifier.getClass().getName().startsWith(HttpsURLConnection.class.getName())) {
+                // JDK默认的验证器拒绝所有域名，此时改用握手时的HTTPS端点验证
+                verifier = null;
+            }
+        }
+        this.route = new PooledHttpTransport.Route(url.getHost(), getPort(), https, proxy, ssf, verifier);
+        // 建立连接后不能再读取请求头，先保存
+        this.requestHeaders = getRequestProperties();
+        this.conn.set(lease());
+        connected = true;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (false == doOutput) {
+            throw new ProtocolException("cannot write to a URLConnection if doOutput=false - call setDoOutput(true)");
+        }
+        if (null != statusLine || null != failure) {
+            throw new ProtocolException("Cannot write output after reading input.");
+        }
+        if (null != streamingBody) {
+            return streamingBody;
+        }
+        if (null != bufferedBody) {
+            return bufferedBody;
+        }
+
+        final long fixedLength = (-1 != fixedContentLengthLong) ? fixedContentLengthLong : fixedContentLength;
+        if (chunkLength > 0 || fixedLength >= 0) {
+            connect();
+            final boolean chunked = chunkLength > 0;
+            writeHead(chunked ? -1 : fixedLength, chunked);
+            requestSent = true;
+            final OutputStream out = conn().out;
+            streamingBody = chunked ? new ChunkedOutputStream(out, chunkLength) : new FixedLengthOutputStream(out, fixedLength);
+            return streamingBody;
+        }
+        bufferedBody = new ByteArrayOutputStream();
+        return bufferedBody;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (false == doInput) {
+            throw new ProtocolException("Cannot read from URLConnection if doInput=false (call setDoInput(true))");
+        }
+        ensureResponse();
+        if (responseCode >= HTTP_BAD_REQUEST) {
+            if (HTTP_NOT_FOUND == responseCode || HTTP_GONE == responseCode) {
+                throw new FileNotFoundException(url.toString());
+            }
+            throw new IOException(StrUtil.format("Server returned HTTP response code: {} for URL: {}", responseCode, url));
+        }
+        return body;
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        if (false == ensureResponseQuietly()) {
+            return null;
+        }
+        return (responseCode >= HTTP_BAD_REQUEST) ? body : null;
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+        ensureResponse();
+        return responseCode;
+    }
+
+    @Override
+    public String getResponseMessage() throws IOException {
+        ensureResponse();
+        return responseMessage;
+    }
+
+    @Override
+    public String getHeaderField( String name ) {
+        if (null == name || false == ensureResponseQuietly()) {
+            return null;
+        }
+        // 与JDK一致，同名头信息返回最后一个值
+        for (int i = headerKeys.size() - 1; i >= 0; i--) {
+            if (name.equalsIgnoreCase(headerKeys.get(i))) {
+                return headerValues.get(i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getHeaderFieldKey( int n ) {
+        if (n <= 0 || false == ensureResponseQuietly() || n > headerKeys.size()) {
+            return null;
+        }
+        return headerKeys.get(n - 1);
+    }
+
+    @Override
+    public String getHeaderField( int n ) {
+        if (n < 0 || false == ensureResponseQuietly()) {
+            return null;
+        }
+        if (0 == n) {
+            return statusLine;
+        }
+        return (n > headerValues.size()) ? null : headerValues.get(n - 1);
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaderFields() {
+        if (false == ensureResponseQuietly()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, List<String>> headers = new LinkedHashMap<>();
+        // 与JDK一致，状态行的键为null
+        headers.put(null, Collections.singletonList(statusLine));
+        // 名称不区分大小写，使用首次出现的写法
+        final Map<String, String> names = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < headerKeys.size(); i++) {
+            final String name = names.computeIfAbsent(headerKeys.get(i), key -> key);
+            headers.computeIfAbsent(name, key -> new ArrayList<>(1)).add(headerValues.get(i));
+        }
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(headers);
+    }
+
+    @Override
+    public void disconnect() {
+        disconnected = true;
+        if (body instanceof BodyInputStream) {
+            ((BodyInputStream) body).abort();
+        }
+        discard();
+    }
+
+    @Override
+    public boolean usingProxy() {
+        return null != proxy && Proxy.Type.DIRECT != proxy.type();
+    }
+
+    @Override
+    public String getCipherSuite() {
+        return sslSession().getCipherSuite();
+    }
+
+    @Override
+    public Certificate[] getLocalCertificates() {
+        return sslSession().getLocalCertificates();
+    }
+
+    @Override
+    public Certificate[] getServerCertificates() throws SSLPeerUnverifiedException {
+        return sslSession().getPeerCertificates();
+    }
+
+    // ---------------------------------------------------------------------------- Private method start
+
+    private int getPort() {
+        final int port = url.getPort();
+        return (-1 == port) ? url.getDefaultPort() : port;
+    }
+
+    private SSLSession sslSession() {
+        if (null == sslSession) {
+            throw new IllegalStateException("connection not yet open or not a https connection");
+        }
+        return sslSession;
+    }
+
+    /**
+     * 从连接池获取连接并设置读取超时
+     */
+    private PooledConnection lease() throws IOException {
+        final PooledConnection leased = transport.lease(route, getConnectTimeout());
+        try {
+            leased.setReadTimeout(getReadTimeout());
+        } catch (IOException e) {
+            transport.release(leased, false, 0);
+            throw e;
+        }
+        if (leased.socket instanceof SSLSocket) {
+            sslSession = ((SSLSocket) leased.socket).getSession();
+        }
+        return leased;
+    }
+
+    /**
+     * 获取当前持有的连接
+     *
+     * @return 连接
+     * @throws IOException 连接已归还或已断开
+     */
+    private PooledConnection conn() throws IOException {
+        final PooledConnection current = conn.get();
+        if (null == current) {
+            throw new IOException("Connection has been disconnected");
+        }
+        return current;
+    }
+
+    /**
+     * 关闭并归还当前连接
+     */
+    private void discard() {
+        final PooledConnection discarded = conn.getAndSet(null);
+        if (null != discarded) {
+            transport.release(discarded, false, 0);
+        }
+    }
+
+    /**
+     * 响应体读取完毕，连接可复用时归还连接池
+     */
+    private void finish() {
+        final PooledConnection finished = conn.getAndSet(null);
+        if (null != finished) {
+            transport.release(finished, reusable, keepAliveMillis);
+        }
+    }
+
+    private boolean ensureResponseQuietly() {
+        try {
+            ensureResponse();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 发送请求（如尚未发送）并读取响应行和头信息
+     */
+    private void ensureResponse() throws IOException {
+        if (null != failure) {
+            throw failure;
+        }
+        if (null != statusLine) {
+            return;
+        }
+        try {
+            exchange();
+        } catch (IOException e) {
+            failure = e;
+            discard();
+            throw e;
+        }
+    }
+
+    private void exchange() throws IOException {
+        connect();
+        conn();
+        if (requestSent) {
+            // 流式请求体已直接写出，补全结束标记后读取响应
+            if (null != streamingBody) {
+                streamingBody.close();
+            }
+            readResponse();
+            return;
+        }
+
+        final byte[] content = (null == bufferedBody) ? null : bufferedBody.toByteArray();
+        final boolean idempotent = IDEMPOTENT_METHODS.contains(method);
+        while (true) {
+            final PooledConnection current = conn();
+            final boolean reused = current.useCount > 0;
+            try {
+                writeHead(null != content ? content.length : (doOutput ? 0 : -1), false);
+                if (null != content) {
+                    current.out.write(content);
+                }
+                current.out.flush();
+                requestSent = true;
+                readResponse();
+                return;
+            } catch (IOException e) {
+                // 复用的空闲连接可能已被服务端关闭，未收到任何响应时换新连接重试；
+                // 非幂等请求完整发出后服务端可能已处理，不再重发
+                if (false == reused || null != statusLine || e instanceof SocketTimeoutException
+                        || (requestSent && false == idempotent) || disconnected) {
+                    throw e;
+                }
+                discard();
+                requestSent = false;
+                final PooledConnection leased = lease();
+                if (disconnected || false == conn.compareAndSet(null, leased)) {
+                    transport.release(leased, false, 0);
+                    throw new IOException("Connection has been disconnected");
+                }
+            }
+        }
+    }
+
+    /**
+     * 写出请求行和请求头
+     *
+     * @param contentLength 请求体长度，-1表示无请求体
+     * @param chunked       是否分块发送
+     */
+    private void writeHead( long contentLength, boolean chunked ) throws IOException {
+        final StringBuilder head = new StringBuilder(256);
+        final String file = StrUtil.emptyToDefault(url.getFile(), "/");
+        head.append(method).append(' ');
+        if (route.isHttpProxy() && false == route.https) {
+            // 经HTTP代理的明文请求使用绝对地址
+            head.append(url.getProtocol()).append("://").append(url.getAuthority()).append(file);
+        } else {
+            head.append(file);
+        }
+        head.append(' ').append(HTTP_1_1).append(StrUtil.CRLF);
+
+        if (false == hasRequestHeader("Host")) {
+            appendHeader(head, "Host", (getPort() == url.getDefaultPort()) ? url.getHost() : url.getHost() + ':' + getPort());
+        }
+        for (Map.Entry<String, List<String>> entry : requestHeaders.entrySet()) {
+            final String name = entry.getKey();
+            // 请求体长度由实际写出的内容决定
+            if (null == name || "Content-Length".equalsIgnoreCase(name) || "Transfer-Encoding".equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                appendHeader(head, name, value);
+            }
+        }
+        if (false == hasRequestHeader("User-Agent")) {
+            appendHeader(head, "User-Agent", "Java/" + System.getProperty("java.version"));
+        }
+        if (false == hasRequestHeader("Accept")) {
+            appendHeader(head, "Accept", "*/*");
+        }
+        if (chunked) {
+            appendHeader(head, "Transfer-Encoding", "chunked");
+        } else if (contentLength >= 0) {
+            appendHeader(head, "Content-Length", String.valueOf(contentLength));
+        }
+        head.append(StrUtil.CRLF);
+        conn().out.write(head.toString().getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+    }
+
+    /**
+     * 读取响应行和头信息，并根据头信息确定响应体的读取方式
+     */
+    private void readResponse() throws IOException {
+        String version;
+        int code;
+        do {
+            final String line = conn().readLine();
+            if (null == line) {
+                throw new EOFException("Unexpected end of stream from " + route);
+            }
+            final String[] parts = StrUtil.splitToArray(line, ' ', 3);
+            if (parts.length < 2 || false == parts[0].startsWith("HTTP/")) {
+                throw new ProtocolException("Invalid HTTP status line: " + line);
+            }
+            try {
+                code = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Invalid HTTP status line: " + line);
+            }
+            version = parts[0];
+            headerKeys.clear();
+            headerValues.clear();
+            readHeaders();
+            // 跳过100 Continue等临时响应
+            if (code >= 200 || HTTP_SWITCHING_PROTOCOLS == code) {
+                this.statusLine = line;
+                this.responseMessage = (parts.length > 2) ? parts[2] : StrUtil.EMPTY;
+            }
+        } while (code < 200 && HTTP_SWITCHING_PROTOCOLS != code);
+        this.responseCode = code;
+
+        final String connection = getHeaderField("Connection");
+        if (HTTP_1_1.equals(version)) {
+            reusable = false == "close".equalsIgnoreCase(connection);
+        } else {
+            reusable = "keep-alive".equalsIgnoreCase(connection);
+        }
+        if (reusable && "close".equalsIgnoreCase(firstRequestHeader("Connection"))) {
+            reusable = false;
+        }
+        keepAliveMillis = parseKeepAliveTimeout(getHeaderField("Keep-Alive"));
+
+        final String transferEncoding = getHeaderField("Transfer-Encoding");
+        final long contentLength = parseLong(getHeaderField("Content-Length"));
+        if ("HEAD".equals(method) || HTTP_NO_CONTENT == code || HTTP_NOT_MODIFIED == code || HTTP_SWITCHING_PROTOCOLS == code) {
+            body = new ByteArrayInputStream(new byte[0]);
+            finish();
+        } else if (StrUtil.containsIgnoreCase(transferEncoding, "chunked")) {
+            body = new ChunkedInputStream();
+        } else if (0 == contentLength) {
+            body = new ByteArrayInputStream(new byte[0]);
+            finish();
+        } else if (contentLength > 0) {
+            body = new FixedLengthInputStream(contentLength);
+        } else {
+            // 没有长度信息，读取到连接关闭为止
+            reusable = false;
+            body = new UntilCloseInputStream();
+        }
+    }
+
+    private void readHeaders() throws IOException {
+        String line;
+        final PooledConnection current = conn();
+        while (StrUtil.isNotEmpty(line = current.readLine())) {
+            final int index = line.indexOf(':');
+            if (index > 0) {
+                headerKeys.add(line.substring(0, index).trim());
+                headerValues.add(line.substring(index + 1).trim());
+            }
+        }
+        if (null == line) {
+            throw new EOFException("Unexpected end of stream while reading headers from " + route);
+        }
+    }
+
+    private boolean hasRequestHeader( String name ) {
+        return null != firstRequestHeader(name);
+    }
+
+    private String firstRequestHeader( String name ) {
+        for (Map.Entry<String, List<String>> entry : requestHeaders.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && false == entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    private static void appendHeader( StringBuilder head, String name, String value ) {
+        head.append(name).append(": ").append(StrUtil.nullToEmpty(value)).append(StrUtil.CRLF);
+    }
+
+    /**
+     * 解析Keep-Alive头中的timeout参数，如"timeout=5, max=100"
+     *
+     * @return 毫秒数，未声明时返回0
+     */
+    private static long parseKeepAliveTimeout( String keepAlive ) {
+        if (StrUtil.isBlank(keepAlive)) {
+            return 0;
+        }
+        for (String param : StrUtil.splitTrim(keepAlive, ',')) {
+            if (StrUtil.startWithIgnoreCase(param, "timeout=")) {
+                final long seconds = parseLong(param.substring("timeout=".length()).trim());
+                return (seconds > 0) ? seconds * 1000 : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static long parseLong( String value ) {
+        if (StrUtil.isBlank(value)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    // ---------------------------------------------------------------------------- Private method end
+
+    /**
+     * 响应体流，读取到末尾时归还连接，未读完关闭时关闭连接
+     */
+    private abstract class BodyInputStream extends InputStream {
+        private boolean eof;
+        private boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            final int n = read(b, 0, 1);
+            return (-1 == n) ? -1 : (b[0] & 0xff);
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (eof) {
+                return -1;
+            }
+            if (0 == len) {
+                return 0;
+            }
+            final int n;
+            try {
+                n = readBody(b, off, len);
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+            if (-1 == n) {
+                endOfBody();
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            if (false == closed) {
+                closed = true;
+                if (false == eof) {
+                    abort();
+                }
+            }
+        }
+
+        /**
+         * 响应体已完整读取
+         */
+        void endOfBody() {
+            if (false == eof) {
+                eof = true;
+                finish();
+            }
+        }
+
+        /**
+         * 放弃读取，连接中残留数据无法复用，直接关闭
+         */
+        void abort() {
+            eof = true;
+            discard();
+        }
+
+        /**
+         * 读取响应体，到达末尾时返回-1
+         */
+        abstract int readBody( byte[] b, int off, int len ) throws IOException;
+    }
+
+    private class FixedLengthInputStream extends BodyInputStream {
+        private long remaining;
+
+        FixedLengthInputStream( long length ) {
+            this.remaining = length;
+        }
+
+        @Override
+        int readBody( byte[] b, int off, int len ) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            final int n = conn().in.read(b, off, (int) Math.min(len, remaining));
+            if (-1 == n) {
+                throw new EOFException(StrUtil.format("Unexpected end of stream, {} bytes remaining", remaining));
+            }
+            remaining -= n;
+            if (0 == remaining) {
+                // 读完即归还，无需等待调用方再读到-1
+                endOfBody();
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            final PooledConnection current = conn.get();
+            return (null == current) ? 0 : (int) Math.min(current.in.available(), remaining);
+        }
+    }
+
+    private class ChunkedInputStream extends BodyInputStream {
+        private long chunkRemaining;
+        private boolean firstChunk = true;
+
+        @Override
+        int readBody( byte[] b, int off, int len ) throws IOException {
+            final PooledConnection current = conn();
+            if (0 == chunkRemaining) {
+                if (false == firstChunk) {
+                    // 上一块数据后的CRLF
+                    current.readLine();
+                }
+                firstChunk = false;
+                final String sizeLine = current.readLine();
+                if (null == sizeLine) {
+                    throw new EOFException("Unexpected end of chunked stream");
+                }
+                final String size = StrUtil.subBefore(sizeLine, ';', false).trim();
+                try {
+                    chunkRemaining = Long.parseLong(size, 16);
+                } catch (NumberFormatException e) {
+                    throw new ProtocolException("Invalid chunk size: " + sizeLine);
+                }
+                if (0 == chunkRemaining) {
+                    // 跳过尾部头信息
+                    String line;
+                    do {
+                        line = current.readLine();
+                    } while (StrUtil.isNotEmpty(line));
+                    return -1;
+                }
+            }
+            final int n = current.in.read(b, off, (int) Math.min(len, chunkRemaining));
+            if (-1 == n) {
+                throw new EOFException("Unexpected end of chunked stream");
+            }
+            chunkRemaining -= n;
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            final PooledConnection current = conn.get();
+            return (null == current) ? 0 : (int) Math.min(current.in.available(), chunkRemaining);
+        }
+    }
+
+    private class UntilCloseInputStream extends BodyInputStream {
+        @Override
+        int readBody( byte[] b, int off, int len ) throws IOException {
+            return conn().in.read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            final PooledConnection current = conn.get();
+            return (null == current) ? 0 : current.in.available();
+        }
+    }
+
+    /**
+     * 分块写出请求体，关闭时写出结束块，不关闭连接
+     */
+    private static class ChunkedOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final byte[] buffer;
+        private int count;
+        private boolean closed;
+
+        ChunkedOutputStream( OutputStream out, int chunkLength ) {
+            this.out = out;
+            this.buffer = new byte[chunkLength];
+        }
+
+        @Override
+        public void write( int b ) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            while (len > 0) {
+                final int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+                if (count == buffer.length) {
+                    writeChunk();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeChunk();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writeChunk();
+            out.write(("0" + StrUtil.CRLF + StrUtil.CRLF).getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+            out.flush();
+        }
+
+        private void writeChunk() throws IOException {
+            if (0 == count) {
+                return;
+            }
+            out.write((Integer.toHexString(count) + StrUtil.CRLF).getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+            out.write(buffer, 0, count);
+            out.write(StrUtil.CRLF.getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+            count = 0;
+        }
+    }
+
+    /**
+     * 定长写出请求体，关闭时检查写出长度，不关闭连接
+     */
+    private static class FixedLengthOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long remaining;
+        private boolean closed;
+
+        FixedLengthOutputStream( OutputStream out, long length ) {
+            this.out = out;
+            this.remaining = length;
+        }
+
+        @Override
+        public void write( int b ) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len > remaining) {
+                throw new IOException("too many bytes written");
+            }
+            out.write(b, off, len);
+            remaining -= len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (remaining > 0) {
+                throw new IOException("insufficient data written");
+            }
+            out.flush();
+        }
+    }
+}
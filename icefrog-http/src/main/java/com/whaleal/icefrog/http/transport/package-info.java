@@ -0,0 +1,7 @@
+/**
+ * HTTP传输层封装，{@link com.whaleal.icefrog.http.HttpRequest}通过{@link com.whaleal.icefrog.http.transport.HttpTransport}打开底层连接，
+ * 可在{@link com.whaleal.icefrog.http.HttpGlobalConfig}中切换为带连接池的实现。
+ *
+ * @author wh
+ */
+package com.whaleal.icefrog.http.transport;
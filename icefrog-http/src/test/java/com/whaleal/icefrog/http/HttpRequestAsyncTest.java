@@ -0,0 +1,74 @@
+package com.whaleal.icefrog.http;
+
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.http.server.SimpleServer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link HttpRequest#sendAsync()}单元测试，使用本地{@link SimpleServer}
+ *
+ * @author wh
+ */
+public class HttpRequestAsyncTest {
+
+    private static SimpleServer server;
+    private static String baseUrl;
+
+    @BeforeClass
+    public static void init() {
+        server = new SimpleServer(0)
+                .addAction("/echo", ( req, res ) -> res.write(req.getParam("id")))
+                .addAction("/slow", ( req, res ) -> {
+                    ThreadUtil.sleep(2000);
+                    res.write("slow");
+                });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void destroy() {
+        server.getRawServer().stop(0);
+    }
+
+    @Test
+    public void sendAsyncTest() {
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(HttpRequest.get(baseUrl + "/echo?id=" + i).sendAsync().thenApply(HttpResponse::body));
+        }
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(String.valueOf(i), futures.get(i).join());
+        }
+    }
+
+    @Test
+    public void requestTimeoutTest() throws InterruptedException {
+        final long start = System.currentTimeMillis();
+        final CompletableFuture<HttpResponse> future = HttpRequest.get(baseUrl + "/slow").setRequestTimeout(200).sendAsync();
+        try {
+            future.get();
+            Assert.fail("Request should be timeout");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof HttpException);
+            Assert.assertTrue(e.getCause().getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    public void cancelTest() {
+        final CompletableFuture<HttpResponse> future = HttpRequest.get(baseUrl + "/slow").sendAsync();
+        Assert.assertTrue(future.cancel(true));
+        Assert.assertTrue(future.isCancelled());
+    }
+}
@@ -0,0 +1,104 @@
+package com.whaleal.icefrog.http;
+
+import com.whaleal.icefrog.core.io.FileUtil;
+import com.whaleal.icefrog.http.server.SimpleServer;
+import com.whaleal.icefrog.json.JSONObject;
+import com.whaleal.icefrog.json.JSONUtil;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 响应体流式读取单元测试，使用本地{@link SimpleServer}
+ *
+ * @author wh
+ */
+public class HttpResponseStreamTest {
+
+    private static final int BLOCK = 1024;
+    private static final int BLOCK_COUNT = 4096;
+
+    private static SimpleServer server;
+    private static String baseUrl;
+
+    @BeforeClass
+    public static void init() {
+        server = new SimpleServer(0)
+                // 4MB分块响应
+                .addAction("/big", ( req, res ) -> {
+                    res.send(200, 0);
+                    try (OutputStream out = res.getOut()) {
+                        final byte[] block = new byte[BLOCK];
+                        for (int i = 0; i < BLOCK_COUNT; i++) {
+                            block[0] = (byte) i;
+                            out.write(block);
+                        }
+                    } catch (IOException e) {
+                        throw new HttpException(e);
+                    }
+                })
+                .addAction("/array", ( req, res ) -> {
+                    final StringBuilder json = new StringBuilder("[");
+                    for (int i = 0; i < 1000; i++) {
+                        json.append(i > 0 ? "," : "").append("{\"id\":").append(i).append('}');
+                    }
+                    res.write(json.append(']').toString(), ContentType.JSON.toString(StandardCharsets.UTF_8));
+                });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void destroy() {
+        server.getRawServer().stop(0);
+    }
+
+    @Test
+    public void readBodyChunksTest() {
+        final AtomicLong total = new AtomicLong();
+        final AtomicInteger maxChunk = new AtomicInteger();
+        final long length = HttpRequest.get(baseUrl + "/big").executeAsync().readBodyChunks(8192, buffer -> {
+            total.addAndGet(buffer.remaining());
+            maxChunk.accumulateAndGet(buffer.remaining(), Math::max);
+        });
+        Assert.assertEquals((long) BLOCK * BLOCK_COUNT, length);
+        Assert.assertEquals(length, total.get());
+        Assert.assertTrue(maxChunk.get() <= 8192);
+    }
+
+    @Test
+    public void writeBodyToFileChannelTest() throws IOException {
+        final File file = FileUtil.createTempFile("stream", ".tmp", null, true);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            // 从指定位置写入，前部保留
+            final long length = HttpRequest.get(baseUrl + "/big").executeAsync().writeBody(channel, 100, 4096);
+            Assert.assertEquals((long) BLOCK * BLOCK_COUNT, length);
+            Assert.assertEquals(100 + length, channel.size());
+            raf.seek(100 + BLOCK);
+            Assert.assertEquals(1, raf.read());
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    @Test
+    public void readJSONArrayTest() {
+        final AtomicLong sum = new AtomicLong();
+        try (HttpResponse response = HttpRequest.get(baseUrl + "/array").executeAsync()) {
+            final long count = JSONUtil.readJSONArray(response.bodyReader(), element -> sum.addAndGet(((JSONObject) element).getInt("id")));
+            Assert.assertEquals(1000, count);
+        }
+        Assert.assertEquals(999 * 1000 / 2, sum.get());
+    }
+}
@@ -0,0 +1,187 @@
+package com.whaleal.icefrog.http;
+
+import com.whaleal.icefrog.core.io.FileUtil;
+import com.whaleal.icefrog.core.io.IoUtil;
+import com.whaleal.icefrog.core.io.StreamProgress;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.http.server.HttpServerRequest;
+import com.whaleal.icefrog.http.server.HttpServerResponse;
+import com.whaleal.icefrog.http.server.SimpleServer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分段下载单元测试，使用本地{@link SimpleServer}模拟支持范围请求的服务端
+ *
+ * @author wh
+ */
+public class SegmentedDownloaderTest {
+
+    private static final byte[] DATA = new byte[3 * 1024 * 1024 + 123];
+
+    private static SimpleServer server;
+    private static String baseUrl;
+
+    /**
+     * 已发送的字节数
+     */
+    private static final AtomicLong served = new AtomicLong();
+    /**
+     * 剩余需要注入的失败次数，失败的响应只发送一半数据，客户端读取超时
+     */
+    private static final AtomicInteger failures = new AtomicInteger();
+
+    @BeforeClass
+    public static void init() {
+        new Random(42).nextBytes(DATA);
+        server = new SimpleServer(0)
+                .addAction("/range.bin", SegmentedDownloaderTest::sendRange)
+                .addAction("/plain.bin", ( req, res ) -> res.write(DATA));
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void destroy() {
+        server.getRawServer().stop(0);
+    }
+
+    @Before
+    public void reset() {
+        served.set(0);
+        failures.set(0);
+    }
+
+    @Test
+    public void downloadTest() {
+        final File target = FileUtil.file(FileUtil.getTmpDir(), "icefrog-segmented/range.bin");
+        FileUtil.del(target);
+        final AtomicLong progress = new AtomicLong();
+        final long size = SegmentedDownloader.of(baseUrl + "/range.bin")
+                .setSegmentCount(4)
+                .setStreamProgress(new ProgressRecorder(progress))
+                .download(target);
+
+        Assert.assertEquals(DATA.length, size);
+        Assert.assertEquals(DATA.length, progress.get());
+        Assert.assertArrayEquals(DATA, FileUtil.readBytes(target));
+        Assert.assertFalse(FileUtil.exist(target.getPath() + SegmentedDownloader.PART_SUFFIX));
+        Assert.assertFalse(FileUtil.exist(target.getPath() + SegmentedDownloader.MANIFEST_SUFFIX));
+        FileUtil.del(target);
+    }
+
+    @Test
+    public void retryTest() {
+        final File target = FileUtil.file(FileUtil.getTmpDir(), "icefrog-segmented/retry.bin");
+        FileUtil.del(target);
+        failures.set(2);
+        final long size = SegmentedDownloader.of(baseUrl + "/range.bin")
+                .setTimeout(1000)
+                .setRetryIntervalMillis(10)
+                .download(target);
+
+        Assert.assertEquals(DATA.length, size);
+        Assert.assertEquals(0, failures.get());
+        Assert.assertArrayEquals(DATA, FileUtil.readBytes(target));
+        FileUtil.del(target);
+    }
+
+    @Test
+    public void resumeTest() {
+        final File target = FileUtil.file(FileUtil.getTmpDir(), "icefrog-segmented/resume.bin");
+        FileUtil.del(target);
+        final SegmentedDownloader downloader = SegmentedDownloader.of(baseUrl + "/range.bin")
+                .setTimeout(1000)
+                .setMaxRetry(0)
+                .setSegmentCount(3);
+
+        failures.set(Integer.MAX_VALUE);
+        try {
+            downloader.download(target);
+            Assert.fail("Download should fail");
+        } catch (HttpException e) {
+            Assert.assertTrue(FileUtil.exist(target.getPath() + SegmentedDownloader.MANIFEST_SUFFIX));
+        }
+
+        // 第二次下载只请求未完成的部分
+        failures.set(0);
+        served.set(0);
+        Assert.assertEquals(DATA.length, downloader.download(target));
+        Assert.assertTrue(served.get() < DATA.length);
+        Assert.assertArrayEquals(DATA, FileUtil.readBytes(target));
+        Assert.assertFalse(FileUtil.exist(target.getPath() + SegmentedDownloader.MANIFEST_SUFFIX));
+        FileUtil.del(target);
+    }
+
+    @Test
+    public void noRangeSupportTest() {
+        final File target = FileUtil.file(FileUtil.getTmpDir(), "icefrog-segmented/plain.bin");
+        FileUtil.del(target);
+        Assert.assertEquals(DATA.length, HttpDownloader.downloadFileSegmented(baseUrl + "/plain.bin", target, 4, -1, null));
+        Assert.assertArrayEquals(DATA, FileUtil.readBytes(target));
+        FileUtil.del(target);
+    }
+
+    private static void sendRange( HttpServerRequest req, HttpServerResponse res ) {
+        res.setHeader(Header.ACCEPT_RANGES, "bytes");
+        res.setHeader(Header.ETAG, "\"v1\"");
+        final String range = req.getHeader(Header.RANGE);
+        if (StrUtil.isBlank(range)) {
+            res.write(DATA);
+            return;
+        }
+
+        final List<String> bounds = StrUtil.split(StrUtil.removePrefix(range, "bytes="), '-');
+        final int start = Integer.parseInt(bounds.get(0));
+        final int end = Math.min(Integer.parseInt(bounds.get(1)), DATA.length - 1);
+        final int length = end - start + 1;
+        res.setHeader(Header.CONTENT_RANGE, StrUtil.format("bytes {}-{}/{}", start, end, DATA.length));
+        res.send(HttpStatus.HTTP_PARTIAL, length);
+
+        // 探测请求不注入失败
+        final boolean fail = length > 1 && failures.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0;
+        final int sendLength = fail ? length / 2 : length;
+        final OutputStream out = res.getOut();
+        try {
+            out.write(DATA, start, sendLength);
+            out.flush();
+            served.addAndGet(sendLength);
+        } catch (IOException e) {
+            throw new HttpException(e);
+        } finally {
+            IoUtil.close(out);
+        }
+    }
+
+    private static class ProgressRecorder implements StreamProgress {
+        private final AtomicLong progress;
+
+        ProgressRecorder( AtomicLong progress ) {
+            this.progress = progress;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void progress( long progressSize ) {
+            progress.set(progressSize);
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+}
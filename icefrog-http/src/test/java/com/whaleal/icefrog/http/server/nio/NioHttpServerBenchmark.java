@@ -0,0 +1,129 @@
+package com.whaleal.icefrog.http.server.nio;
+
+import com.whaleal.icefrog.core.lang.Console;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.http.server.SimpleServer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测JDK实现与NIO实现的{@link SimpleServer}，每个客户端线程使用一个长连接循环发送请求<br>
+ * 参数：[连接数] [每轮秒数] [管线化深度]，例如：{@code 64 10 1}
+ *
+ * @author wh
+ */
+public class NioHttpServerBenchmark {
+
+    private static final byte[] BODY = new byte[128];
+
+    public static void main( String[] args ) throws Exception {
+        final int connections = (args.length > 0) ? Integer.parseInt(args[0]) : 64;
+        final int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+        final int pipeline = (args.length > 2) ? Integer.parseInt(args[2]) : 1;
+
+        run("jdk", new SimpleServer(new InetSocketAddress("127.0.0.1", 0)), connections, seconds, pipeline);
+        run("nio", new SimpleServer(NioHttpServer.create(new InetSocketAddress("127.0.0.1", 0))), connections, seconds, pipeline);
+        if (NioHttpServer.isVirtualThreadSupported()) {
+            final SimpleServer server = new SimpleServer(NioHttpServer.create(new InetSocketAddress("127.0.0.1", 0)));
+            server.setExecutor(NioHttpServer.newVirtualThreadExecutor());
+            run("nio-virtual", server, connections, seconds, pipeline);
+        }
+    }
+
+    private static void run( String name, SimpleServer server, int connections, int seconds, int pipeline ) throws InterruptedException {
+        server.addAction("/bench", ( req, res ) -> res.write(BODY)).start();
+        final int port = server.getAddress().getPort();
+
+        // 预热
+        load(port, connections, 2, pipeline);
+        final long start = System.nanoTime();
+        final long requests = load(port, connections, seconds, pipeline);
+        final double elapsed = (System.nanoTime() - start) / 1e9;
+        Console.log("{}: {} connections, pipeline {}, {} requests in {}s, {} req/s",
+                name, connections, pipeline, requests, String.format("%.1f", elapsed), (long) (requests / elapsed));
+        server.getRawServer().stop(0);
+    }
+
+    private static long load( int port, int connections, int seconds, int pipeline ) throws InterruptedException {
+        final AtomicLong total = new AtomicLong();
+        final long deadline = System.currentTimeMillis() + seconds * 1000L;
+        final CountDownLatch latch = new CountDownLatch(connections);
+        final ExecutorService executor = Executors.newFixedThreadPool(connections);
+        final byte[] request = ("GET /bench HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n").getBytes(CharsetUtil.CHARSET_ISO_8859_1);
+        final byte[] batch = new byte[request.length * pipeline];
+        for (int i = 0; i < pipeline; i++) {
+            System.arraycopy(request, 0, batch, i * request.length, request.length);
+        }
+
+        for (int i = 0; i < connections; i++) {
+            executor.execute(() -> {
+                try (Socket socket = new Socket("127.0.0.1", port)) {
+                    socket.setTcpNoDelay(true);
+                    final OutputStream out = socket.getOutputStream();
+                    final InputStream in = new BufferedInputStream(socket.getInputStream());
+                    long count = 0;
+                    while (System.currentTimeMillis() < deadline) {
+                        out.write(batch);
+                        out.flush();
+                        for (int j = 0; j < pipeline; j++) {
+                            readResponse(in);
+                        }
+                        count += pipeline;
+                    }
+                    total.addAndGet(count);
+                } catch (IOException e) {
+                    Console.error(e, "Benchmark connection error");
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        ThreadUtil.sleep(200);
+        return total.get();
+    }
+
+    /**
+     * 读取一个带Content-Length的响应并丢弃
+     */
+    private static void readResponse( InputStream in ) throws IOException {
+        int contentLength = 0;
+        final StringBuilder line = new StringBuilder();
+        while (true) {
+            final int b = in.read();
+            if (-1 == b) {
+                throw new IOException("Connection closed");
+            }
+            if ('\n' != b) {
+                if ('\r' != b) {
+                    line.append((char) b);
+                }
+                continue;
+            }
+            if (0 == line.length()) {
+                break;
+            }
+            final String header = line.toString();
+            if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(header.substring(15).trim());
+            }
+            line.setLength(0);
+        }
+        for (int i = 0; i < contentLength; i++) {
+            if (-1 == in.read()) {
+                throw new IOException("Connection closed");
+            }
+        }
+    }
+}
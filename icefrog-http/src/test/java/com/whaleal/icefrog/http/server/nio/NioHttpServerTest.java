@@ -0,0 +1,199 @@
+package com.whaleal.icefrog.http.server.nio;
+
+import com.whaleal.icefrog.core.io.FastByteArrayOutputStream;
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.http.ContentType;
+import com.whaleal.icefrog.http.Header;
+import com.whaleal.icefrog.http.HttpException;
+import com.whaleal.icefrog.http.HttpRequest;
+import com.whaleal.icefrog.http.HttpResponse;
+import com.whaleal.icefrog.http.HttpStatus;
+import com.whaleal.icefrog.http.HttpUtil;
+import com.whaleal.icefrog.http.server.SimpleServer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于NIO的Http服务器单元测试，通过{@link SimpleServer}使用，Action和过滤器与JDK实现相同
+ *
+ * @author wh
+ */
+public class NioHttpServerTest {
+
+    private static SimpleServer server;
+    private static int port;
+    private static String baseUrl;
+    private static final AtomicInteger filterCount = new AtomicInteger();
+
+    @BeforeClass
+    public static void init() {
+        server = HttpUtil.createNioServer(0)
+                .addFilter(( req, res, chain ) -> {
+                    filterCount.incrementAndGet();
+                    res.addHeader("X-Filter", "nio");
+                    chain.doFilter(req.getHttpExchange());
+                })
+                .addAction("/hello", ( req, res ) -> res.write("hello " + StrUtil.nullToEmpty(req.getParam("name"))))
+                .addAction("/echo", ( req, res ) ->
+                        res.write(req.getMethod() + ":" + req.getBody(), ContentType.TEXT_PLAIN.toString()))
+                .addAction("/chunked", ( req, res ) -> {
+                    res.send(HttpStatus.HTTP_OK);
+                    try (PrintWriter writer = res.getWriter()) {
+                        for (int i = 0; i < 1000; i++) {
+                            writer.print(i % 10);
+                        }
+                    }
+                })
+                .addAction("/error", ( req, res ) -> {
+                    throw new IllegalStateException("expected");
+                });
+        server.start();
+        port = server.getAddress().getPort();
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @AfterClass
+    public static void destroy() {
+        server.getRawServer().stop(0);
+    }
+
+    @Test
+    public void getAndPostTest() {
+        final HttpResponse response = HttpRequest.get(baseUrl + "/hello?name=icefrog").execute();
+        Assert.assertEquals(HttpStatus.HTTP_OK, response.getStatus());
+        Assert.assertEquals("hello icefrog", response.body());
+        Assert.assertEquals("nio", response.header("X-Filter"));
+        Assert.assertTrue(filterCount.get() > 0);
+
+        Assert.assertEquals("POST:{\"a\":1}", HttpRequest.post(baseUrl + "/echo").body("{\"a\":1}").execute().body());
+    }
+
+    @Test
+    public void chunkedResponseTest() {
+        final HttpResponse response = HttpRequest.get(baseUrl + "/chunked").execute();
+        Assert.assertEquals("chunked", response.header(Header.TRANSFER_ENCODING));
+        Assert.assertEquals(1000, response.body().length());
+    }
+
+    @Test
+    public void notFoundAndErrorTest() {
+        Assert.assertEquals(HttpStatus.HTTP_NOT_FOUND, HttpRequest.get(baseUrl + "/none").execute().getStatus());
+        Assert.assertEquals(HttpStatus.HTTP_INTERNAL_ERROR, HttpRequest.get(baseUrl + "/error").execute().getStatus());
+    }
+
+    @Test
+    public void pipeliningTest() throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            // 两个请求一次发出，第二个请求带chunked请求体
+            final String requests = "GET /hello?name=a HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    + "POST /echo HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n"
+                    + "3\r\nabc\r\n2;ext=1\r\nde\r\n0\r\n\r\n";
+            final OutputStream out = socket.getOutputStream();
+            out.write(requests.getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+            out.flush();
+
+            final InputStream in = socket.getInputStream();
+            Assert.assertEquals("hello a", readResponseBody(in));
+            Assert.assertEquals("POST:abcde", readResponseBody(in));
+
+            // 连接仍可使用
+            out.write("GET /hello?name=b HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+            out.flush();
+            Assert.assertEquals("hello b", readResponseBody(in));
+            Assert.assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void slowBodyTest() throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            final OutputStream out = socket.getOutputStream();
+            final InputStream in = socket.getInputStream();
+            // 请求体分段到达，工作线程每次等待后注销，同一连接可以再次等待
+            for (int i = 0; i < 3; i++) {
+                out.write("POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 6\r\n\r\nabc".getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+                out.flush();
+                ThreadUtil.sleep(100);
+                out.write("def".getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+                out.flush();
+                Assert.assertEquals("POST:abcdef", readResponseBody(in));
+            }
+        }
+    }
+
+    @Test
+    public void badRequestTest() throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.getOutputStream().write("BAD\r\n\r\n".getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+            final String response = readToEnd(socket.getInputStream());
+            Assert.assertTrue(response.startsWith("HTTP/1.1 400 "));
+        }
+
+        try (Socket socket = new Socket("localhost", port)) {
+            final String longHeader = "X-Long: " + StrUtil.repeat('a', NioHttpServer.DEFAULT_MAX_REQUEST_HEAD_SIZE) + "\r\n";
+            socket.getOutputStream().write(("GET /hello HTTP/1.1\r\n" + longHeader + "\r\n").getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+            final String response = readToEnd(socket.getInputStream());
+            Assert.assertTrue(response.startsWith("HTTP/1.1 431 "));
+        }
+    }
+
+    @Test
+    public void virtualThreadTest() {
+        if (NioHttpServer.isVirtualThreadSupported()) {
+            NioHttpServer.newVirtualThreadExecutor().shutdown();
+            return;
+        }
+        try {
+            NioHttpServer.newVirtualThreadExecutor();
+            Assert.fail("Virtual threads should not be available before Java 21");
+        } catch (HttpException e) {
+            Assert.assertTrue(e.getMessage().contains("Java 21"));
+        }
+    }
+
+    /**
+     * 读取直到服务端关闭连接，不依赖available()
+     */
+    private static String readToEnd( InputStream in ) throws IOException {
+        final FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while (-1 != (read = in.read(buffer))) {
+            out.write(buffer, 0, read);
+        }
+        return out.toString(CharsetUtil.CHARSET_ISO_8859_1);
+    }
+
+    /**
+     * 读取一个带Content-Length的响应，返回响应体
+     */
+    private static String readResponseBody( InputStream in ) throws IOException {
+        final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (false == head.toString(CharsetUtil.ISO_8859_1).endsWith("\r\n\r\n")) {
+            final int b = in.read();
+            Assert.assertTrue("Unexpected end of stream", -1 != b);
+            head.write(b);
+        }
+        final String headStr = head.toString(CharsetUtil.ISO_8859_1);
+        Assert.assertTrue(headStr, headStr.startsWith("HTTP/1.1 200 "));
+        final String length = StrUtil.subBetween(headStr.toLowerCase(), "content-length: ", "\r\n");
+        final byte[] body = new byte[Integer.parseInt(length)];
+        int read = 0;
+        while (read < body.length) {
+            read += in.read(body, read, body.length - read);
+        }
+        return new String(body, CharsetUtil.CHARSET_UTF_8);
+    }
+}
@@ -0,0 +1,175 @@
+package com.whaleal.icefrog.http.transport;
+
+import com.whaleal.icefrog.core.thread.ThreadUtil;
+import com.whaleal.icefrog.core.util.CharsetUtil;
+import com.whaleal.icefrog.core.util.StrUtil;
+import com.whaleal.icefrog.http.HttpException;
+import com.whaleal.icefrog.http.HttpGlobalConfig;
+import com.whaleal.icefrog.http.HttpRequest;
+import com.whaleal.icefrog.http.server.SimpleServer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接池传输层单元测试，使用本地{@link SimpleServer}
+ *
+ * @author wh
+ */
+public class PooledHttpTransportTest {
+
+    private static SimpleServer server;
+    private static String baseUrl;
+
+    @BeforeClass
+    public static void init() {
+        server = new SimpleServer(0)
+                .addAction("/echo", ( req, res ) -> res.write(req.getMethod() + ":" + req.getBody()))
+                .addAction("/slow", ( req, res ) -> {
+                    ThreadUtil.sleep(100);
+                    res.write("ok");
+                });
+        server.setExecutor(ThreadUtil.newExecutor(8));
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void destroy() {
+        HttpGlobalConfig.setTransport(null);
+        server.getRawServer().stop(0);
+    }
+
+    @Test
+    public void keepAliveTest() {
+        try (PooledHttpTransport transport = new PooledHttpTransport()) {
+            HttpGlobalConfig.setTransport(transport);
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals("GET:", HttpRequest.get(baseUrl + "/echo").execute().body());
+            }
+            Assert.assertEquals("POST:a=1", HttpRequest.post(baseUrl + "/echo").body("a=1").execute().body());
+            // 顺序请求复用同一个连接
+            Assert.assertEquals(1, transport.getConnectionCount());
+            Assert.assertEquals(1, transport.getIdleCount());
+        } finally {
+            HttpGlobalConfig.setTransport(null);
+        }
+    }
+
+    @Test
+    public void maxConnectionsPerHostTest() throws Exception {
+        final ExecutorService executor = ThreadUtil.newExecutor(8);
+        try (PooledHttpTransport transport = new PooledHttpTransport().setMaxConnectionsPerHost(2)) {
+            HttpGlobalConfig.setTransport(transport);
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> HttpRequest.get(baseUrl + "/slow").execute().body()));
+            }
+            for (Future<String> future : futures) {
+                Assert.assertEquals("ok", future.get());
+            }
+            Assert.assertEquals(2, transport.getConnectionCount());
+        } finally {
+            HttpGlobalConfig.setTransport(null);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void staleConnectionRetryTest() throws Exception {
+        // 每个连接只响应第一个请求，第二个请求读完后直接关闭连接，模拟服务端已关闭的空闲连接
+        final AtomicInteger received = new AtomicInteger();
+        try (ServerSocket serverSocket = new ServerSocket(0);
+             PooledHttpTransport transport = new PooledHttpTransport()) {
+            final Thread acceptor = ThreadUtil.newThread(() -> {
+                while (false == serverSocket.isClosed()) {
+                    try {
+                        final Socket socket = serverSocket.accept();
+                        ThreadUtil.newThread(() -> respondOnce(socket, received), "stale-server-conn", true).start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            }, "stale-server", true);
+            acceptor.start();
+            HttpGlobalConfig.setTransport(transport);
+            final String url = "http://localhost:" + serverSocket.getLocalPort() + "/";
+
+            // 幂等请求换新连接重发
+            Assert.assertEquals("ok", HttpRequest.get(url).execute().body());
+            Assert.assertEquals("ok", HttpRequest.get(url).execute().body());
+            Assert.assertEquals(3, received.get());
+
+            // 非幂等请求已完整发出，不重发
+            try {
+                HttpRequest.post(url).body("a=1").execute().body();
+                Assert.fail("POST on a stale connection should not be resent");
+            } catch (HttpException e) {
+                // expected
+            }
+            Assert.assertEquals(4, received.get());
+        } finally {
+            HttpGlobalConfig.setTransport(null);
+        }
+    }
+
+    @Test
+    public void evictIdleTest() {
+        try (PooledHttpTransport transport = new PooledHttpTransport().setKeepAliveMillis(50)) {
+            HttpGlobalConfig.setTransport(transport);
+            HttpRequest.get(baseUrl + "/echo").execute().body();
+            Assert.assertEquals(1, transport.getIdleCount());
+            ThreadUtil.sleep(100);
+            transport.evictIdle();
+            Assert.assertEquals(0, transport.getIdleCount());
+            Assert.assertEquals(0, transport.getConnectionCount());
+        } finally {
+            HttpGlobalConfig.setTransport(null);
+        }
+    }
+
+    /**
+     * 读取请求，第一个请求返回ok，第二个请求不响应直接关闭连接
+     */
+    private static void respondOnce( Socket socket, AtomicInteger received ) {
+        try (Socket s = socket) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), CharsetUtil.CHARSET_ISO_8859_1));
+            final OutputStream out = s.getOutputStream();
+            for (int i = 0; i < 2; i++) {
+                int contentLength = 0;
+                String line = reader.readLine();
+                if (null == line) {
+                    return;
+                }
+                while (StrUtil.isNotEmpty(line = reader.readLine())) {
+                    if (StrUtil.startWithIgnoreCase(line, "Content-Length:")) {
+                        contentLength = Integer.parseInt(line.substring("Content-Length:".length()).trim());
+                    }
+                }
+                for (int j = 0; j < contentLength; j++) {
+                    reader.read();
+                }
+                received.incrementAndGet();
+                if (0 == i) {
+                    out.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok".getBytes(CharsetUtil.CHARSET_ISO_8859_1));
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
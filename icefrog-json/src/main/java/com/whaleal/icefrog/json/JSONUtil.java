@@ -18,6 +18,7 @@ import com.whaleal.icefrog.json.serialize.JSONSerializer;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Type;
@@ -29,6 +30,7 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * JSON工具类
@@ -291,6 +293,54 @@ public class JSONUtil {
 	public static com.whaleal.icefrog.json.JSONArray readJSONArray( File file, Charset charset) throws IORuntimeException {
 		return parseArray(FileReader.create(file, charset).readString());
 	}
+
+	/**
+	 * 从{@link Reader}中逐个读取JSON数组的元素，每解析出一个元素即交给处理函数，不在内存中保留整个数组<br>
+	 * 适用于读取大型JSON数组，例如逐条处理HTTP响应：
+	 * <pre>
+	 * JSONUtil.readJSONArray(response.bodyReader(), element -&gt; ...);
+	 * </pre>
+	 *
+	 * @param reader   JSON数组的Reader，读取完毕后不关闭
+	 * @param consumer 元素处理函数，元素为JSONObject、JSONArray、JSONNull或字符串、数字等值
+	 * @return 元素个数
+	 * @throws JSONException JSON格式错误或读取异常
+	 * @since 1.1.8
+	 */
+	public static long readJSONArray(Reader reader, Consumer<Object> consumer) throws JSONException {
+		final JSONTokener x = new JSONTokener(reader, JSONConfig.create());
+		if (x.nextClean() != '[') {
+			throw x.syntaxError("A JSONArray text must start with '['");
+		}
+		if (x.nextClean() == ']') {
+			return 0;
+		}
+		x.back();
+		long count = 0;
+		for (; ; ) {
+			// 与JSONArray解析规则一致，连续的逗号表示null元素
+			if (x.nextClean() == ',') {
+				x.back();
+				consumer.accept(JSONNull.NULL);
+			} else {
+				x.back();
+				consumer.accept(x.nextValue());
+			}
+			count++;
+			switch (x.nextClean()) {
+				case ',':
+					if (x.nextClean() == ']') {
+						return count;
+					}
+					x.back();
+					break;
+				case ']':
+					return count;
+				default:
+					throw x.syntaxError("Expected a ',' or ']'");
+			}
+		}
+	}
 	// -------------------------------------------------------------------- Read end
 
 	// -------------------------------------------------------------------- toString start
@@ -11,6 +11,7 @@ import com.whaleal.icefrog.json.test.bean.UserC;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.StringReader;
 import java.sql.SQLException;
 import java.util.*;
 
@@ -221,4 +222,16 @@ public class JSONUtilTest {
         String str = "{\"test\":100000054128897953e4}";
         Assert.assertEquals("{\"test\":1000000541288979530000}", JSONUtil.parseObj(str).toString());
     }
+
+    @Test
+    public void readJSONArrayFromReaderTest() {
+        final List<Object> elements = new ArrayList<>();
+        final long count = JSONUtil.readJSONArray(new StringReader("[{\"a\":1}, [2, 3], \"x\", 4,,]"), elements::add);
+        Assert.assertEquals(5, count);
+        Assert.assertEquals(1, ((JSONObject) elements.get(0)).getInt("a").intValue());
+        Assert.assertEquals(2, ((JSONArray) elements.get(1)).size());
+        Assert.assertEquals("x", elements.get(2));
+        Assert.assertEquals(4, elements.get(3));
+        Assert.assertEquals(JSONNull.NULL, elements.get(4));
+    }
 }
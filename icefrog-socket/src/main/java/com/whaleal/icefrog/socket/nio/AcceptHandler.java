@@ -22,6 +22,10 @@ public class AcceptHandler implements CompletionHandler<ServerSocketChannel, Nio
         try {
             // 获取连接到此服务器的客户端通道
             socketChannel = serverSocketChannel.accept();
+            if (null == socketChannel) {
+                // 非阻塞模式下连接可能已被客户端放弃
+                return;
+            }
             StaticLog.debug("Client [{}] accepted.", socketChannel.getRemoteAddress());
         } catch (IOException e) {
             throw new IORuntimeException(e);
@@ -8,6 +8,7 @@ import com.whaleal.icefrog.log.StaticLog;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
@@ -38,6 +39,16 @@ public class NioServer implements Closeable {
         init(new InetSocketAddress(port));
     }
 
+    /**
+     * 构造
+     *
+     * @param address 地址和端口，端口为0表示随机可用端口
+     * @since 1.1.8
+     */
+    public NioServer( InetSocketAddress address ) {
+        init(address);
+    }
+
     /**
      * 初始化
      *
@@ -86,6 +97,20 @@ public class NioServer implements Closeable {
         return this.selector;
     }
 
+    /**
+     * 获取实际监听的地址，绑定端口为0时可获取系统分配的端口
+     *
+     * @return 监听地址
+     * @since 1.1.8
+     */
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) this.serverSocketChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
     /**
      * 启动NIO服务端，即开始监听
      *
@@ -112,13 +137,22 @@ public class NioServer implements Closeable {
      * @throws IOException IO异常
      */
     private void doListen() throws IOException {
-        while (this.selector.isOpen() && 0 != this.selector.select()) {
-            // 返回已选择键的集合
-            final Iterator<SelectionKey> keyIter = selector.selectedKeys().iterator();
-            while (keyIter.hasNext()) {
-                handle(keyIter.next());
-                keyIter.remove();
+        // 其它线程可能随时关闭选择器，选择和遍历键时均可能抛出ClosedSelectorException
+        try {
+            while (this.selector.isOpen()) {
+                // 其它线程调用wakeup时返回0，继续监听
+                if (0 == this.selector.select()) {
+                    continue;
+                }
+                // 返回已选择键的集合
+                final Iterator<SelectionKey> keyIter = selector.selectedKeys().iterator();
+                while (keyIter.hasNext()) {
+                    handle(keyIter.next());
+                    keyIter.remove();
+                }
             }
+        } catch (ClosedSelectorException e) {
+            // 服务端已关闭
         }
     }
 
@@ -129,12 +163,12 @@ public class NioServer implements Closeable {
      */
     private void handle( SelectionKey key ) {
         // 有客户端接入此服务端
-        if (key.isAcceptable()) {
+        if (key.isValid() && key.isAcceptable()) {
             ACCEPT_HANDLER.completed((ServerSocketChannel) key.channel(), this);
         }
 
-        // 读事件就绪
-        if (key.isReadable()) {
+        // 读事件就绪，处理器可能已关闭通道，此时key已失效
+        if (key.isValid() && key.isReadable()) {
             final SocketChannel socketChannel = (SocketChannel) key.channel();
             try {
                 handler.handle(socketChannel);